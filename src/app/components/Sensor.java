@@ -6,23 +6,52 @@ import app.connectors.ConnectorSensorToClient;
 import app.connectors.ConnectorSensorToSensor;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import app.config.Config;
+import app.factory.QueryResultFactory;
 import app.gui.GraphicalNetworkInterface;
 import app.models.Bcm4javaEndPointDescriptor;
+import app.models.CapabilitySummary;
+import app.models.CompletionReport;
+import app.models.CompletionTracker;
+import app.models.DeliveryStats;
 import app.models.Descriptor;
 import app.models.ExecutionState;
+import app.models.LatencyEstimator;
+import app.models.PlanCache;
 import app.models.ProcessingNode;
+import app.models.QueryPayload;
 import app.models.QueryResult;
+import app.models.Request;
 import app.models.RequestContinuation;
+import app.models.RequestId;
+import app.models.RelaySelection;
+import app.models.RequestIdSet;
 import app.models.SensorConfig;
+import app.models.ValueRange;
+import app.models.ZoneMap;
 import app.ports.URINodeInboundPortForClient;
 import app.ports.URINodeInboundPortForNode;
 import app.ports.URINodeOutBoundPortToNode;
@@ -30,6 +59,7 @@ import app.ports.URINodeOutBoundPortToRegister;
 import app.ports.URINodeOutboundPortToClient;
 import ast.query.BQuery;
 import ast.query.GQuery;
+import ast.query.IQuery;
 import fr.sorbonne_u.components.AbstractComponent;
 import fr.sorbonne_u.components.annotations.OfferedInterfaces;
 import fr.sorbonne_u.components.annotations.RequiredInterfaces;
@@ -39,6 +69,7 @@ import fr.sorbonne_u.components.helpers.TracerI;
 import fr.sorbonne_u.cps.sensor_network.interfaces.BCM4JavaEndPointDescriptorI;
 import fr.sorbonne_u.cps.sensor_network.interfaces.Direction;
 import fr.sorbonne_u.cps.sensor_network.interfaces.NodeInfoI;
+import fr.sorbonne_u.cps.sensor_network.interfaces.PositionI;
 import fr.sorbonne_u.cps.sensor_network.interfaces.QueryResultI;
 import fr.sorbonne_u.cps.sensor_network.interfaces.RequestContinuationI;
 import fr.sorbonne_u.cps.sensor_network.interfaces.RequestI;
@@ -48,6 +79,7 @@ import fr.sorbonne_u.cps.sensor_network.network.interfaces.SensorNodeP2PCI;
 import fr.sorbonne_u.cps.sensor_network.network.interfaces.SensorNodeP2PImplI;
 import fr.sorbonne_u.cps.sensor_network.nodes.interfaces.RequestingCI;
 import fr.sorbonne_u.cps.sensor_network.registry.interfaces.RegistrationCI;
+import fr.sorbonne_u.cps.sensor_network.requests.interfaces.QueryI;
 import fr.sorbonne_u.utils.aclocks.AcceleratedClock;
 import fr.sorbonne_u.utils.aclocks.ClocksServer;
 import fr.sorbonne_u.utils.aclocks.ClocksServerCI;
@@ -103,8 +135,26 @@ public class Sensor extends AbstractComponent implements SensorNodeP2PImplI {
 	private Set<NodeInfoI> neighbors = new HashSet<>();
 	private Set<SensorDataI> sensors = new HashSet<>();
 	private ConcurrentMap<String, NodeInfoI> nodeOutboundPorts = new ConcurrentHashMap<>();
-	private Set<String> processedRequests = new HashSet<>();
-	private NodeInfoI descriptor;
+	private RequestIdSet processedRequests = new RequestIdSet();
+	private final PlanCache planCache = new PlanCache(Config.PLAN_CACHE_SIZE);
+	private final DeliveryStats deliveryStats = new DeliveryStats();
+	private final AtomicLong hedgedQueries = new AtomicLong();
+	private volatile NodeInfoI descriptor;
+	private final Object capabilitiesLock = new Object();
+	private final Map<PositionI, List<RequestContinuation>> pendingBatches = new HashMap<>(); // by base, guarded by itself
+	private final ConcurrentMap<QueryPayload, CompletableFuture<QueryResultI>> syncFlights = new ConcurrentHashMap<>();
+	private final Map<QueryPayload, RequestContinuation> asyncFlights = new HashMap<>(); // guarded by itself
+	private final RequestIdSet cancelledRequests = new RequestIdSet();
+	// forwarding directions of the asynchronous requests, by request, guarded by itself
+	private final Map<RequestId, Set<Direction>> activePaths = new LinkedHashMap<RequestId, Set<Direction>>() {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<RequestId, Set<Direction>> eldest) {
+			return size() > Config.ACTIVE_PATHS_SIZE;
+		}
+	};
+	private volatile AcceleratedClock clock; // null until the node executes
 
 	private String TEST_CLOCK_URI;
 	private ClocksServerOutboundPort outboundPortClock;
@@ -147,12 +197,12 @@ public class Sensor extends AbstractComponent implements SensorNodeP2PImplI {
 		BCM4JavaEndPointDescriptorI urinodeSensor = new Bcm4javaEndPointDescriptor(inboundPortSensor.getPortURI());
 		BCM4JavaEndPointDescriptorI urinodeclient = new Bcm4javaEndPointDescriptor(inboundPortClient.getPortURI());
 		this.descriptor = new Descriptor("n" + config.getName(), urinodeclient, config.getPosition(), config.getRange(),
-				urinodeSensor);
+				urinodeSensor, new CapabilitySummary(CapabilitySummary.maskOf(this.sensors)));
 
 		this.inboundPortRegister = config.getInboundPortRegister();
 		initializeOutboundPorts();
 
-		this.processedRequests = new HashSet<>();
+		this.processedRequests = new RequestIdSet();
 		if (gui != null) {
 			gui.addGraphicalNode("n" + config.getName(), config.getPosition().getx(), config.getPosition().gety());
 		}
@@ -221,6 +271,7 @@ public class Sensor extends AbstractComponent implements SensorNodeP2PImplI {
 		this.logMessage("executing node component.");
 
 		AcceleratedClock ac = outboundPortClock.getClock(TEST_CLOCK_URI);
+		this.clock = ac;
 		ac.waitUntilStart();
 		Instant i0 = ac.getStartInstant();
 		Instant i1 = i0.plusSeconds(60);
@@ -244,6 +295,12 @@ public class Sensor extends AbstractComponent implements SensorNodeP2PImplI {
 	    // When the node leaves the sensor network, it must first disconnect from its neighbors and then
 	    // unregister itself from the registry by calling the unregister method
 	    this.logMessage("stopping node component.");
+	    this.logMessage("flood deliveries: " + this.deliveryStats);
+	    this.logMessage("client admission: " + this.inboundPortClient.getPending());
+	    this.logMessage("neighbour admission: " + this.inboundPortSensor.getPending());
+	    this.logMessage("neighbour latencies: NE " + this.outboundPortNE.getLatency() + ", NW "
+	    		+ this.outboundPortNW.getLatency() + ", SE " + this.outboundPortSE.getLatency() + ", SW "
+	    		+ this.outboundPortSW.getLatency() + ", hedged " + this.hedgedQueries.get());
 
 	    // Check if the port is connected before attempting to disconnect it
 	    if (this.outboundPortNE.connected()) {
@@ -399,7 +456,10 @@ public class Sensor extends AbstractComponent implements SensorNodeP2PImplI {
 	/**
 	 * Processes a request by wrapping it into a {@link RequestContinuationI}
 	 * instance and executing it. This method prepares the node's state and forwards
-	 * the request for detailed processing.
+	 * the request for detailed processing. A request identical to one already
+	 * executing here waits for it and receives a copy of its result instead, until
+	 * its deadline: if the identical request has not returned by then, or
+	 * failed, this one runs on its own.
 	 * 
 	 * @param request The {@link RequestI} instance containing the initial request
 	 *                details.
@@ -411,28 +471,208 @@ public class Sensor extends AbstractComponent implements SensorNodeP2PImplI {
 		if (gui != null) {
 			gui.resetNodesBlink();
 		}
-		QueryResult queryR = new QueryResult(new ArrayList<>(), new ArrayList<>());
+		if (isLate(request)) {
+			this.deliveryStats.recordLate();
+			return QueryResultFactory.createEmpty();
+		}
+		QueryResult queryR = QueryResultFactory.createEmpty();
 		ExecutionState executionState = new ExecutionState(null, queryR);
-		RequestContinuationI clientRequest = new RequestContinuation(request, executionState, request.requestURI());
-		evaluateQuery(clientRequest);
-		if (executionState.isContinuationSet()) {
-			handleQueryPropagation(clientRequest);
+		RequestContinuation clientRequest = RequestContinuation.from(request, executionState);
+		if (!Config.SINGLE_FLIGHT) {
+			evaluateQuery(clientRequest);
+			if (executionState.isContinuationSet()) {
+				handleQueryPropagation(clientRequest);
+			}
+			return executionState.getCurrentResult();
 		}
-		return queryR;
-
+		CompletableFuture<QueryResultI> flight = new CompletableFuture<>();
+		CompletableFuture<QueryResultI> running = this.syncFlights.putIfAbsent(clientRequest.getPayload(), flight);
+		if (running != null) {
+			this.logMessage("Request " + request.requestURI() + " shares the execution of an identical request");
+			try {
+				return QueryResultFactory.copyOf(running.get(remainingWait(request), TimeUnit.MILLISECONDS));
+			} catch (TimeoutException | ExecutionException e) {
+				// the identical request is stuck or failed: this one runs on its own
+				this.logMessage("Request " + request.requestURI() + " runs on its own");
+				evaluateQuery(clientRequest);
+				if (executionState.isContinuationSet()) {
+					handleQueryPropagation(clientRequest);
+				}
+				return executionState.getCurrentResult();
+			}
+		}
+		try {
+			evaluateQuery(clientRequest);
+			if (executionState.isContinuationSet()) {
+				handleQueryPropagation(clientRequest);
+			}
+			flight.complete(executionState.getCurrentResult());
+		} catch (Exception e) {
+			flight.completeExceptionally(e);
+			throw e;
+		} finally {
+			this.syncFlights.remove(clientRequest.getPayload(), flight);
+		}
+		return executionState.getCurrentResult();
 	}
 
+	/**
+	 * Processes an asynchronous request issued by a client. Flooding requests
+	 * whose base is absolute may wait for a short window at this entry node, to
+	 * be flooded in a batch with the requests of the same base arriving
+	 * meanwhile. A request identical to one which has not left this node yet is
+	 * attached to it instead of being executed.
+	 *
+	 * @param request The {@link RequestI} instance issued by the client.
+	 * @throws Exception If any errors occur during the processing of the request.
+	 */
 	public void executeAsync(RequestI request) throws Exception {
-		QueryResult queryR = new QueryResult(new ArrayList<>(), new ArrayList<>());
+		if (request instanceof Request && ((Request) request).isCancel()) {
+			cancel(request);
+			return;
+		}
+		if (isLate(request)) {
+			this.deliveryStats.recordLate();
+			return;
+		}
+		QueryResult queryR = QueryResultFactory.createEmpty();
 		ExecutionState executionState = new ExecutionState(null, queryR);
-		RequestContinuationI clientRequest = new RequestContinuation(request, executionState, request.requestURI());
+		if (Config.COMPLETION_TRACKING) {
+			executionState.setCredit(CompletionTracker.FULL_CREDIT);
+		}
+		RequestContinuation clientRequest = RequestContinuation.from(request, executionState);
+		if (attachToFlight(clientRequest)) {
+			return;
+		}
 		evaluateQuery(clientRequest);
+		if (executionState.isContinuationSet() && isBatchable(clientRequest)) {
+			enqueueBatch(clientRequest);
+			return;
+		}
+		leaveFlight(clientRequest);
 		if (executionState.isContinuationSet()) {
 			handleQueryPropagation(clientRequest);
 		} else {
 			this.sendToClient(clientRequest, executionState);
 		}
+	}
+
+	/**
+	 * Attaches an asynchronous request to an identical request which has not left
+	 * this node yet, or opens the flight of the request if there is none.
+	 *
+	 * @param request The continuation of the request.
+	 * @return true if the request was attached and must not be executed.
+	 */
+	private boolean attachToFlight(RequestContinuation request) {
+		if (!Config.SINGLE_FLIGHT) {
+			return false;
+		}
+		synchronized (this.asyncFlights) {
+			RequestContinuation running = this.asyncFlights.putIfAbsent(request.getPayload(), request);
+			if (running == null) {
+				return false;
+			}
+			running.addAlias(request);
+		}
+		this.logMessage("Request " + request.requestURI() + " shares the execution of an identical request");
+		return true;
+	}
+
+	/**
+	 * Closes the flight of an asynchronous request about to leave this node, so
+	 * that its aliases no longer change.
+	 *
+	 * @param request The continuation of the request.
+	 */
+	private void leaveFlight(RequestContinuation request) {
+		if (Config.SINGLE_FLIGHT) {
+			synchronized (this.asyncFlights) {
+				this.asyncFlights.remove(request.getPayload(), request);
+			}
+		}
+	}
+
+	/**
+	 * Tells whether a request issued at this node may be flooded in a batch:
+	 * batching is enabled and the request floods an area whose base is absolute.
+	 *
+	 * @param request The continuation of the request, evaluated at this node.
+	 * @return true if the request may wait for a batch.
+	 */
+	private boolean isBatchable(RequestContinuation request) {
+		if (Config.BATCH_WINDOW <= 0 || !((ExecutionState) request.getExecutionState()).isFlooding()) {
+			return false;
+		}
+		QueryI query = queryOf(request);
+		return query instanceof IQuery && ((IQuery) query).getZone() != null;
+	}
 
+	/**
+	 * Adds a request to the batch of its base, opening the batch and scheduling
+	 * its flood if the request is the first one.
+	 *
+	 * @param request The continuation of the request, evaluated at this node.
+	 */
+	private void enqueueBatch(RequestContinuation request) {
+		PositionI base = ((ExecutionState) request.getExecutionState()).getPosition();
+		synchronized (this.pendingBatches) {
+			List<RequestContinuation> pending = this.pendingBatches.get(base);
+			if (pending != null) {
+				pending.add(request);
+				return;
+			}
+			pending = new ArrayList<>();
+			pending.add(request);
+			this.pendingBatches.put(base, pending);
+		}
+		this.scheduleTask(o -> {
+			try {
+				floodBatch(base);
+			} catch (Exception e) {
+				this.traceMessage("Failed to flood the batch of " + base);
+			}
+		}, Config.BATCH_WINDOW, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Floods the requests of a base received during the batching window. A single
+	 * request is flooded on its own; several ones travel in one continuation
+	 * whose area is the union of theirs.
+	 *
+	 * @param base The base of the requests.
+	 * @throws Exception if there is an issue during the flooding propagation.
+	 */
+	private void floodBatch(PositionI base) throws Exception {
+		List<RequestContinuation> members;
+		synchronized (this.pendingBatches) {
+			members = this.pendingBatches.remove(base);
+		}
+		for (RequestContinuation member : members) {
+			leaveFlight(member);
+		}
+		if (members.size() == 1) {
+			handleQueryPropagation(members.get(0));
+			return;
+		}
+		double maxDistance = 0;
+		for (RequestContinuation member : members) {
+			maxDistance = Math.max(maxDistance, ((ExecutionState) member.getExecutionState()).getMaxDistance());
+		}
+		ExecutionState footprint = new ExecutionState(null, QueryResultFactory.createEmpty());
+		footprint.setContinuation(true);
+		footprint.setMaxDistance(maxDistance);
+		footprint.setPosition(base);
+		footprint.setFlooding();
+		for (RequestContinuation member : members) {
+			// members are only reported by the nodes evaluating them, which cannot
+			// account for the credit of the whole batch
+			((ExecutionState) member.getExecutionState()).setCredit(CompletionTracker.UNTRACKED);
+		}
+		RequestContinuation batch = RequestContinuation.batch(members, footprint);
+		this.processedRequests.add(RequestId.of(batch));
+		this.logMessage("Flooding " + members.size() + " requests of base " + base + " as one batch");
+		handleQueryPropagation(batch);
 	}
 
 	/**
@@ -454,7 +694,13 @@ public class Sensor extends AbstractComponent implements SensorNodeP2PImplI {
 	 */
 	@Override
 	public QueryResultI execute(RequestContinuationI requestContinuation) throws Exception {
-		if (this.processedRequests.contains(requestContinuation.requestURI())) {
+		if (isLate(requestContinuation)) {
+			this.deliveryStats.recordLate();
+			return QueryResultFactory.createEmpty();
+		}
+		boolean redundant = this.processedRequests.contains(RequestId.of(requestContinuation));
+		this.deliveryStats.recordDelivery(redundant);
+		if (redundant) {
 			return new QueryResult(new ArrayList<>(), new ArrayList<>());
 		}
 		return processQuery(requestContinuation);
@@ -477,16 +723,182 @@ public class Sensor extends AbstractComponent implements SensorNodeP2PImplI {
 	 */
 	@Override
 	public void executeAsync(RequestContinuationI requestContinuation) throws Exception {
-		if (!(this.processedRequests.contains(requestContinuation.requestURI()))) {
+		if (requestContinuation instanceof Request && ((Request) requestContinuation).isCancel()) {
+			cancel(requestContinuation);
+			return;
+		}
+		if (isLate(requestContinuation)) {
+			this.deliveryStats.recordLate();
+			return;
+		}
+		boolean redundant = this.processedRequests.contains(RequestId.of(requestContinuation));
+		this.deliveryStats.recordDelivery(redundant);
+		if (redundant) {
+			acknowledge(requestContinuation);
+		} else {
 			processQuery(requestContinuation);
 		}
 	}
 
+	/**
+	 * Evaluates an asynchronous request issued by a client at this node only,
+	 * without forwarding it, because this node is overloaded. The client receives
+	 * the result of this node at once.
+	 *
+	 * @param request The {@link RequestI} instance issued by the client.
+	 * @throws Exception If any errors occur during the processing of the request.
+	 */
+	public void executeLocally(RequestI request) throws Exception {
+		ExecutionState executionState = new ExecutionState(null, QueryResultFactory.createEmpty());
+		if (Config.COMPLETION_TRACKING) {
+			executionState.setCredit(CompletionTracker.FULL_CREDIT);
+		}
+		RequestContinuation clientRequest = RequestContinuation.from(request, executionState);
+		evaluateQuery(clientRequest);
+		this.sendToClient(clientRequest, executionState);
+	}
+
+	/**
+	 * Evaluates a continuation at this node only, without forwarding it further,
+	 * because this node is overloaded. The client receives the results gathered
+	 * so far, with those of this node when it lies in the area of the query.
+	 *
+	 * @param requestContinuation The {@link RequestContinuationI} received from a
+	 *                            neighbour.
+	 * @throws Exception If any errors occur during the processing of the request.
+	 */
+	public void executeLocally(RequestContinuationI requestContinuation) throws Exception {
+		if (isLate(requestContinuation)) {
+			this.deliveryStats.recordLate();
+			return;
+		}
+		boolean redundant = this.processedRequests.contains(RequestId.of(requestContinuation));
+		this.deliveryStats.recordDelivery(redundant);
+		if (redundant) {
+			acknowledge(requestContinuation);
+			return;
+		}
+		ExecutionState executionState = (ExecutionState) requestContinuation.getExecutionState();
+		if (!executionState.isRouting() || executionState.withinMaximalDistance(this.descriptor.nodePosition())) {
+			if (requestContinuation instanceof RequestContinuation
+					&& ((RequestContinuation) requestContinuation).isBatch()) {
+				evaluateBatch((RequestContinuation) requestContinuation);
+			} else {
+				evaluateQuery(requestContinuation);
+			}
+		}
+		this.sendToClient(requestContinuation, executionState);
+	}
+
+	/**
+	 * Gives up an asynchronous request issued by a client, dropped by this
+	 * overloaded node before it started. Nothing was gathered for it yet.
+	 *
+	 * @param request The dropped request.
+	 */
+	public void shed(RequestI request) {
+		this.logMessage("Request " + request.requestURI() + " dropped, node overloaded");
+	}
+
+	/**
+	 * Gives up a continuation dropped by this overloaded node before it started.
+	 * The client receives the results gathered by the previous nodes, without
+	 * those of this node and beyond.
+	 *
+	 * @param requestContinuation The dropped continuation.
+	 * @throws Exception If the results cannot be sent.
+	 */
+	public void shed(RequestContinuationI requestContinuation) throws Exception {
+		this.logMessage("Continuation of " + requestContinuation.requestURI() + " dropped, node overloaded");
+		this.sendToClient(requestContinuation, (ExecutionState) requestContinuation.getExecutionState());
+	}
+
+	/**
+	 * Tells whether a request arrived too late to be worth any work: its client
+	 * cancelled it or its deadline has passed.
+	 *
+	 * @param request The request.
+	 * @return true if the request must be dropped.
+	 */
+	private boolean isLate(RequestI request) {
+		if (this.cancelledRequests.contains(RequestId.of(request))) {
+			return true;
+		}
+		AcceleratedClock c = this.clock;
+		return c != null && request instanceof Request && ((Request) request).isExpired(c.currentInstant());
+	}
+
+	/**
+	 * Returns the time a node may wait for the results of a synchronous request,
+	 * in real milliseconds: until its deadline if it has one, at most
+	 * {@link Config#SYNC_WAIT_TIMEOUT} otherwise.
+	 *
+	 * @param request The request.
+	 * @return the time left to the request, 0 if its deadline has passed.
+	 */
+	private long remainingWait(RequestI request) {
+		AcceleratedClock c = this.clock;
+		if (c != null && request instanceof Request && ((Request) request).getDeadline() != null) {
+			long delay = c.nanoDelayUntilInstant(((Request) request).getDeadline());
+			return Math.max(0L, TimeUnit.NANOSECONDS.toMillis(delay));
+		}
+		return Config.SYNC_WAIT_TIMEOUT;
+	}
+
+	/**
+	 * Cancels a request at this node: it is dropped when it arrives, waits here
+	 * or is about to be forwarded from here. The cancellation follows the paths
+	 * the request took from this node, and stops at the nodes it already reached.
+	 *
+	 * @param cancel The cancellation of the request.
+	 * @throws Exception if the cancellation cannot be forwarded.
+	 */
+	private void cancel(RequestI cancel) throws Exception {
+		RequestId id = RequestId.of(cancel);
+		if (!this.cancelledRequests.add(id)) {
+			return;
+		}
+		Set<Direction> paths;
+		synchronized (this.activePaths) {
+			paths = this.activePaths.remove(id);
+		}
+		if (paths == null) {
+			return;
+		}
+		this.logMessage("Request " + cancel.requestURI() + " cancelled, forwarding towards " + paths);
+		for (Direction d : paths) {
+			URINodeOutBoundPortToNode port = getPortByDirection(d);
+			if (port != null && port.connected()) {
+				try {
+					port.executeAsync(RequestContinuation.from(cancel,
+							new ExecutionState(null, QueryResultFactory.createEmpty())));
+				} catch (RejectedExecutionException e) {
+					this.logMessage("Neighbour towards " + d + " refused the cancellation of " + cancel.requestURI());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Records that an asynchronous request was forwarded in a direction, for its
+	 * cancellation to follow it.
+	 *
+	 * @param request   The request.
+	 * @param direction The direction it was forwarded in.
+	 */
+	private void recordPath(RequestI request, Direction direction) {
+		synchronized (this.activePaths) {
+			this.activePaths.computeIfAbsent(RequestId.of(request), k -> EnumSet.noneOf(Direction.class)).add(direction);
+		}
+	}
+
 	/**
 	 * Attempts to establish a connection with a specified neighbouring node. This
 	 * method updates the graphical interface to reflect the connection and adds the
 	 * neighbour to the known set. It determines the appropriate direction and
-	 * manages the connection based on the determined direction.
+	 * manages the connection based on the determined direction. A neighbour which
+	 * is already connected only updates its descriptor, which carries its
+	 * capability summary; the summary of this node is then recomputed.
 	 *
 	 * @param neighbour The {@link NodeInfoI} instance representing the neighbouring
 	 *                  node to connect with.
@@ -495,7 +907,11 @@ public class Sensor extends AbstractComponent implements SensorNodeP2PImplI {
 	@Override
 	public void ask4Connection(NodeInfoI neighbour) throws Exception {
 		try {
-			connectToNeighbor(neighbour, false);
+			if (!updateNeighbour(neighbour)) {
+				connectToNeighbor(neighbour, false);
+				announceCapabilities(this.descriptor.nodePosition().directionFrom(neighbour.nodePosition()));
+			}
+			refreshCapabilities(false);
 		} catch (Exception e) {
 			this.traceMessage("Failed to manage connection to "+neighbour.nodeIdentifier());
 		}
@@ -519,7 +935,7 @@ public class Sensor extends AbstractComponent implements SensorNodeP2PImplI {
 			try {
 				if (outboundPort.connected()) {
 					this.doPortDisconnection(outboundPort.getPortURI());
-					this.neighbors.remove(neighbour);
+					this.neighbors.removeIf(n -> n.nodeIdentifier().equals(neighbour.nodeIdentifier()));
 					if (gui != null) {
 						gui.removeGraphicalConnection(this.descriptor.nodeIdentifier(), neighbour.nodeIdentifier());
 						gui.removeGraphicalConnection(neighbour.nodeIdentifier(), this.descriptor.nodeIdentifier());
@@ -529,6 +945,7 @@ public class Sensor extends AbstractComponent implements SensorNodeP2PImplI {
 				if (node != null) {
 					connectToNeighbor(node, true);
 				}
+				refreshCapabilities(false);
 			} catch (Exception e) {
 				this.traceMessage("Error handling disconnection and reconnection");
 			} finally {
@@ -574,6 +991,8 @@ public class Sensor extends AbstractComponent implements SensorNodeP2PImplI {
 			for (NodeInfoI node : neighbors) {
 				connectToNeighbor(node, true);
 			}
+			refreshCapabilities(false);
+			scheduleSummaryRefresh();
 		} catch (Exception e) {
 		}
 	}
@@ -632,10 +1051,120 @@ public class Sensor extends AbstractComponent implements SensorNodeP2PImplI {
 		}
 	}
 
+	/**
+	 * Replaces the descriptor of a neighbour already connected in its direction.
+	 * Neighbours announce themselves again when their capability summary changes.
+	 *
+	 * @param neighbour The descriptor announced by the neighbour.
+	 * @return true if the neighbour was already connected.
+	 * @throws Exception if the state of the port cannot be read.
+	 */
+	private boolean updateNeighbour(NodeInfoI neighbour) throws Exception {
+		Direction direction = this.descriptor.nodePosition().directionFrom(neighbour.nodePosition());
+		URINodeOutBoundPortToNode port = getPortByDirection(direction);
+		ReentrantReadWriteLock portLock = portLocks.get(direction);
+		if (port == null || portLock == null) {
+			return false;
+		}
+		portLock.writeLock().lock();
+		try {
+			NodeInfoI current = this.nodeOutboundPorts.get(port.getPortURI());
+			if (current == null || !port.connected()
+					|| !current.nodeIdentifier().equals(neighbour.nodeIdentifier())) {
+				return false;
+			}
+			this.nodeOutboundPorts.put(port.getPortURI(), neighbour);
+			this.neighbors.remove(current);
+			this.neighbors.add(neighbour);
+			return true;
+		} finally {
+			portLock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Recomputes the capability summary and the zone map of this node from its
+	 * sensors and the summaries of its connected neighbours, and announces the
+	 * new descriptor when they changed. A forced refresh also renews the
+	 * timestamp of the zone map and always announces it.
+	 *
+	 * @param force Whether to announce the descriptor even if nothing changed.
+	 * @throws Exception if the state of a port cannot be read.
+	 */
+	private void refreshCapabilities(boolean force) throws Exception {
+		synchronized (this.capabilitiesLock) {
+			Map<Direction, NodeInfoI> connected = new EnumMap<>(Direction.class);
+			for (Direction d : Direction.values()) {
+				URINodeOutBoundPortToNode port = getPortByDirection(d);
+				NodeInfoI neighbour = this.nodeOutboundPorts.get(port.getPortURI());
+				if (neighbour != null && port.connected()) {
+					connected.put(d, neighbour);
+				}
+			}
+			Descriptor current = (Descriptor) this.descriptor;
+			Map<String, PositionI> neighbourhood = new LinkedHashMap<>();
+			for (NodeInfoI neighbour : connected.values()) {
+				neighbourhood.put(neighbour.nodeIdentifier(), neighbour.nodePosition());
+			}
+			CapabilitySummary summary = CapabilitySummary.compute(CapabilitySummary.maskOf(this.sensors), connected);
+			ZoneMap zoneMap = ZoneMap.compute(this.sensors, connected, System.currentTimeMillis(),
+					Config.ZONE_MAP_TTL);
+			if (!force && summary.equals(CapabilitySummary.of(current)) && zoneMap.sameRanges(current.getZoneMap())
+					&& neighbourhood.equals(current.getNeighbourhood())) {
+				return;
+			}
+			this.descriptor = current.withCapabilities(summary).withZoneMap(zoneMap).withNeighbourhood(neighbourhood);
+		}
+		announceCapabilities(null);
+	}
+
+	/**
+	 * Refreshes the summaries of this node periodically, so that its zone map
+	 * follows the values of its sensors and never expires at its neighbours.
+	 */
+	private void scheduleSummaryRefresh() {
+		this.scheduleTask(o -> {
+			try {
+				refreshCapabilities(true);
+			} catch (Exception e) {
+				this.traceMessage("Failed to refresh the summaries of the node");
+			}
+			scheduleSummaryRefresh();
+		}, Config.ZONE_MAP_REFRESH_PERIOD, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Sends the descriptor of this node to its connected neighbours, or to the one
+	 * in the given direction. Announcements run in their own task so that they
+	 * never nest inside the connection call that triggered them.
+	 *
+	 * @param direction The direction of the neighbour to notify, or null for all.
+	 */
+	private void announceCapabilities(Direction direction) {
+		this.runTask(o -> {
+			for (Direction d : Direction.values()) {
+				if (direction != null && d != direction) {
+					continue;
+				}
+				URINodeOutBoundPortToNode port = getPortByDirection(d);
+				try {
+					if (port.connected()) {
+						port.ask4Connection(this.descriptor);
+					}
+				} catch (Exception e) {
+					this.traceMessage("Failed to announce capabilities towards " + d);
+				}
+			}
+		});
+	}
+
 	/**
 	 * Processes a request by orchestrating various steps including state
 	 * preparation, query evaluation, UI updates, and query propagation based on the
-	 * execution state.
+	 * execution state. A request still routed towards its flooding area is only
+	 * forwarded until it reaches a node inside the area, which starts the flood.
+	 * The credit of an asynchronous request which the route cannot take further
+	 * is returned to its client here.
 	 *
 	 * @param request The {@link RequestContinuationI} instance containing
 	 *                continuation details of the query.
@@ -644,7 +1173,22 @@ public class Sensor extends AbstractComponent implements SensorNodeP2PImplI {
 	 * @throws Exception if there are issues during query processing or propagation.
 	 */
 	private QueryResultI processQuery(RequestContinuationI request) throws Exception {
-		evaluateQuery(request);
+		ExecutionState executionState = (ExecutionState) request.getExecutionState();
+		if (executionState.isRouting()) {
+			if (!executionState.withinMaximalDistance(this.descriptor.nodePosition())) {
+				routeTowardsBase(request);
+				if (request.isAsynchronous()) {
+					acknowledge(request);
+				}
+				return executionState.getCurrentResult();
+			}
+			executionState.setRouting(false);
+		}
+		if (request instanceof RequestContinuation && ((RequestContinuation) request).isBatch()) {
+			evaluateBatch((RequestContinuation) request);
+		} else {
+			evaluateQuery(request);
+		}
 		handleQueryPropagation(request);
 		return ((ExecutionState) request.getExecutionState()).getCurrentResult();
 	}
@@ -657,21 +1201,37 @@ public class Sensor extends AbstractComponent implements SensorNodeP2PImplI {
 	 *                and related information.
 	 */
 	private void evaluateQuery(RequestContinuationI request) {
-		this.processedRequests.add(request.requestURI());
+		this.processedRequests.add(RequestId.of(request));
 		ExecutionState es = (ExecutionState) request.getExecutionState();
 		ProcessingNode processingNode = new ProcessingNode(this.descriptor.nodeIdentifier(),
 				this.descriptor.nodePosition(), this.neighbors, this.sensors);
 		es.updateProcessingNode(processingNode);
-		if (request.getQueryCode() instanceof GQuery) {
-			((GQuery) request.getQueryCode()).eval(es);
+		QueryI query = queryOf(request);
+		if (query instanceof GQuery) {
+			((GQuery) query).eval(es);
 		} else {
-			((BQuery) request.getQueryCode()).eval(es);
+			((BQuery) query).eval(es);
 		}
 		if (gui != null) {
 			gui.toggleNodeBlinking(this.descriptor.nodeIdentifier());
 		}
 	}
 
+	/**
+	 * Evaluates the requests of a batch whose area contains this node.
+	 *
+	 * @param batch The continuation carrying the batch.
+	 */
+	private void evaluateBatch(RequestContinuation batch) {
+		this.processedRequests.add(RequestId.of(batch));
+		for (RequestContinuation member : batch.getBatch()) {
+			if (((ExecutionState) member.getExecutionState()).withinMaximalDistance(this.descriptor.nodePosition())
+					&& !isLate(member)) {
+				evaluateQuery(member);
+			}
+		}
+	}
+
 	/**
 	 * Determines the mode of query propagation (flooding or directional) based on
 	 * the execution state and executes the propagation accordingly.
@@ -686,9 +1246,8 @@ public class Sensor extends AbstractComponent implements SensorNodeP2PImplI {
 		if (executionState.isFlooding()) {
 			propagateFlooding(request);
 		} else if (executionState.isDirectional()) {
-			if (!(executionState.noMoreHops() || executionState.getDirections().isEmpty())) {
-				handleDirectionalPropagation(request);
-			} else {
+			if (executionState.noMoreHops() || executionState.getDirections().isEmpty()
+					|| !handleDirectionalPropagation(request)) {
 				if (request.isAsynchronous())
 					sendToClient(request, executionState);
 			}
@@ -697,7 +1256,10 @@ public class Sensor extends AbstractComponent implements SensorNodeP2PImplI {
 	}
 
 	/**
-	 * Sends the request continuation and execution state to the client.
+	 * Sends the request continuation and execution state to the client. The
+	 * requests of a batch evaluated at this node are sent to their clients one by
+	 * one, and the requests attached to a request receive a copy of its result.
+	 * The completion credit left to the branch is returned with the result.
 	 * 
 	 * @param request         the request continuation to be sent
 	 * @param executionState  the execution state associated with the request
@@ -705,6 +1267,69 @@ public class Sensor extends AbstractComponent implements SensorNodeP2PImplI {
 	 */
 	private synchronized void sendToClient(RequestContinuationI request, ExecutionState executionState)
 	        throws Exception {
+		sendToClient(request, executionState, executionState.takeCredit());
+	}
+
+	/**
+	 * Sends the request continuation and execution state to the client, with the
+	 * given completion credit. The members of a batch return their own credit.
+	 *
+	 * @param request        the request continuation to be sent
+	 * @param executionState the execution state associated with the request
+	 * @param credit         the completion credit returned with the result
+	 * @throws Exception if an error occurs during the process
+	 */
+	private synchronized void sendToClient(RequestContinuationI request, ExecutionState executionState,
+			long credit) throws Exception {
+		if (request instanceof RequestContinuation && ((RequestContinuation) request).isBatch()) {
+			for (RequestContinuation member : ((RequestContinuation) request).getBatch()) {
+				ExecutionState state = (ExecutionState) member.getExecutionState();
+				// only the requests evaluated here have something new to send
+				if (state.getProcessingNode() != null && this.descriptor.nodeIdentifier()
+						.equals(state.getProcessingNode().getNodeIdentifier())) {
+					sendToClient(member, state);
+				}
+			}
+			return;
+		}
+		sendResult(request, executionState.getCurrentResult(), credit);
+		if (request instanceof RequestContinuation) {
+			for (RequestI alias : ((RequestContinuation) request).getAliases()) {
+				sendResult(alias, QueryResultFactory.copyOf(executionState.getCurrentResult()), credit);
+			}
+		}
+	}
+
+	/**
+	 * Returns to the client the completion credit of a continuation this node has
+	 * already processed, so that the client does not wait for its branch.
+	 *
+	 * @param request the redundant continuation
+	 * @throws Exception if an error occurs during the process
+	 */
+	private void acknowledge(RequestContinuationI request) throws Exception {
+		long credit = ((ExecutionState) request.getExecutionState()).takeCredit();
+		if (credit > 0) {
+			sendResult(request, null, credit);
+			if (request instanceof RequestContinuation) {
+				for (RequestI alias : ((RequestContinuation) request).getAliases()) {
+					sendResult(alias, null, credit);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Sends a result to the client of a request, in a {@link CompletionReport}
+	 * when the request is tracked.
+	 *
+	 * @param request the request whose client receives the result
+	 * @param result  the result to send, or null for a bare acknowledgement
+	 * @param credit  the completion credit returned with the result
+	 * @throws Exception if an error occurs during the process
+	 */
+	private void sendResult(RequestI request, QueryResultI result, long credit) throws Exception {
+		QueryResultI report = credit == CompletionTracker.UNTRACKED ? result : new CompletionReport(result, credit);
 	    // Get the inbound port URI of the client
 	    String inboundPortClient = ((BCM4JavaEndPointDescriptorI) request.clientConnectionInfo().endPointInfo())
 	            .getInboundPortURI();
@@ -714,7 +1339,7 @@ public class Sensor extends AbstractComponent implements SensorNodeP2PImplI {
 	            ConnectorSensorToClient.class.getCanonicalName());
 	    
 	    // Accept the request result using the outbound port client
-	    this.outBoundPortClient.acceptRequestResult(request.requestURI(), executionState.getCurrentResult());
+	    this.outBoundPortClient.acceptRequestResult(request.requestURI(), report);
 	    
 	    // Disconnect the outbound port client after sending the request result
 	    this.doPortDisconnection(this.outBoundPortClient.getPortURI());
@@ -722,7 +1347,13 @@ public class Sensor extends AbstractComponent implements SensorNodeP2PImplI {
 
 	/**
 	 * Handles query propagation using a flooding approach where the query is sent
-	 * to all reachable neighbors within a maximal distance.
+	 * to all reachable neighbors within a maximal distance, except those the
+	 * continuation knows to be covered already. The continuations sent carry this
+	 * node and every neighbour it forwards to as covered. With relay selection,
+	 * only the relays of this node may forward the flood further, and a node
+	 * which is not a relay of its sender does not forward it. When this node lies
+	 * outside the flooding area and no neighbour lies inside it, the query is
+	 * routed towards the base of the area instead.
 	 *
 	 * @param request The request continuation instance.
 	 * @return The current result of the query after flooding to neighbors.
@@ -730,13 +1361,51 @@ public class Sensor extends AbstractComponent implements SensorNodeP2PImplI {
 	 */
 	private void propagateFlooding(RequestContinuationI request) throws Exception {
 		ExecutionState executionState = (ExecutionState) request.getExecutionState();
-
+		if (executionState.isRelaySelection() && !executionState.isForwarding()) {
+			if (request.isAsynchronous()) {
+				sendToClient(request, executionState);
+			}
+			return;
+		}
+		boolean areaReached = executionState.withinMaximalDistance(this.descriptor.nodePosition());
+		List<NodeInfoI> targets = new ArrayList<>();
+		int covered = 0;
 		for (NodeInfoI n : neighbors) {
 			Direction d = this.descriptor.nodePosition().directionFrom(n.nodePosition());
 			if (executionState.withinMaximalDistance(n.nodePosition())) {
-				executeNeighborQuery(d, request);
+				areaReached = true;
+				if (Config.VISITED_SUMMARIES && executionState.getVisited().contains(n.nodeIdentifier())) {
+					covered++;
+				} else if (canContribute(request, d, CapabilitySummary.ALL_DIRECTIONS)) {
+					targets.add(n);
+				}
+			}
+		}
+		this.deliveryStats.recordSuppressed(covered);
+		if (Config.VISITED_SUMMARIES && !targets.isEmpty()) {
+			List<String> visited = new ArrayList<>(targets.size() + 1);
+			visited.add(this.descriptor.nodeIdentifier());
+			for (NodeInfoI n : targets) {
+				visited.add(n.nodeIdentifier());
+			}
+			executionState.markVisited(visited);
+		}
+		Set<String> relays = executionState.isRelaySelection() ? selectRelays(executionState, targets) : null;
+		// one share per neighbour, one for the route if any and one sent with the
+		// result here, which also takes back the shares that could not be sent
+		boolean routed = !areaReached && nextTowardsBase(executionState.getPosition()) != null;
+		executionState.divideCredit(targets.size() + (routed ? 2 : 1));
+		for (NodeInfoI n : targets) {
+			executionState.setForwarding(relays == null || relays.contains(n.nodeIdentifier()));
+			try {
+				executeNeighborQuery(this.descriptor.nodePosition().directionFrom(n.nodePosition()), request);
+			} finally {
+				executionState.setForwarding(true);
 			}
 		}
+		if (!areaReached) {
+			routeTowardsBase(request);
+		}
 
 		// Decide whether to execute tasks asynchronously or synchronously
 		if (request.isAsynchronous()) {
@@ -744,37 +1413,338 @@ public class Sensor extends AbstractComponent implements SensorNodeP2PImplI {
 		}
 	}
 
+	/**
+	 * Selects the relays of a flood among the neighbours it is sent to: their
+	 * neighbours must cover every node of the flooding area two hops away from
+	 * this node, except the nodes known to be covered already.
+	 *
+	 * @param executionState The execution state of the flood.
+	 * @param targets        The neighbours the flood is sent to.
+	 * @return the identifiers of the relays.
+	 */
+	private Set<String> selectRelays(ExecutionState executionState, List<NodeInfoI> targets) {
+		Set<String> oneHop = new HashSet<>();
+		oneHop.add(this.descriptor.nodeIdentifier());
+		for (NodeInfoI n : neighbors) {
+			oneHop.add(n.nodeIdentifier());
+		}
+		Map<String, Set<String>> coverage = new LinkedHashMap<>();
+		for (NodeInfoI n : targets) {
+			Map<String, PositionI> neighbourhood = n instanceof Descriptor ? ((Descriptor) n).getNeighbourhood()
+					: null;
+			if (neighbourhood == null) {
+				coverage.put(n.nodeIdentifier(), null);
+				continue;
+			}
+			Set<String> twoHop = new HashSet<>();
+			for (Map.Entry<String, PositionI> e : neighbourhood.entrySet()) {
+				if (!oneHop.contains(e.getKey()) && !executionState.getVisited().contains(e.getKey())
+						&& executionState.withinMaximalDistance(e.getValue())) {
+					twoHop.add(e.getKey());
+				}
+			}
+			coverage.put(n.nodeIdentifier(), twoHop);
+		}
+		return RelaySelection.select(coverage);
+	}
+
+	/**
+	 * Forwards a flooding request towards the base of its flooding area, to the
+	 * neighbour closest to the base. The request is dropped when no neighbour is
+	 * closer to the base than this node, which guarantees that the route never
+	 * loops. Nodes on the route do not evaluate the request. The credit of a
+	 * dropped request is left to the caller to return.
+	 *
+	 * @param request The request continuation to route.
+	 * @throws Exception if there is an issue forwarding the request.
+	 */
+	private void routeTowardsBase(RequestContinuationI request) throws Exception {
+		ExecutionState executionState = (ExecutionState) request.getExecutionState();
+		Direction next = nextTowardsBase(executionState.getPosition());
+		if (next == null) {
+			this.logMessage("No route towards the flooding area of " + request.requestURI());
+			return;
+		}
+		boolean routing = executionState.isRouting();
+		executionState.setRouting(true);
+		try {
+			executeNeighborQuery(next, request);
+		} finally {
+			executionState.setRouting(routing);
+		}
+	}
+
+	/**
+	 * Returns the direction of the neighbour closest to the base of a flooding
+	 * area, provided it is closer to the base than this node.
+	 *
+	 * @param base The base of the flooding area.
+	 * @return the direction of the next node on the route, or null if there is
+	 *         none.
+	 */
+	private Direction nextTowardsBase(PositionI base) {
+		double closest = base.distance(this.descriptor.nodePosition());
+		Direction next = null;
+		for (NodeInfoI n : neighbors) {
+			double distance = base.distance(n.nodePosition());
+			if (distance < closest) {
+				closest = distance;
+				next = this.descriptor.nodePosition().directionFrom(n.nodePosition());
+			}
+		}
+		return next;
+	}
+
 	/**
 	 * Manages directional query propagation based on the specified directions
 	 * within the execution state. This method determines the next direction for
 	 * query propagation by examining available directions and the state of
 	 * connection to those directions. It attempts to propagate the query to the
-	 * first available and connected direction. If no directions are available or if
-	 * there are no more hops allowed, it simply returns the current result.
+	 * first available and connected direction whose branch may carry the sensors
+	 * of the query, or to all of them at once in parallel directional mode, where
+	 * the hop budget bounds each branch and nodes reached by several branches
+	 * only process the request once. In latency-aware mode, the first direction is
+	 * the one whose neighbour has answered fastest so far, and a synchronous query
+	 * may be hedged along the next one.
 	 *
 	 * @param request The request continuation detailing the query continuation. It
 	 *                is used to pass along the query specifics as the propagation
 	 *                proceeds to different directions.
-	 * @return The query result after attempting directional propagation. If no
-	 *         propagation occurs, the current result of the execution state is
-	 *         returned.
+	 * @return true if the query was forwarded to a neighbour.
 	 * @throws Exception if there is an issue during directional propagation, such
 	 *                   as a failure in executing the query on the neighbor or
 	 *                   issues with connection handling.
 	 */
-	private void handleDirectionalPropagation(RequestContinuationI request) throws Exception {
+	private boolean handleDirectionalPropagation(RequestContinuationI request) throws Exception {
 		ExecutionState es = (ExecutionState) request.getExecutionState();
-		ArrayList<Direction> directions = new ArrayList<>(es.getDirections());
-		Iterator<Direction> directionIterator = directions.iterator();
-
-		while (directionIterator.hasNext()) {
-			Direction d = directionIterator.next();
+		int directionMask = CapabilitySummary.directionMask(es.getDirections());
+		List<Direction> targets = new ArrayList<>();
+		for (Direction d : es.getDirections()) {
 			URINodeOutBoundPortToNode port = getPortByDirection(d);
-			if (port != null && port.connected()) {
+			if (port != null && port.connected() && canContribute(request, d, directionMask)) {
+				targets.add(d);
+			}
+		}
+		if (targets.isEmpty()) {
+			return false;
+		}
+		if (Config.PARALLEL_DIRECTIONAL) {
+			executeNeighborQueries(targets, request);
+			return true;
+		}
+		if (Config.LATENCY_AWARE_DIRECTIONAL) {
+			// stable: without measurements, the directions keep their order
+			targets.sort(Comparator.comparingDouble(d -> getPortByDirection(d).getLatency().estimate()));
+		}
+		if (!request.isAsynchronous() && Config.HEDGED_DIRECTIONAL && targets.size() > 1) {
+			executeHedgedNeighborQuery(targets.get(0), targets.get(1), request);
+		} else {
+			executeNeighborQuery(targets.get(0), request);
+		}
+		return true;
+	}
+
+	/**
+	 * Executes the query on the neighbours in several directions concurrently.
+	 * Asynchronous continuations are sent one after the other, since sending them
+	 * does not wait for their execution, and only the first one carries the
+	 * results gathered so far, so that they reach the client once; synchronous
+	 * ones are sent from tasks of the component and their results are merged once
+	 * all have returned. The calling thread sends the first one itself, then any
+	 * other no thread of the component has started yet, so that waiting for the
+	 * branches never takes up every thread of the component.
+	 *
+	 * @param directions The directions of the neighbours.
+	 * @param request    The request continuation.
+	 * @throws Exception if the wait for the results is interrupted.
+	 */
+	private void executeNeighborQueries(List<Direction> directions, RequestContinuationI request) throws Exception {
+		if (request.isAsynchronous()) {
+			ExecutionState executionState = (ExecutionState) request.getExecutionState();
+			executionState.divideCredit(directions.size());
+			for (Direction d : directions) {
 				executeNeighborQuery(d, request);
-				break;
+				executionState.resetQuery();
 			}
+			return;
+		}
+		if (directions.size() == 1) {
+			executeNeighborQuery(directions.get(0), request);
+			return;
 		}
+		BlockingQueue<Optional<QueryResultI>> received = new LinkedBlockingQueue<>();
+		List<AtomicBoolean> claims = new ArrayList<>();
+		for (int i = 1; i < directions.size(); i++) {
+			claims.add(forwardInTask(directions.get(i), request, received));
+		}
+		forward(directions.get(0), request, received);
+		for (int i = 1; i < directions.size(); i++) {
+			if (claims.get(i - 1).compareAndSet(false, true)) {
+				forward(directions.get(i), request, received);
+			}
+		}
+		awaitBranches(directions.size(), request, received);
+	}
+
+	/**
+	 * Merges the results of the branches of a synchronous request as they arrive,
+	 * until the deadline of the request, or at most
+	 * {@link Config#SYNC_WAIT_TIMEOUT} when it has none.
+	 *
+	 * @param branches The number of results awaited.
+	 * @param request  The request continuation.
+	 * @param received The queue receiving the results.
+	 * @throws InterruptedException if the wait is interrupted.
+	 */
+	private void awaitBranches(int branches, RequestContinuationI request,
+			BlockingQueue<Optional<QueryResultI>> received) throws InterruptedException {
+		ExecutionState executionState = (ExecutionState) request.getExecutionState();
+		long deadline = System.currentTimeMillis() + remainingWait(request);
+		for (; branches > 0; branches--) {
+			Optional<QueryResultI> result = received.poll(Math.max(0L, deadline - System.currentTimeMillis()),
+					TimeUnit.MILLISECONDS);
+			if (result == null) {
+				this.logMessage("Gave up waiting for a branch of " + request.requestURI());
+				return;
+			}
+			result.ifPresent(executionState::addToCurrentResult);
+		}
+	}
+
+	/**
+	 * Executes a synchronous query on the neighbour in a direction and, if it has
+	 * not answered within its usual latency, on the neighbour in a backup
+	 * direction as well. Each branch marks the nodes it visits, which the other
+	 * branch then skips, so the results of both are merged: the hedge keeps a
+	 * stuck neighbour from holding the query past its deadline, not from being
+	 * waited for. The backup branch is sent from the calling thread, which runs
+	 * the first branch as well when no thread of the component has started it.
+	 * Until enough latencies were measured towards the first neighbour, the
+	 * query is only sent to it.
+	 *
+	 * @param primary The direction of the fastest neighbour.
+	 * @param backup  The direction of the next fastest neighbour.
+	 * @param request The request continuation.
+	 * @throws Exception if the wait for the results is interrupted.
+	 */
+	private void executeHedgedNeighborQuery(Direction primary, Direction backup, RequestContinuationI request)
+			throws Exception {
+		LatencyEstimator latency = getPortByDirection(primary).getLatency();
+		if (latency.getSamples() < Config.HEDGE_MIN_SAMPLES) {
+			executeNeighborQuery(primary, request);
+			return;
+		}
+		BlockingQueue<Optional<QueryResultI>> received = new LinkedBlockingQueue<>();
+		AtomicBoolean claim = forwardInTask(primary, request, received);
+		long wait = (long) Math.ceil(latency.percentile(Config.HEDGE_PERCENTILE));
+		Optional<QueryResultI> result = received.poll(wait, TimeUnit.MILLISECONDS);
+		if (result != null) {
+			result.ifPresent(((ExecutionState) request.getExecutionState())::addToCurrentResult);
+			return;
+		}
+		if (claim.compareAndSet(false, true)) {
+			// no thread was free to start the branch: it was not slow, it did not run
+			forward(primary, request, received);
+			awaitBranches(1, request, received);
+			return;
+		}
+		this.hedgedQueries.incrementAndGet();
+		forward(backup, request, received);
+		awaitBranches(2, request, received);
+	}
+
+	/**
+	 * Sends a synchronous query to the neighbour in a direction from a task of the
+	 * component, without merging its result. The task only sends the query if
+	 * the branch has not been claimed by another thread before it starts.
+	 *
+	 * @param direction The direction of the neighbour.
+	 * @param request   The request continuation.
+	 * @param received  The queue receiving the result, empty if the neighbour
+	 *                  could not be reached.
+	 * @return the claim of the branch, set by the thread which sends the query.
+	 */
+	private AtomicBoolean forwardInTask(Direction direction, RequestContinuationI request,
+			BlockingQueue<Optional<QueryResultI>> received) {
+		AtomicBoolean claim = new AtomicBoolean();
+		this.runTask(o -> {
+			if (claim.compareAndSet(false, true)) {
+				forward(direction, request, received);
+			}
+		});
+		return claim;
+	}
+
+	/**
+	 * Sends a synchronous query to the neighbour in a direction from the calling
+	 * thread, without merging its result.
+	 *
+	 * @param direction The direction of the neighbour.
+	 * @param request   The request continuation.
+	 * @param received  The queue receiving the result, empty if the neighbour
+	 *                  could not be reached.
+	 */
+	private void forward(Direction direction, RequestContinuationI request,
+			BlockingQueue<Optional<QueryResultI>> received) {
+		QueryResultI result = null;
+		try {
+			result = forwardToNeighbor(direction, request);
+		} catch (Exception e) {
+			this.traceMessage("Failed to forward " + request.requestURI() + " towards " + direction + "\n");
+		}
+		received.add(Optional.ofNullable(result));
+	}
+
+	/**
+	 * Returns the query of a request, reusing the plan decoded for identical
+	 * payloads.
+	 *
+	 * @param request The request continuation.
+	 * @return the query to evaluate.
+	 */
+	private QueryI queryOf(RequestContinuationI request) {
+		return request instanceof RequestContinuation
+				? ((RequestContinuation) request).getQueryCode(this.planCache)
+				: request.getQueryCode();
+	}
+
+	/**
+	 * Tells whether the neighbour in a direction, or a node a query limited to the
+	 * given directions reaches through it, may carry the sensors of the query and
+	 * hold values matching it. Neighbours without a capability summary or a fresh
+	 * zone map are always considered able to. A batch may contribute when any of
+	 * its requests may.
+	 *
+	 * @param request       The request continuation.
+	 * @param direction     The direction of the neighbour.
+	 * @param directionMask The bitmask of the directions of the query.
+	 * @return false if the branch can be skipped.
+	 * @throws Exception if the port of the direction cannot be read.
+	 */
+	private boolean canContribute(RequestContinuationI request, Direction direction, int directionMask)
+			throws Exception {
+		if (request instanceof RequestContinuation && ((RequestContinuation) request).isBatch()) {
+			for (RequestContinuation member : ((RequestContinuation) request).getBatch()) {
+				if (canContribute(member, direction, directionMask)) {
+					return true;
+				}
+			}
+			return false;
+		}
+		QueryI query = queryOf(request);
+		if (!(query instanceof IQuery)) {
+			return true;
+		}
+		NodeInfoI neighbour = this.nodeOutboundPorts.get(getPortByDirection(direction).getPortURI());
+		if (neighbour == null) {
+			return true;
+		}
+		if (!((IQuery) query).canContribute(CapabilitySummary.of(neighbour).subtree(directionMask))) {
+			return false;
+		}
+		Map<String, ValueRange> ranges = ZoneMap.of(neighbour, System.currentTimeMillis(), Config.ZONE_MAP_TTL)
+				.subtree(directionMask);
+		return ranges == null || ((IQuery) query).mayMatch(ranges);
 	}
 
 	/**
@@ -788,23 +1758,59 @@ public class Sensor extends AbstractComponent implements SensorNodeP2PImplI {
 	 *                   node.
 	 */
 	private QueryResultI executeNeighborQuery(Direction direction, RequestContinuationI request) throws Exception {
+		QueryResultI qr = forwardToNeighbor(direction, request);
+		if (qr != null) {
+			((ExecutionState) request.getExecutionState()).addToCurrentResult(qr);
+		}
+		return qr;
+	}
+
+	/**
+	 * Sends the continuation of a query to the neighbour in a direction, without
+	 * merging its result.
+	 *
+	 * @param direction The direction in which the neighbor node is located.
+	 * @param request   The {@link RequestContinuationI} instance detailing the
+	 *                  query continuation.
+	 * @return the result of the neighbour for a synchronous request, null
+	 *         otherwise.
+	 * @throws Exception if there is an issue executing the query on the neighbor
+	 *                   node.
+	 */
+	private QueryResultI forwardToNeighbor(Direction direction, RequestContinuationI request) throws Exception {
+		if (isLate(request)) {
+			this.deliveryStats.recordLate();
+			return null;
+		}
 		URINodeOutBoundPortToNode port = getPortByDirection(direction);
 		ExecutionState executionState = ((ExecutionState) request.getExecutionState());
-		ExecutionState executionStateClone = executionState.clone();
-		RequestContinuationI clientRequest = new RequestContinuation(request, executionStateClone,
-				request.requestURI());
+		ExecutionState executionStateClone = executionState.cloneForContinuation(request.isAsynchronous());
+		RequestContinuationI clientRequest = request instanceof RequestContinuation
+				? ((RequestContinuation) request).forward(executionStateClone)
+				: RequestContinuation.from(request, executionStateClone);
 		if (port != null && port.connected()) {
 			if (gui != null) {
 				gui.startGraphicalLightAnimation(this.descriptor.nodeIdentifier(),
 						this.nodeOutboundPorts.get(port.getPortURI()).nodeIdentifier());
 			}
 			if (request.isAsynchronous()) {
-				port.executeAsync(clientRequest);
+				long share = executionState.shareCredit();
+				executionStateClone.setCredit(share);
+				try {
+					port.executeAsync(clientRequest);
+					recordPath(request, direction);
+				} catch (RejectedExecutionException e) {
+					// the branch ends here: the results it carried are sent now, with its
+					// credit; a flooding node reports itself and takes the credit back
+					this.logMessage("Neighbour towards " + direction + " refused " + request.requestURI());
+					if (!executionState.isFlooding()) {
+						sendToClient(request, executionStateClone, share);
+					} else {
+						executionState.returnCredit(share);
+					}
+				}
 			} else {
-				executionStateClone.resetQuery();
-				QueryResultI qr = port.execute(clientRequest);
-				executionState.addToCurrentResult(qr);
-				return qr;
+				return port.execute(clientRequest);
 			}
 		}
 		return null;
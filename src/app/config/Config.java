@@ -1,5 +1,9 @@
 package app.config;
 
+import java.util.Map;
+
+import app.models.OverloadPolicy;
+
 /**
  * Holds configuration constants used throughout the sensor network application.
  * This class provides a central location for managing settings related to time synchronization,
@@ -44,4 +48,219 @@ public class Config {
     public static final int COLUM = 5;
     
     public static final boolean ASYNC = true;
+
+    /**
+     * Whether entry nodes build columnar, dictionary-encoded query results instead
+     * of list-based ones.
+     */
+    public static final boolean COLUMNAR_RESULTS = false;
+
+    /**
+     * The maximum number of decoded query plans kept by each node.
+     */
+    public static final int PLAN_CACHE_SIZE = 64;
+
+    /**
+     * The time in milliseconds after which a zone map received from a neighbour is
+     * considered stale and no longer used to skip branches.
+     */
+    public static final long ZONE_MAP_TTL = 30000L;
+
+    /**
+     * The period in milliseconds at which nodes recompute and announce their zone
+     * map, well below {@link #ZONE_MAP_TTL}.
+     */
+    public static final long ZONE_MAP_REFRESH_PERIOD = 10000L;
+
+    /**
+     * Whether clients send flooding queries with an absolute base directly to the
+     * nodes of their area, resolved by the register, instead of flooding them from
+     * the entry node.
+     */
+    public static final boolean DIRECT_FAN_OUT = false;
+
+    /**
+     * The number of threads of a client sending fan-out requests in parallel.
+     */
+    public static final int FAN_OUT_THREADS = 8;
+
+    /**
+     * Whether clients choose, per zone-bounded request, between going through
+     * their entry node and a direct fan-out from the estimated cost of each.
+     * Ignored when {@link #DIRECT_FAN_OUT} forces the fan-out.
+     */
+    public static final boolean COST_BASED_PLANNING = false;
+
+    /**
+     * The latency in milliseconds assumed for a call between two components until
+     * one is measured.
+     */
+    public static final double PLANNER_LINK_LATENCY = 5.0;
+
+    /**
+     * The weight of a new measurement in the link latency estimated by clients.
+     */
+    public static final double PLANNER_LATENCY_WEIGHT = 0.2;
+
+    /**
+     * The cost of a message in milliseconds of latency, used by the planner to
+     * trade messages for latency.
+     */
+    public static final double PLANNER_MESSAGE_COST = 0.5;
+
+    /**
+     * The number of query plans a client keeps for inspection.
+     */
+    public static final int PLAN_LOG_SIZE = 256;
+
+    /**
+     * The time in milliseconds an entry node waits for other asynchronous flooding
+     * requests of the same base before flooding them in one batch, or 0 to flood
+     * each request on its own.
+     */
+    public static final long BATCH_WINDOW = 0L;
+
+    /**
+     * Whether entry nodes share the execution of identical requests: a request
+     * identical to one still executing, or in asynchronous mode still waiting to
+     * leave the entry node, receives the results of that one instead of flooding
+     * the network again.
+     */
+    public static final boolean SINGLE_FLIGHT = false;
+
+    /**
+     * Whether directional queries are forwarded along every requested direction
+     * at once, instead of along the first connected one only.
+     */
+    public static final boolean PARALLEL_DIRECTIONAL = false;
+
+    /**
+     * Whether flooding continuations carry the nodes they are known to cover, so
+     * that nodes do not forward them to neighbours which already received them.
+     */
+    public static final boolean VISITED_SUMMARIES = true;
+
+    /**
+     * Whether nodes serve their pending asynchronous requests by priority class
+     * rather than in arrival order.
+     */
+    public static final boolean PRIORITY_SCHEDULING = true;
+
+    /**
+     * Time in milliseconds after which a pending request is served as if it were
+     * one class more urgent, so that bulk requests are not starved, or 0 to never
+     * promote requests.
+     */
+    public static final long PRIORITY_AGING_STEP = 50L;
+
+    /**
+     * Whether clients send boolean queries, which detect events such as fires,
+     * as alerts when no other priority was given to them.
+     */
+    public static final boolean BOOLEAN_QUERIES_AS_ALERTS = true;
+
+    /**
+     * Maximum number of asynchronous requests waiting on each inbound port of a
+     * node, or 0 for no bound, so that no request is ever shed.
+     */
+    public static final int PENDING_CAPACITY = 0;
+
+    /**
+     * What a node does with an asynchronous request arriving while the queue of
+     * its inbound port is full, when {@link #PENDING_CAPACITY} bounds it.
+     */
+    public static final OverloadPolicy OVERLOAD_POLICY = OverloadPolicy.REJECT;
+
+    /**
+     * Sustained number of asynchronous requests per second a client may send to
+     * a node before its requests are shed, or 0 for no limit.
+     */
+    public static final double CLIENT_RATE_LIMIT = 0.0;
+
+    /**
+     * Number of asynchronous requests a client may send to a node at once,
+     * beyond its sustained rate, when {@link #CLIENT_RATE_LIMIT} limits it.
+     */
+    public static final int CLIENT_BURST = 20;
+
+    /**
+     * Shares of the clients in the requests served by a node, by client
+     * identifier: in its turn, a client gets as many requests served as its
+     * weight. Clients not listed have a weight of 1.
+     */
+    public static final Map<String, Integer> CLIENT_WEIGHTS = Map.of();
+
+    /**
+     * Whether clients give their asynchronous requests a deadline, the instant at
+     * which they merge the results received, after which nodes drop the request.
+     */
+    public static final boolean REQUEST_DEADLINES = true;
+
+    /**
+     * Whether clients cancel their asynchronous requests once they have merged
+     * the results received, so that nodes stop working on them.
+     */
+    public static final boolean CANCEL_ON_MERGE = true;
+
+    /**
+     * Number of asynchronous requests whose forwarding directions a node
+     * remembers, for their cancellation to follow them.
+     */
+    public static final int ACTIVE_PATHS_SIZE = 1024;
+
+    /**
+     * Whether a node forwards a directional query along the direction whose
+     * neighbour has answered fastest so far, rather than the first connected one.
+     */
+    public static final boolean LATENCY_AWARE_DIRECTIONAL = false;
+
+    /**
+     * Whether a node waiting for a synchronous directional query also sends it
+     * along a second direction once the first takes longer than usual, merging
+     * both answers received before the deadline of the request.
+     */
+    public static final boolean HEDGED_DIRECTIONAL = false;
+
+    /**
+     * Percentile of the past latencies of a neighbour after which a synchronous
+     * directional query is hedged.
+     */
+    public static final double HEDGE_PERCENTILE = 0.95;
+
+    /**
+     * Number of latencies measured towards a neighbour before its queries are
+     * hedged.
+     */
+    public static final int HEDGE_MIN_SAMPLES = 8;
+
+    /**
+     * Whether nodes return a share of a completion credit with the results of
+     * asynchronous requests, so that clients merge them as soon as every branch
+     * has answered rather than at their merge deadline only.
+     */
+    public static final boolean COMPLETION_TRACKING = true;
+
+    /**
+     * Estimated bytes of results a client holds in memory for its pending
+     * asynchronous requests before spilling or dropping the largest.
+     */
+    public static final long CLIENT_RESULT_BUDGET = 16L << 20;
+
+    /**
+     * Time after which a client drops the results of an asynchronous request it
+     * has not merged, in real milliseconds.
+     */
+    public static final long CLIENT_RESULT_RETENTION = 600_000L;
+
+    /**
+     * Size of the memory-mapped file a client spills the results exceeding its
+     * budget to, in bytes, or 0 to drop them instead.
+     */
+    public static final int CLIENT_SPILL_SIZE = 64 << 20;
+
+    /**
+     * Longest time a node waits for the results of a synchronous request without
+     * deadline, in real milliseconds.
+     */
+    public static final long SYNC_WAIT_TIMEOUT = 30_000L;
 }
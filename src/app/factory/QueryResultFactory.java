@@ -0,0 +1,67 @@
+package app.factory;
+
+import java.util.ArrayList;
+
+import app.config.Config;
+import app.models.ColumnarQueryResult;
+import app.models.QueryResult;
+import fr.sorbonne_u.cps.sensor_network.interfaces.QueryResultI;
+
+/**
+ * Provides a static factory method for creating the empty query results that
+ * entry nodes fill while a request is executed. The representation is chosen
+ * by {@link Config#COLUMNAR_RESULTS}; results built along the way keep the
+ * representation of the result they are merged into. Results handed to several
+ * clients are copied, since clients merge into the results they receive.
+ */
+public abstract class QueryResultFactory {
+
+	/**
+	 * Creates an empty query result.
+	 *
+	 * @return a {@link ColumnarQueryResult} if columnar results are enabled, a
+	 *         list-based {@link QueryResult} otherwise.
+	 */
+	public static QueryResult createEmpty() {
+		if (Config.COLUMNAR_RESULTS) {
+			return new ColumnarQueryResult();
+		}
+		return new QueryResult(new ArrayList<>(), new ArrayList<>());
+	}
+
+	/**
+	 * Copies a result for another client.
+	 *
+	 * @param result The result to copy.
+	 * @return a deep copy of the result, or the result itself if it cannot be
+	 *         copied.
+	 */
+	public static QueryResultI copyOf(QueryResultI result) {
+		if (result instanceof QueryResult) {
+			try {
+				return ((QueryResult) result).clone();
+			} catch (CloneNotSupportedException e) {
+				return result;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Copies a result into a list-based result, whose lists can be changed in
+	 * place. The lists of a columnar result are read-only views of its columns.
+	 *
+	 * @param result The result to copy.
+	 * @return a list-based copy of the result, of the same type.
+	 */
+	public static QueryResult listCopyOf(QueryResultI result) {
+		QueryResult copy = new QueryResult(new ArrayList<>(result.gatheredSensorsValues()),
+				new ArrayList<>(result.positiveSensorNodes()));
+		if (result.isGatherRequest()) {
+			copy.setGather();
+		} else if (result.isBooleanRequest()) {
+			copy.setBoolean();
+		}
+		return copy;
+	}
+}
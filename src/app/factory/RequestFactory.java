@@ -30,7 +30,7 @@ public abstract class RequestFactory {
 	public enum RequestType {
 		SIMPLE, FCONT_BASED, DCONT, GQUERY_WITH_ECONT, BQUERY_SIMPLE, FCONT_WITH_DCONT, GQUERY_COMPLEX, BQUERY_COMPLEX,
 		ECONT_WITH_RGATHER, FCONT_WITH_MULTIPLE_SENSORS, DCONT_COMPLEX, BQUERY_DYNAMIC, CUSTOM_COMPLEX_QUERY, BQUERY_OR,
-		BQUERY_AND_VERGLAS, BQUERY_AND_NOT_VERGLAS, BQUERY_VERIFY_HUMIDITY, VERIF_TEMP_SEUIL
+		BQUERY_AND_VERGLAS, BQUERY_AND_NOT_VERGLAS, BQUERY_VERIFY_HUMIDITY, VERIF_TEMP_SEUIL, GQUERY_PROJECTED
 	}
 
 	/**
@@ -171,6 +171,14 @@ public abstract class RequestFactory {
 					new CExpBExp(new LCExp(new SRand(EnumSensorIdentifier.Humidity.name()), new CRand(seuilHumidity))),
 					new FCont(new ABase(p3), distanceHumidite3)), null);
 
+		case GQUERY_PROJECTED:
+			Position positionProjected = (Position) params[1];
+			int distanceProjected = (Integer) params[2];
+			Projection projection = (Projection) params[3];
+			EnumSensorIdentifier sensorIdProjected = (EnumSensorIdentifier) params[4];
+			return new Request(new GQuery(new FGather(sensorIdProjected.name()),
+					new FCont(new ABase(positionProjected), distanceProjected), projection), null);
+
 		default:
 			throw new IllegalArgumentException("Unknown request type: " + type);
 		}
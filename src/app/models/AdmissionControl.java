@@ -0,0 +1,234 @@
+package app.models;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import fr.sorbonne_u.cps.sensor_network.interfaces.RequestI;
+
+/**
+ * Bounded queue of the asynchronous requests pending at a node, with the
+ * policy applied when it is full and counters of the requests shed. Requests
+ * are served as by an {@link AgingPriorityQueue}, keyed by their client. The
+ * requests of each client can also be limited to a rate: the requests beyond
+ * it are shed as if the queue were full, without ever making other requests
+ * drop.
+ *
+ * @param <E> The type of the queued requests.
+ */
+public class AdmissionControl<E> {
+
+	private final AgingPriorityQueue<E> queue;
+	private final int capacity; // 0 for an unbounded queue
+	private final OverloadPolicy policy;
+	private final Map<Object, TokenBucket> buckets = new HashMap<>();
+	private double rateLimit; // requests per second and client, 0 for no limit
+	private int burst;
+	private int depth;
+	private int peakDepth;
+	private long rejected;
+	private long dropped;
+	private long degraded;
+	private long throttled;
+
+	/**
+	 * Constructs the admission control of a queue.
+	 *
+	 * @param agingStep The aging step of the queue, in milliseconds.
+	 * @param capacity  The maximum number of pending requests, or 0 for no bound.
+	 * @param policy    The policy applied to the requests arriving when the queue
+	 *                  is full.
+	 */
+	public AdmissionControl(long agingStep, int capacity, OverloadPolicy policy) {
+		this.queue = new AgingPriorityQueue<>(agingStep);
+		this.capacity = capacity;
+		this.policy = policy;
+	}
+
+	/**
+	 * Returns the key of the client of a request.
+	 *
+	 * @param request The request.
+	 * @return the identifier of its client, or null if it has none.
+	 */
+	public static String clientOf(RequestI request) {
+		return request.clientConnectionInfo() == null ? null : request.clientConnectionInfo().nodeIdentifier();
+	}
+
+	/**
+	 * Limits the rate of the requests of each client.
+	 *
+	 * @param rate  The sustained number of requests per second of a client, or 0
+	 *              for no limit.
+	 * @param burst The largest number of requests of a client admitted at once.
+	 */
+	public synchronized void setRateLimit(double rate, int burst) {
+		this.rateLimit = rate;
+		this.burst = burst;
+		this.buckets.clear();
+	}
+
+	/**
+	 * Sets the share of a client: in its turn, it gets as many requests served as
+	 * its weight.
+	 *
+	 * @param key    The key of the client.
+	 * @param weight The weight of the client, at least 1.
+	 */
+	public void setWeight(Object key, int weight) {
+		this.queue.setWeight(key, weight);
+	}
+
+	/**
+	 * Admits a request without client, applying the overload policy if the queue
+	 * is full.
+	 *
+	 * @param priority The class of the request.
+	 * @param element  The request.
+	 * @return see {@link #admit(Priority, Object, Object)}.
+	 */
+	public E admit(Priority priority, E element) {
+		return admit(priority, null, element);
+	}
+
+	/**
+	 * Admits a request, applying the overload policy if its client exceeds its
+	 * rate or the queue is full.
+	 *
+	 * @param priority The class of the request.
+	 * @param key      The key of the client of the request, or null.
+	 * @param element  The request.
+	 * @return null if the request was queued without shedding any; the request
+	 *         itself if it was not queued, to be refused or, with
+	 *         {@link OverloadPolicy#LOCAL_ONLY}, evaluated locally; otherwise the
+	 *         pending request dropped to make room for it.
+	 */
+	public synchronized E admit(Priority priority, Object key, E element) {
+		if (this.rateLimit > 0) {
+			long now = System.nanoTime();
+			TokenBucket bucket = this.buckets.computeIfAbsent(key, k -> new TokenBucket(this.rateLimit, this.burst, now));
+			if (!bucket.tryAcquire(now)) {
+				this.throttled++;
+				if (this.policy == OverloadPolicy.LOCAL_ONLY) {
+					this.degraded++;
+				} else {
+					this.rejected++;
+				}
+				return element;
+			}
+		}
+		if (this.capacity <= 0 || this.depth < this.capacity) {
+			this.queue.add(priority, key, element);
+			this.peakDepth = Math.max(this.peakDepth, ++this.depth);
+			return null;
+		}
+		switch (this.policy) {
+		case DROP_OLDEST:
+			E victim = this.queue.evict(priority);
+			if (victim != null) {
+				this.queue.add(priority, key, element);
+				this.dropped++;
+				return victim;
+			}
+			this.rejected++;
+			return element;
+		case LOCAL_ONLY:
+			this.degraded++;
+			return element;
+		default:
+			this.rejected++;
+			return element;
+		}
+	}
+
+	/**
+	 * Removes the most urgent pending request.
+	 *
+	 * @return the request, or null if none is pending.
+	 */
+	public synchronized E poll() {
+		E next = this.queue.poll();
+		if (next != null) {
+			this.depth--;
+		}
+		return next;
+	}
+
+	/**
+	 * Returns the policy applied when the queue is full.
+	 *
+	 * @return the overload policy.
+	 */
+	public OverloadPolicy getPolicy() {
+		return this.policy;
+	}
+
+	/**
+	 * Returns the queue of the pending requests.
+	 *
+	 * @return the queue.
+	 */
+	public AgingPriorityQueue<E> getQueue() {
+		return this.queue;
+	}
+
+	/**
+	 * Returns the number of pending requests.
+	 *
+	 * @return the depth of the queue.
+	 */
+	public synchronized int getDepth() {
+		return this.depth;
+	}
+
+	/**
+	 * Returns the largest number of requests pending at once.
+	 *
+	 * @return the peak depth of the queue.
+	 */
+	public synchronized int getPeakDepth() {
+		return this.peakDepth;
+	}
+
+	/**
+	 * Returns the number of requests refused.
+	 *
+	 * @return the number of rejected requests.
+	 */
+	public synchronized long getRejected() {
+		return this.rejected;
+	}
+
+	/**
+	 * Returns the number of pending requests dropped to make room for others.
+	 *
+	 * @return the number of dropped requests.
+	 */
+	public synchronized long getDropped() {
+		return this.dropped;
+	}
+
+	/**
+	 * Returns the number of requests evaluated locally only.
+	 *
+	 * @return the number of degraded requests.
+	 */
+	public synchronized long getDegraded() {
+		return this.degraded;
+	}
+
+	/**
+	 * Returns the number of requests shed because their client exceeded its
+	 * rate, included in the rejected or degraded ones.
+	 *
+	 * @return the number of throttled requests.
+	 */
+	public synchronized long getThrottled() {
+		return this.throttled;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "depth=" + this.depth + " peak=" + this.peakDepth + " rejected=" + this.rejected + " dropped="
+				+ this.dropped + " degraded=" + this.degraded + " throttled=" + this.throttled;
+	}
+}
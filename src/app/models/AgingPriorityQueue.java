@@ -0,0 +1,296 @@
+package app.models;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queue of the pending work of a node, served by {@link Priority} class. The
+ * head of the most urgent class goes first. To keep less urgent classes from
+ * starving, an element gains one class for every aging step it has waited,
+ * ties going to the originally more urgent class: a bulk request waiting three
+ * steps goes before a fresh alert.
+ *
+ * Within a class, elements are grouped by key, the client of a request, and
+ * the keys are served in weighted round robin: each key with pending elements
+ * in turn gets as many elements served as its weight, 1 by default, so that a
+ * burst of one client only delays that client. Each key is served in arrival
+ * order.
+ *
+ * @param <E> The type of the queued elements.
+ */
+public class AgingPriorityQueue<E> {
+
+	private static final Object NO_KEY = new Object();
+
+	private final long agingStep; // in nanoseconds, 0 disables aging
+	private final Lane<E>[] lanes;
+	private final Map<Object, Integer> weights = new HashMap<>();
+	private final long[] served;
+	private final long[] maxWait;
+
+	private static final class Pending<E> {
+		final E element;
+		final long since;
+
+		Pending(E element, long since) {
+			this.element = element;
+			this.since = since;
+		}
+	}
+
+	/**
+	 * Elements of one class, by key, with the keys having pending elements in
+	 * their round-robin order.
+	 */
+	private static final class Lane<E> {
+		final Map<Object, ArrayDeque<Pending<E>>> flows = new HashMap<>();
+		final ArrayDeque<Object> active = new ArrayDeque<>();
+		int credit; // elements left to the first active key in its turn, 0 before it starts
+
+		void add(Object key, Pending<E> pending) {
+			ArrayDeque<Pending<E>> flow = this.flows.get(key);
+			if (flow == null) {
+				flow = new ArrayDeque<>();
+				this.flows.put(key, flow);
+				this.active.addLast(key);
+			}
+			flow.addLast(pending);
+		}
+
+		Pending<E> peek() {
+			Object key = this.active.peekFirst();
+			return key == null ? null : this.flows.get(key).peekFirst();
+		}
+
+		Pending<E> poll(int weight) {
+			Object key = this.active.peekFirst();
+			ArrayDeque<Pending<E>> flow = this.flows.get(key);
+			Pending<E> head = flow.pollFirst();
+			if (this.credit == 0) {
+				this.credit = weight;
+			}
+			this.credit--;
+			if (flow.isEmpty()) {
+				this.flows.remove(key);
+				this.active.pollFirst();
+				this.credit = 0;
+			} else if (this.credit == 0) {
+				this.active.addLast(this.active.pollFirst());
+			}
+			return head;
+		}
+
+		Pending<E> evict() {
+			Object longest = null;
+			int size = 0;
+			for (Object key : this.active) {
+				int n = this.flows.get(key).size();
+				if (n > size) {
+					longest = key;
+					size = n;
+				}
+			}
+			if (longest == null) {
+				return null;
+			}
+			ArrayDeque<Pending<E>> flow = this.flows.get(longest);
+			Pending<E> oldest = flow.pollFirst();
+			if (flow.isEmpty()) {
+				this.flows.remove(longest);
+				if (longest == this.active.peekFirst()) {
+					this.credit = 0;
+				}
+				this.active.remove(longest);
+			}
+			return oldest;
+		}
+
+		int size() {
+			int size = 0;
+			for (ArrayDeque<Pending<E>> flow : this.flows.values()) {
+				size += flow.size();
+			}
+			return size;
+		}
+	}
+
+	/**
+	 * Constructs an empty queue.
+	 *
+	 * @param agingStep The time after which a waiting element gains one class, in
+	 *                  milliseconds, or 0 to never promote elements.
+	 */
+	public AgingPriorityQueue(long agingStep) {
+		this.agingStep = TimeUnit.MILLISECONDS.toNanos(agingStep);
+		@SuppressWarnings({ "unchecked", "rawtypes" }) // arrays of a generic type can only be created raw
+		Lane<E>[] lanes = new Lane[Priority.values().length];
+		this.lanes = lanes;
+		for (int i = 0; i < this.lanes.length; i++) {
+			this.lanes[i] = new Lane<>();
+		}
+		this.served = new long[this.lanes.length];
+		this.maxWait = new long[this.lanes.length];
+	}
+
+	/**
+	 * Sets the number of elements of a key served in each of its turns.
+	 *
+	 * @param key    The key.
+	 * @param weight The weight of the key, at least 1.
+	 */
+	public synchronized void setWeight(Object key, int weight) {
+		if (weight < 1) {
+			throw new IllegalArgumentException("Weight of " + key + " must be at least 1: " + weight);
+		}
+		this.weights.put(key, weight);
+	}
+
+	/**
+	 * Adds an element without key to the queue.
+	 *
+	 * @param priority The class of the element.
+	 * @param element  The element.
+	 */
+	public void add(Priority priority, E element) {
+		add(priority, null, element, System.nanoTime());
+	}
+
+	/**
+	 * Adds an element without key to the queue at the given time.
+	 *
+	 * @param priority The class of the element.
+	 * @param element  The element.
+	 * @param now      The current time, in nanoseconds.
+	 */
+	public void add(Priority priority, E element, long now) {
+		add(priority, null, element, now);
+	}
+
+	/**
+	 * Adds an element to the queue.
+	 *
+	 * @param priority The class of the element.
+	 * @param key      The key of the element, or null.
+	 * @param element  The element.
+	 */
+	public void add(Priority priority, Object key, E element) {
+		add(priority, key, element, System.nanoTime());
+	}
+
+	/**
+	 * Adds an element to the queue at the given time.
+	 *
+	 * @param priority The class of the element.
+	 * @param key      The key of the element, or null.
+	 * @param element  The element.
+	 * @param now      The current time, in nanoseconds.
+	 */
+	public synchronized void add(Priority priority, Object key, E element, long now) {
+		this.lanes[priority.ordinal()].add(key == null ? NO_KEY : key, new Pending<>(element, now));
+	}
+
+	/**
+	 * Removes the oldest element of the key with the most pending elements in the
+	 * least urgent class, to make room for an element of the given class.
+	 * Elements more urgent than it are kept.
+	 *
+	 * @param priority The class of the element to make room for.
+	 * @return the removed element, or null if every pending element is more
+	 *         urgent.
+	 */
+	public synchronized E evict(Priority priority) {
+		for (int i = this.lanes.length - 1; i >= priority.ordinal(); i--) {
+			Pending<E> oldest = this.lanes[i].evict();
+			if (oldest != null) {
+				return oldest.element;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Removes the most urgent element, taking aging into account.
+	 *
+	 * @return the element, or null if the queue is empty.
+	 */
+	public E poll() {
+		return poll(System.nanoTime());
+	}
+
+	/**
+	 * Removes the most urgent element at the given time.
+	 *
+	 * @param now The current time, in nanoseconds.
+	 * @return the element, or null if the queue is empty.
+	 */
+	public synchronized E poll(long now) {
+		int best = -1;
+		long bestRank = Long.MAX_VALUE;
+		for (int i = 0; i < this.lanes.length; i++) {
+			Pending<E> head = this.lanes[i].peek();
+			if (head != null) {
+				long rank = i - (this.agingStep > 0 ? (now - head.since) / this.agingStep : 0);
+				if (rank < bestRank) {
+					best = i;
+					bestRank = rank;
+				}
+			}
+		}
+		if (best < 0) {
+			return null;
+		}
+		Lane<E> lane = this.lanes[best];
+		Pending<E> head = lane.poll(this.weights.getOrDefault(lane.active.peekFirst(), 1));
+		this.served[best]++;
+		this.maxWait[best] = Math.max(this.maxWait[best], now - head.since);
+		return head.element;
+	}
+
+	/**
+	 * Returns the number of pending elements.
+	 *
+	 * @return the size of the queue.
+	 */
+	public synchronized int size() {
+		int size = 0;
+		for (Lane<E> lane : this.lanes) {
+			size += lane.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Returns the number of elements of a class removed so far.
+	 *
+	 * @param priority The class.
+	 * @return the number of served elements of the class.
+	 */
+	public synchronized long getServed(Priority priority) {
+		return this.served[priority.ordinal()];
+	}
+
+	/**
+	 * Returns the longest time an element of a class waited in the queue.
+	 *
+	 * @param priority The class.
+	 * @return the longest wait, in milliseconds.
+	 */
+	public synchronized double getMaxWait(Priority priority) {
+		return this.maxWait[priority.ordinal()] / 1e6;
+	}
+
+	@Override
+	public synchronized String toString() {
+		StringBuilder sb = new StringBuilder();
+		for (Priority p : Priority.values()) {
+			if (sb.length() > 0) {
+				sb.append(", ");
+			}
+			sb.append(p).append(": served=").append(this.served[p.ordinal()]).append(" maxWait=")
+					.append(String.format("%.1f", getMaxWait(p))).append("ms");
+		}
+		return sb.toString();
+	}
+}
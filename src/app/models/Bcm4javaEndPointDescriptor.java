@@ -1,5 +1,9 @@
 package app.models;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -12,12 +16,18 @@ import fr.sorbonne_u.cps.sensor_network.interfaces.BCM4JavaEndPointDescriptorI;
  * encapsulates details about the inbound port URI and the interfaces offered by
  * a component.
  */
-public class Bcm4javaEndPointDescriptor implements BCM4JavaEndPointDescriptorI {
+public class Bcm4javaEndPointDescriptor implements BCM4JavaEndPointDescriptorI, Externalizable {
 
 	private static final long serialVersionUID = 1L;
 	private String inboundPortURI;
 	private Set<Class<? extends OfferedCI>> offeredInterfaces;
 
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public Bcm4javaEndPointDescriptor() {
+	}
+
 	/**
 	 * Constructs a new endpoint descriptor with a specified inbound port URI.
 	 *
@@ -49,4 +59,25 @@ public class Bcm4javaEndPointDescriptor implements BCM4JavaEndPointDescriptorI {
 	public boolean isOfferedInterface(Class<? extends OfferedCI> inter) {
 		return this.offeredInterfaces.contains(inter);
 	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		WireFormat.writeString(out, inboundPortURI);
+		out.writeInt(offeredInterfaces.size());
+		for (Class<? extends OfferedCI> inter : offeredInterfaces) {
+			out.writeObject(inter);
+		}
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		WireFormat.readVersion(in, Bcm4javaEndPointDescriptor.class);
+		this.inboundPortURI = WireFormat.readString(in);
+		int n = in.readInt();
+		this.offeredInterfaces = new HashSet<>(n * 2);
+		for (int i = 0; i < n; i++) {
+			this.offeredInterfaces.add(((Class<?>) in.readObject()).asSubclass(OfferedCI.class));
+		}
+	}
 }
@@ -0,0 +1,243 @@
+package app.models;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+
+import fr.sorbonne_u.cps.sensor_network.interfaces.Direction;
+import fr.sorbonne_u.cps.sensor_network.interfaces.NodeInfoI;
+import fr.sorbonne_u.cps.sensor_network.interfaces.SensorDataI;
+
+/**
+ * Compact summary of the sensors carried by a node and by the nodes reachable
+ * from it. Sensor types are encoded as bits of a {@code long}: one bit per
+ * {@link EnumSensorIdentifier}, plus a shared bit for any other identifier.
+ *
+ * Besides its own sensors, a node advertises what a query can reach by leaving
+ * it through a set of directions: entry {@code m} of the reach table, where
+ * {@code m} is a bitmask of direction ordinals, is the union of the sensors of
+ * every node a query limited to those directions can visit next. Flooding
+ * queries use the entry of all four directions.
+ *
+ * Summaries only grow while the network forms and are exchanged on
+ * {@code ask4Connection}; they over-approximate, so a branch is only skipped
+ * when none of its nodes can contribute. Neighbours without a summary are
+ * considered able to contribute anything.
+ */
+public final class CapabilitySummary implements Externalizable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Mask containing every sensor type. */
+	public static final long ALL = -1L;
+	/** Bit shared by the sensor identifiers outside {@link EnumSensorIdentifier}. */
+	public static final long OTHER = Long.MIN_VALUE;
+	/** Bitmask of the four directions. */
+	public static final int ALL_DIRECTIONS = (1 << Direction.values().length) - 1;
+
+	private static final CapabilitySummary UNKNOWN = new CapabilitySummary(ALL, filled(ALL));
+
+	private long own;
+	private long[] reach;
+
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public CapabilitySummary() {
+	}
+
+	/**
+	 * Constructs the summary of a node that does not know what lies beyond it
+	 * yet.
+	 *
+	 * @param own The sensors of the node.
+	 */
+	public CapabilitySummary(long own) {
+		this(own, filled(0L));
+	}
+
+	private CapabilitySummary(long own, long[] reach) {
+		this.own = own;
+		this.reach = reach;
+	}
+
+	/**
+	 * Returns the summary of a node which advertised none, able to contribute
+	 * anything.
+	 *
+	 * @return the summary of an unknown node.
+	 */
+	public static CapabilitySummary unknown() {
+		return UNKNOWN;
+	}
+
+	/**
+	 * Returns the summary advertised by a neighbour.
+	 *
+	 * @param node The neighbour.
+	 * @return its summary, or {@link #unknown()} if it advertised none.
+	 */
+	public static CapabilitySummary of(NodeInfoI node) {
+		if (node instanceof Descriptor && ((Descriptor) node).getCapabilities() != null) {
+			return ((Descriptor) node).getCapabilities();
+		}
+		return UNKNOWN;
+	}
+
+	/**
+	 * Returns the bit of a sensor identifier.
+	 *
+	 * @param sensorId The sensor identifier.
+	 * @return the bit of its type.
+	 */
+	public static long bit(String sensorId) {
+		for (EnumSensorIdentifier id : EnumSensorIdentifier.values()) {
+			if (id.name().equals(sensorId)) {
+				return 1L << id.ordinal();
+			}
+		}
+		return OTHER;
+	}
+
+	/**
+	 * Returns the mask of a set of sensor identifiers.
+	 *
+	 * @param sensorIds The sensor identifiers.
+	 * @return the union of their bits.
+	 */
+	public static long maskOfIds(Collection<String> sensorIds) {
+		long mask = 0L;
+		for (String id : sensorIds) {
+			mask |= bit(id);
+		}
+		return mask;
+	}
+
+	/**
+	 * Returns the mask of the sensors of a node.
+	 *
+	 * @param sensors The sensor data of the node.
+	 * @return the union of the bits of their identifiers.
+	 */
+	public static long maskOf(Collection<SensorDataI> sensors) {
+		long mask = 0L;
+		for (SensorDataI data : sensors) {
+			mask |= bit(data.getSensorIdentifier());
+		}
+		return mask;
+	}
+
+	/**
+	 * Returns the bitmask of a set of directions.
+	 *
+	 * @param directions The directions.
+	 * @return the union of the bits of their ordinals.
+	 */
+	public static int directionMask(Set<Direction> directions) {
+		int mask = 0;
+		for (Direction d : directions) {
+			mask |= 1 << d.ordinal();
+		}
+		return mask;
+	}
+
+	/**
+	 * Computes the summary of a node from its sensors and the summaries of its
+	 * connected neighbours: through the neighbour in direction {@code d}, a query
+	 * limited to the directions {@code m} reaches that neighbour and whatever it
+	 * reaches itself for {@code m}, provided {@code d} is in {@code m}.
+	 *
+	 * @param own        The sensors of the node.
+	 * @param neighbours The connected neighbours by direction.
+	 * @return the summary of the node.
+	 */
+	public static CapabilitySummary compute(long own, Map<Direction, NodeInfoI> neighbours) {
+		long[] reach = filled(0L);
+		for (Map.Entry<Direction, NodeInfoI> e : neighbours.entrySet()) {
+			int bit = 1 << e.getKey().ordinal();
+			CapabilitySummary n = of(e.getValue());
+			for (int m = 0; m <= ALL_DIRECTIONS; m++) {
+				if ((m & bit) != 0) {
+					reach[m] |= n.own | n.reach[m];
+				}
+			}
+		}
+		return new CapabilitySummary(own, reach);
+	}
+
+	/**
+	 * Returns the sensors of the node itself.
+	 *
+	 * @return the mask of the node's sensors.
+	 */
+	public long getOwn() {
+		return this.own;
+	}
+
+	/**
+	 * Returns the sensors a query limited to the given directions can reach
+	 * beyond the node.
+	 *
+	 * @param directionMask The bitmask of the directions of the query.
+	 * @return the mask of the reachable sensors.
+	 */
+	public long reachable(int directionMask) {
+		return this.reach[directionMask];
+	}
+
+	/**
+	 * Returns the sensors a query limited to the given directions can find at the
+	 * node or beyond it.
+	 *
+	 * @param directionMask The bitmask of the directions of the query.
+	 * @return the mask of the sensors of the node and of the reachable ones.
+	 */
+	public long subtree(int directionMask) {
+		return this.own | this.reach[directionMask];
+	}
+
+	private static long[] filled(long value) {
+		long[] table = new long[ALL_DIRECTIONS + 1];
+		Arrays.fill(table, value);
+		return table;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof CapabilitySummary))
+			return false;
+		CapabilitySummary that = (CapabilitySummary) obj;
+		return this.own == that.own && Arrays.equals(this.reach, that.reach);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Long.hashCode(this.own) + Arrays.hashCode(this.reach);
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		out.writeLong(this.own);
+		for (int m = 1; m <= ALL_DIRECTIONS; m++) {
+			out.writeLong(this.reach[m]);
+		}
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException {
+		WireFormat.readVersion(in, CapabilitySummary.class);
+		this.own = in.readLong();
+		this.reach = new long[ALL_DIRECTIONS + 1];
+		for (int m = 1; m <= ALL_DIRECTIONS; m++) {
+			this.reach[m] = in.readLong();
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package app.models;
+
+import fr.sorbonne_u.cps.sensor_network.interfaces.GeographicalZoneI;
+import fr.sorbonne_u.cps.sensor_network.interfaces.PositionI;
+
+/**
+ * Geographical zone made of the positions within a given distance of a center,
+ * such as the area covered by a flooding continuation.
+ */
+public class CircularZone implements GeographicalZoneI {
+
+	private static final long serialVersionUID = 1L;
+
+	private final PositionI center; // Center of the zone
+	private final double radius; // Largest distance from the center of a position inside the zone
+
+	/**
+	 * Constructs the zone of the positions within a distance of a center.
+	 *
+	 * @param center The center of the zone.
+	 * @param radius The largest distance from the center, included.
+	 */
+	public CircularZone(PositionI center, double radius) {
+		this.center = center;
+		this.radius = radius;
+	}
+
+	/**
+	 * Retrieves the center of the zone.
+	 *
+	 * @return the {@link PositionI} of the center.
+	 */
+	public PositionI getCenter() {
+		return center;
+	}
+
+	/**
+	 * Retrieves the radius of the zone.
+	 *
+	 * @return the largest distance from the center.
+	 */
+	public double getRadius() {
+		return radius;
+	}
+
+	@Override
+	public boolean in(PositionI p) {
+		return center.distance(p) <= radius;
+	}
+}
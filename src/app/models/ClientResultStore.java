@@ -0,0 +1,412 @@
+package app.models;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import fr.sorbonne_u.cps.sensor_network.interfaces.QueryResultI;
+
+/**
+ * Results received by a client for its asynchronous requests, until they are
+ * merged. A request is opened when it is sent and its results are dropped once
+ * they are taken, or once the request has been open for longer than the
+ * retention; results arriving for a request which is not open are ignored.
+ *
+ * The results held in memory are bounded by a budget, in estimated bytes. When
+ * it is exceeded, the results of the request holding the most are spilled to a
+ * memory-mapped file, and read back when they are taken; this need not be the
+ * request whose result was just added. Without spilling, or when the file has
+ * no free space large enough, they are dropped instead, and the request is
+ * reported incomplete when it is taken. The space of the results taken is
+ * reused, first fit.
+ */
+public class ClientResultStore implements AutoCloseable {
+
+	private static final long RESULT_BYTES = 64; // estimated size of an empty result
+	private static final long VALUE_BYTES = 64; // estimated size of a gathered value
+	private static final long NODE_BYTES = 48; // estimated size of a positive node
+
+	private final long budget;
+	private final long retention; // in milliseconds
+	private final int spillSize; // 0 disables spilling
+	private final Map<RequestId, Entry> entries = new LinkedHashMap<>(); // in opening order
+	private long held;
+	private Path spillFile; // created on the first spill
+	private FileChannel channel;
+	private MappedByteBuffer spill;
+	private final TreeMap<Integer, Integer> free = new TreeMap<>(); // free extents of the file, by offset
+	private long spilled;
+	private long dropped;
+	private long expired;
+
+	/**
+	 * Results of an open request.
+	 */
+	private static final class Entry {
+		final long expiry;
+		List<QueryResultI> results = new ArrayList<>();
+		long bytes;
+		List<int[]> segments; // offset and length of the spilled results, null if none
+		int dropped; // results dropped to stay within the budget
+
+		Entry(long expiry) {
+			this.expiry = expiry;
+		}
+	}
+
+	/**
+	 * Results of a request taken from the store.
+	 */
+	public static final class Taken {
+		private final List<QueryResultI> results;
+		private final int dropped;
+
+		Taken(List<QueryResultI> results, int dropped) {
+			this.results = results;
+			this.dropped = dropped;
+		}
+
+		/**
+		 * Returns the results kept for the request.
+		 *
+		 * @return the results, spilled ones first.
+		 */
+		public List<QueryResultI> getResults() {
+			return this.results;
+		}
+
+		/**
+		 * Returns the number of results of the request dropped to stay within the
+		 * budget.
+		 *
+		 * @return the number of dropped results, 0 if the results are complete.
+		 */
+		public int getDropped() {
+			return this.dropped;
+		}
+	}
+
+	/**
+	 * Constructs an empty store.
+	 *
+	 * @param budget    The estimated bytes of results held in memory.
+	 * @param retention The time after which the results of an open request are
+	 *                  dropped, in milliseconds.
+	 * @param spillSize The size of the spill file in bytes, or 0 to drop the
+	 *                  results exceeding the budget.
+	 */
+	public ClientResultStore(long budget, long retention, int spillSize) {
+		this.budget = budget;
+		this.retention = retention;
+		this.spillSize = spillSize;
+	}
+
+	/**
+	 * Returns the estimated size of a result in memory.
+	 *
+	 * @param result The result.
+	 * @return its size, in bytes.
+	 */
+	public static long sizeOf(QueryResultI result) {
+		return RESULT_BYTES + VALUE_BYTES * result.gatheredSensorsValues().size()
+				+ NODE_BYTES * result.positiveSensorNodes().size();
+	}
+
+	/**
+	 * Opens a request, dropping the results of the requests whose retention has
+	 * passed.
+	 *
+	 * @param requestId The identifier of the request.
+	 * @param now       The current time, in milliseconds.
+	 */
+	public synchronized void open(RequestId requestId, long now) {
+		evictExpired(now);
+		this.entries.putIfAbsent(requestId, new Entry(now + this.retention));
+	}
+
+	/**
+	 * Adds a result received for an open request.
+	 *
+	 * @param requestId The identifier of the request.
+	 * @param result    The result.
+	 * @return true if the result was kept, false if the request is not open.
+	 */
+	public synchronized boolean add(RequestId requestId, QueryResultI result) {
+		Entry entry = this.entries.get(requestId);
+		if (entry == null) {
+			return false;
+		}
+		long size = sizeOf(result);
+		entry.results.add(result);
+		entry.bytes += size;
+		this.held += size;
+		while (this.held > this.budget) {
+			Entry largest = largest();
+			if (largest.bytes == 0) {
+				break;
+			}
+			release(largest);
+		}
+		return true;
+	}
+
+	/**
+	 * Takes the results of a request, which is closed.
+	 *
+	 * @param requestId The identifier of the request.
+	 * @return the results received, or null if the request is not open.
+	 */
+	public synchronized Taken take(RequestId requestId) {
+		Entry entry = this.entries.remove(requestId);
+		if (entry == null) {
+			return null;
+		}
+		this.held -= entry.bytes;
+		if (entry.segments == null) {
+			return new Taken(entry.results, entry.dropped);
+		}
+		List<QueryResultI> results = new ArrayList<>();
+		for (int[] segment : entry.segments) {
+			results.addAll(readSegment(segment));
+		}
+		results.addAll(entry.results);
+		freeSegments(entry);
+		return new Taken(results, entry.dropped);
+	}
+
+	/**
+	 * Drops the results of the requests whose retention has passed.
+	 *
+	 * @param now The current time, in milliseconds.
+	 */
+	public synchronized void evictExpired(long now) {
+		Iterator<Entry> it = this.entries.values().iterator();
+		while (it.hasNext()) {
+			Entry entry = it.next();
+			if (entry.expiry > now) {
+				break; // opened in order, with the same retention
+			}
+			it.remove();
+			this.held -= entry.bytes;
+			freeSegments(entry);
+			this.expired++;
+		}
+	}
+
+	/**
+	 * Returns the entry holding the most results in memory.
+	 */
+	private Entry largest() {
+		Entry largest = null;
+		for (Entry entry : this.entries.values()) {
+			if (largest == null || entry.bytes > largest.bytes) {
+				largest = entry;
+			}
+		}
+		return largest;
+	}
+
+	/**
+	 * Frees the memory held by the results of an entry, spilling them if
+	 * possible and dropping them otherwise.
+	 */
+	private void release(Entry entry) {
+		int[] segment = writeSegment(entry.results);
+		if (segment != null) {
+			if (entry.segments == null) {
+				entry.segments = new ArrayList<>();
+			}
+			entry.segments.add(segment);
+			this.spilled += entry.results.size();
+		} else {
+			this.dropped += entry.results.size();
+			entry.dropped += entry.results.size();
+		}
+		this.held -= entry.bytes;
+		entry.results = new ArrayList<>();
+		entry.bytes = 0;
+	}
+
+	/**
+	 * Writes results in the first free extent of the spill file large enough.
+	 *
+	 * @return the offset and length of the segment, or null if they cannot be
+	 *         spilled.
+	 */
+	private int[] writeSegment(List<QueryResultI> results) {
+		if (this.spillSize <= 0) {
+			return null;
+		}
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+			out.writeObject(new ArrayList<>(results));
+		} catch (IOException e) {
+			return null;
+		}
+		byte[] bytes = buffer.toByteArray();
+		if (!mapSpillFile()) {
+			return null;
+		}
+		for (Map.Entry<Integer, Integer> extent : this.free.entrySet()) {
+			int offset = extent.getKey();
+			int length = extent.getValue();
+			if (length >= bytes.length) {
+				this.free.remove(offset);
+				if (length > bytes.length) {
+					this.free.put(offset + bytes.length, length - bytes.length);
+				}
+				this.spill.position(offset);
+				this.spill.put(bytes);
+				return new int[] { offset, bytes.length };
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Reads results back from the spill file.
+	 */
+	@SuppressWarnings("unchecked")
+	private List<QueryResultI> readSegment(int[] segment) {
+		byte[] bytes = new byte[segment[1]];
+		this.spill.position(segment[0]);
+		this.spill.get(bytes);
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+			return (List<QueryResultI>) in.readObject();
+		} catch (IOException | ClassNotFoundException e) {
+			throw new IllegalStateException("Cannot read spilled results", e);
+		}
+	}
+
+	/**
+	 * Releases the spilled segments of an entry, merging them with the free
+	 * extents they border.
+	 */
+	private void freeSegments(Entry entry) {
+		if (entry.segments == null) {
+			return;
+		}
+		for (int[] segment : entry.segments) {
+			int offset = segment[0];
+			int length = segment[1];
+			Map.Entry<Integer, Integer> before = this.free.floorEntry(offset);
+			if (before != null && before.getKey() + before.getValue() == offset) {
+				this.free.remove(before.getKey());
+				offset = before.getKey();
+				length += before.getValue();
+			}
+			Integer after = this.free.remove(offset + length);
+			if (after != null) {
+				length += after;
+			}
+			this.free.put(offset, length);
+		}
+		entry.segments = null;
+	}
+
+	/**
+	 * Creates and maps the spill file on first use.
+	 *
+	 * @return true if the spill file is mapped.
+	 */
+	private boolean mapSpillFile() {
+		if (this.spill != null) {
+			return true;
+		}
+		try {
+			this.spillFile = Files.createTempFile("client-results", ".spill");
+			this.spillFile.toFile().deleteOnExit();
+			this.channel = FileChannel.open(this.spillFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			this.spill = this.channel.map(FileChannel.MapMode.READ_WRITE, 0, this.spillSize);
+			this.free.put(0, this.spillSize);
+			return true;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Returns the number of open requests.
+	 *
+	 * @return the number of requests whose results are awaited.
+	 */
+	public synchronized int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * Returns the estimated size of the results held in memory.
+	 *
+	 * @return the bytes held.
+	 */
+	public synchronized long getHeld() {
+		return this.held;
+	}
+
+	/**
+	 * Returns the number of results spilled to the file so far.
+	 *
+	 * @return the number of spilled results.
+	 */
+	public synchronized long getSpilled() {
+		return this.spilled;
+	}
+
+	/**
+	 * Returns the number of results dropped because they exceeded the budget.
+	 *
+	 * @return the number of dropped results.
+	 */
+	public synchronized long getDropped() {
+		return this.dropped;
+	}
+
+	/**
+	 * Returns the number of requests whose results were dropped after their
+	 * retention.
+	 *
+	 * @return the number of expired requests.
+	 */
+	public synchronized long getExpired() {
+		return this.expired;
+	}
+
+	/**
+	 * Drops every result and deletes the spill file.
+	 */
+	@Override
+	public synchronized void close() {
+		this.entries.clear();
+		this.held = 0;
+		this.spill = null;
+		this.free.clear();
+		if (this.channel != null) {
+			try {
+				this.channel.close();
+				Files.deleteIfExists(this.spillFile);
+			} catch (IOException e) {
+				// deleted on exit
+			}
+			this.channel = null;
+		}
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "open=" + this.entries.size() + " held=" + this.held + "B spilled=" + this.spilled + " dropped="
+				+ this.dropped + " expired=" + this.expired;
+	}
+}
@@ -0,0 +1,497 @@
+package app.models;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import fr.sorbonne_u.cps.sensor_network.interfaces.QueryResultI;
+import fr.sorbonne_u.cps.sensor_network.interfaces.SensorDataI;
+
+/**
+ * Columnar representation of a query result. Node and sensor identifiers are
+ * dictionary-encoded, values are kept in a primitive {@code double[]} (booleans
+ * are encoded as 1 or 0), timestamps in a {@code long[]} of epoch nanoseconds
+ * and positive nodes in a bitset indexed by node code.
+ *
+ * The list-returning methods of {@link QueryResultI} are materialized lazily
+ * from the columns and cached; merging another result appends to the columns
+ * and drops the cache. These lists are read-only, since their changes would
+ * never reach the columns: results are only changed through {@link #add},
+ * {@link #addPositive} and {@link #merge}. Values that are neither numeric nor
+ * boolean are kept aside as plain objects.
+ *
+ * The encoding is not entirely transparent: numeric values other than booleans
+ * are read back as {@code Double}, whatever their original type, and a node
+ * marked positive several times is listed once.
+ *
+ * Forks share the columns and copy them on their first write.
+ */
+public class ColumnarQueryResult extends QueryResult {
+
+	private static final long serialVersionUID = 1L;
+	private static final int INITIAL_CAPACITY = 8;
+	private static final long NO_TIMESTAMP = Long.MIN_VALUE;
+	private static final int NO_NODE = -1;
+
+	private ArrayList<String> nodeDictionary = new ArrayList<>();
+	private ArrayList<String> sensorDictionary = new ArrayList<>();
+	private transient HashMap<String, Integer> nodeCodes = new HashMap<>();
+	private transient HashMap<String, Integer> sensorCodes = new HashMap<>();
+
+	private int size;
+	private int[] nodeColumn = new int[INITIAL_CAPACITY];
+	private int[] sensorColumn = new int[INITIAL_CAPACITY];
+	private double[] valueColumn = new double[INITIAL_CAPACITY];
+	private long[] timestampColumn = new long[INITIAL_CAPACITY];
+	private BitSet booleanValues = new BitSet(); // rows holding a boolean value
+	private BitSet positives = new BitSet(); // node codes of positive nodes
+	private ArrayList<SensorDataI> others = new ArrayList<>(); // non numeric values
+
+	private transient boolean shared; // columns shared with a fork, copied on write
+
+	private transient ReadOnlyList<SensorDataI> gatheredView;
+	private transient ReadOnlyList<String> positivesView;
+
+	/**
+	 * List materialized from the columns, whose changes are refused.
+	 */
+	private static final class ReadOnlyList<E> extends ArrayList<E> {
+		private static final long serialVersionUID = 1L;
+
+		ReadOnlyList(int capacity) {
+			super(capacity);
+		}
+
+		void append(E e) {
+			super.add(e);
+		}
+
+		void appendAll(Collection<? extends E> c) {
+			super.addAll(c);
+		}
+
+		@Override
+		public boolean add(E e) {
+			throw new UnsupportedOperationException("Columnar results are changed through add or merge");
+		}
+
+		@Override
+		public void add(int index, E element) {
+			throw new UnsupportedOperationException("Columnar results are changed through add or merge");
+		}
+
+		@Override
+		public boolean addAll(Collection<? extends E> c) {
+			throw new UnsupportedOperationException("Columnar results are changed through add or merge");
+		}
+
+		@Override
+		public boolean addAll(int index, Collection<? extends E> c) {
+			throw new UnsupportedOperationException("Columnar results are changed through add or merge");
+		}
+
+		@Override
+		public E set(int index, E element) {
+			throw new UnsupportedOperationException("Columnar results are read-only");
+		}
+
+		@Override
+		public E remove(int index) {
+			throw new UnsupportedOperationException("Columnar results are read-only");
+		}
+
+		@Override
+		public boolean remove(Object o) {
+			throw new UnsupportedOperationException("Columnar results are read-only");
+		}
+
+		@Override
+		public boolean removeAll(Collection<?> c) {
+			throw new UnsupportedOperationException("Columnar results are read-only");
+		}
+
+		@Override
+		public boolean retainAll(Collection<?> c) {
+			throw new UnsupportedOperationException("Columnar results are read-only");
+		}
+
+		@Override
+		public boolean removeIf(Predicate<? super E> filter) {
+			throw new UnsupportedOperationException("Columnar results are read-only");
+		}
+
+		@Override
+		protected void removeRange(int fromIndex, int toIndex) {
+			throw new UnsupportedOperationException("Columnar results are read-only");
+		}
+
+		@Override
+		public void replaceAll(UnaryOperator<E> operator) {
+			throw new UnsupportedOperationException("Columnar results are read-only");
+		}
+
+		@Override
+		public void sort(Comparator<? super E> c) {
+			throw new UnsupportedOperationException("Columnar results are read-only");
+		}
+
+		@Override
+		public void clear() {
+			throw new UnsupportedOperationException("Columnar results are read-only");
+		}
+
+		@Override
+		public List<E> subList(int fromIndex, int toIndex) {
+			return Collections.unmodifiableList(super.subList(fromIndex, toIndex));
+		}
+	}
+
+	/**
+	 * Constructs an empty columnar query result.
+	 */
+	public ColumnarQueryResult() {
+		super(null, null);
+	}
+
+	/**
+	 * Returns the number of rows stored in the value columns.
+	 *
+	 * @return the number of encoded sensor values.
+	 */
+	public int size() {
+		return this.size;
+	}
+
+	/**
+	 * Appends a piece of sensor data to the columns.
+	 *
+	 * @param data The sensor data to append.
+	 */
+	public void add(SensorDataI data) {
+		unshare();
+		if (data == null || !CompactSensorData.canProject(data)) {
+			this.others.add(data);
+			this.gatheredView = null;
+			return;
+		}
+		ensureCapacity(this.size + 1);
+		Serializable v = data.getValue();
+		int row = this.size++;
+		this.nodeColumn[row] = data.getNodeIdentifier() == null ? NO_NODE
+				: encode(data.getNodeIdentifier(), this.nodeDictionary, this.nodeCodes);
+		this.sensorColumn[row] = encode(data.getSensorIdentifier(), this.sensorDictionary, this.sensorCodes);
+		if (v instanceof Boolean) {
+			this.valueColumn[row] = (Boolean) v ? 1.0 : 0.0;
+			this.booleanValues.set(row);
+		} else {
+			this.valueColumn[row] = ((Number) v).doubleValue();
+		}
+		Instant t = data.getTimestamp();
+		this.timestampColumn[row] = t == null ? NO_TIMESTAMP : t.getEpochSecond() * 1_000_000_000L + t.getNano();
+		this.gatheredView = null;
+	}
+
+	/**
+	 * Marks a node as positive.
+	 *
+	 * @param nodeIdentifier The identifier of the positive node.
+	 */
+	public void addPositive(String nodeIdentifier) {
+		unshare();
+		this.positives.set(encode(nodeIdentifier, this.nodeDictionary, this.nodeCodes));
+		this.positivesView = null;
+	}
+
+	/**
+	 * Merges another result into this one. Columnar results are appended column by
+	 * column, re-encoding only their dictionaries; other results are appended
+	 * element by element.
+	 *
+	 * @param other The query result to merge into this one.
+	 */
+	@Override
+	public void merge(QueryResultI other) {
+		if (!(other instanceof ColumnarQueryResult)) {
+			for (SensorDataI data : other.gatheredSensorsValues()) {
+				add(data);
+			}
+			for (String node : other.positiveSensorNodes()) {
+				addPositive(node);
+			}
+			return;
+		}
+		unshare();
+		ColumnarQueryResult that = (ColumnarQueryResult) other;
+		int[] nodeMap = remap(that.nodeDictionary, this.nodeDictionary, this.nodeCodes);
+		int[] sensorMap = remap(that.sensorDictionary, this.sensorDictionary, this.sensorCodes);
+		ensureCapacity(this.size + that.size);
+		for (int i = 0; i < that.size; i++) {
+			int row = this.size + i;
+			this.nodeColumn[row] = that.nodeColumn[i] == NO_NODE ? NO_NODE : nodeMap[that.nodeColumn[i]];
+			this.sensorColumn[row] = sensorMap[that.sensorColumn[i]];
+		}
+		System.arraycopy(that.valueColumn, 0, this.valueColumn, this.size, that.size);
+		System.arraycopy(that.timestampColumn, 0, this.timestampColumn, this.size, that.size);
+		for (int i = that.booleanValues.nextSetBit(0); i >= 0; i = that.booleanValues.nextSetBit(i + 1)) {
+			this.booleanValues.set(this.size + i);
+		}
+		for (int i = that.positives.nextSetBit(0); i >= 0; i = that.positives.nextSetBit(i + 1)) {
+			this.positives.set(nodeMap[i]);
+		}
+		this.size += that.size;
+		this.others.addAll(that.others);
+		this.gatheredView = null;
+		this.positivesView = null;
+	}
+
+	/**
+	 * Materializes the gathered values from the columns. The list is read-only and
+	 * cached until the next merge.
+	 *
+	 * @return the gathered sensor data.
+	 */
+	@Override
+	public ArrayList<SensorDataI> gatheredSensorsValues() {
+		if (this.gatheredView == null) {
+			ReadOnlyList<SensorDataI> view = new ReadOnlyList<>(this.size + this.others.size());
+			for (int row = 0; row < this.size; row++) {
+				view.append(row(row));
+			}
+			view.appendAll(this.others);
+			this.gatheredView = view;
+		}
+		return this.gatheredView;
+	}
+
+	/**
+	 * Materializes the positive nodes from the bitset, in dictionary order, each
+	 * node once. The list is read-only and cached until the next merge.
+	 *
+	 * @return the identifiers of the positive nodes.
+	 */
+	@Override
+	public ArrayList<String> positiveSensorNodes() {
+		if (this.positivesView == null) {
+			ReadOnlyList<String> view = new ReadOnlyList<>(this.positives.cardinality());
+			for (int i = this.positives.nextSetBit(0); i >= 0; i = this.positives.nextSetBit(i + 1)) {
+				view.append(this.nodeDictionary.get(i));
+			}
+			this.positivesView = view;
+		}
+		return this.positivesView;
+	}
+
+	@Override
+	protected boolean isRope() {
+		return false;
+	}
+
+	@Override
+	public QueryResult newEmpty() {
+		return new ColumnarQueryResult();
+	}
+
+	/**
+	 * Forks this result in constant time: the fork shares the columns of this
+	 * result, and whichever of the two is written first copies them.
+	 *
+	 * @return a new result sharing the columns of this one.
+	 */
+	@Override
+	public synchronized QueryResult fork() {
+		try {
+			ColumnarQueryResult forked = (ColumnarQueryResult) super.clone();
+			forked.shared = true;
+			forked.gatheredView = null;
+			forked.positivesView = null;
+			this.shared = true;
+			return forked;
+		} catch (CloneNotSupportedException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@Override
+	public ColumnarQueryResult clone() throws CloneNotSupportedException {
+		ColumnarQueryResult cloned = (ColumnarQueryResult) super.clone();
+		cloned.shared = false;
+		cloned.nodeDictionary = new ArrayList<>(this.nodeDictionary);
+		cloned.sensorDictionary = new ArrayList<>(this.sensorDictionary);
+		cloned.nodeCodes = new HashMap<>(this.nodeCodes);
+		cloned.sensorCodes = new HashMap<>(this.sensorCodes);
+		cloned.nodeColumn = this.nodeColumn.clone();
+		cloned.sensorColumn = this.sensorColumn.clone();
+		cloned.valueColumn = this.valueColumn.clone();
+		cloned.timestampColumn = this.timestampColumn.clone();
+		cloned.booleanValues = (BitSet) this.booleanValues.clone();
+		cloned.positives = (BitSet) this.positives.clone();
+		cloned.others = new ArrayList<>(this.others);
+		cloned.gatheredView = null;
+		cloned.positivesView = null;
+		return cloned;
+	}
+
+	private synchronized void unshare() {
+		if (!this.shared) {
+			return;
+		}
+		this.nodeDictionary = new ArrayList<>(this.nodeDictionary);
+		this.sensorDictionary = new ArrayList<>(this.sensorDictionary);
+		this.nodeCodes = new HashMap<>(this.nodeCodes);
+		this.sensorCodes = new HashMap<>(this.sensorCodes);
+		this.nodeColumn = this.nodeColumn.clone();
+		this.sensorColumn = this.sensorColumn.clone();
+		this.valueColumn = this.valueColumn.clone();
+		this.timestampColumn = this.timestampColumn.clone();
+		this.booleanValues = (BitSet) this.booleanValues.clone();
+		this.positives = (BitSet) this.positives.clone();
+		this.others = new ArrayList<>(this.others);
+		this.gatheredView = null;
+		this.positivesView = null;
+		this.shared = false;
+	}
+
+	private SensorDataI row(int row) {
+		String node = this.nodeColumn[row] == NO_NODE ? null : this.nodeDictionary.get(this.nodeColumn[row]);
+		String sensor = this.sensorDictionary.get(this.sensorColumn[row]);
+		boolean isBoolean = this.booleanValues.get(row);
+		long t = this.timestampColumn[row];
+		if (t == NO_TIMESTAMP) {
+			return new CompactSensorData(node, sensor, this.valueColumn[row], isBoolean);
+		}
+		Serializable value = isBoolean ? (Serializable) (this.valueColumn[row] != 0.0) : this.valueColumn[row];
+		return new SensorData(node, sensor, value,
+				Instant.ofEpochSecond(Math.floorDiv(t, 1_000_000_000L), Math.floorMod(t, 1_000_000_000L)));
+	}
+
+	private static int encode(String s, List<String> dictionary, HashMap<String, Integer> codes) {
+		Integer code = codes.get(s);
+		if (code == null) {
+			code = dictionary.size();
+			dictionary.add(s);
+			codes.put(s, code);
+		}
+		return code;
+	}
+
+	private static int[] remap(List<String> from, List<String> to, HashMap<String, Integer> codes) {
+		int[] map = new int[from.size()];
+		for (int i = 0; i < map.length; i++) {
+			map[i] = encode(from.get(i), to, codes);
+		}
+		return map;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity <= this.valueColumn.length) {
+			return;
+		}
+		int newCapacity = Math.max(capacity, this.valueColumn.length * 2);
+		this.nodeColumn = Arrays.copyOf(this.nodeColumn, newCapacity);
+		this.sensorColumn = Arrays.copyOf(this.sensorColumn, newCapacity);
+		this.valueColumn = Arrays.copyOf(this.valueColumn, newCapacity);
+		this.timestampColumn = Arrays.copyOf(this.timestampColumn, newCapacity);
+	}
+
+	/**
+	 * Writes the dictionaries and the used part of the columns.
+	 */
+	@Override
+	protected synchronized void writeContent(ObjectOutput out) throws IOException {
+		writeDictionary(out, this.nodeDictionary);
+		writeDictionary(out, this.sensorDictionary);
+		out.writeInt(this.size);
+		for (int i = 0; i < this.size; i++) {
+			out.writeInt(this.nodeColumn[i]);
+			out.writeInt(this.sensorColumn[i]);
+			out.writeDouble(this.valueColumn[i]);
+			out.writeLong(this.timestampColumn[i]);
+		}
+		writeBits(out, this.booleanValues);
+		writeBits(out, this.positives);
+		out.writeInt(this.others.size());
+		for (SensorDataI data : this.others) {
+			out.writeObject(data);
+		}
+	}
+
+	/**
+	 * Reads the columns and rebuilds the dictionary indexes.
+	 */
+	@Override
+	protected void readContent(ObjectInput in) throws IOException, ClassNotFoundException {
+		this.nodeDictionary = readDictionary(in);
+		this.sensorDictionary = readDictionary(in);
+		this.nodeCodes = new HashMap<>();
+		this.sensorCodes = new HashMap<>();
+		for (int i = 0; i < this.nodeDictionary.size(); i++) {
+			this.nodeCodes.put(this.nodeDictionary.get(i), i);
+		}
+		for (int i = 0; i < this.sensorDictionary.size(); i++) {
+			this.sensorCodes.put(this.sensorDictionary.get(i), i);
+		}
+		this.size = in.readInt();
+		int capacity = Math.max(this.size, INITIAL_CAPACITY);
+		this.nodeColumn = new int[capacity];
+		this.sensorColumn = new int[capacity];
+		this.valueColumn = new double[capacity];
+		this.timestampColumn = new long[capacity];
+		for (int i = 0; i < this.size; i++) {
+			this.nodeColumn[i] = in.readInt();
+			this.sensorColumn[i] = in.readInt();
+			this.valueColumn[i] = in.readDouble();
+			this.timestampColumn[i] = in.readLong();
+		}
+		this.booleanValues = readBits(in);
+		this.positives = readBits(in);
+		int n = in.readInt();
+		this.others = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			this.others.add((SensorDataI) in.readObject());
+		}
+	}
+
+	private static void writeDictionary(ObjectOutput out, List<String> dictionary) throws IOException {
+		out.writeInt(dictionary.size());
+		for (String s : dictionary) {
+			out.writeUTF(s);
+		}
+	}
+
+	private static ArrayList<String> readDictionary(ObjectInput in) throws IOException {
+		int n = in.readInt();
+		ArrayList<String> dictionary = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			dictionary.add(in.readUTF());
+		}
+		return dictionary;
+	}
+
+	private static void writeBits(ObjectOutput out, BitSet bits) throws IOException {
+		long[] words = bits.toLongArray();
+		out.writeInt(words.length);
+		for (long w : words) {
+			out.writeLong(w);
+		}
+	}
+
+	private static BitSet readBits(ObjectInput in) throws IOException {
+		long[] words = new long[in.readInt()];
+		for (int i = 0; i < words.length; i++) {
+			words[i] = in.readLong();
+		}
+		return BitSet.valueOf(words);
+	}
+}
@@ -0,0 +1,176 @@
+package app.models;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+
+import fr.sorbonne_u.cps.sensor_network.interfaces.SensorDataI;
+
+/**
+ * Compact, immutable sensor data record emitted by gather queries that declare
+ * a projection. The value is kept as a primitive double (booleans are encoded
+ * as 1 or 0) and the timestamp is dropped; the node identifier is only kept
+ * when the projection asks for it.
+ *
+ * Since instances are immutable they can be shared between query results
+ * instead of being cloned on every hop.
+ */
+public final class CompactSensorData implements SensorDataI, Externalizable {
+
+	private static final long serialVersionUID = 1L;
+
+	private String nodeIdentifier; // null when the projection drops it
+	private String sensorIdentifier;
+	private double value;
+	private boolean booleanValue; // true if the original value was a Boolean
+
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public CompactSensorData() {
+	}
+
+	/**
+	 * Constructs a compact record.
+	 *
+	 * @param nodeIdentifier   The identifier of the node, or null if projected out.
+	 * @param sensorIdentifier The identifier of the sensor.
+	 * @param value            The primitive value of the reading.
+	 * @param booleanValue     Whether the value stands for a boolean reading.
+	 */
+	public CompactSensorData(String nodeIdentifier, String sensorIdentifier, double value, boolean booleanValue) {
+		this.nodeIdentifier = nodeIdentifier;
+		this.sensorIdentifier = sensorIdentifier;
+		this.value = value;
+		this.booleanValue = booleanValue;
+	}
+
+	/**
+	 * Checks whether the value of a piece of sensor data fits in a compact record.
+	 *
+	 * @param data The sensor data to check.
+	 * @return true if the value is a number or a boolean.
+	 */
+	public static boolean canProject(SensorDataI data) {
+		Serializable v = data.getValue();
+		return v instanceof Number || v instanceof Boolean;
+	}
+
+	/**
+	 * Builds the compact record of a piece of sensor data.
+	 *
+	 * @param data     The sensor data to project, its value must be a number or a
+	 *                 boolean.
+	 * @param keepNode Whether the node identifier is kept.
+	 * @return the compact record.
+	 */
+	public static CompactSensorData project(SensorDataI data, boolean keepNode) {
+		Serializable v = data.getValue();
+		String node = keepNode ? data.getNodeIdentifier() : null;
+		if (v instanceof Boolean) {
+			return new CompactSensorData(node, data.getSensorIdentifier(), (Boolean) v ? 1.0 : 0.0, true);
+		}
+		return new CompactSensorData(node, data.getSensorIdentifier(), ((Number) v).doubleValue(), false);
+	}
+
+	/**
+	 * Retrieves the node identifier.
+	 *
+	 * @return the node identifier, or null if it was projected out.
+	 */
+	@Override
+	public String getNodeIdentifier() {
+		return nodeIdentifier;
+	}
+
+	@Override
+	public String getSensorIdentifier() {
+		return sensorIdentifier;
+	}
+
+	/**
+	 * Retrieves the primitive value without boxing it.
+	 *
+	 * @return the value of the reading.
+	 */
+	public double getDoubleValue() {
+		return value;
+	}
+
+	/**
+	 * Checks whether the value stands for a boolean reading.
+	 *
+	 * @return true if the original value was a Boolean.
+	 */
+	public boolean isBooleanValue() {
+		return booleanValue;
+	}
+
+	@Override
+	public Class<? extends Serializable> getType() {
+		return booleanValue ? Boolean.class : Double.class;
+	}
+
+	@Override
+	public Serializable getValue() {
+		if (booleanValue) {
+			return value != 0.0;
+		}
+		return value;
+	}
+
+	/**
+	 * The timestamp is never part of a projection.
+	 *
+	 * @return always null.
+	 */
+	@Override
+	public Instant getTimestamp() {
+		return null;
+	}
+
+	@Override
+	public String toString() {
+		String prefix = nodeIdentifier == null ? "" : nodeIdentifier + ": ";
+		return prefix + sensorIdentifier + "(" + getValue() + ")";
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof CompactSensorData))
+			return false;
+		CompactSensorData that = (CompactSensorData) obj;
+		return Double.compare(value, that.value) == 0 && booleanValue == that.booleanValue
+				&& Objects.equals(nodeIdentifier, that.nodeIdentifier)
+				&& Objects.equals(sensorIdentifier, that.sensorIdentifier);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(nodeIdentifier, sensorIdentifier, value, booleanValue);
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		WireFormat.writeString(out, nodeIdentifier);
+		out.writeUTF(sensorIdentifier);
+		out.writeDouble(value);
+		out.writeBoolean(booleanValue);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException {
+		WireFormat.readVersion(in, CompactSensorData.class);
+		this.nodeIdentifier = WireFormat.readString(in);
+		this.sensorIdentifier = in.readUTF();
+		this.value = in.readDouble();
+		this.booleanValue = in.readBoolean();
+	}
+}
@@ -0,0 +1,93 @@
+package app.models;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+
+import fr.sorbonne_u.cps.sensor_network.interfaces.QueryResultI;
+import fr.sorbonne_u.cps.sensor_network.interfaces.SensorDataI;
+
+/**
+ * Result of a branch of an asynchronous request sent to its client, with the
+ * completion credit the branch returns (see {@link CompletionTracker}). A node
+ * which receives a continuation it has already processed returns its credit
+ * without result.
+ */
+public final class CompletionReport implements QueryResultI, Externalizable {
+
+	private static final long serialVersionUID = 1L;
+
+	private QueryResultI result; // null for a bare acknowledgement
+	private long credit;
+
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public CompletionReport() {
+	}
+
+	/**
+	 * Constructs a report.
+	 *
+	 * @param result The result of the branch, or null if it has none.
+	 * @param credit The credit returned by the branch.
+	 */
+	public CompletionReport(QueryResultI result, long credit) {
+		this.result = result;
+		this.credit = credit;
+	}
+
+	/**
+	 * Returns the result of the branch.
+	 *
+	 * @return the result, or null for a bare acknowledgement.
+	 */
+	public QueryResultI getResult() {
+		return this.result;
+	}
+
+	/**
+	 * Returns the credit returned by the branch.
+	 *
+	 * @return the credit, or {@link CompletionTracker#UNTRACKED}.
+	 */
+	public long getCredit() {
+		return this.credit;
+	}
+
+	@Override
+	public boolean isBooleanRequest() {
+		return this.result != null && this.result.isBooleanRequest();
+	}
+
+	@Override
+	public ArrayList<String> positiveSensorNodes() {
+		return this.result == null ? new ArrayList<>() : this.result.positiveSensorNodes();
+	}
+
+	@Override
+	public boolean isGatherRequest() {
+		return this.result != null && this.result.isGatherRequest();
+	}
+
+	@Override
+	public ArrayList<SensorDataI> gatheredSensorsValues() {
+		return this.result == null ? new ArrayList<>() : this.result.gatheredSensorsValues();
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		out.writeLong(this.credit);
+		out.writeObject(this.result);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		WireFormat.readVersion(in, CompletionReport.class);
+		this.credit = in.readLong();
+		this.result = (QueryResultI) in.readObject();
+	}
+}
@@ -0,0 +1,77 @@
+package app.models;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tells a client when every branch of its asynchronous requests has answered.
+ * Each entry node of a request holds the {@link #FULL_CREDIT}; a node sending a
+ * continuation gives it a share of the credit it holds, and returns what it
+ * keeps with the results it sends to the client. The request is complete once
+ * the credits returned add up to those of its entry nodes, whatever the order
+ * the results arrive in.
+ *
+ * A branch which cannot split its credit any further, or whose credit is lost
+ * because a node dropped it, never completes its request: the client then
+ * falls back on its merge deadline.
+ */
+public class CompletionTracker {
+
+	/** Credit held by an entry node of a request. */
+	public static final long FULL_CREDIT = 1L << 48;
+	/** Credit of a branch which is not tracked. */
+	public static final long UNTRACKED = -1L;
+
+	private final Map<RequestId, long[]> pending = new HashMap<>(); // credit awaited and returned
+
+	/**
+	 * Starts tracking a request.
+	 *
+	 * @param requestId The identifier of the request.
+	 * @param entries   The number of entry nodes the request is sent to.
+	 */
+	public synchronized void open(RequestId requestId, int entries) {
+		this.pending.put(requestId, new long[] { entries * FULL_CREDIT, 0L });
+	}
+
+	/**
+	 * Records the credit returned with a result of a request.
+	 *
+	 * @param requestId The identifier of the request.
+	 * @param credit    The credit returned, or {@link #UNTRACKED}.
+	 * @return true if the request is complete with this credit; it is no longer
+	 *         tracked then.
+	 */
+	public synchronized boolean credit(RequestId requestId, long credit) {
+		long[] credits = this.pending.get(requestId);
+		if (credits == null || credit <= 0) {
+			return false;
+		}
+		credits[1] += credit;
+		if (credits[1] < credits[0]) {
+			return false;
+		}
+		this.pending.remove(requestId);
+		return true;
+	}
+
+	/**
+	 * Stops tracking a request.
+	 *
+	 * @param requestId The identifier of the request.
+	 * @return true if the request was still tracked, false if it completed
+	 *         already.
+	 */
+	public synchronized boolean close(RequestId requestId) {
+		return this.pending.remove(requestId) != null;
+	}
+
+	/**
+	 * Returns the number of requests not complete yet.
+	 *
+	 * @return the number of tracked requests.
+	 */
+	public synchronized int size() {
+		return this.pending.size();
+	}
+}
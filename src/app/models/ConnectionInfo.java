@@ -1,5 +1,10 @@
 package app.models;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
 import fr.sorbonne_u.cps.sensor_network.interfaces.ConnectionInfoI;
 import fr.sorbonne_u.cps.sensor_network.interfaces.EndPointDescriptorI;
 
@@ -9,11 +14,17 @@ import fr.sorbonne_u.cps.sensor_network.interfaces.EndPointDescriptorI;
  * along with its endpoint descriptor information, facilitating network
  * communication setup.
  */
-public class ConnectionInfo implements ConnectionInfoI {
+public class ConnectionInfo implements ConnectionInfoI, Externalizable {
 
 	private static final long serialVersionUID = 1L;
-	private final String nodeIdentifier;
-	private final EndPointDescriptorI endPointDescriptor;
+	private String nodeIdentifier;
+	private EndPointDescriptorI endPointDescriptor;
+
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public ConnectionInfo() {
+	}
 
 	/**
 	 * Constructs a new ConnectionInfo with specified node identifier and endpoint
@@ -50,4 +61,18 @@ public class ConnectionInfo implements ConnectionInfoI {
 	public EndPointDescriptorI endPointInfo() {
 		return this.endPointDescriptor;
 	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		out.writeUTF(nodeIdentifier);
+		out.writeObject(endPointDescriptor);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		WireFormat.readVersion(in, ConnectionInfo.class);
+		this.nodeIdentifier = in.readUTF();
+		this.endPointDescriptor = (EndPointDescriptorI) in.readObject();
+	}
 }
@@ -0,0 +1,95 @@
+package app.models;
+
+/**
+ * Counters of the continuations delivered to a node, telling how many reached
+ * it again after it had already processed their request, and how many forwards
+ * the node itself avoided because the neighbour was known to be covered. Late
+ * requests, past their deadline or cancelled, are counted when dropped.
+ */
+public class DeliveryStats {
+
+	private long deliveries;
+	private long redundant;
+	private long suppressed;
+	private long late;
+
+	/**
+	 * Records the delivery of a continuation.
+	 *
+	 * @param redundant Whether the request had already been processed here.
+	 */
+	public synchronized void recordDelivery(boolean redundant) {
+		this.deliveries++;
+		if (redundant) {
+			this.redundant++;
+		}
+	}
+
+	/**
+	 * Records forwards avoided because the neighbours were already covered.
+	 *
+	 * @param count The number of avoided forwards.
+	 */
+	public synchronized void recordSuppressed(int count) {
+		this.suppressed += count;
+	}
+
+	/**
+	 * Records a request dropped because it was late.
+	 */
+	public synchronized void recordLate() {
+		this.late++;
+	}
+
+	/**
+	 * Returns the number of delivered continuations.
+	 *
+	 * @return the number of deliveries.
+	 */
+	public synchronized long getDeliveries() {
+		return this.deliveries;
+	}
+
+	/**
+	 * Returns the number of continuations delivered after their request was
+	 * processed.
+	 *
+	 * @return the number of redundant deliveries.
+	 */
+	public synchronized long getRedundant() {
+		return this.redundant;
+	}
+
+	/**
+	 * Returns the number of forwards avoided.
+	 *
+	 * @return the number of suppressed forwards.
+	 */
+	public synchronized long getSuppressed() {
+		return this.suppressed;
+	}
+
+	/**
+	 * Returns the number of late requests dropped.
+	 *
+	 * @return the number of late requests.
+	 */
+	public synchronized long getLate() {
+		return this.late;
+	}
+
+	/**
+	 * Returns the share of redundant deliveries.
+	 *
+	 * @return the redundant-delivery ratio, 0 without delivery.
+	 */
+	public synchronized double redundantRatio() {
+		return this.deliveries == 0 ? 0.0 : (double) this.redundant / this.deliveries;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("%d deliveries, %d redundant (%.1f%%), %d forwards suppressed, %d late dropped",
+				this.deliveries, this.redundant, 100 * redundantRatio(), this.suppressed, this.late);
+	}
+}
@@ -1,5 +1,13 @@
 package app.models;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 import fr.sorbonne_u.cps.sensor_network.interfaces.EndPointDescriptorI;
 import fr.sorbonne_u.cps.sensor_network.interfaces.NodeInfoI;
 import fr.sorbonne_u.cps.sensor_network.interfaces.PositionI;
@@ -11,15 +19,24 @@ import fr.sorbonne_u.cps.sensor_network.interfaces.PositionI;
  * the node's range. Additionally, it handles peer-to-peer endpoint information
  * for network communications.
  */
-public class Descriptor implements NodeInfoI {
+public class Descriptor implements NodeInfoI, Externalizable {
 
 	private static final long serialVersionUID = 1L;
 
-	private final String nodeIdentifier; // Unique identifier for the node
-	private final EndPointDescriptorI endPointInfo; // Network endpoint information for standard communications
-	private final PositionI nodePosition; // Geographical or logical position of the node
-	private final double nodeRange; // The operational range of the node, e.g., for communication or sensor range
-	private final EndPointDescriptorI p2pEndPointInfo;// Endpoint descriptor for peer-to-peer communications
+	private String nodeIdentifier; // Unique identifier for the node
+	private EndPointDescriptorI endPointInfo; // Network endpoint information for standard communications
+	private PositionI nodePosition; // Geographical or logical position of the node
+	private double nodeRange; // The operational range of the node, e.g., for communication or sensor range
+	private EndPointDescriptorI p2pEndPointInfo;// Endpoint descriptor for peer-to-peer communications
+	private CapabilitySummary capabilities; // Sensors of the node and of the nodes it reaches, null if unknown
+	private ZoneMap zoneMap; // Ranges of the numeric sensors of the node and beyond, null if unknown
+	private Map<String, PositionI> neighbourhood; // Positions of the neighbours of the node, null if unknown
+
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public Descriptor() {
+	}
 
 	/**
 	 * Constructs a Descriptor with detailed information about a network node.
@@ -41,6 +58,95 @@ public class Descriptor implements NodeInfoI {
 		this.p2pEndPointInfo = p2pEndPointInfo;
 	}
 
+	/**
+	 * Constructs a Descriptor advertising the capability summary of the node.
+	 *
+	 * @param nodeIdentifier  The unique identifier of the node.
+	 * @param endPointInfo    The standard endpoint descriptor for the node.
+	 * @param nodePosition    The position of the node as a {@link PositionI}
+	 *                        object.
+	 * @param nodeRange       The communication or sensor range of the node.
+	 * @param p2pEndPointInfo The endpoint descriptor for peer-to-peer
+	 *                        communications.
+	 * @param capabilities    The capability summary of the node.
+	 */
+	public Descriptor(String nodeIdentifier, EndPointDescriptorI endPointInfo, PositionI nodePosition, double nodeRange,
+			EndPointDescriptorI p2pEndPointInfo, CapabilitySummary capabilities) {
+		this(nodeIdentifier, endPointInfo, nodePosition, nodeRange, p2pEndPointInfo);
+		this.capabilities = capabilities;
+	}
+
+	/**
+	 * Returns a copy of this descriptor advertising another capability summary.
+	 *
+	 * @param capabilities The new capability summary.
+	 * @return the updated descriptor.
+	 */
+	public Descriptor withCapabilities(CapabilitySummary capabilities) {
+		Descriptor copy = copy();
+		copy.capabilities = capabilities;
+		return copy;
+	}
+
+	/**
+	 * Returns a copy of this descriptor advertising another zone map.
+	 *
+	 * @param zoneMap The new zone map.
+	 * @return the updated descriptor.
+	 */
+	public Descriptor withZoneMap(ZoneMap zoneMap) {
+		Descriptor copy = copy();
+		copy.zoneMap = zoneMap;
+		return copy;
+	}
+
+	/**
+	 * Returns a copy of this descriptor advertising other neighbours.
+	 *
+	 * @param neighbourhood The positions of the neighbours by identifier.
+	 * @return the updated descriptor.
+	 */
+	public Descriptor withNeighbourhood(Map<String, PositionI> neighbourhood) {
+		Descriptor copy = copy();
+		copy.neighbourhood = Collections.unmodifiableMap(new LinkedHashMap<>(neighbourhood));
+		return copy;
+	}
+
+	private Descriptor copy() {
+		Descriptor copy = new Descriptor(nodeIdentifier, endPointInfo, nodePosition, nodeRange, p2pEndPointInfo,
+				capabilities);
+		copy.zoneMap = this.zoneMap;
+		copy.neighbourhood = this.neighbourhood;
+		return copy;
+	}
+
+	/**
+	 * Retrieves the capability summary advertised by the node.
+	 *
+	 * @return the {@link CapabilitySummary} of the node, or null if unknown.
+	 */
+	public CapabilitySummary getCapabilities() {
+		return capabilities;
+	}
+
+	/**
+	 * Retrieves the zone map advertised by the node.
+	 *
+	 * @return the {@link ZoneMap} of the node, or null if unknown.
+	 */
+	public ZoneMap getZoneMap() {
+		return zoneMap;
+	}
+
+	/**
+	 * Retrieves the neighbours advertised by the node.
+	 *
+	 * @return the positions of the neighbours by identifier, or null if unknown.
+	 */
+	public Map<String, PositionI> getNeighbourhood() {
+		return neighbourhood;
+	}
+
 	/**
 	 * Retrieves the unique identifier for the node.
 	 * 
@@ -92,4 +198,43 @@ public class Descriptor implements NodeInfoI {
 	public EndPointDescriptorI p2pEndPointInfo() {
 		return p2pEndPointInfo;
 	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		out.writeUTF(nodeIdentifier);
+		out.writeObject(endPointInfo);
+		out.writeObject(nodePosition);
+		out.writeDouble(nodeRange);
+		out.writeObject(p2pEndPointInfo);
+		out.writeObject(capabilities);
+		out.writeObject(zoneMap);
+		out.writeInt(neighbourhood == null ? -1 : neighbourhood.size());
+		if (neighbourhood != null) {
+			for (Map.Entry<String, PositionI> e : neighbourhood.entrySet()) {
+				out.writeUTF(e.getKey());
+				out.writeObject(e.getValue());
+			}
+		}
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		WireFormat.readVersion(in, Descriptor.class);
+		this.nodeIdentifier = in.readUTF();
+		this.endPointInfo = (EndPointDescriptorI) in.readObject();
+		this.nodePosition = (PositionI) in.readObject();
+		this.nodeRange = in.readDouble();
+		this.p2pEndPointInfo = (EndPointDescriptorI) in.readObject();
+		this.capabilities = (CapabilitySummary) in.readObject();
+		this.zoneMap = (ZoneMap) in.readObject();
+		int size = in.readInt();
+		if (size >= 0) {
+			Map<String, PositionI> read = new LinkedHashMap<>();
+			for (int i = 0; i < size; i++) {
+				read.put(in.readUTF(), (PositionI) in.readObject());
+			}
+			this.neighbourhood = Collections.unmodifiableMap(read);
+		}
+	}
 }
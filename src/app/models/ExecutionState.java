@@ -1,7 +1,12 @@
 package app.models;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Set;
 import fr.sorbonne_u.cps.sensor_network.interfaces.Direction;
 import fr.sorbonne_u.cps.sensor_network.interfaces.PositionI;
@@ -13,19 +18,44 @@ import fr.sorbonne_u.cps.sensor_network.requests.interfaces.ProcessingNodeI;
  * Represents the state of a request's execution within a sensor network. This
  * class tracks various parameters including the processing node, the query
  * results, and the request's current position and distance constraints.
+ *
+ * Cloning is copy-on-write: the continuation parameters, including the set of
+ * directions which is never modified in place, are shared between clones and
+ * the query result is forked in constant time. A fork is only constant time in
+ * memory: the result is flattened when the state is written, so each hop still
+ * sends it whole.
  */
-public class ExecutionState implements ExecutionStateI, Cloneable {
+public class ExecutionState implements ExecutionStateI, Cloneable, Externalizable {
 	private static final long serialVersionUID = 6009720675170853565L;
-	private ProcessingNodeI pn; // The processing node where the request is being executed
+	private ProcessingNodeI pn; // The processing node where the request is being executed, not written
 	private QueryResultI queryResult; // The current query result
 	private boolean directional = false; // Indicates whether the request is directional
 	private boolean flooding = false; // Indicates whether the request is flooding
 	private boolean isContinuation = false; // Indicates whether this state is a continuation of another request
+	private boolean routing = false; // Indicates whether the request is still routed towards its flooding area
+	private boolean relaySelection = false; // Indicates whether the flood only goes on through selected relays
+	private boolean forwarding = true; // Indicates whether the receiving node may forward the flood
 	private Set<Direction> directions; // The set of directions for the request
 	private int hops = 0; // The current hop count
 	private int maxhops; // The maximum number of hops allowed
 	private Double maxDistance; // The maximum distance allowed for the request
 	private PositionI p; // The current position of the request
+	private VisitedSet visited = VisitedSet.empty(); // Nodes the flood is known to cover, immutable
+	private long credit = CompletionTracker.UNTRACKED; // Completion credit held by this branch of the request
+	private int creditParts = 1; // Parts the credit is still to be divided into, not written
+
+	private static final int DIRECTIONAL = 1;
+	private static final int FLOODING = 2;
+	private static final int CONTINUATION = 4;
+	private static final int ROUTING = 8;
+	private static final int RELAY_SELECTION = 16;
+	private static final int NOT_FORWARDING = 32;
+
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public ExecutionState() {
+	}
 
 	/**
 	 * Constructs an ExecutionState with the specified processing node and query
@@ -50,12 +80,17 @@ public class ExecutionState implements ExecutionStateI, Cloneable {
 	}
 
 	@Override
-	public QueryResultI getCurrentResult() {
+	public synchronized QueryResultI getCurrentResult() {
 		return queryResult;
 	}
 
 	@Override
-	public void addToCurrentResult(QueryResultI result) {
+	public synchronized void addToCurrentResult(QueryResultI result) {
+		if (queryResult instanceof QueryResult) {
+			((QueryResult) queryResult).merge(result);
+			return;
+		}
+		// other implementations own the lists they return
 		queryResult.gatheredSensorsValues().addAll(result.gatheredSensorsValues());
 		queryResult.positiveSensorNodes().addAll(result.positiveSensorNodes());
 	}
@@ -106,6 +141,65 @@ public class ExecutionState implements ExecutionStateI, Cloneable {
 		this.flooding = true;
 	}
 
+	/**
+	 * Tells whether the request is still routed towards the base of its flooding
+	 * area. Nodes on the route forward it without evaluating it.
+	 *
+	 * @return true if the request has not reached its flooding area yet.
+	 */
+	public boolean isRouting() {
+		return this.routing;
+	}
+
+	/**
+	 * Sets whether the request is still routed towards the base of its flooding
+	 * area.
+	 *
+	 * @param routing Indicates whether the request is being routed.
+	 */
+	public void setRouting(boolean routing) {
+		this.routing = routing;
+	}
+
+	/**
+	 * Tells whether the flood only goes on through the relays selected by each
+	 * node among its neighbours.
+	 *
+	 * @return true if the request floods by relay selection.
+	 */
+	public boolean isRelaySelection() {
+		return this.relaySelection;
+	}
+
+	/**
+	 * Sets whether the flood only goes on through selected relays.
+	 *
+	 * @param relaySelection Indicates whether the request floods by relay
+	 *                       selection.
+	 */
+	public void setRelaySelection(boolean relaySelection) {
+		this.relaySelection = relaySelection;
+	}
+
+	/**
+	 * Tells whether the node receiving the request may forward it. With relay
+	 * selection, only the relays chosen by the sender do.
+	 *
+	 * @return true if the receiving node may forward the request.
+	 */
+	public boolean isForwarding() {
+		return this.forwarding;
+	}
+
+	/**
+	 * Sets whether the node receiving the request may forward it.
+	 *
+	 * @param forwarding Indicates whether the receiver is a relay.
+	 */
+	public void setForwarding(boolean forwarding) {
+		this.forwarding = forwarding;
+	}
+
 	/**
 	 * Enables directional mode for the request.
 	 */
@@ -129,7 +223,7 @@ public class ExecutionState implements ExecutionStateI, Cloneable {
 	 * @return The set of directions set.
 	 */
 	public Set<Direction> setDirections(Set<Direction> directions) {
-		return this.directions = directions;
+		return this.directions = Collections.unmodifiableSet(directions);
 	}
 
 	/**
@@ -142,23 +236,56 @@ public class ExecutionState implements ExecutionStateI, Cloneable {
 	}
 
 	/**
-	 * Clones the execution state.
+	 * Clones the execution state in constant time. Cloning changes this state as
+	 * well: the current query result becomes the frozen prefix of two forks, one
+	 * for this state and one for the clone, so that neither can see what the
+	 * other adds afterwards. Clones and additions to the result are synchronized
+	 * on this state, since continuations may be cloned in parallel.
 	 *
 	 * @return A clone of the execution state.
 	 * @throws CloneNotSupportedException If cloning is not supported.
 	 */
 	@Override
-	public ExecutionState clone() throws CloneNotSupportedException {
+	public synchronized ExecutionState clone() throws CloneNotSupportedException {
 		ExecutionState cloned = (ExecutionState) super.clone();
-		if (this.directions != null) {
-			cloned.directions = new HashSet<>(this.directions);
+		if (this.queryResult instanceof QueryResult) {
+			QueryResult shared = (QueryResult) this.queryResult;
+			this.queryResult = shared.fork();
+			cloned.queryResult = shared.fork();
 		}
-		cloned.queryResult = ((QueryResult) this.queryResult).clone();
-		cloned.directional = this.directional;
-		cloned.flooding = this.flooding;
 		return cloned;
 	}
 
+	/**
+	 * Clones the execution state with an empty query result of the same
+	 * representation, for continuations whose result is merged back into this
+	 * state.
+	 *
+	 * @return A clone of the execution state without its result.
+	 * @throws CloneNotSupportedException If cloning is not supported.
+	 */
+	public ExecutionState cloneWithEmptyResult() throws CloneNotSupportedException {
+		ExecutionState cloned = (ExecutionState) super.clone();
+		cloned.resetQuery();
+		return cloned;
+	}
+
+	/**
+	 * Clones the execution state for the continuation sent to a neighbour. Only an
+	 * asynchronous directional continuation carries the results gathered so far,
+	 * which the last node of its branch reports. A synchronous continuation, whose
+	 * result is merged back into this state, and an asynchronous flooding one,
+	 * since every node of a flood reports its own results, start empty: a result
+	 * never reaches the client twice, even when its records cannot be told apart.
+	 *
+	 * @param asynchronous Whether the request is asynchronous.
+	 * @return A clone of the execution state for the continuation.
+	 * @throws CloneNotSupportedException If cloning is not supported.
+	 */
+	public ExecutionState cloneForContinuation(boolean asynchronous) throws CloneNotSupportedException {
+		return asynchronous && !this.flooding ? clone() : cloneWithEmptyResult();
+	}
+
 	/**
 	 * Retrieves the maximum number of hops allowed for the request.
 	 *
@@ -195,6 +322,102 @@ public class ExecutionState implements ExecutionStateI, Cloneable {
 		return this.p;
 	}
 
+	/**
+	 * Retrieves the nodes the flood of the request is known to cover.
+	 *
+	 * @return the {@link VisitedSet} of the request, shared with its clones.
+	 */
+	public VisitedSet getVisited() {
+		return this.visited;
+	}
+
+	/**
+	 * Adds nodes to those the flood of the request is known to cover. Clones
+	 * made before the call are not affected.
+	 *
+	 * @param nodeIdentifiers The identifiers of the covered nodes.
+	 */
+	public void markVisited(Collection<String> nodeIdentifiers) {
+		this.visited = this.visited.with(nodeIdentifiers);
+	}
+
+	/**
+	 * Returns the completion credit held by this branch of the request.
+	 *
+	 * @return the credit, or {@link CompletionTracker#UNTRACKED}.
+	 */
+	public long getCredit() {
+		return this.credit;
+	}
+
+	/**
+	 * Sets the completion credit held by this branch of the request, to be given
+	 * whole to the next continuation sent.
+	 *
+	 * @param credit The credit, or {@link CompletionTracker#UNTRACKED}.
+	 */
+	public void setCredit(long credit) {
+		this.credit = credit;
+		this.creditParts = 1;
+	}
+
+	/**
+	 * Sets the number of parts the credit is divided into: one per continuation
+	 * about to be sent, plus one if this node then sends its own result.
+	 *
+	 * @param parts The number of parts, at least 1.
+	 */
+	public void divideCredit(int parts) {
+		this.creditParts = Math.max(1, parts);
+	}
+
+	/**
+	 * Takes the share of the credit of a continuation about to be sent. When the
+	 * credit cannot be divided any further, this branch and the continuation stop
+	 * being tracked: the credit kept is never returned.
+	 *
+	 * @return the share of the continuation, or
+	 *         {@link CompletionTracker#UNTRACKED}.
+	 */
+	public long shareCredit() {
+		if (this.credit == CompletionTracker.UNTRACKED) {
+			return CompletionTracker.UNTRACKED;
+		}
+		long share = this.credit / this.creditParts;
+		if (share == 0) {
+			this.credit = CompletionTracker.UNTRACKED;
+			return CompletionTracker.UNTRACKED;
+		}
+		this.credit -= share;
+		this.creditParts = Math.max(1, this.creditParts - 1);
+		return share;
+	}
+
+	/**
+	 * Gives back the share of a continuation which could not be sent.
+	 *
+	 * @param share The share taken by {@link #shareCredit()}.
+	 */
+	public void returnCredit(long share) {
+		if (this.credit != CompletionTracker.UNTRACKED && share != CompletionTracker.UNTRACKED) {
+			this.credit += share;
+		}
+	}
+
+	/**
+	 * Takes the credit left to this branch, to be returned to the client with its
+	 * result.
+	 *
+	 * @return the credit left, or {@link CompletionTracker#UNTRACKED}.
+	 */
+	public long takeCredit() {
+		long taken = this.credit;
+		if (taken != CompletionTracker.UNTRACKED) {
+			this.credit = 0L;
+		}
+		return taken;
+	}
+
 	@Override
 	public boolean isContinuationSet() {
 		return this.isContinuation;
@@ -232,6 +455,55 @@ public class ExecutionState implements ExecutionStateI, Cloneable {
 	 * Resets the query result to an empty state.
 	 */
 	public void resetQuery() {
+		if (this.queryResult instanceof QueryResult) {
+			this.queryResult = ((QueryResult) this.queryResult).newEmpty();
+			return;
+		}
 		this.queryResult = new QueryResult(new ArrayList<>(), new ArrayList<>());
 	}
+
+	/**
+	 * Writes the execution state. The processing node is not written: the
+	 * receiving node binds its own before evaluating the query.
+	 */
+	@Override
+	public synchronized void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		out.writeByte((directional ? DIRECTIONAL : 0) | (flooding ? FLOODING : 0)
+				| (isContinuation ? CONTINUATION : 0) | (routing ? ROUTING : 0)
+				| (relaySelection ? RELAY_SELECTION : 0) | (forwarding ? 0 : NOT_FORWARDING));
+		out.writeObject(queryResult);
+		WireFormat.writeDirections(out, directions);
+		out.writeInt(hops);
+		out.writeInt(maxhops);
+		out.writeBoolean(maxDistance != null);
+		if (maxDistance != null) {
+			out.writeDouble(maxDistance);
+		}
+		out.writeObject(p);
+		out.writeObject(visited.size() == 0 ? null : visited);
+		out.writeLong(credit);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		WireFormat.readVersion(in, ExecutionState.class);
+		int flags = in.readByte();
+		this.directional = (flags & DIRECTIONAL) != 0;
+		this.flooding = (flags & FLOODING) != 0;
+		this.isContinuation = (flags & CONTINUATION) != 0;
+		this.routing = (flags & ROUTING) != 0;
+		this.relaySelection = (flags & RELAY_SELECTION) != 0;
+		this.forwarding = (flags & NOT_FORWARDING) == 0;
+		this.queryResult = (QueryResultI) in.readObject();
+		Set<Direction> dirs = WireFormat.readDirections(in);
+		this.directions = dirs == null ? null : Collections.unmodifiableSet(dirs);
+		this.hops = in.readInt();
+		this.maxhops = in.readInt();
+		this.maxDistance = in.readBoolean() ? in.readDouble() : null;
+		this.p = (PositionI) in.readObject();
+		VisitedSet v = (VisitedSet) in.readObject();
+		this.visited = v == null ? VisitedSet.empty() : v;
+		this.credit = in.readLong();
+	}
 }
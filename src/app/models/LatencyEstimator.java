@@ -0,0 +1,82 @@
+package app.models;
+
+import java.util.Arrays;
+
+/**
+ * Exponentially weighted moving average of the latencies measured on a link.
+ * Until a first measurement is recorded, the estimate is the given default.
+ * The most recent measurements are also kept to answer percentiles.
+ */
+public class LatencyEstimator {
+
+	/** Number of recent measurements kept for percentiles. */
+	public static final int WINDOW = 64;
+
+	private final double weight;
+	private double estimate;
+	private long samples;
+	private final double[] window = new double[WINDOW]; // ring of the recent measurements
+
+	/**
+	 * Constructs an estimator.
+	 *
+	 * @param initial The estimate before any measurement, in milliseconds.
+	 * @param weight  The weight of a new measurement, between 0 and 1.
+	 */
+	public LatencyEstimator(double initial, double weight) {
+		this.estimate = initial;
+		this.weight = weight;
+	}
+
+	/**
+	 * Records a measured latency.
+	 *
+	 * @param millis The latency, in milliseconds.
+	 */
+	public synchronized void record(double millis) {
+		this.estimate = this.samples == 0 ? millis : this.estimate + this.weight * (millis - this.estimate);
+		this.window[(int) (this.samples % WINDOW)] = millis;
+		this.samples++;
+	}
+
+	/**
+	 * Returns a percentile of the recent measurements.
+	 *
+	 * @param q The rank of the percentile, between 0 and 1.
+	 * @return the latency below which this share of the recent measurements
+	 *         fall, in milliseconds, or the current estimate without measurement.
+	 */
+	public synchronized double percentile(double q) {
+		int n = (int) Math.min(this.samples, WINDOW);
+		if (n == 0) {
+			return this.estimate;
+		}
+		double[] sorted = Arrays.copyOf(this.window, n);
+		Arrays.sort(sorted);
+		int rank = (int) Math.ceil(q * n) - 1;
+		return sorted[Math.max(0, Math.min(n - 1, rank))];
+	}
+
+	/**
+	 * Returns the current estimate.
+	 *
+	 * @return the estimated latency, in milliseconds.
+	 */
+	public synchronized double estimate() {
+		return this.estimate;
+	}
+
+	/**
+	 * Returns the number of recorded measurements.
+	 *
+	 * @return the number of samples.
+	 */
+	public synchronized long getSamples() {
+		return this.samples;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("%.1fms (p95 %.1fms, %d samples)", this.estimate, percentile(0.95), this.samples);
+	}
+}
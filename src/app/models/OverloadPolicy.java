@@ -0,0 +1,14 @@
+package app.models;
+
+/**
+ * What a node does with an asynchronous request arriving while its queue of
+ * pending requests is full.
+ */
+public enum OverloadPolicy {
+	/** The request is refused and its sender told so. */
+	REJECT,
+	/** The oldest pending request of the least urgent class makes room for it. */
+	DROP_OLDEST,
+	/** The request is evaluated at the node only, without being forwarded. */
+	LOCAL_ONLY
+}
@@ -0,0 +1,87 @@
+package app.models;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import fr.sorbonne_u.cps.sensor_network.requests.interfaces.QueryI;
+
+/**
+ * Bounded cache of decoded queries of a node, keyed by the bytes of their
+ * {@link QueryPayload}. Query trees are only read during evaluation, so the
+ * plan decoded for a payload is reused by every request carrying identical
+ * bytes. The least recently used plans are evicted first.
+ */
+public class PlanCache {
+
+	private final int capacity;
+	private final LinkedHashMap<QueryPayload, QueryI> plans;
+	private long hits;
+	private long misses;
+
+	/**
+	 * Constructs a plan cache holding at most the given number of plans.
+	 *
+	 * @param capacity The maximum number of cached plans.
+	 */
+	public PlanCache(int capacity) {
+		this.capacity = capacity;
+		this.plans = new LinkedHashMap<QueryPayload, QueryI>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<QueryPayload, QueryI> eldest) {
+				return size() > PlanCache.this.capacity;
+			}
+		};
+	}
+
+	/**
+	 * Returns the plan of a payload, decoding it if no identical payload was seen
+	 * recently.
+	 *
+	 * @param payload The payload to decode.
+	 * @return the decoded query.
+	 */
+	public QueryI get(QueryPayload payload) {
+		synchronized (this) {
+			QueryI plan = this.plans.get(payload);
+			if (plan != null) {
+				this.hits++;
+				return plan;
+			}
+			this.misses++;
+		}
+		QueryI plan = payload.decode();
+		synchronized (this) {
+			QueryI raced = this.plans.putIfAbsent(payload, plan);
+			return raced != null ? raced : plan;
+		}
+	}
+
+	/**
+	 * Returns the number of lookups answered from the cache.
+	 *
+	 * @return the number of hits.
+	 */
+	public synchronized long getHits() {
+		return this.hits;
+	}
+
+	/**
+	 * Returns the number of lookups that decoded a payload.
+	 *
+	 * @return the number of misses.
+	 */
+	public synchronized long getMisses() {
+		return this.misses;
+	}
+
+	/**
+	 * Returns the number of cached plans.
+	 *
+	 * @return the size of the cache.
+	 */
+	public synchronized int size() {
+		return this.plans.size();
+	}
+}
@@ -1,5 +1,10 @@
 package app.models;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
 import fr.sorbonne_u.cps.sensor_network.interfaces.Direction;
 import fr.sorbonne_u.cps.sensor_network.interfaces.PositionI;
 
@@ -8,13 +13,19 @@ import fr.sorbonne_u.cps.sensor_network.interfaces.PositionI;
  * This class provides functionality to determine relative directions and
  * distance between this position and another specified position.
  */
-public class Position implements PositionI {
+public class Position implements PositionI, Externalizable {
 
 	private static final long serialVersionUID = -4235766298940273454L;
 
 	private double x; // The x-coordinate of the position
 	private double y; // The y-coordinate of the position
 
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public Position() {
+	}
+
 	/**
 	 * Constructs a Position object with specified x and y coordinates.
 	 *
@@ -155,4 +166,23 @@ public class Position implements PositionI {
 		Position position = (Position) o;
 		return Double.compare(position.x, x) == 0 && Double.compare(position.y, y) == 0;
 	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Double.hashCode(x) + Double.hashCode(y);
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		out.writeDouble(x);
+		out.writeDouble(y);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException {
+		WireFormat.readVersion(in, Position.class);
+		this.x = in.readDouble();
+		this.y = in.readDouble();
+	}
 }
@@ -0,0 +1,25 @@
+package app.models;
+
+/**
+ * Priority class of a request, from the most to the least urgent. Nodes serve
+ * the pending asynchronous requests of a more urgent class first; the class of
+ * a request is kept unchanged by all its continuations.
+ */
+public enum Priority {
+	/** Detection queries whose answer is awaited to react, such as fire alerts. */
+	ALERT,
+	/** Ordinary queries, the default. */
+	NORMAL,
+	/** Large gathers which can wait behind the other classes. */
+	BULK;
+
+	/**
+	 * Returns the priority class of a request.
+	 *
+	 * @param request The request.
+	 * @return its class, or {@link #NORMAL} if it does not carry one.
+	 */
+	public static Priority of(Object request) {
+		return request instanceof Request ? ((Request) request).getPriority() : NORMAL;
+	}
+}
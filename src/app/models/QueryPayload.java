@@ -0,0 +1,159 @@
+package app.models;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutput;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+
+import fr.sorbonne_u.cps.sensor_network.requests.interfaces.QueryI;
+
+/**
+ * Immutable query of a request, carried by its continuations as opaque bytes.
+ * The query is encoded the first time a continuation holding it is written, and
+ * continuations forwarded from a node share the payload they received, so the
+ * bytes are written again as they are and never re-encoded. The decoded query
+ * is kept alongside the bytes; on a node receiving the payload it is decoded
+ * once, possibly through a {@link PlanCache}.
+ */
+public final class QueryPayload implements Externalizable {
+
+	private static final long serialVersionUID = 1L;
+
+	private byte[] bytes; // encoded query, null until first needed
+	private int hash; // hash of the bytes, 0 until computed
+	private transient volatile QueryI query; // decoded query, null until first needed
+
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public QueryPayload() {
+	}
+
+	/**
+	 * Constructs the payload of a query issued at this node.
+	 *
+	 * @param query The query, which must not be modified afterwards.
+	 */
+	public QueryPayload(QueryI query) {
+		this.query = query;
+	}
+
+	/**
+	 * Returns the query, decoding it if this payload was received from another
+	 * node.
+	 *
+	 * @return the query of the payload.
+	 */
+	public QueryI getQuery() {
+		QueryI q = this.query;
+		if (q == null) {
+			q = decode(bytes());
+			this.query = q;
+		}
+		return q;
+	}
+
+	/**
+	 * Returns the query, reusing the plan decoded from identical bytes by the
+	 * given cache.
+	 *
+	 * @param cache The plan cache of the current node.
+	 * @return the query of the payload.
+	 */
+	public QueryI getQuery(PlanCache cache) {
+		QueryI q = this.query;
+		if (q == null) {
+			q = cache.get(this);
+			this.query = q;
+		}
+		return q;
+	}
+
+	/**
+	 * Tells whether the query of this payload is available without decoding.
+	 *
+	 * @return true if the query is decoded.
+	 */
+	public boolean isDecoded() {
+		return this.query != null;
+	}
+
+	/**
+	 * Returns the encoded query, encoding it on the first call.
+	 *
+	 * @return the bytes of the payload, which must not be modified.
+	 */
+	public synchronized byte[] bytes() {
+		if (this.bytes == null) {
+			this.bytes = encode(this.query);
+		}
+		return this.bytes;
+	}
+
+	/**
+	 * Decodes the query of this payload, ignoring any decoded copy.
+	 *
+	 * @return a new instance of the query.
+	 */
+	QueryI decode() {
+		return decode(bytes());
+	}
+
+	private static byte[] encode(QueryI query) {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+			out.writeObject(query);
+		} catch (IOException e) {
+			throw new IllegalStateException("Cannot encode query " + query, e);
+		}
+		return buffer.toByteArray();
+	}
+
+	private static QueryI decode(byte[] bytes) {
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+			return (QueryI) in.readObject();
+		} catch (IOException | ClassNotFoundException e) {
+			throw new IllegalStateException("Cannot decode query payload", e);
+		}
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof QueryPayload))
+			return false;
+		return Arrays.equals(bytes(), ((QueryPayload) obj).bytes());
+	}
+
+	@Override
+	public int hashCode() {
+		int h = this.hash;
+		if (h == 0) {
+			h = Arrays.hashCode(bytes());
+			this.hash = h;
+		}
+		return h;
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		byte[] b = bytes();
+		out.writeInt(b.length);
+		out.write(b);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException {
+		WireFormat.readVersion(in, QueryPayload.class);
+		byte[] b = new byte[in.readInt()];
+		in.readFully(b);
+		this.bytes = b;
+	}
+}
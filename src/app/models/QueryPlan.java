@@ -0,0 +1,140 @@
+package app.models;
+
+/**
+ * Strategy chosen for a zone-bounded request, with the estimates it was chosen
+ * on. Both alternatives are kept so that a decision can be checked afterwards.
+ */
+public class QueryPlan {
+
+	/**
+	 * The ways a request can reach the nodes of its zone.
+	 */
+	public enum Strategy {
+		/** The entry node lies in the zone and floods it. */
+		FLOODING,
+		/** The entry node routes the request towards the zone, which is then flooded. */
+		ROUTING,
+		/** The client sends the request to every node of the zone directly. */
+		DIRECT_FAN_OUT
+	}
+
+	private final Strategy strategy;
+	private final int targets;
+	private final int routingHops;
+	private final long entryMessages;
+	private final double entryLatency;
+	private final long fanOutMessages;
+	private final double fanOutLatency;
+
+	/**
+	 * Constructs a plan.
+	 *
+	 * @param strategy       The chosen strategy.
+	 * @param targets        The number of nodes in the zone.
+	 * @param routingHops    The estimated hops from the entry node to the zone.
+	 * @param entryMessages  The estimated messages when going through the entry
+	 *                       node.
+	 * @param entryLatency   The estimated latency when going through the entry
+	 *                       node, in milliseconds.
+	 * @param fanOutMessages The estimated messages of a direct fan-out.
+	 * @param fanOutLatency  The estimated latency of a direct fan-out, in
+	 *                       milliseconds.
+	 */
+	public QueryPlan(Strategy strategy, int targets, int routingHops, long entryMessages, double entryLatency,
+			long fanOutMessages, double fanOutLatency) {
+		this.strategy = strategy;
+		this.targets = targets;
+		this.routingHops = routingHops;
+		this.entryMessages = entryMessages;
+		this.entryLatency = entryLatency;
+		this.fanOutMessages = fanOutMessages;
+		this.fanOutLatency = fanOutLatency;
+	}
+
+	/**
+	 * Returns the chosen strategy.
+	 *
+	 * @return the strategy of the request.
+	 */
+	public Strategy getStrategy() {
+		return strategy;
+	}
+
+	/**
+	 * Returns the number of nodes in the zone of the request.
+	 *
+	 * @return the number of targets.
+	 */
+	public int getTargets() {
+		return targets;
+	}
+
+	/**
+	 * Returns the estimated hops from the entry node to the zone.
+	 *
+	 * @return 0 if the entry node lies in the zone.
+	 */
+	public int getRoutingHops() {
+		return routingHops;
+	}
+
+	/**
+	 * Returns the estimated messages when going through the entry node.
+	 *
+	 * @return the estimated number of messages.
+	 */
+	public long getEntryMessages() {
+		return entryMessages;
+	}
+
+	/**
+	 * Returns the estimated latency when going through the entry node.
+	 *
+	 * @return the estimated latency, in milliseconds.
+	 */
+	public double getEntryLatency() {
+		return entryLatency;
+	}
+
+	/**
+	 * Returns the estimated messages of a direct fan-out.
+	 *
+	 * @return the estimated number of messages.
+	 */
+	public long getFanOutMessages() {
+		return fanOutMessages;
+	}
+
+	/**
+	 * Returns the estimated latency of a direct fan-out.
+	 *
+	 * @return the estimated latency, in milliseconds.
+	 */
+	public double getFanOutLatency() {
+		return fanOutLatency;
+	}
+
+	/**
+	 * Returns the estimated messages of the chosen strategy.
+	 *
+	 * @return the estimated number of messages.
+	 */
+	public long getEstimatedMessages() {
+		return strategy == Strategy.DIRECT_FAN_OUT ? fanOutMessages : entryMessages;
+	}
+
+	/**
+	 * Returns the estimated latency of the chosen strategy.
+	 *
+	 * @return the estimated latency, in milliseconds.
+	 */
+	public double getEstimatedLatency() {
+		return strategy == Strategy.DIRECT_FAN_OUT ? fanOutLatency : entryLatency;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s for %d nodes (entry: %d hops, %d msgs, %.1f ms; fan-out: %d msgs, %.1f ms)",
+				strategy, targets, routingHops, entryMessages, entryLatency, fanOutMessages, fanOutLatency);
+	}
+}
@@ -0,0 +1,85 @@
+package app.models;
+
+import app.models.QueryPlan.Strategy;
+import fr.sorbonne_u.cps.sensor_network.interfaces.Direction;
+import fr.sorbonne_u.cps.sensor_network.interfaces.PositionI;
+
+/**
+ * Chooses how a client reaches the nodes of a zone-bounded request: through its
+ * entry node, which floods the zone, after routing the request towards it when
+ * the entry node lies outside, or by a direct fan-out to every node of the zone.
+ *
+ * Strategies are compared on their estimated messages and latency. The number
+ * of nodes in the zone, given by the register, sets the density of the zone and
+ * hence the typical distance between neighbours, from which the hops to the
+ * zone and across it follow. Hops and rounds of parallel calls are valued at
+ * the measured link latency, and each message adds a fixed cost.
+ */
+public class QueryPlanner {
+
+	private static final int NEIGHBOURS = Direction.values().length;
+
+	private final int fanOutThreads;
+	private final double messageCost;
+
+	/**
+	 * Constructs a planner.
+	 *
+	 * @param fanOutThreads The number of fan-out calls the client makes in
+	 *                      parallel.
+	 * @param messageCost   The cost of a message, in milliseconds of latency.
+	 */
+	public QueryPlanner(int fanOutThreads, double messageCost) {
+		this.fanOutThreads = fanOutThreads;
+		this.messageCost = messageCost;
+	}
+
+	/**
+	 * Plans a request.
+	 *
+	 * @param zone        The zone of the request.
+	 * @param targets     The number of nodes in the zone.
+	 * @param entry       The position of the entry node, or null if unknown, in
+	 *                    which case it is assumed to lie in the zone.
+	 * @param linkLatency The latency of a call between two components, in
+	 *                    milliseconds.
+	 * @return the cheapest plan; going through the entry node wins ties.
+	 */
+	public QueryPlan plan(CircularZone zone, int targets, PositionI entry, double linkLatency) {
+		double spacing = spacing(zone.getRadius(), targets);
+		int routingHops = 0;
+		if (entry != null && spacing > 0) {
+			routingHops = (int) Math.max(0, Math.ceil((zone.getCenter().distance(entry) - zone.getRadius()) / spacing));
+		}
+		int floodDepth = spacing > 0 ? (int) Math.ceil(2 * zone.getRadius() / spacing) : 0;
+
+		long entryMessages = 1 + routingHops + (long) NEIGHBOURS * targets;
+		double entryLatency = (1 + routingHops + floodDepth) * linkLatency;
+		long fanOutMessages = targets;
+		double fanOutLatency = Math.ceil((double) targets / this.fanOutThreads) * linkLatency;
+
+		Strategy strategy;
+		if (cost(fanOutMessages, fanOutLatency) < cost(entryMessages, entryLatency)) {
+			strategy = Strategy.DIRECT_FAN_OUT;
+		} else {
+			strategy = routingHops > 0 ? Strategy.ROUTING : Strategy.FLOODING;
+		}
+		return new QueryPlan(strategy, targets, routingHops, entryMessages, entryLatency, fanOutMessages,
+				fanOutLatency);
+	}
+
+	private double cost(long messages, double latency) {
+		return latency + this.messageCost * messages;
+	}
+
+	/**
+	 * Returns the typical distance between neighbours in a zone, that of nodes
+	 * laid out on a square grid of the same density.
+	 */
+	private static double spacing(double radius, int targets) {
+		if (targets <= 1) {
+			return radius;
+		}
+		return radius * Math.sqrt(Math.PI / targets);
+	}
+}
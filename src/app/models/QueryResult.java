@@ -1,6 +1,13 @@
 package app.models;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
 import java.util.Objects;
 
 import fr.sorbonne_u.cps.sensor_network.interfaces.QueryResultI;
@@ -10,14 +17,34 @@ import fr.sorbonne_u.cps.sensor_network.interfaces.SensorDataI;
  * Represents the results of a query within a sensor network. This class can
  * manage both gathered sensor data and boolean-based results indicating the
  * presence or absence of certain conditions at sensor nodes.
+ *
+ * Results are accumulated as an append-only chunk tree (a rope): a result can
+ * be forked in constant time, the fork keeping a reference to the forked result
+ * as a frozen prefix, and merging a result links it as a chunk instead of
+ * copying its content. The tree is flattened once, the first time the lists are
+ * read, typically at the entry node or at the client.
  */
-public class QueryResult implements QueryResultI, Cloneable {
+public class QueryResult implements QueryResultI, Cloneable, Externalizable {
 	private static final long serialVersionUID = 7080596922014476376L;
 
 	protected ArrayList<SensorDataI> sd; // List to hold sensor data results
 	private boolean isGather; // Flag indicating if the result is a gather type
 	private boolean isBoolean; // Flag indicating if the result is a boolean type
+	private boolean incomplete; // Flag indicating if results were dropped before the merge
 	protected ArrayList<String> sensitiveNodes; // List to hold identifiers of sensitive nodes
+	private QueryResult prefix; // Frozen result shared with other forks, null once flattened
+	private List<QueryResultI> chunks; // Merged results linked after the local lists, null once flattened
+
+	private static final int GATHER = 1;
+	private static final int BOOLEAN = 2;
+	private static final int INCOMPLETE = 4;
+
+	/**
+	 * Constructs an empty query result, also used by {@link Externalizable}.
+	 */
+	public QueryResult() {
+		this(new ArrayList<>(), new ArrayList<>());
+	}
 
 	/**
 	 * Constructs a QueryResult with specified sensor data and sensitive node
@@ -42,12 +69,18 @@ public class QueryResult implements QueryResultI, Cloneable {
 	 */
 	@Override
 	public QueryResult clone() throws CloneNotSupportedException {
+		flatten();
 		QueryResult cloned = (QueryResult) super.clone();
+		if (this.sd == null) {
+			return cloned; // Representation managed by a subclass
+		}
 		cloned.sd = new ArrayList<>(this.sd.size());
 		for (SensorDataI sensorDataI : this.sd) {
 			if (sensorDataI instanceof SensorData) {
 				SensorData sensorData = (SensorData) sensorDataI;
 				cloned.sd.add(sensorData.clone()); // Clone each SensorData object
+			} else if (sensorDataI instanceof CompactSensorData) {
+				cloned.sd.add(sensorDataI); // Immutable, shared between clones
 			} else {
 				throw new CloneNotSupportedException(
 						"SensorDataI instance is not of type SensorData and cannot be cloned");
@@ -76,6 +109,7 @@ public class QueryResult implements QueryResultI, Cloneable {
 	 */
 	@Override
 	public ArrayList<String> positiveSensorNodes() {
+		flatten();
 		return this.sensitiveNodes;
 	}
 
@@ -97,6 +131,7 @@ public class QueryResult implements QueryResultI, Cloneable {
 	 */
 	@Override
 	public ArrayList<SensorDataI> gatheredSensorsValues() {
+		flatten();
 		return this.sd;
 	}
 
@@ -118,6 +153,204 @@ public class QueryResult implements QueryResultI, Cloneable {
 		this.isGather = false;
 	}
 
+	/**
+	 * Checks if some results were dropped before being merged into this one.
+	 *
+	 * @return true if the result is known to miss some values or nodes.
+	 */
+	public boolean isIncomplete() {
+		return this.incomplete;
+	}
+
+	/**
+	 * Marks this result as missing some results dropped before the merge.
+	 */
+	public void setIncomplete() {
+		this.incomplete = true;
+	}
+
+	/**
+	 * Merges another query result into this one by linking it as a chunk. The
+	 * merged result must not be modified afterwards.
+	 *
+	 * @param other The query result to merge into this one.
+	 */
+	public synchronized void merge(QueryResultI other) {
+		if (this.chunks == null) {
+			this.chunks = new ArrayList<>();
+		}
+		this.chunks.add(other);
+	}
+
+	/**
+	 * Forks this result in constant time. The returned result starts with the
+	 * content of this one, which must no longer be modified afterwards: execution
+	 * states replace their own reference by a fork as well.
+	 *
+	 * @return a new result sharing the content of this one.
+	 */
+	public QueryResult fork() {
+		QueryResult forked = newEmpty();
+		forked.isGather = this.isGather;
+		forked.isBoolean = this.isBoolean;
+		forked.prefix = this;
+		return forked;
+	}
+
+	/**
+	 * Tells whether this result is a node of the chunk tree whose parts can be
+	 * walked without materializing its lists.
+	 *
+	 * @return true for list-based results.
+	 */
+	protected boolean isRope() {
+		return true;
+	}
+
+	/**
+	 * Flattens the chunk tree: the prefix, the local lists and the linked chunks
+	 * are copied, in this order, into fresh lists in a single walk.
+	 */
+	private synchronized void flatten() {
+		if (this.prefix == null && this.chunks == null) {
+			return;
+		}
+		ArrayList<SensorDataI> values = new ArrayList<>();
+		ArrayList<String> nodes = new ArrayList<>();
+		Deque<QueryResultI> pending = new ArrayDeque<>();
+		pushParts(this.prefix, this.sd, this.sensitiveNodes, this.chunks, pending);
+		while (!pending.isEmpty()) {
+			QueryResultI part = pending.pop();
+			if (part instanceof LocalPart) {
+				values.addAll(((LocalPart) part).sd);
+				nodes.addAll(((LocalPart) part).sensitiveNodes);
+			} else if (part instanceof QueryResult && ((QueryResult) part).isRope()) {
+				QueryResult rope = (QueryResult) part;
+				synchronized (rope) {
+					pushParts(rope.prefix, rope.sd, rope.sensitiveNodes, rope.chunks, pending);
+				}
+			} else {
+				values.addAll(part.gatheredSensorsValues());
+				nodes.addAll(part.positiveSensorNodes());
+			}
+		}
+		this.sd = values;
+		this.sensitiveNodes = nodes;
+		this.prefix = null;
+		this.chunks = null;
+	}
+
+	/**
+	 * Pushes the parts of a tree node on the walk stack so that they are popped
+	 * in order: prefix, local lists, then chunks.
+	 */
+	private static void pushParts(QueryResult prefix, ArrayList<SensorDataI> sd, ArrayList<String> sensitiveNodes,
+			List<QueryResultI> chunks, Deque<QueryResultI> pending) {
+		if (chunks != null) {
+			for (int i = chunks.size() - 1; i >= 0; i--) {
+				pending.push(chunks.get(i));
+			}
+		}
+		pending.push(new LocalPart(sd, sensitiveNodes));
+		if (prefix != null) {
+			pending.push(prefix);
+		}
+	}
+
+	/**
+	 * Local lists of a tree node, pushed on the walk stack while flattening.
+	 */
+	private static class LocalPart extends QueryResult {
+		private static final long serialVersionUID = 1L;
+
+		LocalPart(ArrayList<SensorDataI> sd, ArrayList<String> sensitiveNodes) {
+			super(sd, sensitiveNodes);
+		}
+	}
+
+	/**
+	 * Writes the result, flattened so the chunk tree is not written, as a version
+	 * byte, the result type flags and the content written by
+	 * {@link #writeContent(ObjectOutput)}.
+	 */
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		flatten();
+		WireFormat.writeVersion(out);
+		out.writeByte((this.isGather ? GATHER : 0) | (this.isBoolean ? BOOLEAN : 0)
+				| (this.incomplete ? INCOMPLETE : 0));
+		writeContent(out);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		WireFormat.readVersion(in, QueryResult.class);
+		int flags = in.readByte();
+		this.isGather = (flags & GATHER) != 0;
+		this.isBoolean = (flags & BOOLEAN) != 0;
+		this.incomplete = (flags & INCOMPLETE) != 0;
+		readContent(in);
+	}
+
+	/**
+	 * Writes the gathered values and the positive nodes. Subclasses with another
+	 * representation override this method and {@link #readContent(ObjectInput)}.
+	 *
+	 * @param out The output to write to.
+	 * @throws IOException if the output fails.
+	 */
+	protected void writeContent(ObjectOutput out) throws IOException {
+		out.writeInt(this.sd.size());
+		for (SensorDataI data : this.sd) {
+			if (data.getClass() == SensorData.class) {
+				out.writeBoolean(true); // written inline, without an object header
+				((SensorData) data).writeExternal(out);
+			} else {
+				out.writeBoolean(false);
+				out.writeObject(data);
+			}
+		}
+		out.writeInt(this.sensitiveNodes.size());
+		for (String node : this.sensitiveNodes) {
+			out.writeUTF(node);
+		}
+	}
+
+	/**
+	 * Reads the content written by {@link #writeContent(ObjectOutput)}.
+	 *
+	 * @param in The input to read from.
+	 * @throws IOException            if the input fails.
+	 * @throws ClassNotFoundException if the class of a value is unknown.
+	 */
+	protected void readContent(ObjectInput in) throws IOException, ClassNotFoundException {
+		int n = in.readInt();
+		this.sd = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			if (in.readBoolean()) {
+				SensorData data = new SensorData();
+				data.readExternal(in);
+				this.sd.add(data);
+			} else {
+				this.sd.add((SensorDataI) in.readObject());
+			}
+		}
+		n = in.readInt();
+		this.sensitiveNodes = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			this.sensitiveNodes.add(in.readUTF());
+		}
+	}
+
+	/**
+	 * Creates an empty query result of the same representation as this one.
+	 *
+	 * @return a new empty query result.
+	 */
+	public QueryResult newEmpty() {
+		return new QueryResult(new ArrayList<>(), new ArrayList<>());
+	}
+
 	@Override
 	public boolean equals(Object o) {
 		if (this == o)
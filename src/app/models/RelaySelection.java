@@ -0,0 +1,81 @@
+package app.models;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Selects the relays of a node, in the manner of multipoint relays: the
+ * smallest subset of the neighbours a flood is sent to whose own neighbours
+ * cover every node two hops away. Only the relays forward the flood further;
+ * since every two-hop node is a neighbour of a relay, the flood still reaches
+ * every node it would reach otherwise.
+ *
+ * Neighbours whose neighbourhood is unknown are always relays. Among the
+ * others, those alone in covering a two-hop node are chosen first, then the
+ * neighbour covering the most uncovered nodes until none remains.
+ */
+public final class RelaySelection {
+
+	private RelaySelection() {
+	}
+
+	/**
+	 * Selects the relays among candidate neighbours.
+	 *
+	 * @param coverage The two-hop nodes each candidate reaches, by candidate
+	 *                 identifier; a null value means the neighbourhood of the
+	 *                 candidate is unknown.
+	 * @return the identifiers of the selected relays.
+	 */
+	public static Set<String> select(Map<String, Set<String>> coverage) {
+		Set<String> relays = new LinkedHashSet<>();
+		Map<String, Integer> coverers = new HashMap<>();
+		for (Map.Entry<String, Set<String>> e : coverage.entrySet()) {
+			if (e.getValue() == null) {
+				relays.add(e.getKey());
+			} else {
+				for (String node : e.getValue()) {
+					coverers.merge(node, 1, Integer::sum);
+				}
+			}
+		}
+		Set<String> uncovered = new HashSet<>(coverers.keySet());
+		for (Map.Entry<String, Set<String>> e : coverage.entrySet()) {
+			if (e.getValue() == null || relays.contains(e.getKey())) {
+				continue;
+			}
+			for (String node : e.getValue()) {
+				if (coverers.get(node) == 1 && uncovered.contains(node)) {
+					relays.add(e.getKey());
+					uncovered.removeAll(e.getValue());
+					break;
+				}
+			}
+		}
+		while (!uncovered.isEmpty()) {
+			String best = null;
+			int bestCount = 0;
+			for (Map.Entry<String, Set<String>> e : coverage.entrySet()) {
+				if (e.getValue() == null || relays.contains(e.getKey())) {
+					continue;
+				}
+				int count = 0;
+				for (String node : e.getValue()) {
+					if (uncovered.contains(node)) {
+						count++;
+					}
+				}
+				if (count > bestCount) {
+					best = e.getKey();
+					bestCount = count;
+				}
+			}
+			relays.add(best);
+			uncovered.removeAll(coverage.get(best));
+		}
+		return relays;
+	}
+}
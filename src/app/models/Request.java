@@ -1,6 +1,11 @@
 package app.models;
 
-import fr.sorbonne_u.components.AbstractPort;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.time.Instant;
+
 import fr.sorbonne_u.cps.sensor_network.interfaces.ConnectionInfoI;
 import fr.sorbonne_u.cps.sensor_network.interfaces.RequestI;
 import fr.sorbonne_u.cps.sensor_network.requests.interfaces.QueryI;
@@ -10,19 +15,34 @@ import fr.sorbonne_u.cps.sensor_network.requests.interfaces.QueryI;
  * perform a query, including the client's connection info and the query code
  * itself. This class conforms to the {@link RequestI} interface, defining the
  * structure for requests in the sensor network system.
+ *
+ * Requests are identified by a compact 128-bit {@link RequestId}; the string
+ * URI is only built when {@link #requestURI()} is called, unless a custom URI
+ * was given.
  */
-public class Request implements RequestI {
+public class Request implements RequestI, Externalizable {
 	private static final long serialVersionUID = 1L;
-	private final String uri; // Unique URI for this request, automatically generated
+	private RequestId id; // Compact identifier of this request
+	private String customUri; // URI given at construction, null when derived from the identifier
+	private transient String uri; // String form of the identifier, built on demand
 	private ConnectionInfoI client; // Connection information for the client issuing the request
 	private QueryI queryCode; // The query code associated with this request
 	private boolean isAsynchronous = false; // Indicates whether the request should be processed asynchronously
 											// (initially false, meaning synchronous)
+	private Priority priority = Priority.NORMAL; // Priority class, kept by every continuation of the request
+	private long deadline; // Accelerated-clock time in epoch milliseconds after which the request is dropped, 0 if none
+	private boolean cancel; // Whether this request only cancels the request of the same identity
+
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public Request() {
+	}
 
 	/**
 	 * Constructs a Request with specified query code and client connection
-	 * information. Automatically assigns a unique URI to each request using
-	 * {@link AbstractPort#generatePortURI()}.
+	 * information. Automatically assigns a unique random identifier to each
+	 * request.
 	 *
 	 * @param queryCode The {@link QueryI} code that specifies what operation is to
 	 *                  be performed.
@@ -32,7 +52,8 @@ public class Request implements RequestI {
 	public Request(QueryI queryCode, ConnectionInfoI client) {
 		this.queryCode = queryCode;
 		this.client = client;
-		this.uri = AbstractPort.generatePortURI();
+		this.id = RequestId.random();
+		this.customUri = null;
 	}
 
 	/**
@@ -49,19 +70,98 @@ public class Request implements RequestI {
 	public Request(QueryI queryCode, ConnectionInfoI client, String uri) {
 		this.queryCode = queryCode;
 		this.client = client;
-		this.uri = uri;
+		this.id = RequestId.of(uri);
+		this.customUri = uri;
+	}
+
+	/**
+	 * Constructs a Request sharing the identity of another request.
+	 *
+	 * @param queryCode The {@link QueryI} code that specifies what operation is to
+	 *                  be performed.
+	 * @param client    The {@link ConnectionInfoI} providing details about the
+	 *                  client's connection.
+	 * @param identity  The request whose identifier and URI are reused.
+	 */
+	protected Request(QueryI queryCode, ConnectionInfoI client, Request identity) {
+		this.queryCode = queryCode;
+		this.client = client;
+		this.id = identity.id;
+		this.customUri = identity.customUri;
+		this.uri = identity.uri;
+	}
+
+	/**
+	 * Returns a copy of this request carrying another query, with the same
+	 * identity, client and mode, so that its results are merged with those of
+	 * this request.
+	 *
+	 * @param queryCode The query of the copy.
+	 * @return the new request.
+	 */
+	public Request withQuery(QueryI queryCode) {
+		Request copy = new Request(queryCode, this.client, this);
+		copy.copyControlOf(this);
+		return copy;
 	}
 
 	/**
-	 * Retrieves the unique URI for this request.
+	 * Builds the message cancelling a request: an asynchronous request of the
+	 * same identity and without query, which nodes forward along the paths the
+	 * request took from them.
+	 *
+	 * @param request The request to cancel.
+	 * @return the cancellation of the request.
+	 */
+	public static Request cancelOf(Request request) {
+		Request cancel = request.withQuery(null);
+		cancel.cancel = true;
+		cancel.isAsynchronous = true;
+		cancel.priority = Priority.ALERT;
+		return cancel;
+	}
+
+	/**
+	 * Copies the mode, priority, deadline and cancellation of another request.
+	 *
+	 * @param request The request whose attributes are copied.
+	 */
+	protected void copyControlOf(RequestI request) {
+		this.isAsynchronous = request.isAsynchronous();
+		if (request instanceof Request) {
+			Request r = (Request) request;
+			this.priority = r.priority;
+			this.deadline = r.deadline;
+			this.cancel = r.cancel;
+		}
+	}
+
+	/**
+	 * Retrieves the unique URI for this request. Unless a custom URI was given, it
+	 * is the string form of the request identifier.
 	 *
 	 * @return A string representing the unique URI of the request.
 	 */
 	@Override
 	public String requestURI() {
+		if (customUri != null) {
+			return customUri;
+		}
+		if (uri == null) {
+			uri = id.toString();
+		}
 		return uri;
 	}
 
+	/**
+	 * Retrieves the compact identifier of this request.
+	 *
+	 * @return The {@link RequestId} of the request.
+	 */
+	public RequestId getRequestId() {
+		return id;
+	}
+
 	/**
 	 * Retrieves the query code associated with this request.
 	 *
@@ -94,6 +194,66 @@ public class Request implements RequestI {
 		this.isAsynchronous = isAsynchronous;
 	}
 
+	/**
+	 * Retrieves the priority class of this request.
+	 *
+	 * @return The {@link Priority} of the request, {@link Priority#NORMAL} by
+	 *         default.
+	 */
+	public Priority getPriority() {
+		return priority;
+	}
+
+	/**
+	 * Sets the priority class of this request.
+	 *
+	 * @param priority The {@link Priority} of the request.
+	 */
+	public void setPriority(Priority priority) {
+		this.priority = priority;
+	}
+
+	/**
+	 * Retrieves the deadline of this request, in accelerated-clock time.
+	 *
+	 * @return The instant after which the request is dropped, or null if it has
+	 *         no deadline.
+	 */
+	public Instant getDeadline() {
+		return deadline == 0 ? null : Instant.ofEpochMilli(deadline);
+	}
+
+	/**
+	 * Sets the deadline of this request, in accelerated-clock time. Nodes drop
+	 * the request instead of evaluating or forwarding it once it has passed.
+	 *
+	 * @param deadline The instant after which the request is dropped, or null for
+	 *                 no deadline.
+	 */
+	public void setDeadline(Instant deadline) {
+		this.deadline = deadline == null ? 0 : deadline.toEpochMilli();
+	}
+
+	/**
+	 * Tells whether the deadline of this request has passed.
+	 *
+	 * @param now The current instant of the accelerated clock.
+	 * @return true if the request has a deadline earlier than now.
+	 */
+	public boolean isExpired(Instant now) {
+		return deadline != 0 && now.toEpochMilli() > deadline;
+	}
+
+	/**
+	 * Indicates whether this request only cancels the request of the same
+	 * identity.
+	 *
+	 * @return true if this request is a cancellation.
+	 */
+	public boolean isCancel() {
+		return cancel;
+	}
+
 	/**
 	 * Retrieves the client connection information associated with this request.
 	 *
@@ -114,4 +274,52 @@ public class Request implements RequestI {
 	public void setClient(ConnectionInfoI client) {
 		this.client = client;
 	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		out.writeLong(id.getHigh());
+		out.writeLong(id.getLow());
+		WireFormat.writeString(out, customUri);
+		out.writeObject(client);
+		out.writeBoolean(isAsynchronous);
+		out.writeByte(priority.ordinal());
+		out.writeLong(deadline);
+		out.writeBoolean(cancel);
+		writeQuery(out);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		WireFormat.readVersion(in, Request.class);
+		this.id = new RequestId(in.readLong(), in.readLong());
+		this.customUri = WireFormat.readString(in);
+		this.client = (ConnectionInfoI) in.readObject();
+		this.isAsynchronous = in.readBoolean();
+		this.priority = Priority.values()[in.readByte()];
+		this.deadline = in.readLong();
+		this.cancel = in.readBoolean();
+		readQuery(in);
+	}
+
+	/**
+	 * Writes the query of this request.
+	 *
+	 * @param out The output to write to.
+	 * @throws IOException if the output fails.
+	 */
+	protected void writeQuery(ObjectOutput out) throws IOException {
+		out.writeObject(queryCode);
+	}
+
+	/**
+	 * Reads the query written by {@link #writeQuery(ObjectOutput)}.
+	 *
+	 * @param in The input to read from.
+	 * @throws IOException            if the input fails.
+	 * @throws ClassNotFoundException if the class of the query is unknown.
+	 */
+	protected void readQuery(ObjectInput in) throws IOException, ClassNotFoundException {
+		this.queryCode = (QueryI) in.readObject();
+	}
 }
@@ -1,5 +1,13 @@
 package app.models;
 
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import fr.sorbonne_u.cps.sensor_network.interfaces.ConnectionInfoI;
 import fr.sorbonne_u.cps.sensor_network.interfaces.RequestContinuationI;
 import fr.sorbonne_u.cps.sensor_network.interfaces.RequestI;
@@ -11,11 +19,35 @@ import fr.sorbonne_u.cps.sensor_network.requests.interfaces.QueryI;
  * facilitating tracking and management of request processing within a sensor
  * network. This class is used to represent a continuation of a request where
  * the state of the execution needs to be maintained and accessible.
+ *
+ * The query is carried as a {@link QueryPayload} shared by all the
+ * continuations of a request: only the execution state, which holds the hops,
+ * directions, distance and base position, is encoded again at each hop.
+ *
+ * A continuation may also carry a batch of asynchronous flooding requests
+ * sharing a base, merged by their entry node so that their floods visit each
+ * node once. Such a continuation has no query of its own: its execution state
+ * covers the area of every request of the batch, and each request keeps its own
+ * execution state and result, sent to its client under its own URI.
+ *
+ * Requests identical to this one, received by the entry node before this
+ * continuation left it, may be attached to it as aliases: they are not executed
+ * themselves, and every result of this continuation is also sent to their
+ * clients under their own URI.
  */
 public class RequestContinuation extends Request implements RequestContinuationI {
 	private static final long serialVersionUID = 1643394860402250861L;
 	private ExecutionStateI es; // Holds the state of the request's execution.
 	private boolean leaf = true; // Holds the state of the request's execution.
+	private QueryPayload payload; // Immutable query, shared with the continuation it derives from
+	private List<RequestContinuation> batch; // Requests travelling together, null unless this carries a batch
+	private List<Request> aliases; // Identical requests sharing the results of this one, null if none
+
+	/**
+	 * Constructs an empty instance, required by {@link java.io.Externalizable}.
+	 */
+	public RequestContinuation() {
+	}
 
 	/**
 	 * Constructs a RequestContinuation with the specified query code, client
@@ -29,9 +61,10 @@ public class RequestContinuation extends Request implements RequestContinuationI
 	 *                             the current state of the request's execution.
 	 */
 	public RequestContinuation(RequestI request, ExecutionStateI es, String uri) {
-		super(request.getQueryCode(), request.clientConnectionInfo(), uri);
+		super(null, request.clientConnectionInfo(), uri);
+		this.payload = payloadOf(request);
 		this.es = es;
-		this.setAsynchronous(request.isAsynchronous());
+		this.copyControlOf(request);
 	}
 
 	/**
@@ -43,9 +76,185 @@ public class RequestContinuation extends Request implements RequestContinuationI
 	 * @param uri     The URI of the continuation request.
 	 */
 	public RequestContinuation(RequestContinuationI request, ExecutionStateI es, String uri) {
-		super(request.getQueryCode(), request.clientConnectionInfo(), uri);
+		super(null, request.clientConnectionInfo(), uri);
+		this.payload = payloadOf(request);
+		this.aliases = aliasesOf(request);
+		this.es = es;
+		this.copyControlOf(request);
+	}
+
+	/**
+	 * Constructs a RequestContinuation carrying the identity of the given request,
+	 * without going through its URI.
+	 *
+	 * @param request The request being continued.
+	 * @param es      The execution state associated with the continuation of the
+	 *                request.
+	 */
+	public RequestContinuation(Request request, ExecutionStateI es) {
+		super(null, request.clientConnectionInfo(), request);
+		this.payload = payloadOf(request);
+		this.aliases = aliasesOf(request);
 		this.es = es;
-		this.setAsynchronous(request.isAsynchronous());
+		this.copyControlOf(request);
+	}
+
+	/**
+	 * Builds the continuation of a request, reusing its identifier when it
+	 * carries one.
+	 *
+	 * @param request The request being continued.
+	 * @param es      The execution state associated with the continuation of the
+	 *                request.
+	 * @return the continuation of the request.
+	 */
+	public static RequestContinuation from(RequestI request, ExecutionStateI es) {
+		if (request instanceof Request) {
+			return new RequestContinuation((Request) request, es);
+		}
+		return new RequestContinuation(request, es, request.requestURI());
+	}
+
+	/**
+	 * Builds the continuation carrying a batch of requests.
+	 *
+	 * @param members   The continuations of the requests of the batch, evaluated
+	 *                  at the entry node.
+	 * @param footprint The execution state of the batch, covering the area of
+	 *                  every request.
+	 * @return the continuation of the batch, with the priority of its most urgent
+	 *         request and the deadline of its latest one.
+	 */
+	public static RequestContinuation batch(List<RequestContinuation> members, ExecutionStateI footprint) {
+		RequestContinuation carrier = new RequestContinuation(new Request(null, null), footprint);
+		carrier.batch = new ArrayList<>(members);
+		carrier.setAsynchronous(true);
+		Instant deadline = null;
+		boolean bounded = true;
+		for (RequestContinuation member : members) {
+			if (member.getPriority().compareTo(carrier.getPriority()) < 0) {
+				carrier.setPriority(member.getPriority());
+			}
+			Instant d = member.getDeadline();
+			if (d == null) {
+				bounded = false;
+			} else if (deadline == null || d.isAfter(deadline)) {
+				deadline = d;
+			}
+		}
+		carrier.setDeadline(bounded ? deadline : null);
+		return carrier;
+	}
+
+	/**
+	 * Builds the continuation forwarded to a neighbour. The requests of a batch
+	 * travel with it, each with a clone of its execution state: batches are
+	 * flooded, so the clones leave behind the results of the nodes reporting
+	 * them.
+	 *
+	 * @param es The execution state of the forwarded continuation.
+	 * @return the forwarded continuation.
+	 * @throws CloneNotSupportedException if a state of the batch cannot be cloned.
+	 */
+	public RequestContinuation forward(ExecutionStateI es) throws CloneNotSupportedException {
+		RequestContinuation next = new RequestContinuation(this, es);
+		if (this.batch != null) {
+			next.batch = new ArrayList<>(this.batch.size());
+			for (RequestContinuation member : this.batch) {
+				next.batch.add(new RequestContinuation(member, ((ExecutionState) member.es).cloneForContinuation(true)));
+			}
+		}
+		return next;
+	}
+
+	/**
+	 * Tells whether this continuation carries a batch of requests.
+	 *
+	 * @return true if this continuation carries a batch.
+	 */
+	public boolean isBatch() {
+		return this.batch != null;
+	}
+
+	/**
+	 * Retrieves the continuations of the requests of the batch.
+	 *
+	 * @return the requests of the batch, empty unless this carries a batch.
+	 */
+	public List<RequestContinuation> getBatch() {
+		return this.batch == null ? Collections.emptyList() : Collections.unmodifiableList(this.batch);
+	}
+
+	/**
+	 * Returns the payload of a request: the one of a continuation is shared, the
+	 * query of any other request is wrapped in a new payload.
+	 */
+	private static QueryPayload payloadOf(RequestI request) {
+		if (request instanceof RequestContinuation) {
+			return ((RequestContinuation) request).payload;
+		}
+		QueryI query = request.getQueryCode();
+		return query == null ? null : new QueryPayload(query);
+	}
+
+	/**
+	 * Returns the aliases of a request: those of a continuation are shared, any
+	 * other request has none.
+	 */
+	private static List<Request> aliasesOf(RequestI request) {
+		return request instanceof RequestContinuation ? ((RequestContinuation) request).aliases : null;
+	}
+
+	/**
+	 * Attaches an identical request to this one, which must not have left its
+	 * entry node yet.
+	 *
+	 * @param request The identical request.
+	 */
+	public synchronized void addAlias(Request request) {
+		if (this.aliases == null) {
+			this.aliases = new ArrayList<>();
+		}
+		this.aliases.add(request.withQuery(null));
+	}
+
+	/**
+	 * Retrieves the requests attached to this one.
+	 *
+	 * @return the aliases of this request, empty if none.
+	 */
+	public synchronized List<Request> getAliases() {
+		return this.aliases == null ? Collections.emptyList() : Collections.unmodifiableList(this.aliases);
+	}
+
+	/**
+	 * Retrieves the query of this request, decoding its payload if needed.
+	 *
+	 * @return The {@link QueryI} instance defining the operation of this request.
+	 */
+	@Override
+	public QueryI getQueryCode() {
+		return this.payload == null ? null : this.payload.getQuery();
+	}
+
+	/**
+	 * Retrieves the query of this request, decoding its payload through the plan
+	 * cache of the current node if needed.
+	 *
+	 * @param cache The plan cache of the current node.
+	 * @return The {@link QueryI} instance defining the operation of this request.
+	 */
+	public QueryI getQueryCode(PlanCache cache) {
+		return this.payload == null ? null : this.payload.getQuery(cache);
+	}
+
+	/**
+	 * Retrieves the payload carrying the query of this request.
+	 *
+	 * @return The {@link QueryPayload} of this request, or null without query.
+	 */
+	public QueryPayload getPayload() {
+		return this.payload;
 	}
 
 	/**
@@ -74,4 +283,57 @@ public class RequestContinuation extends Request implements RequestContinuationI
 	public void setLeaf() {
 		this.leaf = false;
 	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		super.writeExternal(out);
+		out.writeObject(es);
+		out.writeBoolean(leaf);
+		out.writeInt(aliases == null ? 0 : aliases.size());
+		if (aliases != null) {
+			for (Request alias : aliases) {
+				out.writeObject(alias);
+			}
+		}
+		out.writeInt(batch == null ? -1 : batch.size());
+		if (batch != null) {
+			for (RequestContinuation member : batch) {
+				out.writeObject(member);
+			}
+		}
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		super.readExternal(in);
+		this.es = (ExecutionStateI) in.readObject();
+		this.leaf = in.readBoolean();
+		int count = in.readInt();
+		if (count > 0) {
+			this.aliases = new ArrayList<>(count);
+			for (int i = 0; i < count; i++) {
+				this.aliases.add((Request) in.readObject());
+			}
+		}
+		int size = in.readInt();
+		if (size >= 0) {
+			this.batch = new ArrayList<>(size);
+			for (int i = 0; i < size; i++) {
+				this.batch.add((RequestContinuation) in.readObject());
+			}
+		}
+	}
+
+	/**
+	 * Writes the payload bytes as they are, without encoding the query again.
+	 */
+	@Override
+	protected void writeQuery(ObjectOutput out) throws IOException {
+		out.writeObject(this.payload);
+	}
+
+	@Override
+	protected void readQuery(ObjectInput in) throws IOException, ClassNotFoundException {
+		this.payload = (QueryPayload) in.readObject();
+	}
 }
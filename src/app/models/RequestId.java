@@ -0,0 +1,143 @@
+package app.models;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import fr.sorbonne_u.cps.sensor_network.interfaces.RequestI;
+
+/**
+ * Compact 128-bit identifier of a request, held as two longs. It is hashed and
+ * compared without going through the string form of the request URI, which is
+ * only produced for logging and for the interfaces that require it.
+ */
+public final class RequestId implements Externalizable {
+
+	private static final long serialVersionUID = 1L;
+
+	private long high;
+	private long low;
+
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public RequestId() {
+	}
+
+	/**
+	 * Constructs an identifier from its two halves.
+	 *
+	 * @param high The most significant 64 bits.
+	 * @param low  The least significant 64 bits.
+	 */
+	public RequestId(long high, long low) {
+		this.high = high;
+		this.low = low;
+	}
+
+	/**
+	 * Generates a random identifier laid out as a version 4 UUID, so that its
+	 * string form looks like the URIs generated for ports.
+	 *
+	 * @return a new random identifier.
+	 */
+	public static RequestId random() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		long high = (random.nextLong() & ~0xF000L) | 0x4000L;
+		long low = (random.nextLong() & ~(0xC000000000000000L)) | 0x8000000000000000L;
+		return new RequestId(high, low);
+	}
+
+	/**
+	 * Retrieves the identifier matching a request URI. URIs in UUID form are
+	 * parsed; any other URI is mapped to a name-based UUID, so that the same URI
+	 * always yields the same identifier.
+	 *
+	 * @param uri The request URI.
+	 * @return the identifier of the URI.
+	 */
+	public static RequestId of(String uri) {
+		UUID uuid;
+		try {
+			uuid = UUID.fromString(uri);
+		} catch (IllegalArgumentException e) {
+			uuid = UUID.nameUUIDFromBytes(uri.getBytes(StandardCharsets.UTF_8));
+		}
+		return new RequestId(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits());
+	}
+
+	/**
+	 * Retrieves the identifier of a request, without building its URI when the
+	 * request carries its identifier.
+	 *
+	 * @param request The request.
+	 * @return the identifier of the request.
+	 */
+	public static RequestId of(RequestI request) {
+		if (request instanceof Request) {
+			return ((Request) request).getRequestId();
+		}
+		return of(request.requestURI());
+	}
+
+	/**
+	 * Retrieves the most significant 64 bits.
+	 *
+	 * @return the high half of the identifier.
+	 */
+	public long getHigh() {
+		return high;
+	}
+
+	/**
+	 * Retrieves the least significant 64 bits.
+	 *
+	 * @return the low half of the identifier.
+	 */
+	public long getLow() {
+		return low;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof RequestId))
+			return false;
+		RequestId that = (RequestId) obj;
+		return high == that.high && low == that.low;
+	}
+
+	@Override
+	public int hashCode() {
+		return RequestIdSet.hash(high, low);
+	}
+
+	/**
+	 * Provides the UUID string form of the identifier.
+	 *
+	 * @return the identifier as a string.
+	 */
+	@Override
+	public String toString() {
+		return new UUID(high, low).toString();
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		out.writeLong(high);
+		out.writeLong(low);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException {
+		WireFormat.readVersion(in, RequestId.class);
+		this.high = in.readLong();
+		this.low = in.readLong();
+	}
+}
@@ -0,0 +1,120 @@
+package app.models;
+
+/**
+ * Thread-safe set of request identifiers backed by a primitive open-addressing
+ * table of long pairs, used by nodes to detect requests they have already
+ * processed without hashing URI strings or boxing keys.
+ */
+public class RequestIdSet {
+
+	private static final int INITIAL_CAPACITY = 64; // must be a power of two
+
+	private long[] highs = new long[INITIAL_CAPACITY];
+	private long[] lows = new long[INITIAL_CAPACITY];
+	private boolean[] used = new boolean[INITIAL_CAPACITY];
+	private int size;
+
+	/**
+	 * Mixes the two halves of an identifier into a well-distributed hash.
+	 *
+	 * @param high The most significant 64 bits.
+	 * @param low  The least significant 64 bits.
+	 * @return the hash of the identifier.
+	 */
+	static int hash(long high, long low) {
+		long h = high * 0x9E3779B97F4A7C15L ^ low;
+		h ^= h >>> 32;
+		h *= 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 29));
+	}
+
+	/**
+	 * Adds an identifier to the set.
+	 *
+	 * @param id The identifier to add.
+	 * @return true if the identifier was not already in the set.
+	 */
+	public boolean add(RequestId id) {
+		return add(id.getHigh(), id.getLow());
+	}
+
+	/**
+	 * Adds an identifier to the set.
+	 *
+	 * @param high The most significant 64 bits of the identifier.
+	 * @param low  The least significant 64 bits of the identifier.
+	 * @return true if the identifier was not already in the set.
+	 */
+	public synchronized boolean add(long high, long low) {
+		int slot = find(high, low);
+		if (used[slot]) {
+			return false;
+		}
+		used[slot] = true;
+		highs[slot] = high;
+		lows[slot] = low;
+		if (++size * 2 > used.length) {
+			grow();
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether an identifier is in the set.
+	 *
+	 * @param id The identifier to look for.
+	 * @return true if the identifier is in the set.
+	 */
+	public boolean contains(RequestId id) {
+		return contains(id.getHigh(), id.getLow());
+	}
+
+	/**
+	 * Checks whether an identifier is in the set.
+	 *
+	 * @param high The most significant 64 bits of the identifier.
+	 * @param low  The least significant 64 bits of the identifier.
+	 * @return true if the identifier is in the set.
+	 */
+	public synchronized boolean contains(long high, long low) {
+		return used[find(high, low)];
+	}
+
+	/**
+	 * Returns the number of identifiers in the set.
+	 *
+	 * @return the size of the set.
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Finds the slot holding an identifier, or the free slot where it would go.
+	 */
+	private int find(long high, long low) {
+		int mask = used.length - 1;
+		int slot = hash(high, low) & mask;
+		while (used[slot] && (highs[slot] != high || lows[slot] != low)) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private void grow() {
+		long[] oldHighs = highs;
+		long[] oldLows = lows;
+		boolean[] oldUsed = used;
+		highs = new long[oldUsed.length * 2];
+		lows = new long[oldUsed.length * 2];
+		used = new boolean[oldUsed.length * 2];
+		for (int i = 0; i < oldUsed.length; i++) {
+			if (oldUsed[i]) {
+				int slot = find(oldHighs[i], oldLows[i]);
+				used[slot] = true;
+				highs[slot] = oldHighs[i];
+				lows[slot] = oldLows[i];
+			}
+		}
+	}
+}
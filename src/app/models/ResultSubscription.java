@@ -0,0 +1,62 @@
+package app.models;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import fr.sorbonne_u.cps.sensor_network.interfaces.QueryResultI;
+
+/**
+ * Asynchronous request submitted through the programmatic API of a client. The
+ * results received for the request are passed to a listener as they arrive,
+ * and its future completes with their merge once every branch has answered or
+ * its timeout has passed. Results arriving after that are not passed on. A
+ * merge missing results the client had to drop is marked
+ * {@link QueryResult#isIncomplete() incomplete}.
+ */
+public class ResultSubscription {
+
+	private final CompletableFuture<QueryResultI> future = new CompletableFuture<>();
+	private final Consumer<QueryResultI> listener; // null if partial results are not awaited
+
+	/**
+	 * Constructs a subscription.
+	 *
+	 * @param listener The listener of the partial results, or null.
+	 */
+	public ResultSubscription(Consumer<QueryResultI> listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Returns the future of the merged result.
+	 *
+	 * @return the future completed by {@link #complete(QueryResultI)}.
+	 */
+	public CompletableFuture<QueryResultI> getFuture() {
+		return this.future;
+	}
+
+	/**
+	 * Passes a partial result to the listener, unless the request is complete.
+	 *
+	 * @param partial The result received.
+	 * @return true if the result was passed on.
+	 */
+	public boolean accept(QueryResultI partial) {
+		if (this.listener == null || this.future.isDone()) {
+			return false;
+		}
+		this.listener.accept(partial);
+		return true;
+	}
+
+	/**
+	 * Completes the future with the merged result.
+	 *
+	 * @param merged The merge of the results received.
+	 * @return true if the future was not complete yet.
+	 */
+	public boolean complete(QueryResultI merged) {
+		return this.future.complete(merged);
+	}
+}
@@ -1,5 +1,9 @@
 package app.models;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.io.Serializable;
 import java.time.Instant;
 import fr.sorbonne_u.cps.sensor_network.interfaces.SensorDataI;
@@ -9,7 +13,7 @@ import fr.sorbonne_u.cps.sensor_network.interfaces.SensorDataI;
  * encapsulates the identifier of the node and sensor, the value of the data,
  * and the timestamp when the data was recorded.
  */
-public class SensorData implements SensorDataI, Serializable, Cloneable {
+public class SensorData implements SensorDataI, Externalizable, Cloneable {
 
 	private static final long serialVersionUID = -4202232058504256513L;
 
@@ -18,6 +22,12 @@ public class SensorData implements SensorDataI, Serializable, Cloneable {
 	private Serializable value; // The numeric value recorded by the sensor
 	private Instant timestamp; // The timestamp when the data was recorded
 
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public SensorData() {
+	}
+
 	/**
 	 * Constructs a SensorData object with specified identifiers and value.
 	 *
@@ -34,6 +44,22 @@ public class SensorData implements SensorDataI, Serializable, Cloneable {
 		this.timestamp = Instant.now(); // Capture the timestamp at the moment of data creation
 	}
 
+	/**
+	 * Constructs a SensorData object recorded at a given instant.
+	 *
+	 * @param nodeIdentifier   The identifier of the node where the sensor is
+	 *                         located.
+	 * @param sensorIdentifier The identifier of the sensor that produced the data.
+	 * @param value            The value recorded by the sensor.
+	 * @param timestamp        The instant at which the value was recorded.
+	 */
+	public SensorData(String nodeIdentifier, String sensorIdentifier, Serializable value, Instant timestamp) {
+		this.nodeIdentifier = nodeIdentifier;
+		this.sensorIdentifier = sensorIdentifier;
+		this.value = value;
+		this.timestamp = timestamp;
+	}
+
 	/**
 	 * Creates and returns a copy of this object.
 	 *
@@ -124,4 +150,22 @@ public class SensorData implements SensorDataI, Serializable, Cloneable {
 	public Instant getTimestamp() {
 		return timestamp;
 	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		WireFormat.writeString(out, nodeIdentifier);
+		WireFormat.writeString(out, sensorIdentifier);
+		WireFormat.writeValue(out, value);
+		WireFormat.writeInstant(out, timestamp);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		WireFormat.readVersion(in, SensorData.class);
+		this.nodeIdentifier = WireFormat.readString(in);
+		this.sensorIdentifier = WireFormat.readString(in);
+		this.value = WireFormat.readValue(in);
+		this.timestamp = WireFormat.readInstant(in);
+	}
 }
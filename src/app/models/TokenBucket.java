@@ -0,0 +1,47 @@
+package app.models;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiter letting through a sustained number of events per second, with
+ * bursts up to a given size. The bucket starts full.
+ */
+public class TokenBucket {
+
+	private final double rate; // tokens per nanosecond
+	private final double burst;
+	private double tokens;
+	private long last;
+
+	/**
+	 * Constructs a full bucket.
+	 *
+	 * @param rate  The sustained number of events per second.
+	 * @param burst The largest number of events let through at once.
+	 * @param now   The current time, in nanoseconds.
+	 */
+	public TokenBucket(double rate, int burst, long now) {
+		this.rate = rate / TimeUnit.SECONDS.toNanos(1);
+		this.burst = Math.max(burst, 1);
+		this.tokens = this.burst;
+		this.last = now;
+	}
+
+	/**
+	 * Takes a token if one is available.
+	 *
+	 * @param now The current time, in nanoseconds.
+	 * @return true if the event is let through.
+	 */
+	public synchronized boolean tryAcquire(long now) {
+		if (now > this.last) {
+			this.tokens = Math.min(this.burst, this.tokens + (now - this.last) * this.rate);
+			this.last = now;
+		}
+		if (this.tokens < 1) {
+			return false;
+		}
+		this.tokens--;
+		return true;
+	}
+}
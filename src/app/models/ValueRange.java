@@ -0,0 +1,96 @@
+package app.models;
+
+/**
+ * Closed interval of the values a numeric sensor may take, used to decide
+ * whether a comparison may hold somewhere without reading the sensors. An
+ * unbounded range stands for a sensor whose values are unknown.
+ */
+public final class ValueRange {
+
+	/** The range of a sensor whose values are unknown. */
+	public static final ValueRange UNBOUNDED = new ValueRange(Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+
+	private final double min;
+	private final double max;
+
+	/**
+	 * Constructs the range between two bounds.
+	 *
+	 * @param min The lowest value.
+	 * @param max The highest value.
+	 */
+	public ValueRange(double min, double max) {
+		this.min = min;
+		this.max = max;
+	}
+
+	/**
+	 * Returns the range holding a single value.
+	 *
+	 * @param value The value.
+	 * @return the range {@code [value, value]}.
+	 */
+	public static ValueRange of(double value) {
+		return new ValueRange(value, value);
+	}
+
+	/**
+	 * Returns the smallest range holding this range and another one.
+	 *
+	 * @param other The other range.
+	 * @return the union of both ranges.
+	 */
+	public ValueRange union(ValueRange other) {
+		if (other.min >= this.min && other.max <= this.max) {
+			return this;
+		}
+		return new ValueRange(Math.min(this.min, other.min), Math.max(this.max, other.max));
+	}
+
+	/**
+	 * Returns the lowest value of the range.
+	 *
+	 * @return the lower bound.
+	 */
+	public double getMin() {
+		return min;
+	}
+
+	/**
+	 * Returns the highest value of the range.
+	 *
+	 * @return the upper bound.
+	 */
+	public double getMax() {
+		return max;
+	}
+
+	/**
+	 * Tells whether the range holds a single value.
+	 *
+	 * @return true if both bounds are equal.
+	 */
+	public boolean isPoint() {
+		return min == max;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (!(obj instanceof ValueRange))
+			return false;
+		ValueRange that = (ValueRange) obj;
+		return Double.compare(this.min, that.min) == 0 && Double.compare(this.max, that.max) == 0;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Double.hashCode(min) + Double.hashCode(max);
+	}
+
+	@Override
+	public String toString() {
+		return "[" + min + ", " + max + "]";
+	}
+}
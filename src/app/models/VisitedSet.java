@@ -0,0 +1,127 @@
+package app.models;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * Immutable set of the nodes a flood is known to cover, carried by its
+ * continuations so that a node does not forward the flood to neighbours which
+ * already received it. Nodes are kept as sorted 64-bit hashes of their
+ * identifiers: unlike a Bloom filter the set has no false positive in practice,
+ * so a node is never skipped unless it was actually reached.
+ */
+public final class VisitedSet implements Externalizable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final VisitedSet EMPTY = new VisitedSet(new long[0]);
+
+	private long[] hashes; // sorted, without duplicates
+
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public VisitedSet() {
+	}
+
+	private VisitedSet(long[] hashes) {
+		this.hashes = hashes;
+	}
+
+	/**
+	 * Returns the empty set.
+	 *
+	 * @return a set containing no node.
+	 */
+	public static VisitedSet empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * Tells whether a node is in the set.
+	 *
+	 * @param nodeIdentifier The identifier of the node.
+	 * @return true if the node is known to be covered.
+	 */
+	public boolean contains(String nodeIdentifier) {
+		return Arrays.binarySearch(this.hashes, hash(nodeIdentifier)) >= 0;
+	}
+
+	/**
+	 * Returns the union of this set and the given nodes.
+	 *
+	 * @param nodeIdentifiers The identifiers of the nodes to add.
+	 * @return this set if it already contains every node, a new set otherwise.
+	 */
+	public VisitedSet with(Collection<String> nodeIdentifiers) {
+		long[] added = new long[nodeIdentifiers.size()];
+		int n = 0;
+		for (String id : nodeIdentifiers) {
+			long h = hash(id);
+			if (Arrays.binarySearch(this.hashes, h) < 0) {
+				added[n++] = h;
+			}
+		}
+		if (n == 0) {
+			return this;
+		}
+		Arrays.sort(added, 0, n);
+		long[] merged = new long[this.hashes.length + n];
+		int i = 0, j = 0, k = 0;
+		while (i < this.hashes.length || j < n) {
+			long next;
+			if (j == n || (i < this.hashes.length && this.hashes[i] < added[j])) {
+				next = this.hashes[i++];
+			} else {
+				next = added[j++];
+			}
+			if (k == 0 || merged[k - 1] != next) {
+				merged[k++] = next;
+			}
+		}
+		return new VisitedSet(k == merged.length ? merged : Arrays.copyOf(merged, k));
+	}
+
+	/**
+	 * Returns the number of nodes in the set.
+	 *
+	 * @return the size of the set.
+	 */
+	public int size() {
+		return this.hashes.length;
+	}
+
+	/**
+	 * Hashes a node identifier with 64-bit FNV-1a.
+	 */
+	private static long hash(String nodeIdentifier) {
+		long h = 0xcbf29ce484222325L;
+		for (int i = 0; i < nodeIdentifier.length(); i++) {
+			h ^= nodeIdentifier.charAt(i);
+			h *= 0x100000001b3L;
+		}
+		return h;
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		out.writeInt(this.hashes.length);
+		for (long h : this.hashes) {
+			out.writeLong(h);
+		}
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException {
+		WireFormat.readVersion(in, VisitedSet.class);
+		this.hashes = new long[in.readInt()];
+		for (int i = 0; i < this.hashes.length; i++) {
+			this.hashes[i] = in.readLong();
+		}
+	}
+}
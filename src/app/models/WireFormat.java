@@ -0,0 +1,226 @@
+package app.models;
+
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.Set;
+
+import fr.sorbonne_u.cps.sensor_network.interfaces.Direction;
+
+/**
+ * Helpers shared by the {@link java.io.Externalizable} implementations of the
+ * models and of the query AST. Every externalized object starts with a layout
+ * version byte, followed by its fields written as primitives; nullable fields
+ * are preceded by a presence flag.
+ */
+public final class WireFormat {
+
+	/**
+	 * Current version of the binary layout.
+	 */
+	public static final byte VERSION = 1;
+
+	private static final byte VALUE_OTHER = 0;
+	private static final byte VALUE_DOUBLE = 1;
+	private static final byte VALUE_BOOLEAN = 2;
+	private static final byte VALUE_INTEGER = 3;
+	private static final byte VALUE_STRING = 4;
+
+	private WireFormat() {
+	}
+
+	/**
+	 * Writes the layout version.
+	 *
+	 * @param out The output to write to.
+	 * @throws IOException if the output fails.
+	 */
+	public static void writeVersion(ObjectOutput out) throws IOException {
+		out.writeByte(VERSION);
+	}
+
+	/**
+	 * Reads the layout version and checks that it can be decoded.
+	 *
+	 * @param in   The input to read from.
+	 * @param type The type being decoded, for the error message.
+	 * @return the version read.
+	 * @throws IOException if the input fails or the version is not supported.
+	 */
+	public static byte readVersion(ObjectInput in, Class<?> type) throws IOException {
+		byte version = in.readByte();
+		if (version < 1 || version > VERSION) {
+			throw new InvalidClassException(type.getName(), "unsupported wire layout version " + version);
+		}
+		return version;
+	}
+
+	/**
+	 * Writes a string that may be null.
+	 *
+	 * @param out The output to write to.
+	 * @param s   The string to write.
+	 * @throws IOException if the output fails.
+	 */
+	public static void writeString(ObjectOutput out, String s) throws IOException {
+		out.writeBoolean(s != null);
+		if (s != null) {
+			out.writeUTF(s);
+		}
+	}
+
+	/**
+	 * Reads a string written by {@link #writeString(ObjectOutput, String)}.
+	 *
+	 * @param in The input to read from.
+	 * @return the string read, possibly null.
+	 * @throws IOException if the input fails.
+	 */
+	public static String readString(ObjectInput in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	/**
+	 * Writes a sensor value, unboxed when it is a double, a boolean, an integer
+	 * or a string.
+	 *
+	 * @param out   The output to write to.
+	 * @param value The value to write.
+	 * @throws IOException if the output fails.
+	 */
+	public static void writeValue(ObjectOutput out, Serializable value) throws IOException {
+		if (value instanceof Double) {
+			out.writeByte(VALUE_DOUBLE);
+			out.writeDouble((Double) value);
+		} else if (value instanceof Boolean) {
+			out.writeByte(VALUE_BOOLEAN);
+			out.writeBoolean((Boolean) value);
+		} else if (value instanceof Integer) {
+			out.writeByte(VALUE_INTEGER);
+			out.writeInt((Integer) value);
+		} else if (value instanceof String) {
+			out.writeByte(VALUE_STRING);
+			out.writeUTF((String) value);
+		} else {
+			out.writeByte(VALUE_OTHER);
+			out.writeObject(value);
+		}
+	}
+
+	/**
+	 * Reads a value written by {@link #writeValue(ObjectOutput, Serializable)}.
+	 *
+	 * @param in The input to read from.
+	 * @return the value read.
+	 * @throws IOException            if the input fails.
+	 * @throws ClassNotFoundException if the class of the value is unknown.
+	 */
+	public static Serializable readValue(ObjectInput in) throws IOException, ClassNotFoundException {
+		switch (in.readByte()) {
+		case VALUE_DOUBLE:
+			return in.readDouble();
+		case VALUE_BOOLEAN:
+			return in.readBoolean();
+		case VALUE_INTEGER:
+			return in.readInt();
+		case VALUE_STRING:
+			return in.readUTF();
+		default:
+			return (Serializable) in.readObject();
+		}
+	}
+
+	/**
+	 * Writes an instant that may be null as seconds and nanoseconds.
+	 *
+	 * @param out The output to write to.
+	 * @param t   The instant to write.
+	 * @throws IOException if the output fails.
+	 */
+	public static void writeInstant(ObjectOutput out, Instant t) throws IOException {
+		out.writeBoolean(t != null);
+		if (t != null) {
+			out.writeLong(t.getEpochSecond());
+			out.writeInt(t.getNano());
+		}
+	}
+
+	/**
+	 * Reads an instant written by {@link #writeInstant(ObjectOutput, Instant)}.
+	 *
+	 * @param in The input to read from.
+	 * @return the instant read, possibly null.
+	 * @throws IOException if the input fails.
+	 */
+	public static Instant readInstant(ObjectInput in) throws IOException {
+		return in.readBoolean() ? Instant.ofEpochSecond(in.readLong(), in.readInt()) : null;
+	}
+
+	/**
+	 * Writes a direction as its ordinal.
+	 *
+	 * @param out       The output to write to.
+	 * @param direction The direction to write.
+	 * @throws IOException if the output fails.
+	 */
+	public static void writeDirection(ObjectOutput out, Direction direction) throws IOException {
+		out.writeByte(direction == null ? -1 : direction.ordinal());
+	}
+
+	/**
+	 * Reads a direction written by {@link #writeDirection(ObjectOutput, Direction)}.
+	 *
+	 * @param in The input to read from.
+	 * @return the direction read, possibly null.
+	 * @throws IOException if the input fails.
+	 */
+	public static Direction readDirection(ObjectInput in) throws IOException {
+		byte ordinal = in.readByte();
+		return ordinal < 0 ? null : Direction.values()[ordinal];
+	}
+
+	/**
+	 * Writes a set of directions as a bitmask, -1 standing for null.
+	 *
+	 * @param out        The output to write to.
+	 * @param directions The directions to write.
+	 * @throws IOException if the output fails.
+	 */
+	public static void writeDirections(ObjectOutput out, Set<Direction> directions) throws IOException {
+		if (directions == null) {
+			out.writeByte(-1);
+			return;
+		}
+		int mask = 0;
+		for (Direction d : directions) {
+			mask |= 1 << d.ordinal();
+		}
+		out.writeByte(mask);
+	}
+
+	/**
+	 * Reads a set of directions written by
+	 * {@link #writeDirections(ObjectOutput, Set)}.
+	 *
+	 * @param in The input to read from.
+	 * @return the directions read, possibly null.
+	 * @throws IOException if the input fails.
+	 */
+	public static Set<Direction> readDirections(ObjectInput in) throws IOException {
+		byte mask = in.readByte();
+		if (mask < 0) {
+			return null;
+		}
+		Set<Direction> directions = EnumSet.noneOf(Direction.class);
+		for (Direction d : Direction.values()) {
+			if ((mask & (1 << d.ordinal())) != 0) {
+				directions.add(d);
+			}
+		}
+		return directions;
+	}
+}
@@ -0,0 +1,213 @@
+package app.models;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import fr.sorbonne_u.cps.sensor_network.interfaces.Direction;
+import fr.sorbonne_u.cps.sensor_network.interfaces.NodeInfoI;
+import fr.sorbonne_u.cps.sensor_network.interfaces.SensorDataI;
+
+/**
+ * Minimum and maximum values of the numeric sensors of a node and of the nodes
+ * reachable from it, used to skip the branches where a threshold query cannot
+ * hold. As in {@link CapabilitySummary}, entry {@code m} is indexed by a
+ * bitmask of direction ordinals and covers the node itself and every node a
+ * query limited to those directions can visit next; entry 0 covers the node
+ * alone.
+ *
+ * An entry is unknown, and never used to skip a branch, when a neighbour it
+ * covers advertised no zone map or one older than the time-to-live given by
+ * the caller. Nodes compute their zone map again and announce it periodically,
+ * so the ranges they advertise follow the values of their sensors.
+ */
+public final class ZoneMap implements Externalizable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final ZoneMap UNKNOWN = new ZoneMap(Long.MIN_VALUE, newTable());
+
+	private long timestamp;
+	private Map<String, ValueRange>[] subtree; // null entries are unknown
+
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public ZoneMap() {
+	}
+
+	private ZoneMap(long timestamp, Map<String, ValueRange>[] subtree) {
+		this.timestamp = timestamp;
+		this.subtree = subtree;
+	}
+
+	/**
+	 * Returns the zone map of a node which advertised none, where every entry is
+	 * unknown.
+	 *
+	 * @return the zone map of an unknown node.
+	 */
+	public static ZoneMap unknown() {
+		return UNKNOWN;
+	}
+
+	/**
+	 * Returns the zone map advertised by a neighbour, provided it is still fresh.
+	 *
+	 * @param node The neighbour.
+	 * @param now  The current time, in milliseconds.
+	 * @param ttl  The time-to-live of a zone map, in milliseconds.
+	 * @return its zone map, or {@link #unknown()} if it advertised none or an
+	 *         expired one.
+	 */
+	public static ZoneMap of(NodeInfoI node, long now, long ttl) {
+		if (node instanceof Descriptor) {
+			ZoneMap map = ((Descriptor) node).getZoneMap();
+			if (map != null && now - map.timestamp <= ttl) {
+				return map;
+			}
+		}
+		return UNKNOWN;
+	}
+
+	/**
+	 * Returns the ranges of the numeric sensors of a node, each reduced to its
+	 * current value.
+	 *
+	 * @param sensors The sensor data of the node.
+	 * @return the ranges by sensor identifier.
+	 */
+	public static Map<String, ValueRange> rangesOf(Collection<SensorDataI> sensors) {
+		Map<String, ValueRange> ranges = new HashMap<>();
+		for (SensorDataI data : sensors) {
+			if (data.getValue() instanceof Number) {
+				ranges.merge(data.getSensorIdentifier(), ValueRange.of(((Number) data.getValue()).doubleValue()),
+						ValueRange::union);
+			}
+		}
+		return ranges;
+	}
+
+	/**
+	 * Computes the zone map of a node from its sensors and the zone maps of its
+	 * connected neighbours.
+	 *
+	 * @param sensors    The sensor data of the node.
+	 * @param neighbours The connected neighbours by direction.
+	 * @param now        The current time, in milliseconds.
+	 * @param ttl        The time-to-live of a zone map, in milliseconds.
+	 * @return the zone map of the node, timestamped {@code now}.
+	 */
+	public static ZoneMap compute(Collection<SensorDataI> sensors, Map<Direction, NodeInfoI> neighbours, long now,
+			long ttl) {
+		Map<String, ValueRange>[] table = newTable();
+		Map<String, ValueRange> own = rangesOf(sensors);
+		for (int m = 0; m <= CapabilitySummary.ALL_DIRECTIONS; m++) {
+			table[m] = new HashMap<>(own);
+		}
+		for (Map.Entry<Direction, NodeInfoI> e : neighbours.entrySet()) {
+			int bit = 1 << e.getKey().ordinal();
+			ZoneMap n = of(e.getValue(), now, ttl);
+			for (int m = 1; m <= CapabilitySummary.ALL_DIRECTIONS; m++) {
+				if ((m & bit) == 0 || table[m] == null) {
+					continue;
+				}
+				if (n.subtree[m] == null) {
+					table[m] = null;
+				} else {
+					for (Map.Entry<String, ValueRange> r : n.subtree[m].entrySet()) {
+						table[m].merge(r.getKey(), r.getValue(), ValueRange::union);
+					}
+				}
+			}
+		}
+		for (int m = 0; m <= CapabilitySummary.ALL_DIRECTIONS; m++) {
+			if (table[m] != null) {
+				table[m] = Collections.unmodifiableMap(table[m]);
+			}
+		}
+		return new ZoneMap(now, table);
+	}
+
+	/**
+	 * Returns the ranges of the sensors a query limited to the given directions
+	 * can read at the node or beyond it. Sensors missing from the ranges have no
+	 * numeric value in that part of the network.
+	 *
+	 * @param directionMask The bitmask of the directions of the query.
+	 * @return the ranges by sensor identifier, or null if unknown.
+	 */
+	public Map<String, ValueRange> subtree(int directionMask) {
+		return this.subtree[directionMask];
+	}
+
+	/**
+	 * Returns the time at which this zone map was computed.
+	 *
+	 * @return the timestamp, in milliseconds.
+	 */
+	public long getTimestamp() {
+		return this.timestamp;
+	}
+
+	/**
+	 * Tells whether another zone map holds the same ranges, whatever its age.
+	 *
+	 * @param other The other zone map, possibly null.
+	 * @return true if every entry is equal.
+	 */
+	public boolean sameRanges(ZoneMap other) {
+		if (other == null) {
+			return false;
+		}
+		for (int m = 0; m <= CapabilitySummary.ALL_DIRECTIONS; m++) {
+			if (this.subtree[m] == null ? other.subtree[m] != null : !this.subtree[m].equals(other.subtree[m])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" }) // arrays of a generic type can only be created raw
+	private static Map<String, ValueRange>[] newTable() {
+		return new Map[CapabilitySummary.ALL_DIRECTIONS + 1];
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		out.writeLong(this.timestamp);
+		for (Map<String, ValueRange> ranges : this.subtree) {
+			out.writeInt(ranges == null ? -1 : ranges.size());
+			if (ranges != null) {
+				for (Map.Entry<String, ValueRange> r : ranges.entrySet()) {
+					out.writeUTF(r.getKey());
+					out.writeDouble(r.getValue().getMin());
+					out.writeDouble(r.getValue().getMax());
+				}
+			}
+		}
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException {
+		WireFormat.readVersion(in, ZoneMap.class);
+		this.timestamp = in.readLong();
+		this.subtree = newTable();
+		for (int m = 0; m <= CapabilitySummary.ALL_DIRECTIONS; m++) {
+			int size = in.readInt();
+			if (size >= 0) {
+				Map<String, ValueRange> ranges = new HashMap<>();
+				for (int i = 0; i < size; i++) {
+					ranges.put(in.readUTF(), new ValueRange(in.readDouble(), in.readDouble()));
+				}
+				this.subtree[m] = Collections.unmodifiableMap(ranges);
+			}
+		}
+	}
+}
@@ -1,6 +1,12 @@
 package app.ports;
 
+import java.util.concurrent.RejectedExecutionException;
+
 import app.components.Sensor;
+import app.config.Config;
+import app.models.AdmissionControl;
+import app.models.OverloadPolicy;
+import app.models.Priority;
 import fr.sorbonne_u.components.AbstractComponent;
 import fr.sorbonne_u.components.ComponentI;
 import fr.sorbonne_u.components.ports.AbstractInboundPort;
@@ -10,6 +16,7 @@ import fr.sorbonne_u.cps.sensor_network.nodes.interfaces.RequestingCI;
 
 public class URINodeInboundPortForClient extends AbstractInboundPort implements RequestingCI {
 	private static final long serialVersionUID = 1L;
+	private final AdmissionControl<RequestI> pending = clientAdmission();
 
 	public URINodeInboundPortForClient(String uri, ComponentI owner) throws Exception {
 		super(uri, RequestingCI.class, owner);
@@ -35,18 +42,70 @@ public class URINodeInboundPortForClient extends AbstractInboundPort implements
 
 	@Override
 	public void executeAsync(RequestI request) throws Exception {
-
-		this.owner.runTask(this.getExecutorServiceIndex(), new AbstractComponent.AbstractTask() {
-			@Override
-			public void run() {
-				try {
-					((Sensor) this.getTaskOwner()).executeAsync(request);
-				} catch (Exception e) {
-					e.printStackTrace();
-					;
-				}
+		RequestI shed = this.pending.admit(Config.PRIORITY_SCHEDULING ? Priority.of(request) : Priority.NORMAL,
+				AdmissionControl.clientOf(request), request);
+		if (shed == request) {
+			if (this.pending.getPolicy() != OverloadPolicy.LOCAL_ONLY) {
+				throw new RejectedExecutionException("Node overloaded, request " + request.requestURI() + " rejected");
 			}
-		});
+			this.owner.runTask(this.getExecutorServiceIndex(), new AbstractComponent.AbstractTask() {
+				@Override
+				public void run() {
+					try {
+						((Sensor) this.getTaskOwner()).executeLocally(request);
+					} catch (Exception e) {
+						e.printStackTrace();
+					}
+				}
+			});
+		} else if (shed != null) {
+			// the task submitted with the dropped request serves this one
+			this.owner.runTask(this.getExecutorServiceIndex(), new AbstractComponent.AbstractTask() {
+				@Override
+				public void run() {
+					try {
+						((Sensor) this.getTaskOwner()).shed(shed);
+					} catch (Exception e) {
+						e.printStackTrace();
+					}
+				}
+			});
+		} else {
+			this.owner.runTask(this.getExecutorServiceIndex(), new AbstractComponent.AbstractTask() {
+				@Override
+				public void run() {
+					try {
+						((Sensor) this.getTaskOwner()).executeAsync(pending.poll());
+					} catch (Exception e) {
+						e.printStackTrace();
+					}
+				}
+			});
+		}
+	}
+
+	/**
+	 * Builds the admission control of the requests of clients, which shares the
+	 * node between them and limits the rate of each.
+	 *
+	 * @return the admission control of the port.
+	 */
+	private static AdmissionControl<RequestI> clientAdmission() {
+		AdmissionControl<RequestI> admission = new AdmissionControl<>(Config.PRIORITY_AGING_STEP,
+				Config.PENDING_CAPACITY, Config.OVERLOAD_POLICY);
+		admission.setRateLimit(Config.CLIENT_RATE_LIMIT, Config.CLIENT_BURST);
+		Config.CLIENT_WEIGHTS.forEach(admission::setWeight);
+		return admission;
+	}
 
+	/**
+	 * Returns the bounded queue of the asynchronous requests received on this
+	 * port and not started yet. Each task of the pool serves its most urgent
+	 * request rather than the one submitted with it.
+	 *
+	 * @return the queue of pending requests.
+	 */
+	public AdmissionControl<RequestI> getPending() {
+		return this.pending;
 	}
 }
@@ -1,6 +1,12 @@
 package app.ports;
 
+import java.util.concurrent.RejectedExecutionException;
+
 import app.components.Sensor;
+import app.config.Config;
+import app.models.AdmissionControl;
+import app.models.OverloadPolicy;
+import app.models.Priority;
 import fr.sorbonne_u.components.AbstractComponent;
 import fr.sorbonne_u.components.ComponentI;
 import fr.sorbonne_u.components.ports.AbstractInboundPort;
@@ -11,6 +17,8 @@ import fr.sorbonne_u.cps.sensor_network.network.interfaces.SensorNodeP2PCI;
 
 public class URINodeInboundPortForNode extends AbstractInboundPort implements SensorNodeP2PCI {
 	private static final long serialVersionUID = 1L;
+	private final AdmissionControl<RequestContinuationI> pending = new AdmissionControl<>(Config.PRIORITY_AGING_STEP,
+			Config.PENDING_CAPACITY, Config.OVERLOAD_POLICY);
 
 	public URINodeInboundPortForNode(String uri, ComponentI owner) throws Exception {
 		super(uri, SensorNodeP2PCI.class, owner);
@@ -52,18 +60,58 @@ public class URINodeInboundPortForNode extends AbstractInboundPort implements Se
 
 	@Override
 	public void executeAsync(RequestContinuationI requestContinuation) throws Exception {
-		this.owner.runTask(this.getExecutorServiceIndex(), new AbstractComponent.AbstractTask() {
-			@Override
-			public void run() {
-				try {
-					((Sensor) this.getTaskOwner()).executeAsync(requestContinuation);
-				} catch (Exception e) {
-					e.printStackTrace();
-					;
-				}
+		RequestContinuationI shed = this.pending.admit(
+				Config.PRIORITY_SCHEDULING ? Priority.of(requestContinuation) : Priority.NORMAL,
+				AdmissionControl.clientOf(requestContinuation), requestContinuation);
+		if (shed == requestContinuation) {
+			if (this.pending.getPolicy() != OverloadPolicy.LOCAL_ONLY) {
+				throw new RejectedExecutionException(
+						"Node overloaded, request " + requestContinuation.requestURI() + " rejected");
 			}
-		});
-
+			this.owner.runTask(this.getExecutorServiceIndex(), new AbstractComponent.AbstractTask() {
+				@Override
+				public void run() {
+					try {
+						((Sensor) this.getTaskOwner()).executeLocally(requestContinuation);
+					} catch (Exception e) {
+						e.printStackTrace();
+					}
+				}
+			});
+		} else if (shed != null) {
+			// the task submitted with the dropped request serves this one
+			this.owner.runTask(this.getExecutorServiceIndex(), new AbstractComponent.AbstractTask() {
+				@Override
+				public void run() {
+					try {
+						((Sensor) this.getTaskOwner()).shed(shed);
+					} catch (Exception e) {
+						e.printStackTrace();
+					}
+				}
+			});
+		} else {
+			this.owner.runTask(this.getExecutorServiceIndex(), new AbstractComponent.AbstractTask() {
+				@Override
+				public void run() {
+					try {
+						((Sensor) this.getTaskOwner()).executeAsync(pending.poll());
+					} catch (Exception e) {
+						e.printStackTrace();
+					}
+				}
+			});
+		}
 	}
 
+	/**
+	 * Returns the bounded queue of the asynchronous requests received on this
+	 * port and not started yet. Each task of the pool serves its most urgent
+	 * request rather than the one submitted with it.
+	 *
+	 * @return the queue of pending requests.
+	 */
+	public AdmissionControl<RequestContinuationI> getPending() {
+		return this.pending;
+	}
 }
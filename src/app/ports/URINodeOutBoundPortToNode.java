@@ -1,5 +1,7 @@
 package app.ports;
 
+import app.config.Config;
+import app.models.LatencyEstimator;
 import fr.sorbonne_u.components.ComponentI;
 import fr.sorbonne_u.components.ports.AbstractOutboundPort;
 import fr.sorbonne_u.cps.sensor_network.interfaces.NodeInfoI;
@@ -9,6 +11,8 @@ import fr.sorbonne_u.cps.sensor_network.network.interfaces.SensorNodeP2PCI;
 
 public class URINodeOutBoundPortToNode extends AbstractOutboundPort implements SensorNodeP2PCI {
 	private static final long serialVersionUID = 1L;
+	private final LatencyEstimator latency = new LatencyEstimator(Config.PLANNER_LINK_LATENCY,
+			Config.PLANNER_LATENCY_WEIGHT);
 
 	public URINodeOutBoundPortToNode(String uri, ComponentI owner) throws Exception {
 		super(uri, SensorNodeP2PCI.class, owner);
@@ -30,9 +34,22 @@ public class URINodeOutBoundPortToNode extends AbstractOutboundPort implements S
 
 	}
 
+	/**
+	 * Returns the latency of the synchronous calls made through this port, from
+	 * sending a continuation to receiving its result.
+	 *
+	 * @return the latency estimator of the neighbour.
+	 */
+	public LatencyEstimator getLatency() {
+		return this.latency;
+	}
+
 	@Override
 	public QueryResultI execute(RequestContinuationI request) throws Exception {
-		return ((SensorNodeP2PCI) this.getConnector()).execute(request);
+		long start = System.nanoTime();
+		QueryResultI result = ((SensorNodeP2PCI) this.getConnector()).execute(request);
+		this.latency.record((System.nanoTime() - start) / 1e6);
+		return result;
 	}
 
 	@Override
@@ -2,6 +2,11 @@ package ast.base;
 
 import fr.sorbonne_u.cps.sensor_network.interfaces.PositionI;
 import fr.sorbonne_u.cps.sensor_network.requests.interfaces.ExecutionStateI;
+import app.models.WireFormat;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.io.Serializable;
 
 /**
@@ -13,12 +18,18 @@ import java.io.Serializable;
  * Implements {@link Serializable} to allow for object serialization as nodes
  * might need to be transmitted or stored in a distributed environment.
  */
-public class ABase implements IBase, Serializable {
+public class ABase implements IBase, Externalizable {
 
 	private static final long serialVersionUID = 1L;
 
 	private PositionI position;
 
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public ABase() {
+	}
+
 	/**
 	 * Constructs a new ABase instance with a specified position.
 	 *
@@ -44,4 +55,26 @@ public class ABase implements IBase, Serializable {
 	public PositionI eval(ExecutionStateI es) {
 		return this.position;
 	}
+
+	/**
+	 * Returns the position of this base, which does not depend on the node
+	 * evaluating it.
+	 *
+	 * @return the {@link PositionI} of this base.
+	 */
+	public PositionI getPosition() {
+		return this.position;
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		out.writeObject(position);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		WireFormat.readVersion(in, ABase.class);
+		this.position = (PositionI) in.readObject();
+	}
 }
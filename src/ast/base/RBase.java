@@ -2,13 +2,17 @@ package ast.base;
 
 import fr.sorbonne_u.cps.sensor_network.interfaces.PositionI;
 import fr.sorbonne_u.cps.sensor_network.requests.interfaces.ExecutionStateI;
-import java.io.Serializable;
+import app.models.WireFormat;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 
 /**
  * The class RBase implements IBase, it is used to return the position of the
  * current node.
  */
-public class RBase implements IBase, Serializable {
+public class RBase implements IBase, Externalizable {
 	private static final long serialVersionUID = 2L;
 
 	/**
@@ -32,4 +36,13 @@ public class RBase implements IBase, Serializable {
 		return es.getProcessingNode().getPosition();
 	}
 
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException {
+		WireFormat.readVersion(in, RBase.class);
+	}
 }
@@ -1,19 +1,33 @@
 package ast.bexp;
 
 import fr.sorbonne_u.cps.sensor_network.requests.interfaces.ExecutionStateI;
+import app.models.ValueRange;
+import app.models.WireFormat;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * the class AndBExp is part of the AST, it is used the return the logic AND
  * between two Ibexp ( can be understood as booleans)
  */
-public class AndBExp implements Ibexp, Serializable {
+public class AndBExp implements Ibexp, Externalizable {
 	private static final long serialVersionUID = 3L;
 
 	private Ibexp bexp1;
 	private Ibexp bexp2;
 
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public AndBExp() {
+	}
+
 	public AndBExp(Ibexp bexp1, Ibexp bexp2) {
 		this.bexp1 = bexp1;
 		this.bexp2 = bexp2;
@@ -30,4 +44,38 @@ public class AndBExp implements Ibexp, Serializable {
 		return bexp1.eval(es) && bexp2.eval(es);
 	}
 
+	@Override
+	public void collectSensors(Set<String> sensors) {
+		bexp1.collectSensors(sensors);
+		bexp2.collectSensors(sensors);
+	}
+
+	@Override
+	public boolean isSupported(Predicate<String> carried) {
+		return bexp1.isSupported(carried) && bexp2.isSupported(carried);
+	}
+
+	@Override
+	public boolean mayHold(Map<String, ValueRange> ranges) {
+		return bexp1.mayHold(ranges) && bexp2.mayHold(ranges);
+	}
+
+	@Override
+	public boolean mayFail(Map<String, ValueRange> ranges) {
+		return bexp1.mayFail(ranges) || bexp2.mayFail(ranges);
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		out.writeObject(bexp1);
+		out.writeObject(bexp2);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		WireFormat.readVersion(in, AndBExp.class);
+		this.bexp1 = (Ibexp) in.readObject();
+		this.bexp2 = (Ibexp) in.readObject();
+	}
 }
@@ -2,19 +2,32 @@ package ast.bexp;
 
 import fr.sorbonne_u.cps.sensor_network.requests.interfaces.ExecutionStateI;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Map;
+import java.util.Set;
 
 import ast.cexp.Icexp;
+import app.models.ValueRange;
+import app.models.WireFormat;
 
 /**
  * The class CExpBExp must be used to convert a CExp into a BExp after
  * evaluation its value.
  */
-public class CExpBExp implements Ibexp, Serializable {
+public class CExpBExp implements Ibexp, Externalizable {
 	private static final long serialVersionUID = 4L;
 
 	private Icexp cexp;
 
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public CExpBExp() {
+	}
+
 	public CExpBExp(Icexp cexp) {
 		this.cexp = cexp;
 	}
@@ -31,4 +44,30 @@ public class CExpBExp implements Ibexp, Serializable {
 		return cexp.eval(es);
 	}
 
+	@Override
+	public void collectSensors(Set<String> sensors) {
+		cexp.collectSensors(sensors);
+	}
+
+	@Override
+	public boolean mayHold(Map<String, ValueRange> ranges) {
+		return cexp.mayHold(ranges);
+	}
+
+	@Override
+	public boolean mayFail(Map<String, ValueRange> ranges) {
+		return cexp.mayFail(ranges);
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		out.writeObject(cexp);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		WireFormat.readVersion(in, CExpBExp.class);
+		this.cexp = (Icexp) in.readObject();
+	}
 }
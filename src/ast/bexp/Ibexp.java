@@ -1,7 +1,79 @@
 package ast.bexp;
 
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import app.models.ValueRange;
+
 import fr.sorbonne_u.cps.sensor_network.requests.interfaces.ExecutionStateI;
 
 public interface Ibexp {
 	public boolean eval(ExecutionStateI curentNode);
+
+	/**
+	 * Adds the identifiers of the sensors read by this expression to the given set.
+	 * Implementations reading no sensor keep the default, which adds nothing.
+	 *
+	 * @param sensors The set receiving the sensor identifiers.
+	 */
+	default void collectSensors(Set<String> sensors) {
+	}
+
+	/**
+	 * Tells whether this expression may hold at a node carrying the sensors
+	 * accepted by the given predicate, that is whether it can be evaluated there
+	 * without reading a sensor the node lacks. The default requires every sensor
+	 * read by the expression; combinations require those of the operands they
+	 * need.
+	 *
+	 * @param carried Tells whether the node carries a sensor, by identifier.
+	 * @return false if the expression cannot hold at such a node.
+	 */
+	default boolean isSupported(Predicate<String> carried) {
+		Set<String> sensors = new HashSet<>();
+		collectSensors(sensors);
+		for (String sensor : sensors) {
+			if (!carried.test(sensor)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the sensors carried by the processing node of an execution state,
+	 * as expected by {@link #isSupported(Predicate)}.
+	 *
+	 * @param es The execution state.
+	 * @return a predicate accepting the sensors of the processing node.
+	 */
+	static Predicate<String> carriedBy(ExecutionStateI es) {
+		return sensor -> es.getProcessingNode().getSensorData(sensor) != null;
+	}
+
+	/**
+	 * Tells whether this expression may be true at some node whose numeric sensors
+	 * lie within the given ranges. Implementations which cannot tell keep the
+	 * default, which answers true.
+	 *
+	 * @param ranges The ranges of the sensors, by sensor identifier.
+	 * @return false only if the expression is false for every such node.
+	 */
+	default boolean mayHold(Map<String, ValueRange> ranges) {
+		return true;
+	}
+
+	/**
+	 * Tells whether this expression may be false at some node whose numeric
+	 * sensors lie within the given ranges. Implementations which cannot tell keep
+	 * the default, which answers true.
+	 *
+	 * @param ranges The ranges of the sensors, by sensor identifier.
+	 * @return false only if the expression is true for every such node.
+	 */
+	default boolean mayFail(Map<String, ValueRange> ranges) {
+		return true;
+	}
 }
@@ -1,18 +1,31 @@
 package ast.bexp;
 
 import fr.sorbonne_u.cps.sensor_network.requests.interfaces.ExecutionStateI;
+import app.models.ValueRange;
+import app.models.WireFormat;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * the class NotBExp is part of the AST, it is used the return the logic
  * NOT/NEGATION of a bexp
  */
-public class NotBExp implements Ibexp, Serializable {
+public class NotBExp implements Ibexp, Externalizable {
 	private static final long serialVersionUID = 5L;
 
 	private Ibexp bexp;
 
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public NotBExp() {
+	}
+
 	public NotBExp(Ibexp bexp) {
 		this.bexp = bexp;
 	}
@@ -28,4 +41,30 @@ public class NotBExp implements Ibexp, Serializable {
 		return !bexp.eval(es);
 	}
 
+	@Override
+	public void collectSensors(Set<String> sensors) {
+		bexp.collectSensors(sensors);
+	}
+
+	@Override
+	public boolean mayHold(Map<String, ValueRange> ranges) {
+		return bexp.mayFail(ranges);
+	}
+
+	@Override
+	public boolean mayFail(Map<String, ValueRange> ranges) {
+		return bexp.mayHold(ranges);
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		out.writeObject(bexp);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		WireFormat.readVersion(in, NotBExp.class);
+		this.bexp = (Ibexp) in.readObject();
+	}
 }
@@ -1,19 +1,33 @@
 package ast.bexp;
 
 import fr.sorbonne_u.cps.sensor_network.requests.interfaces.ExecutionStateI;
+import app.models.ValueRange;
+import app.models.WireFormat;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
 
 /**
  * the class OrBExp is part of the AST, it is used the return the logic OR
  * between two Ibexp ( can be understood as booleans)
  */
-public class OrBExp implements Ibexp, Serializable {
+public class OrBExp implements Ibexp, Externalizable {
 	private static final long serialVersionUID = 6L;
 
 	private Ibexp bexp1;
 	private Ibexp bexp2;
 
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public OrBExp() {
+	}
+
 	public OrBExp(Ibexp bexp1, Ibexp bexp2) {
 		this.bexp1 = bexp1;
 		this.bexp2 = bexp2;
@@ -21,13 +35,49 @@ public class OrBExp implements Ibexp, Serializable {
 
 	/**
 	 * Return true if both the evaluation of bexp1 or bexp2 is true, simulates the
-	 * logic OR.
+	 * logic OR. An operand reading a sensor the node lacks is not evaluated and
+	 * counts as false.
 	 * 
 	 * @param es
 	 * @return
 	 */
 	public boolean eval(ExecutionStateI es) {
-		return bexp1.eval(es) || bexp2.eval(es);
+		Predicate<String> carried = Ibexp.carriedBy(es);
+		return (bexp1.isSupported(carried) && bexp1.eval(es)) || (bexp2.isSupported(carried) && bexp2.eval(es));
+	}
+
+	@Override
+	public void collectSensors(Set<String> sensors) {
+		bexp1.collectSensors(sensors);
+		bexp2.collectSensors(sensors);
+	}
+
+	@Override
+	public boolean isSupported(Predicate<String> carried) {
+		return bexp1.isSupported(carried) || bexp2.isSupported(carried);
 	}
 
+	@Override
+	public boolean mayHold(Map<String, ValueRange> ranges) {
+		return bexp1.mayHold(ranges) || bexp2.mayHold(ranges);
+	}
+
+	@Override
+	public boolean mayFail(Map<String, ValueRange> ranges) {
+		return bexp1.mayFail(ranges) && bexp2.mayFail(ranges);
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		out.writeObject(bexp1);
+		out.writeObject(bexp2);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		WireFormat.readVersion(in, OrBExp.class);
+		this.bexp1 = (Ibexp) in.readObject();
+		this.bexp2 = (Ibexp) in.readObject();
+	}
 }
@@ -2,8 +2,13 @@ package ast.bexp;
 
 import fr.sorbonne_u.cps.sensor_network.interfaces.SensorDataI;
 import fr.sorbonne_u.cps.sensor_network.requests.interfaces.ExecutionStateI;
+import app.models.WireFormat;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Set;
 
 /**
  * The class SBExp must be used to return the boolean value of a sensor, it
@@ -11,11 +16,17 @@ import java.io.Serializable;
  * methode
  */
 
-public class SBExp implements Ibexp, Serializable {
+public class SBExp implements Ibexp, Externalizable {
 
 	private static final long serialVersionUID = -6946601082878718416L;
 	private String sensorId;
 
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public SBExp() {
+	}
+
 	public SBExp(String sensorId) {
 		this.sensorId = sensorId;
 	}
@@ -25,4 +36,20 @@ public class SBExp implements Ibexp, Serializable {
 		return (boolean) currentNodeSensor.getValue();
 	}
 
+	@Override
+	public void collectSensors(Set<String> sensors) {
+		sensors.add(sensorId);
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		out.writeUTF(sensorId);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException {
+		WireFormat.readVersion(in, SBExp.class);
+		this.sensorId = in.readUTF();
+	}
 }
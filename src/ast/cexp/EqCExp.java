@@ -2,20 +2,33 @@ package ast.cexp;
 
 import fr.sorbonne_u.cps.sensor_network.requests.interfaces.ExecutionStateI;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Map;
+import java.util.Set;
 
 import ast.rand.IRand;
+import app.models.ValueRange;
+import app.models.WireFormat;
 
 /**
  * The class EqCExp must be used to evaluate the equality between two Icexp, it
  * return true if they are equal.
  */
-public class EqCExp implements Icexp, Serializable {
+public class EqCExp implements Icexp, Externalizable {
 	private static final long serialVersionUID = 8L;
 
 	private IRand rand1;
 	private IRand rand2;
 
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public EqCExp() {
+	}
+
 	public EqCExp(IRand rand1, IRand rand2) {
 		this.rand1 = rand1;
 		this.rand2 = rand2;
@@ -26,4 +39,37 @@ public class EqCExp implements Icexp, Serializable {
 		return rand1.eval(es) == rand2.eval(es);
 	}
 
+	@Override
+	public void collectSensors(Set<String> sensors) {
+		rand1.collectSensors(sensors);
+		rand2.collectSensors(sensors);
+	}
+
+	@Override
+	public boolean mayHold(Map<String, ValueRange> ranges) {
+		ValueRange r1 = rand1.range(ranges);
+		ValueRange r2 = rand2.range(ranges);
+		return r1.getMin() <= r2.getMax() && r2.getMin() <= r1.getMax();
+	}
+
+	@Override
+	public boolean mayFail(Map<String, ValueRange> ranges) {
+		ValueRange r1 = rand1.range(ranges);
+		ValueRange r2 = rand2.range(ranges);
+		return !(r1.isPoint() && r2.isPoint() && r1.getMin() == r2.getMin());
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		out.writeObject(rand1);
+		out.writeObject(rand2);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		WireFormat.readVersion(in, EqCExp.class);
+		this.rand1 = (IRand) in.readObject();
+		this.rand2 = (IRand) in.readObject();
+	}
 }
@@ -2,20 +2,33 @@ package ast.cexp;
 
 import fr.sorbonne_u.cps.sensor_network.requests.interfaces.ExecutionStateI;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Map;
+import java.util.Set;
 
 import ast.rand.IRand;
+import app.models.ValueRange;
+import app.models.WireFormat;
 
 /**
  * The class GCExp must be used to compare two Icexp, it return true if the
  * first Icexp is strictly superior than the second Icexp.
  */
-public class GCExp implements Icexp, Serializable {
+public class GCExp implements Icexp, Externalizable {
 	private static final long serialVersionUID = 9L;
 
 	private IRand rand1;
 	private IRand rand2;
 
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public GCExp() {
+	}
+
 	public GCExp(IRand rand1, IRand rand2) {
 		this.rand1 = rand1;
 		this.rand2 = rand2;
@@ -25,4 +38,37 @@ public class GCExp implements Icexp, Serializable {
 		return rand1.eval(es) > rand2.eval(es);
 	}
 
+	@Override
+	public void collectSensors(Set<String> sensors) {
+		rand1.collectSensors(sensors);
+		rand2.collectSensors(sensors);
+	}
+
+	@Override
+	public boolean mayHold(Map<String, ValueRange> ranges) {
+		ValueRange r1 = rand1.range(ranges);
+		ValueRange r2 = rand2.range(ranges);
+		return r1.getMax() > r2.getMin();
+	}
+
+	@Override
+	public boolean mayFail(Map<String, ValueRange> ranges) {
+		ValueRange r1 = rand1.range(ranges);
+		ValueRange r2 = rand2.range(ranges);
+		return r1.getMin() <= r2.getMax();
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		out.writeObject(rand1);
+		out.writeObject(rand2);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		WireFormat.readVersion(in, GCExp.class);
+		this.rand1 = (IRand) in.readObject();
+		this.rand2 = (IRand) in.readObject();
+	}
 }
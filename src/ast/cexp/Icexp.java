@@ -1,7 +1,45 @@
 package ast.cexp;
 
+import java.util.Map;
+import java.util.Set;
+
+import app.models.ValueRange;
+
 import fr.sorbonne_u.cps.sensor_network.requests.interfaces.ExecutionStateI;
 
 public interface Icexp {
 	public boolean eval(ExecutionStateI es);
+
+	/**
+	 * Adds the identifiers of the sensors read by this expression to the given set.
+	 * Implementations reading no sensor keep the default, which adds nothing.
+	 *
+	 * @param sensors The set receiving the sensor identifiers.
+	 */
+	default void collectSensors(Set<String> sensors) {
+	}
+
+	/**
+	 * Tells whether this expression may be true at some node whose numeric sensors
+	 * lie within the given ranges. Implementations which cannot tell keep the
+	 * default, which answers true.
+	 *
+	 * @param ranges The ranges of the sensors, by sensor identifier.
+	 * @return false only if the expression is false for every such node.
+	 */
+	default boolean mayHold(Map<String, ValueRange> ranges) {
+		return true;
+	}
+
+	/**
+	 * Tells whether this expression may be false at some node whose numeric
+	 * sensors lie within the given ranges. Implementations which cannot tell keep
+	 * the default, which answers true.
+	 *
+	 * @param ranges The ranges of the sensors, by sensor identifier.
+	 * @return false only if the expression is true for every such node.
+	 */
+	default boolean mayFail(Map<String, ValueRange> ranges) {
+		return true;
+	}
 }
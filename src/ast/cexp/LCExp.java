@@ -2,20 +2,33 @@ package ast.cexp;
 
 import fr.sorbonne_u.cps.sensor_network.requests.interfaces.ExecutionStateI;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Map;
+import java.util.Set;
 
 import ast.rand.IRand;
+import app.models.ValueRange;
+import app.models.WireFormat;
 
 /**
  * Represents a Less Than comparison expression. This class implements the Icexp
  * interface for evaluating the expression.
  */
-public class LCExp implements Icexp, Serializable {
+public class LCExp implements Icexp, Externalizable {
 	private static final long serialVersionUID = 11L;
 
 	private IRand rand1;
 	private IRand rand2;
 
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public LCExp() {
+	}
+
 	/**
 	 * Constructs a Less Than comparison expression with two random generators.
 	 *
@@ -37,4 +50,38 @@ public class LCExp implements Icexp, Serializable {
 	public boolean eval(ExecutionStateI es) {
 		return rand1.eval(es) < rand2.eval(es);
 	}
+
+	@Override
+	public void collectSensors(Set<String> sensors) {
+		rand1.collectSensors(sensors);
+		rand2.collectSensors(sensors);
+	}
+
+	@Override
+	public boolean mayHold(Map<String, ValueRange> ranges) {
+		ValueRange r1 = rand1.range(ranges);
+		ValueRange r2 = rand2.range(ranges);
+		return r1.getMin() < r2.getMax();
+	}
+
+	@Override
+	public boolean mayFail(Map<String, ValueRange> ranges) {
+		ValueRange r1 = rand1.range(ranges);
+		ValueRange r2 = rand2.range(ranges);
+		return r1.getMax() >= r2.getMin();
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		out.writeObject(rand1);
+		out.writeObject(rand2);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		WireFormat.readVersion(in, LCExp.class);
+		this.rand1 = (IRand) in.readObject();
+		this.rand2 = (IRand) in.readObject();
+	}
 }
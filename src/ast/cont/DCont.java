@@ -3,19 +3,29 @@ package ast.cont;
 import app.models.ExecutionState;
 import ast.dirs.IDirs;
 import fr.sorbonne_u.cps.sensor_network.requests.interfaces.ExecutionStateI;
+import app.models.WireFormat;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 
 /**
  * Represents a directional continuation control expression. This class
  * implements the ICont interface for evaluating the continuation.
  */
-public class DCont implements ICont, Serializable {
+public class DCont implements ICont, Externalizable {
 	private static final long serialVersionUID = 13L;
 
 	private IDirs directions;
 	private int maxSauts;
 
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public DCont() {
+	}
+
 	/**
 	 * Constructs a directional continuation control expression with specified
 	 * directions and maximum jumps.
@@ -42,4 +52,18 @@ public class DCont implements ICont, Serializable {
 		executionState.setDirectional();
 		executionState.setDirections(this.directions.eval());
 	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		out.writeObject(directions);
+		out.writeInt(maxSauts);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		WireFormat.readVersion(in, DCont.class);
+		this.directions = (IDirs) in.readObject();
+		this.maxSauts = in.readInt();
+	}
 }
@@ -2,15 +2,19 @@ package ast.cont;
 
 import fr.sorbonne_u.cps.sensor_network.requests.interfaces.ExecutionStateI;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 
 import app.models.ExecutionState;
+import app.models.WireFormat;
 
 /**
  * Represents an end continuation control expression. This class implements the
  * ICont interface for evaluating the end of continuation.
  */
-public class ECont implements ICont, Serializable {
+public class ECont implements ICont, Externalizable {
 	private static final long serialVersionUID = 14L;
 
 	/**
@@ -22,4 +26,14 @@ public class ECont implements ICont, Serializable {
 	public void eval(ExecutionStateI es) {
 		((ExecutionState) es).setContinuation(false);
 	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException {
+		WireFormat.readVersion(in, ECont.class);
+	}
 }
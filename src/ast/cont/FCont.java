@@ -1,21 +1,35 @@
 package ast.cont;
 
+import app.models.CircularZone;
 import app.models.ExecutionState;
+import ast.base.ABase;
 import ast.base.IBase;
+import fr.sorbonne_u.cps.sensor_network.interfaces.GeographicalZoneI;
 import fr.sorbonne_u.cps.sensor_network.interfaces.PositionI;
 import fr.sorbonne_u.cps.sensor_network.requests.interfaces.ExecutionStateI;
+import app.models.WireFormat;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 
 /**
  * Represents a flooding continuation control expression. This class implements
  * the ICont interface for evaluating the continuation.
  */
-public class FCont implements ICont, Serializable {
+public class FCont implements ICont, Externalizable {
 	private static final long serialVersionUID = 15L;
 
 	private IBase base;
 	private double distanceMax;
+	private boolean relays; // whether the flood only goes on through selected relays
+
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public FCont() {
+	}
 
 	/**
 	 * Constructs a flooding continuation control expression with the specified base
@@ -29,6 +43,29 @@ public class FCont implements ICont, Serializable {
 		this.distanceMax = distanceMax;
 	}
 
+	/**
+	 * Constructs a flooding continuation control expression with the specified base
+	 * and maximum distance, choosing how the area is flooded.
+	 *
+	 * @param base        The base to evaluate.
+	 * @param distanceMax The maximum distance for flooding.
+	 * @param relays      Whether each node only lets a subset of its neighbours,
+	 *                    covering its two-hop neighbourhood, forward the flood.
+	 */
+	public FCont(IBase base, double distanceMax, boolean relays) {
+		this(base, distanceMax);
+		this.relays = relays;
+	}
+
+	/**
+	 * Tells whether the area is flooded through selected relays.
+	 *
+	 * @return true if only selected relays forward the flood.
+	 */
+	public boolean isRelays() {
+		return this.relays;
+	}
+
 	/**
 	 * Gets the base for evaluation.
 	 *
@@ -60,5 +97,36 @@ public class FCont implements ICont, Serializable {
 		PositionI p = base.eval(es);
 		executionState.setPosition(p);
 		executionState.setFlooding();
+		executionState.setRelaySelection(relays);
+	}
+
+	/**
+	 * Returns the flooding area when its base is absolute; the area of a relative
+	 * base depends on the node evaluating the query.
+	 *
+	 * @return the flooding area, or null if the base is relative.
+	 */
+	@Override
+	public GeographicalZoneI zone() {
+		if (base instanceof ABase) {
+			return new CircularZone(((ABase) base).getPosition(), distanceMax);
+		}
+		return null;
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		out.writeObject(base);
+		out.writeDouble(distanceMax);
+		out.writeBoolean(relays);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		WireFormat.readVersion(in, FCont.class);
+		this.base = (IBase) in.readObject();
+		this.distanceMax = in.readDouble();
+		this.relays = in.readBoolean();
 	}
 }
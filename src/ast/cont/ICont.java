@@ -1,9 +1,21 @@
 package ast.cont;
 
+import fr.sorbonne_u.cps.sensor_network.interfaces.GeographicalZoneI;
 import fr.sorbonne_u.cps.sensor_network.requests.interfaces.ExecutionStateI;
 
 public interface ICont {
 
 	public void eval(ExecutionStateI es);
 
+	/**
+	 * Returns the zone of the nodes this continuation reaches, when it is known
+	 * without evaluating the query on a node. Other continuations keep the
+	 * default, which returns null.
+	 *
+	 * @return the zone reached by the continuation, or null if unknown.
+	 */
+	default GeographicalZoneI zone() {
+		return null;
+	}
+
 }
@@ -1,10 +1,15 @@
 package ast.dirs;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Set;
 
 import fr.sorbonne_u.cps.sensor_network.interfaces.Direction;
+import app.models.WireFormat;
 
 /**
  * Represents a fixed direction component in a sensor network. This class
@@ -16,10 +21,16 @@ import fr.sorbonne_u.cps.sensor_network.interfaces.Direction;
  * direction operations and is marked as {@link Serializable} to enable its
  * usage across distributed components.
  */
-public class Fdirs implements IDirs, Serializable {
+public class Fdirs implements IDirs, Externalizable {
 	private static final long serialVersionUID = 16L;
 	private Direction direction;
 
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public Fdirs() {
+	}
+
 	/**
 	 * Constructs a new Fdirs instance with a specified direction.
 	 *
@@ -42,4 +53,16 @@ public class Fdirs implements IDirs, Serializable {
 		res.add(this.direction);
 		return res;
 	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		WireFormat.writeDirection(out, direction);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException {
+		WireFormat.readVersion(in, Fdirs.class);
+		this.direction = WireFormat.readDirection(in);
+	}
 }
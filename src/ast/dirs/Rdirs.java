@@ -1,10 +1,15 @@
 package ast.dirs;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.io.Serializable;
 import java.util.HashSet;
 import java.util.Set;
 
 import fr.sorbonne_u.cps.sensor_network.interfaces.Direction;
+import app.models.WireFormat;
 
 /**
  * Represents a recursive direction component in a sensor network. This class
@@ -16,12 +21,18 @@ import fr.sorbonne_u.cps.sensor_network.interfaces.Direction;
  * handling directional data and is marked as {@link Serializable} for
  * distribution across different components in a network.
  */
-public class Rdirs implements IDirs, Serializable {
+public class Rdirs implements IDirs, Externalizable {
 	private static final long serialVersionUID = 17L;
 
 	private Direction direction;
 	private IDirs dirs;
 
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public Rdirs() {
+	}
+
 	/**
 	 * Constructs a new Rdirs instance with a specified direction and a nested
 	 * direction component.
@@ -51,4 +62,18 @@ public class Rdirs implements IDirs, Serializable {
 		res.addAll(dirs.eval());
 		return res;
 	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		WireFormat.writeDirection(out, direction);
+		out.writeObject(dirs);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		WireFormat.readVersion(in, Rdirs.class);
+		this.direction = WireFormat.readDirection(in);
+		this.dirs = (IDirs) in.readObject();
+	}
 }
@@ -1,11 +1,16 @@
 package ast.gather;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import fr.sorbonne_u.cps.sensor_network.interfaces.SensorDataI;
 import fr.sorbonne_u.cps.sensor_network.requests.interfaces.ExecutionStateI;
+import app.models.WireFormat;
 
 /**
  * Implements a basic gathering strategy for sensor network data. This class
@@ -16,10 +21,16 @@ import fr.sorbonne_u.cps.sensor_network.requests.interfaces.ExecutionStateI;
  * It simplifies the gathering process where only one piece of data is needed
  * without further aggregation or recursive gathering logic.
  */
-public class FGather implements IGather, Serializable {
+public class FGather implements IGather, Externalizable {
 	private static final long serialVersionUID = 18L;
 	private String sensorID;
 
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public FGather() {
+	}
+
 	/**
 	 * Constructs a new FGather instance for a specific sensor ID.
 	 *
@@ -54,4 +65,21 @@ public class FGather implements IGather, Serializable {
 		v.add(es.getProcessingNode().getSensorData(this.sensorID));
 		return v;
 	}
+
+	@Override
+	public void collectSensors(Set<String> sensors) {
+		sensors.add(sensorID);
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		out.writeUTF(sensorID);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException {
+		WireFormat.readVersion(in, FGather.class);
+		this.sensorID = in.readUTF();
+	}
 }
@@ -1,6 +1,7 @@
 package ast.gather;
 
 import java.util.List;
+import java.util.Set;
 
 import fr.sorbonne_u.cps.sensor_network.interfaces.SensorDataI;
 import fr.sorbonne_u.cps.sensor_network.requests.interfaces.ExecutionStateI;
@@ -10,4 +11,13 @@ public interface IGather {
 	public String getSensorID();
 
 	public List<SensorDataI> eval(ExecutionStateI es);
+
+	/**
+	 * Adds the identifiers of the sensors read by this gather clause to the given
+	 * set. Implementations reading no sensor keep the default, which adds nothing.
+	 *
+	 * @param sensors The set receiving the sensor identifiers.
+	 */
+	default void collectSensors(Set<String> sensors) {
+	}
 }
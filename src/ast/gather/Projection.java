@@ -0,0 +1,39 @@
+package ast.gather;
+
+import app.models.CompactSensorData;
+import fr.sorbonne_u.cps.sensor_network.interfaces.SensorDataI;
+
+/**
+ * Enumerates the fields a gather query asks the sensor nodes to send back.
+ * Projecting early lets each node emit a {@link CompactSensorData} record
+ * holding only the requested fields instead of the full sensor data object,
+ * which shrinks what is serialized and cloned on every hop.
+ *
+ * <ul>
+ * <li>{@link #ALL}: the sensor data is returned as read from the node.</li>
+ * <li>{@link #NODE_VALUE}: node identifier, sensor identifier and value.</li>
+ * <li>{@link #VALUE}: sensor identifier and value only. Values coming from
+ * different nodes cannot be told apart, so the client keeps every one of them
+ * when it merges partial results instead of dropping equal ones. This relies on
+ * each value being reported once: the continuations of an asynchronous request
+ * do not carry the results of a node which reports them itself.</li>
+ * </ul>
+ */
+public enum Projection {
+	ALL, NODE_VALUE, VALUE;
+
+	/**
+	 * Applies this projection to a piece of sensor data. Values that are neither
+	 * numeric nor boolean cannot be stored in a compact record and are returned
+	 * unchanged.
+	 *
+	 * @param data The sensor data read on the node, may be null.
+	 * @return the projected sensor data, or null if {@code data} is null.
+	 */
+	public SensorDataI apply(SensorDataI data) {
+		if (this == ALL || data == null || !CompactSensorData.canProject(data)) {
+			return data;
+		}
+		return CompactSensorData.project(data, this == NODE_VALUE);
+	}
+}
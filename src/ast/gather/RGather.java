@@ -1,11 +1,16 @@
 package ast.gather;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import fr.sorbonne_u.cps.sensor_network.interfaces.SensorDataI;
 import fr.sorbonne_u.cps.sensor_network.requests.interfaces.ExecutionStateI;
+import app.models.WireFormat;
 
 /**
  * Implements a recursive gathering strategy for sensor network data. This class
@@ -15,12 +20,18 @@ import fr.sorbonne_u.cps.sensor_network.requests.interfaces.ExecutionStateI;
  * It serves to build complex data gathering logic that can combine data from
  * multiple sources or sensors within the network.
  */
-public class RGather implements IGather, Serializable {
+public class RGather implements IGather, Externalizable {
 	private static final long serialVersionUID = 19L;
 
 	private String sensorID;
 	private IGather gather;
 
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public RGather() {
+	}
+
 	/**
 	 * Constructs a new recursive gather instance.
 	 *
@@ -69,4 +80,24 @@ public class RGather implements IGather, Serializable {
 		v.addAll(gather.eval(es));
 		return v;
 	}
+
+	@Override
+	public void collectSensors(Set<String> sensors) {
+		sensors.add(sensorID);
+		gather.collectSensors(sensors);
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		out.writeUTF(sensorID);
+		out.writeObject(gather);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		WireFormat.readVersion(in, RGather.class);
+		this.sensorID = in.readUTF();
+		this.gather = (IGather) in.readObject();
+	}
 }
@@ -1,14 +1,27 @@
 package ast.query;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
+import app.models.CapabilitySummary;
 import app.models.QueryResult;
+import app.models.ValueRange;
 import ast.bexp.Ibexp;
+import ast.cont.ECont;
 import ast.cont.ICont;
+import fr.sorbonne_u.cps.sensor_network.interfaces.GeographicalZoneI;
 import fr.sorbonne_u.cps.sensor_network.interfaces.QueryResultI;
 import fr.sorbonne_u.cps.sensor_network.requests.interfaces.ExecutionStateI;
 import fr.sorbonne_u.cps.sensor_network.requests.interfaces.QueryI;
+import app.models.WireFormat;
 
 /**
  * Represents a Boolean query within a sensor network. This type of query
@@ -19,10 +32,17 @@ import fr.sorbonne_u.cps.sensor_network.requests.interfaces.QueryI;
  * network's request processing system and is marked as {@link Serializable} to
  * facilitate its transmission over the network.
  */
-public class BQuery implements QueryI, Serializable {
+public class BQuery implements IQuery, Externalizable {
 	private static final long serialVersionUID = 20L;
 	private Ibexp bexp;
 	private ICont cont;
+	private transient volatile Set<String> sensors; // sensors read by the query, collected on demand
+
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public BQuery() {
+	}
 
 	/**
 	 * Constructs a new BQuery with specified Boolean expression and control
@@ -48,7 +68,7 @@ public class BQuery implements QueryI, Serializable {
 	 */
 	public QueryResultI eval(ExecutionStateI es) {
 		ArrayList<String> nodes = new ArrayList<>();
-		boolean bool = bexp.eval(es);
+		boolean bool = bexp.isSupported(Ibexp.carriedBy(es)) && bexp.eval(es);
 		if (bool) {
 			nodes.add(es.getProcessingNode().getNodeIdentifier());
 		}
@@ -58,4 +78,63 @@ public class BQuery implements QueryI, Serializable {
 		((QueryResult) es.getCurrentResult()).setBoolean();
 		return es.getCurrentResult();
 	}
+
+	/**
+	 * Returns the identifiers of the sensors read by this query, collected once.
+	 *
+	 * @return an unmodifiable set of sensor identifiers.
+	 */
+	@Override
+	public Set<String> getSensors() {
+		Set<String> s = this.sensors;
+		if (s == null) {
+			s = new HashSet<>();
+			bexp.collectSensors(s);
+			s = Collections.unmodifiableSet(s);
+			this.sensors = s;
+		}
+		return s;
+	}
+
+	/**
+	 * A node contributes only if it carries the sensors the expression needs to
+	 * hold: those of both operands of a conjunction, those of either operand of a
+	 * disjunction.
+	 */
+	@Override
+	public boolean canContribute(long capabilities) {
+		return bexp.isSupported(sensor -> (capabilities & CapabilitySummary.bit(sensor)) != 0);
+	}
+
+	/**
+	 * A node contributes when the expression may be true for its values.
+	 */
+	@Override
+	public boolean mayMatch(Map<String, ValueRange> ranges) {
+		return bexp.mayHold(ranges);
+	}
+
+	@Override
+	public GeographicalZoneI getZone() {
+		return cont.zone();
+	}
+
+	@Override
+	public IQuery withoutContinuation() {
+		return new BQuery(bexp, new ECont());
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		out.writeObject(bexp);
+		out.writeObject(cont);
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		WireFormat.readVersion(in, BQuery.class);
+		this.bexp = (Ibexp) in.readObject();
+		this.cont = (ICont) in.readObject();
+	}
 }
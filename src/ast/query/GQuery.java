@@ -1,15 +1,30 @@
 package ast.query;
 
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
+import app.models.CapabilitySummary;
 import app.models.QueryResult;
+import app.models.ValueRange;
+import ast.cont.ECont;
 import ast.cont.ICont;
 import ast.gather.IGather;
+import ast.gather.Projection;
+import fr.sorbonne_u.cps.sensor_network.interfaces.GeographicalZoneI;
 import fr.sorbonne_u.cps.sensor_network.interfaces.QueryResultI;
 import fr.sorbonne_u.cps.sensor_network.interfaces.SensorDataI;
 import fr.sorbonne_u.cps.sensor_network.requests.interfaces.ExecutionStateI;
 import fr.sorbonne_u.cps.sensor_network.requests.interfaces.QueryI;
+import app.models.WireFormat;
 
 /**
  * This class represents a composite query that integrates both gathering and
@@ -21,27 +36,61 @@ import fr.sorbonne_u.cps.sensor_network.requests.interfaces.QueryI;
  * network's request processing system and is marked as {@link Serializable} to
  * allow for serialization during network communications.
  */
-public class GQuery implements QueryI, Serializable {
+public class GQuery implements IQuery, Externalizable {
 	private static final long serialVersionUID = 21L;
 	private IGather gather;
 	private ICont cont;
+	private transient volatile Set<String> sensors; // sensors read by the query, collected on demand
+	private Projection projection;
+
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public GQuery() {
+	}
 
 	/**
 	 * Constructs a new GQuery with specified gathering and controlling components.
+	 * Gathered sensor data is returned in full.
 	 *
 	 * @param gather The data gathering component of this query.
 	 * @param cont   The control component that may modify the execution state based
 	 *               on the gathered data.
 	 */
 	public GQuery(IGather gather, ICont cont) {
+		this(gather, cont, Projection.ALL);
+	}
+
+	/**
+	 * Constructs a new GQuery that only returns the fields selected by the given
+	 * projection.
+	 *
+	 * @param gather     The data gathering component of this query.
+	 * @param cont       The control component that may modify the execution state
+	 *                   based on the gathered data.
+	 * @param projection The fields of the gathered data sent back to the client,
+	 *                   or null for {@link Projection#ALL}.
+	 */
+	public GQuery(IGather gather, ICont cont, Projection projection) {
 		this.gather = gather;
 		this.cont = cont;
+		this.projection = projection == null ? Projection.ALL : projection;
+	}
+
+	/**
+	 * Returns the projection applied to the gathered data.
+	 *
+	 * @return the projection of this query.
+	 */
+	public Projection getProjection() {
+		return this.projection;
 	}
 
 	/**
 	 * Evaluates this query within the context of the given execution state. This
-	 * method first performs data gathering, then applies control logic, and finally
-	 * integrates the results into the current execution state.
+	 * method first performs data gathering, projects the gathered data, then
+	 * applies control logic, and finally integrates the results into the current
+	 * execution state.
 	 *
 	 * @param es The current execution state of the sensor network.
 	 * @return The updated query result after processing this query.
@@ -49,9 +98,73 @@ public class GQuery implements QueryI, Serializable {
 	public QueryResultI eval(ExecutionStateI es) {
 		((QueryResult) es.getCurrentResult()).setGather();
 		ArrayList<SensorDataI> nodes = (ArrayList<SensorDataI>) gather.eval(es);
+		nodes.removeIf(Objects::isNull); // sensors the node does not carry
+		if (this.projection != Projection.ALL) {
+			nodes.replaceAll(this.projection::apply);
+		}
 		this.cont.eval(es);
 		QueryResultI res = new QueryResult(nodes, new ArrayList<>());
 		es.addToCurrentResult(res);
 		return es.getCurrentResult();
 	}
+
+	/**
+	 * Returns the identifiers of the sensors read by this query, collected once.
+	 *
+	 * @return an unmodifiable set of sensor identifiers.
+	 */
+	@Override
+	public Set<String> getSensors() {
+		Set<String> s = this.sensors;
+		if (s == null) {
+			s = new HashSet<>();
+			gather.collectSensors(s);
+			s = Collections.unmodifiableSet(s);
+			this.sensors = s;
+		}
+		return s;
+	}
+
+	/**
+	 * A node contributes as soon as it carries one of the gathered sensors.
+	 */
+	@Override
+	public boolean canContribute(long capabilities) {
+		long required = CapabilitySummary.maskOfIds(getSensors());
+		return required == 0 || (capabilities & required) != 0;
+	}
+
+	/**
+	 * Gathered values are returned whatever they are, so ranges never exclude a node.
+	 */
+	@Override
+	public boolean mayMatch(Map<String, ValueRange> ranges) {
+		return true;
+	}
+
+	@Override
+	public GeographicalZoneI getZone() {
+		return cont.zone();
+	}
+
+	@Override
+	public IQuery withoutContinuation() {
+		return new GQuery(gather, new ECont(), projection);
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		out.writeObject(gather);
+		out.writeObject(cont);
+		out.writeByte(projection.ordinal());
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+		WireFormat.readVersion(in, GQuery.class);
+		this.gather = (IGather) in.readObject();
+		this.cont = (ICont) in.readObject();
+		this.projection = Projection.values()[in.readByte()];
+	}
 }
@@ -0,0 +1,59 @@
+package ast.query;
+
+import java.util.Map;
+import java.util.Set;
+
+import app.models.ValueRange;
+import fr.sorbonne_u.cps.sensor_network.interfaces.GeographicalZoneI;
+
+import fr.sorbonne_u.cps.sensor_network.requests.interfaces.QueryI;
+
+/**
+ * Queries of the AST, which can tell which sensors they read so that nodes
+ * skip the branches of the network where no node can contribute to them.
+ */
+public interface IQuery extends QueryI {
+
+	/**
+	 * Returns the identifiers of the sensors read by this query.
+	 *
+	 * @return an unmodifiable set of sensor identifiers.
+	 */
+	public Set<String> getSensors();
+
+	/**
+	 * Tells whether nodes carrying the given sensor types may contribute to the
+	 * result of this query.
+	 *
+	 * @param capabilities A sensor mask, as built by
+	 *                     {@link app.models.CapabilitySummary}.
+	 * @return false if no node limited to these sensors can contribute.
+	 */
+	public boolean canContribute(long capabilities);
+
+	/**
+	 * Tells whether a node whose numeric sensors lie within the given ranges may
+	 * contribute to the result of this query.
+	 *
+	 * @param ranges The ranges of the sensors, by sensor identifier, as built by
+	 *               {@link app.models.ZoneMap}.
+	 * @return false if no such node can contribute.
+	 */
+	public boolean mayMatch(Map<String, ValueRange> ranges);
+
+	/**
+	 * Returns the zone of the nodes this query reaches, when it is known without
+	 * evaluating it.
+	 *
+	 * @return the zone reached by the query, or null if unknown.
+	 */
+	public GeographicalZoneI getZone();
+
+	/**
+	 * Returns a copy of this query evaluated on a single node, without
+	 * continuation.
+	 *
+	 * @return the query without its continuation.
+	 */
+	public IQuery withoutContinuation();
+}
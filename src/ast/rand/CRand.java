@@ -1,6 +1,13 @@
 package ast.rand;
 
 import fr.sorbonne_u.cps.sensor_network.requests.interfaces.ExecutionStateI;
+import app.models.ValueRange;
+import app.models.WireFormat;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Map;
 import java.io.Serializable;
 
 /**
@@ -12,12 +19,18 @@ import java.io.Serializable;
  * random value generation and is {@link Serializable} to enable its usage
  * across distributed components.
  */
-public class CRand implements IRand, Serializable {
+public class CRand implements IRand, Externalizable {
 	private static final long serialVersionUID = 22L;
 
 	/** The constant value that this random generator provides. */
 	private Double capteur;
 
+	/**
+	 * Constructs an empty instance, required by {@link Externalizable}.
+	 */
+	public CRand() {
+	}
+
 	/**
 	 * Constructs a new constant random generator with a specified value.
 	 *
@@ -40,4 +53,24 @@ public class CRand implements IRand, Serializable {
 	public double eval(ExecutionStateI currentNode) {
 		return this.capteur;
 	}
+
+	@Override
+	public ValueRange range(Map<String, ValueRange> ranges) {
+		return this.capteur == null ? ValueRange.UNBOUNDED : ValueRange.of(this.capteur);
+	}
+
+	@Override
+	public void writeExternal(ObjectOutput out) throws IOException {
+		WireFormat.writeVersion(out);
+		out.writeBoolean(capteur != null);
+		if (capteur != null) {
+			out.writeDouble(capteur);
+		}
+	}
+
+	@Override
+	public void readExternal(ObjectInput in) throws IOException {
+		WireFormat.readVersion(in, CRand.class);
+		this.capteur = in.readBoolean() ? in.readDouble() : null;
+	}
 }
@@ -1,7 +1,32 @@
 package ast.rand;
 
+import java.util.Map;
+import java.util.Set;
+
+import app.models.ValueRange;
+
 import fr.sorbonne_u.cps.sensor_network.requests.interfaces.ExecutionStateI;
 
 public interface IRand {
 	public double eval(ExecutionStateI curentNode);
+
+	/**
+	 * Adds the identifiers of the sensors read by this operand to the given set.
+	 * Implementations reading no sensor keep the default, which adds nothing.
+	 *
+	 * @param sensors The set receiving the sensor identifiers.
+	 */
+	default void collectSensors(Set<String> sensors) {
+	}
+
+	/**
+	 * Returns the range of the values this operand may take at a node whose
+	 * numeric sensors lie within the given ranges.
+	 *
+	 * @param ranges The ranges of the sensors, by sensor identifier.
+	 * @return the range of the operand, {@link ValueRange#UNBOUNDED} if unknown.
+	 */
+	default ValueRange range(Map<String, ValueRange> ranges) {
+		return ValueRange.UNBOUNDED;
+	}
 }
@@ -3,17 +3,31 @@ package ast.rand;
 import fr.sorbonne_u.cps.sensor_network.interfaces.SensorDataI;
 import fr.sorbonne_u.cps.sensor_network.requests.interfaces.ExecutionStateI;
 
-import java.io.Serializable;
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Map;
+import java.util.Set;
+
+import app.models.ValueRange;
+import app.models.WireFormat;
 
 /**
  * Represents a sensor-based random value generator.
  * This class implements the IRand interface for evaluating the random value.
  */
-public class SRand implements IRand, Serializable {
+public class SRand implements IRand, Externalizable {
     private static final long serialVersionUID = 23L;
 
     private String sensorId;
 
+    /**
+     * Constructs an empty instance, required by {@link Externalizable}.
+     */
+    public SRand() {
+    }
+
     /**
      * Constructs a sensor-based random value generator with the specified sensor ID.
      *
@@ -34,5 +48,26 @@ public class SRand implements IRand, Serializable {
         SensorDataI currentNodeSensor = curentNode.getProcessingNode().getSensorData(sensorId);
         return (Double) currentNodeSensor.getValue();
     }
-}
 
+    @Override
+    public void collectSensors(Set<String> sensors) {
+        sensors.add(sensorId);
+    }
+
+    @Override
+    public ValueRange range(Map<String, ValueRange> ranges) {
+        return ranges.getOrDefault(sensorId, ValueRange.UNBOUNDED);
+    }
+
+    @Override
+    public void writeExternal(ObjectOutput out) throws IOException {
+        WireFormat.writeVersion(out);
+        out.writeUTF(sensorId);
+    }
+
+    @Override
+    public void readExternal(ObjectInput in) throws IOException {
+        WireFormat.readVersion(in, SRand.class);
+        this.sensorId = in.readUTF();
+    }
+}
@@ -4,6 +4,7 @@ import app.models.ExecutionState;
 import app.models.Position;
 import app.models.ProcessingNode;
 import app.models.SensorData;
+import ast.bexp.AndBExp;
 import ast.bexp.OrBExp;
 import ast.bexp.SBExp;
 import fr.sorbonne_u.cps.sensor_network.interfaces.SensorDataI;
@@ -50,4 +51,20 @@ public class OrBExpTest {
 		OrBExp orFalseFalse = new OrBExp(falseExp, falseExp);
 		assertFalse(orFalseFalse.eval(es), "OR expression should be false when both expressions are false.");
 	}
+
+	@Test
+	public void testOrWithMissingSensor() {
+		Set<SensorDataI> sensorDataISet = new HashSet<>();
+		sensorDataISet.add(new SensorData("sensor1", "type1", true));
+		ProcessingNode processingNode = new ProcessingNode("nodeTest", new Position(2.0, 3.0), null, sensorDataISet);
+		ExecutionState es = new ExecutionState(processingNode, null);
+
+		OrBExp missingFirst = new OrBExp(new SBExp("type2"), new SBExp("type1"));
+		assertTrue(missingFirst.eval(es), "An operand the node cannot read should not hide the other one.");
+		assertTrue(missingFirst.isSupported(s -> s.equals("type1")));
+		assertFalse(new OrBExp(new SBExp("type2"), new SBExp("type3")).isSupported(s -> s.equals("type1")),
+				"An OR should need the sensors of one of its operands.");
+		assertFalse(new AndBExp(missingFirst, new SBExp("type3")).isSupported(s -> s.equals("type1")),
+				"An AND should need the sensors of both of its operands.");
+	}
 }
@@ -1,7 +1,9 @@
 package tests.ast.cont;
 
 import app.models.ExecutionState;
+import app.models.CircularZone;
 import app.models.Position;
+import ast.base.ABase;
 import ast.base.IBase;
 import ast.cont.FCont;
 import fr.sorbonne_u.cps.sensor_network.requests.interfaces.ExecutionStateI;
@@ -53,4 +55,24 @@ class FContTest {
 		// Verifying that the flooding state is activated
 		assertTrue(es.isFlooding(), "The flooding state should be activated.");
 	}
+
+	@Test
+	void testZoneIsKnownForAbsoluteBase() {
+		CircularZone zone = (CircularZone) new FCont(new ABase(expectedPosition), maxDistance).zone();
+
+		assertEquals(expectedPosition, zone.getCenter(), "The zone should be centered on the base.");
+		assertTrue(zone.in(new Position(50.0, 150.0)), "Positions at the maximum distance should be in the zone.");
+		assertFalse(zone.in(new Position(50.0, 151.0)), "Farther positions should be outside the zone.");
+		assertNull(fCont.zone(), "The zone of a base depending on the node should be unknown.");
+	}
+
+	@Test
+	void testRelaySelectionIsChosenPerContinuation() {
+		fCont.eval(es);
+		assertFalse(es.isRelaySelection(), "Plain flooding should not select relays.");
+
+		new FCont(mockBase, maxDistance, true).eval(es);
+		assertTrue(es.isRelaySelection(), "The relay mode should be set by the continuation.");
+		assertTrue(es.isForwarding(), "The receiving node should forward unless told otherwise.");
+	}
 }
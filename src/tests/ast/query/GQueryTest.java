@@ -1,15 +1,24 @@
 package tests.ast.query;
 
+import app.models.CompactSensorData;
 import app.models.ExecutionState;
 import app.models.ProcessingNode;
+import app.models.QueryResult;
 import app.models.SensorData;
+import ast.cont.ECont;
 import ast.gather.FGather;
+import ast.gather.Projection;
+import ast.query.GQuery;
+import fr.sorbonne_u.cps.sensor_network.interfaces.QueryResultI;
 import fr.sorbonne_u.cps.sensor_network.interfaces.SensorDataI;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.*;
+
 public class GQueryTest {
 	private final String sensorID = "sensor123";
 
@@ -25,4 +34,34 @@ public class GQueryTest {
 		new ExecutionState(processingNode, null);
 	}
 
-}
\ No newline at end of file
+	@Test
+	void testEvalAppliesProjection() {
+		Set<SensorDataI> sensorDataSet = new HashSet<>();
+		sensorDataSet.add(new SensorData("node1", sensorID, 25.5));
+		ProcessingNode processingNode = new ProcessingNode("node1", null, new HashSet<>(), sensorDataSet);
+		ExecutionState es = new ExecutionState(processingNode,
+				new QueryResult(new ArrayList<>(), new ArrayList<>()));
+
+		QueryResultI result = new GQuery(new FGather(sensorID), new ECont(), Projection.NODE_VALUE).eval(es);
+
+		assertEquals(1, result.gatheredSensorsValues().size(), "One value should be gathered.");
+		assertEquals(new CompactSensorData("node1", sensorID, 25.5, false), result.gatheredSensorsValues().get(0),
+				"The gathered value should be projected.");
+	}
+
+	@Test
+	void testNullProjectionKeepsAllFields() {
+		SensorData data = new SensorData("node1", sensorID, 25.5);
+		Set<SensorDataI> sensorDataSet = new HashSet<>();
+		sensorDataSet.add(data);
+		ProcessingNode processingNode = new ProcessingNode("node1", null, new HashSet<>(), sensorDataSet);
+		ExecutionState es = new ExecutionState(processingNode,
+				new QueryResult(new ArrayList<>(), new ArrayList<>()));
+
+		GQuery query = new GQuery(new FGather(sensorID), new ECont(), null);
+
+		assertEquals(Projection.ALL, query.getProjection(), "A missing projection should keep every field.");
+		assertSame(data, query.eval(es).gatheredSensorsValues().get(0), "The data should not be projected.");
+	}
+
+}
@@ -0,0 +1,210 @@
+package tests.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.UUID;
+
+import app.models.ExecutionState;
+import app.models.Position;
+import app.models.QueryResult;
+import app.models.Request;
+import app.models.RequestContinuation;
+import app.models.SensorData;
+import ast.base.ABase;
+import ast.cont.FCont;
+import ast.gather.FGather;
+import ast.gather.RGather;
+import ast.query.GQuery;
+import fr.sorbonne_u.cps.sensor_network.interfaces.Direction;
+
+/**
+ * Compares the size and the encoding and decoding times of a request
+ * continuation written with the compact {@link java.io.Externalizable} layout
+ * against the same continuation written with default Java serialization, which
+ * is reproduced by the {@code Legacy*} mirror classes below (same fields, no
+ * custom serialization).
+ *
+ * Usage: {@code java tests.benchmark.WireFormatBenchmark [gathered values]
+ * [iterations]}.
+ */
+public class WireFormatBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int values = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+
+		Object compact = compactContinuation(values);
+		Object legacy = legacyContinuation(values);
+
+		System.out.println("gathered values: " + values + ", iterations: " + iterations);
+		report("compact", compact, iterations);
+		report("default", legacy, iterations);
+	}
+
+	private static void report(String label, Object o, int iterations) throws Exception {
+		byte[] bytes = encode(o);
+		for (int i = 0; i < iterations / 10; i++) { // warm-up
+			decode(encode(o));
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			encode(o);
+		}
+		long encodeNanos = (System.nanoTime() - start) / iterations;
+		start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			decode(bytes);
+		}
+		long decodeNanos = (System.nanoTime() - start) / iterations;
+		System.out.printf("%-8s %7d bytes  encode %7d ns  decode %7d ns%n", label, bytes.length, encodeNanos,
+				decodeNanos);
+	}
+
+	private static byte[] encode(Object o) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(o);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static Object decode(byte[] bytes) throws IOException, ClassNotFoundException {
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+			return in.readObject();
+		}
+	}
+
+	private static RequestContinuation compactContinuation(int values) {
+		QueryResult result = new QueryResult(new ArrayList<>(), new ArrayList<>());
+		result.setGather();
+		for (int i = 0; i < values; i++) {
+			result.gatheredSensorsValues().add(new SensorData("n" + i, "Temperature", 20.0 + i, Instant.now()));
+		}
+		ExecutionState es = new ExecutionState(null, result);
+		es.setFlooding();
+		es.setMaxDistance(150.0);
+		es.setPosition(new Position(10, 20));
+		es.setDirections(EnumSet.of(Direction.NE));
+		Request request = new Request(new GQuery(new RGather("Temperature", new FGather("Humidity")),
+				new FCont(new ABase(new Position(10, 20)), 150)), null);
+		return RequestContinuation.from(request, es);
+	}
+
+	private static LegacyContinuation legacyContinuation(int values) {
+		LegacyResult result = new LegacyResult();
+		result.isGather = true;
+		for (int i = 0; i < values; i++) {
+			result.sd.add(new LegacySensorData("n" + i, "Temperature", 20.0 + i, Instant.now()));
+		}
+		LegacyState es = new LegacyState();
+		es.queryResult = result;
+		es.flooding = true;
+		es.maxDistance = 150.0;
+		es.p = new LegacyPosition(10, 20);
+		es.directions = EnumSet.of(Direction.NE);
+		LegacyContinuation continuation = new LegacyContinuation();
+		continuation.uri = UUID.randomUUID().toString();
+		continuation.queryCode = new LegacyQuery(new LegacyGather("Temperature", new LegacyGather("Humidity", null)),
+				new LegacyCont(new LegacyPosition(10, 20), 150));
+		continuation.es = es;
+		return continuation;
+	}
+
+	private static class LegacyPosition implements Serializable {
+		private static final long serialVersionUID = 1L;
+		double x;
+		double y;
+
+		LegacyPosition(double x, double y) {
+			this.x = x;
+			this.y = y;
+		}
+	}
+
+	private static class LegacySensorData implements Serializable {
+		private static final long serialVersionUID = 1L;
+		String nodeIdentifier;
+		String sensorIdentifier;
+		Serializable value;
+		Instant timestamp;
+
+		LegacySensorData(String nodeIdentifier, String sensorIdentifier, Serializable value, Instant timestamp) {
+			this.nodeIdentifier = nodeIdentifier;
+			this.sensorIdentifier = sensorIdentifier;
+			this.value = value;
+			this.timestamp = timestamp;
+		}
+	}
+
+	private static class LegacyResult implements Serializable {
+		private static final long serialVersionUID = 1L;
+		ArrayList<LegacySensorData> sd = new ArrayList<>();
+		boolean isGather;
+		boolean isBoolean;
+		ArrayList<String> sensitiveNodes = new ArrayList<>();
+	}
+
+	private static class LegacyState implements Serializable {
+		private static final long serialVersionUID = 1L;
+		LegacyResult queryResult;
+		boolean directional;
+		boolean flooding;
+		boolean isContinuation;
+		Set<Direction> directions;
+		int hops;
+		int maxhops;
+		Double maxDistance;
+		LegacyPosition p;
+	}
+
+	private static class LegacyGather implements Serializable {
+		private static final long serialVersionUID = 1L;
+		String sensorID;
+		LegacyGather gather;
+
+		LegacyGather(String sensorID, LegacyGather gather) {
+			this.sensorID = sensorID;
+			this.gather = gather;
+		}
+	}
+
+	private static class LegacyCont implements Serializable {
+		private static final long serialVersionUID = 1L;
+		LegacyPosition base;
+		double distanceMax;
+
+		LegacyCont(LegacyPosition base, double distanceMax) {
+			this.base = base;
+			this.distanceMax = distanceMax;
+		}
+	}
+
+	private static class LegacyQuery implements Serializable {
+		private static final long serialVersionUID = 1L;
+		LegacyGather gather;
+		LegacyCont cont;
+
+		LegacyQuery(LegacyGather gather, LegacyCont cont) {
+			this.gather = gather;
+			this.cont = cont;
+		}
+	}
+
+	private static class LegacyContinuation implements Serializable {
+		private static final long serialVersionUID = 1L;
+		String uri;
+		Object client;
+		LegacyQuery queryCode;
+		boolean isAsynchronous;
+		LegacyState es;
+		boolean leaf = true;
+	}
+}
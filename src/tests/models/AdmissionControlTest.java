@@ -0,0 +1,102 @@
+package tests.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import app.models.AdmissionControl;
+import app.models.OverloadPolicy;
+import app.models.Priority;
+import app.models.TokenBucket;
+
+public class AdmissionControlTest {
+
+	@Test
+	public void testRejectRefusesBeyondCapacity() {
+
+		AdmissionControl<String> admission = new AdmissionControl<>(0, 2, OverloadPolicy.REJECT);
+		assertNull(admission.admit(Priority.NORMAL, "a"));
+		assertNull(admission.admit(Priority.NORMAL, "b"));
+		assertEquals("c", admission.admit(Priority.ALERT, "c"), "A full queue should refuse the request");
+		assertEquals(2, admission.getDepth());
+		assertEquals(1, admission.getRejected());
+
+		assertEquals("a", admission.poll());
+		assertNull(admission.admit(Priority.NORMAL, "d"), "Room should be made as requests start");
+		assertEquals(2, admission.getPeakDepth());
+	}
+
+	@Test
+	public void testDropOldestKeepsMoreUrgentRequests() {
+
+		AdmissionControl<String> admission = new AdmissionControl<>(0, 2, OverloadPolicy.DROP_OLDEST);
+		admission.admit(Priority.BULK, "bulk");
+		admission.admit(Priority.ALERT, "alert");
+
+		assertEquals("bulk", admission.admit(Priority.NORMAL, "normal"), "The bulk request should make room");
+		assertEquals("late", admission.admit(Priority.BULK, "late"),
+				"A request less urgent than every pending one should be refused");
+		assertEquals(1, admission.getDropped());
+		assertEquals(1, admission.getRejected());
+		assertEquals("alert", admission.poll());
+		assertEquals("normal", admission.poll());
+		assertEquals(0, admission.getDepth());
+	}
+
+	@Test
+	public void testLocalOnlyDegradesWithoutQueueing() {
+
+		AdmissionControl<String> admission = new AdmissionControl<>(0, 1, OverloadPolicy.LOCAL_ONLY);
+		admission.admit(Priority.NORMAL, "a");
+
+		assertEquals("b", admission.admit(Priority.NORMAL, "b"));
+		assertEquals(1, admission.getDegraded());
+		assertEquals(1, admission.getDepth(), "Degraded requests should not be queued");
+	}
+
+	@Test
+	public void testUnboundedQueueNeverSheds() {
+
+		AdmissionControl<Integer> admission = new AdmissionControl<>(0, 0, OverloadPolicy.REJECT);
+		for (int i = 0; i < 1000; i++) {
+			assertNull(admission.admit(Priority.BULK, i));
+		}
+		assertEquals(1000, admission.getDepth());
+	}
+
+	@Test
+	public void testRateLimitOnlyShedsTheBurstingClient() {
+
+		AdmissionControl<String> admission = new AdmissionControl<>(0, 0, OverloadPolicy.DROP_OLDEST);
+		admission.setRateLimit(0.001, 2);
+		assertNull(admission.admit(Priority.NORMAL, "burst", "b0"));
+		assertNull(admission.admit(Priority.NORMAL, "burst", "b1"));
+		assertEquals("b2", admission.admit(Priority.NORMAL, "burst", "b2"), "The burst should exceed the rate");
+		assertNull(admission.admit(Priority.NORMAL, "quiet", "q0"), "Other clients should keep their rate");
+		assertEquals(1, admission.getThrottled());
+		assertEquals(1, admission.getRejected());
+		assertEquals(0, admission.getDropped(), "Throttled requests should not make others drop");
+	}
+
+	@Test
+	public void testSummaryShowsCountersOnly() {
+
+		AdmissionControl<String> admission = new AdmissionControl<>(0, 1, OverloadPolicy.REJECT);
+		admission.admit(Priority.NORMAL, "pending-request");
+		admission.admit(Priority.NORMAL, "refused-request");
+		String summary = admission.toString();
+		assertTrue(summary.contains("depth=1") && summary.contains("rejected=1"));
+		assertFalse(summary.contains("pending-request"), "The summary should not list the queued requests");
+	}
+
+	@Test
+	public void testTokenBucketRefills() {
+
+		TokenBucket bucket = new TokenBucket(10.0, 1, 0);
+		assertTrue(bucket.tryAcquire(0));
+		assertFalse(bucket.tryAcquire(TimeUnit.MILLISECONDS.toNanos(50)));
+		assertTrue(bucket.tryAcquire(TimeUnit.MILLISECONDS.toNanos(100)), "A token should come back every 100ms");
+	}
+}
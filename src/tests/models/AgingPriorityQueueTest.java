@@ -0,0 +1,95 @@
+package tests.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import app.models.AgingPriorityQueue;
+import app.models.Priority;
+
+public class AgingPriorityQueueTest {
+
+	private static final long STEP = TimeUnit.MILLISECONDS.toNanos(50);
+
+	@Test
+	public void testMoreUrgentClassesGoFirst() {
+
+		AgingPriorityQueue<String> queue = new AgingPriorityQueue<>(50);
+		queue.add(Priority.BULK, "bulk-1", 0);
+		queue.add(Priority.NORMAL, "normal", 0);
+		queue.add(Priority.BULK, "bulk-2", 0);
+		queue.add(Priority.ALERT, "alert", 0);
+
+		assertEquals(4, queue.size());
+		assertEquals("alert", queue.poll(0));
+		assertEquals("normal", queue.poll(0));
+		assertEquals("bulk-1", queue.poll(0), "A class should be served in arrival order");
+		assertEquals("bulk-2", queue.poll(0));
+		assertNull(queue.poll(0), "An empty queue has nothing to serve");
+		assertEquals(2, queue.getServed(Priority.BULK));
+	}
+
+	@Test
+	public void testWaitingRequestsAreNotStarved() {
+
+		AgingPriorityQueue<String> queue = new AgingPriorityQueue<>(50);
+		queue.add(Priority.BULK, "bulk", 0);
+		queue.add(Priority.ALERT, "alert", 2 * STEP);
+
+		assertEquals("alert", queue.poll(2 * STEP), "Ties should go to the more urgent class");
+		queue.add(Priority.ALERT, "late alert", 3 * STEP);
+		assertEquals("bulk", queue.poll(3 * STEP), "A request waiting three steps should go before a fresh alert");
+		assertEquals(150.0, queue.getMaxWait(Priority.BULK), 1e-9);
+	}
+
+	@Test
+	public void testNoAgingKeepsStrictPriorities() {
+
+		AgingPriorityQueue<String> queue = new AgingPriorityQueue<>(0);
+		queue.add(Priority.BULK, "bulk", 0);
+		queue.add(Priority.NORMAL, "normal", 100 * STEP);
+
+		assertEquals("normal", queue.poll(100 * STEP));
+		assertEquals("bulk", queue.poll(100 * STEP));
+	}
+
+	@Test
+	public void testClientsShareTheirClass() {
+
+		AgingPriorityQueue<String> queue = new AgingPriorityQueue<>(0);
+		for (int i = 0; i < 4; i++) {
+			queue.add(Priority.NORMAL, "burst", "burst-" + i, 0);
+		}
+		queue.add(Priority.NORMAL, "quiet", "quiet-0", 1);
+		queue.add(Priority.NORMAL, "quiet", "quiet-1", 1);
+
+		assertEquals("burst-0", queue.poll(2));
+		assertEquals("quiet-0", queue.poll(2), "A burst should not delay the other clients");
+		assertEquals("burst-1", queue.poll(2));
+		assertEquals("quiet-1", queue.poll(2));
+		assertEquals("burst-2", queue.poll(2));
+		assertEquals("burst-3", queue.poll(2));
+	}
+
+	@Test
+	public void testWeightsAndEvictionFavourLightClients() {
+
+		AgingPriorityQueue<String> queue = new AgingPriorityQueue<>(0);
+		queue.setWeight("heavy", 2);
+		for (int i = 0; i < 3; i++) {
+			queue.add(Priority.BULK, "heavy", "heavy-" + i, 0);
+			queue.add(Priority.BULK, "light", "light-" + i, 0);
+		}
+		queue.add(Priority.BULK, "light", "light-3", 0);
+
+		assertEquals("light-0", queue.evict(Priority.BULK), "The longest flow should make room");
+		assertEquals("heavy-0", queue.poll(0));
+		assertEquals("heavy-1", queue.poll(0), "A weight of 2 should serve two requests per turn");
+		assertEquals("light-1", queue.poll(0));
+		assertEquals("heavy-2", queue.poll(0));
+		assertEquals(2, queue.size());
+		assertThrows(IllegalArgumentException.class, () -> queue.setWeight("none", 0));
+	}
+}
@@ -0,0 +1,139 @@
+package tests.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import app.models.CapabilitySummary;
+import app.models.Descriptor;
+import app.models.Position;
+import ast.bexp.AndBExp;
+import ast.bexp.OrBExp;
+import ast.bexp.SBExp;
+import ast.cont.ECont;
+import ast.gather.FGather;
+import ast.gather.RGather;
+import ast.query.BQuery;
+import ast.query.GQuery;
+import fr.sorbonne_u.cps.sensor_network.interfaces.Direction;
+import fr.sorbonne_u.cps.sensor_network.interfaces.NodeInfoI;
+
+public class CapabilitySummaryTest {
+
+	private static Descriptor node(String id, CapabilitySummary capabilities) {
+		return new Descriptor(id, null, new Position(0, 0), 10, null, capabilities);
+	}
+
+	@Test
+	public void testMasks() {
+
+		long smoke = CapabilitySummary.bit("Smoke");
+		long heat = CapabilitySummary.bit("Heat");
+
+		assertNotEquals(smoke, heat, "Known sensors should have their own bit");
+		assertEquals(CapabilitySummary.OTHER, CapabilitySummary.bit("Temperature"),
+				"Unknown sensors should share a bit");
+		assertEquals(smoke | heat, CapabilitySummary.maskOfIds(Arrays.asList("Smoke", "Heat")));
+		assertEquals(1 << Direction.NE.ordinal() | 1 << Direction.SW.ordinal(),
+				CapabilitySummary.directionMask(EnumSet.of(Direction.NE, Direction.SW)));
+	}
+
+	@Test
+	public void testComputeFollowsDirections() {
+
+		long smoke = CapabilitySummary.bit("Smoke");
+		long heat = CapabilitySummary.bit("Heat");
+		long humidity = CapabilitySummary.bit("Humidity");
+		int ne = CapabilitySummary.directionMask(EnumSet.of(Direction.NE));
+		int sw = CapabilitySummary.directionMask(EnumSet.of(Direction.SW));
+
+		// beyond the NE neighbour, a query going NE finds humidity
+		Map<Direction, NodeInfoI> far = new EnumMap<>(Direction.class);
+		far.put(Direction.NE, node("n3", new CapabilitySummary(humidity)));
+		CapabilitySummary neighbour = CapabilitySummary.compute(smoke, far);
+
+		Map<Direction, NodeInfoI> neighbours = new EnumMap<>(Direction.class);
+		neighbours.put(Direction.NE, node("n2", neighbour));
+		CapabilitySummary summary = CapabilitySummary.compute(heat, neighbours);
+
+		assertEquals(heat, summary.getOwn());
+		assertEquals(smoke | humidity, summary.reachable(ne), "NE queries should reach both nodes");
+		assertEquals(smoke | humidity, summary.reachable(CapabilitySummary.ALL_DIRECTIONS),
+				"Flooding queries should reach both nodes");
+		assertEquals(0L, summary.reachable(sw), "Nothing lies to the SW");
+		assertEquals(heat, summary.subtree(sw));
+	}
+
+	@Test
+	public void testUnknownNeighbourCanContributeAnything() {
+
+		assertSame(CapabilitySummary.unknown(), CapabilitySummary.of(node("n1", null)));
+
+		Map<Direction, NodeInfoI> neighbours = new EnumMap<>(Direction.class);
+		neighbours.put(Direction.SE, node("n2", null));
+		CapabilitySummary summary = CapabilitySummary.compute(0L, neighbours);
+
+		assertEquals(CapabilitySummary.ALL,
+				summary.reachable(CapabilitySummary.directionMask(EnumSet.of(Direction.SE))));
+	}
+
+	@Test
+	public void testQueriesSkipBranchesLackingSensors() {
+
+		long smoke = CapabilitySummary.bit("Smoke");
+		long heat = CapabilitySummary.bit("Heat");
+		GQuery gather = new GQuery(new RGather("Smoke", new FGather("Heat")), new ECont());
+		BQuery bool = new BQuery(new AndBExp(new SBExp("Smoke"), new SBExp("Heat")), new ECont());
+
+		assertTrue(gather.canContribute(smoke), "A gather query should accept any of its sensors");
+		assertFalse(gather.canContribute(CapabilitySummary.bit("Humidity")));
+		assertTrue(bool.canContribute(smoke | heat));
+		assertFalse(bool.canContribute(smoke), "A boolean query needs all of its sensors");
+		assertTrue(bool.canContribute(CapabilitySummary.ALL));
+	}
+
+	@Test
+	public void testDisjunctionNeedsEitherSide() {
+
+		long smoke = CapabilitySummary.bit("Smoke");
+		long heat = CapabilitySummary.bit("Heat");
+		long humidity = CapabilitySummary.bit("Humidity");
+		BQuery or = new BQuery(new OrBExp(new SBExp("Smoke"), new SBExp("Heat")), new ECont());
+		BQuery nested = new BQuery(
+				new AndBExp(new OrBExp(new SBExp("Smoke"), new SBExp("Heat")), new SBExp("Humidity")), new ECont());
+
+		assertTrue(or.canContribute(smoke), "A node with one side of an OR should be reached");
+		assertTrue(or.canContribute(heat));
+		assertFalse(or.canContribute(humidity));
+		assertTrue(nested.canContribute(heat | humidity));
+		assertFalse(nested.canContribute(smoke | heat), "Both sides of an AND are needed");
+	}
+
+	@Test
+	public void testSummaryTravelsWithDescriptor() throws Exception {
+
+		Map<Direction, NodeInfoI> neighbours = new EnumMap<>(Direction.class);
+		neighbours.put(Direction.NW, node("n2", new CapabilitySummary(CapabilitySummary.bit("Smoke"))));
+		Descriptor descriptor = node("n1", CapabilitySummary.compute(CapabilitySummary.bit("Heat"), neighbours));
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(descriptor);
+		}
+		Descriptor copy;
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			copy = (Descriptor) in.readObject();
+		}
+
+		assertEquals(descriptor.getCapabilities(), copy.getCapabilities());
+	}
+}
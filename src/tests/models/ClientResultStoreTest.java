@@ -0,0 +1,150 @@
+package tests.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import app.models.ClientResultStore;
+import app.models.QueryResult;
+import app.models.RequestId;
+import fr.sorbonne_u.cps.sensor_network.interfaces.QueryResultI;
+
+public class ClientResultStoreTest {
+
+	private static QueryResult result(String... nodes) {
+		ArrayList<String> positive = new ArrayList<>();
+		for (String node : nodes) {
+			positive.add(node);
+		}
+		return new QueryResult(new ArrayList<>(), positive);
+	}
+
+	@Test
+	public void testResultsSpilledOverBudgetAreReadBack() {
+		long budget = ClientResultStore.sizeOf(result("n1", "n2"));
+		try (ClientResultStore store = new ClientResultStore(budget, 60_000L, 1 << 16)) {
+			RequestId big = RequestId.random();
+			RequestId small = RequestId.random();
+			store.open(big, 0L);
+			store.open(small, 0L);
+
+			assertTrue(store.add(big, result("n1", "n2", "n3")));
+			assertTrue(store.add(small, result("n4")));
+			assertTrue(store.getHeld() <= budget, "The results held should stay within the budget");
+			assertEquals(1, store.getSpilled());
+
+			List<QueryResultI> results = store.take(big).getResults();
+			assertEquals(1, results.size());
+			assertEquals(3, results.get(0).positiveSensorNodes().size());
+			assertEquals("n4", store.take(small).getResults().get(0).positiveSensorNodes().get(0));
+			assertEquals(0, store.getHeld());
+			assertEquals(0, store.getDropped());
+		}
+	}
+
+	@Test
+	public void testResultsDroppedWithoutSpill() {
+		long budget = ClientResultStore.sizeOf(result("n1"));
+		try (ClientResultStore store = new ClientResultStore(budget, 60_000L, 0)) {
+			RequestId id = RequestId.random();
+			store.open(id, 0L);
+
+			assertTrue(store.add(id, result("n1")));
+			assertTrue(store.add(id, result("n2")));
+
+			assertEquals(2, store.getDropped());
+			assertEquals(0, store.getHeld());
+			ClientResultStore.Taken taken = store.take(id);
+			assertTrue(taken.getResults().isEmpty());
+			assertEquals(2, taken.getDropped(), "The request should be reported incomplete");
+		}
+	}
+
+	@Test
+	public void testResultsExpireAfterRetention() {
+		try (ClientResultStore store = new ClientResultStore(1L << 20, 1_000L, 0)) {
+			RequestId old = RequestId.random();
+			store.open(old, 0L);
+			store.add(old, result("n1"));
+
+			RequestId recent = RequestId.random();
+			store.open(recent, 1_000L);
+
+			assertEquals(1, store.size());
+			assertEquals(1, store.getExpired());
+			assertNull(store.take(old));
+			assertFalse(store.add(old, result("n2")), "Results of an expired request should be ignored");
+			assertNotNull(store.take(recent));
+		}
+	}
+
+	@Test
+	public void testResultsIgnoredOnceTaken() {
+		try (ClientResultStore store = new ClientResultStore(1L << 20, 60_000L, 0)) {
+			RequestId id = RequestId.random();
+			assertFalse(store.add(id, result("n1")), "Results of a request never opened should be ignored");
+
+			store.open(id, 0L);
+			store.add(id, result("n1"));
+			assertEquals(1, store.take(id).getResults().size());
+			assertFalse(store.add(id, result("n2")), "Results arriving after the merge should be ignored");
+			assertNull(store.take(id));
+			assertEquals(0, store.size());
+			assertEquals(0, store.getHeld());
+		}
+	}
+
+	private static int segmentSize(QueryResultI result) throws IOException {
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+			out.writeObject(new ArrayList<>(Arrays.asList(result)));
+		}
+		return buffer.size();
+	}
+
+	@Test
+	public void testSpillSpaceReusedWhileOthersAreHeld() throws IOException {
+		int segment = segmentSize(result("n1"));
+		try (ClientResultStore store = new ClientResultStore(0L, 60_000L, segment * 5 / 2)) {
+			RequestId first = RequestId.random();
+			RequestId second = RequestId.random();
+			RequestId third = RequestId.random();
+			store.open(first, 0L);
+			store.open(second, 0L);
+			store.open(third, 0L);
+
+			store.add(first, result("n1"));
+			store.add(second, result("n2"));
+			assertEquals(0, store.take(first).getDropped());
+			store.add(third, result("n3"));
+
+			assertEquals(3, store.getSpilled(), "The space of the first request should be reused");
+			assertEquals(0, store.getDropped());
+			assertEquals("n3", store.take(third).getResults().get(0).positiveSensorNodes().get(0));
+			assertEquals("n2", store.take(second).getResults().get(0).positiveSensorNodes().get(0));
+		}
+	}
+
+	@Test
+	public void testIncompleteFlagIsWritten() throws Exception {
+		QueryResult result = result("n1");
+		result.setIncomplete();
+		ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+			out.writeObject(result);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(buffer.toByteArray()))) {
+			assertTrue(((QueryResult) in.readObject()).isIncomplete());
+		}
+		assertFalse(result("n1").isIncomplete());
+	}
+}
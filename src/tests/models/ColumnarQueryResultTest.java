@@ -0,0 +1,173 @@
+package tests.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import org.junit.jupiter.api.Test;
+
+import app.factory.QueryResultFactory;
+import app.models.ColumnarQueryResult;
+import app.models.CompactSensorData;
+import app.models.QueryResult;
+import app.models.SensorData;
+import fr.sorbonne_u.cps.sensor_network.interfaces.SensorDataI;
+
+class ColumnarQueryResultTest {
+
+	@Test
+	void testAddAndMaterialize() {
+		SensorData heat = new SensorData("n1", "Heat", 25.5);
+		ColumnarQueryResult result = new ColumnarQueryResult();
+
+		result.add(heat);
+		result.add(new CompactSensorData("n2", "Smoke", 1.0, true));
+
+		assertEquals(2, result.size(), "Two rows should be encoded.");
+		ArrayList<SensorDataI> values = result.gatheredSensorsValues();
+		assertEquals(heat, values.get(0), "Full sensor data should be restored with its timestamp.");
+		assertEquals(heat.getTimestamp(), values.get(0).getTimestamp(), "Timestamp should be preserved.");
+		assertEquals(true, values.get(1).getValue(), "Boolean values should be restored.");
+		assertSame(values, result.gatheredSensorsValues(), "The materialized list should be cached.");
+	}
+
+	@Test
+	void testMergeRemapsDictionaries() {
+		ColumnarQueryResult left = new ColumnarQueryResult();
+		left.add(new SensorData("n1", "Heat", 10.0));
+		left.addPositive("n1");
+		ColumnarQueryResult right = new ColumnarQueryResult();
+		right.add(new SensorData("n2", "Smoke", 3.0));
+		right.add(new SensorData("n1", "Heat", 12.0));
+		right.addPositive("n2");
+
+		left.merge(right);
+
+		assertEquals(3, left.size(), "Rows should be appended.");
+		assertEquals("n2: Smoke(3.0)", left.gatheredSensorsValues().get(1).toString());
+		assertEquals("n1: Heat(12.0)", left.gatheredSensorsValues().get(2).toString());
+		assertEquals(Arrays.asList("n1", "n2"), left.positiveSensorNodes(), "Positives should be merged.");
+	}
+
+	@Test
+	void testMergeListBasedResult() {
+		ColumnarQueryResult result = new ColumnarQueryResult();
+		ArrayList<SensorDataI> values = new ArrayList<>();
+		values.add(new SensorData("n3", "Humidity", 40.0));
+		ArrayList<String> positives = new ArrayList<>();
+		positives.add("n3");
+
+		result.merge(new QueryResult(values, positives));
+
+		assertEquals(values, result.gatheredSensorsValues(), "List-based values should be encoded.");
+		assertEquals(positives, result.positiveSensorNodes(), "List-based positives should be encoded.");
+		assertTrue(result.newEmpty() instanceof ColumnarQueryResult, "Empty copies should stay columnar.");
+	}
+
+	@Test
+	void testSerializationRoundTrip() throws Exception {
+		ColumnarQueryResult result = new ColumnarQueryResult();
+		result.setGather();
+		for (int i = 0; i < 100; i++) {
+			result.add(new SensorData("n" + (i % 10), "Heat", (double) i));
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(result);
+		}
+		ColumnarQueryResult copy;
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			copy = (ColumnarQueryResult) in.readObject();
+		}
+
+		assertTrue(copy.isGatherRequest(), "Flags should be preserved.");
+		assertEquals(result.gatheredSensorsValues(), copy.gatheredSensorsValues(), "Values should be preserved.");
+		copy.add(new SensorData("n1", "Heat", 1.0));
+		assertEquals(101, copy.size(), "Deserialized results should accept new rows.");
+	}
+
+	@Test
+	void testClone() throws CloneNotSupportedException {
+		ColumnarQueryResult result = new ColumnarQueryResult();
+		result.add(new SensorData("n1", "Heat", 10.0));
+
+		ColumnarQueryResult cloned = result.clone();
+		cloned.add(new SensorData("n2", "Heat", 11.0));
+
+		assertEquals(1, result.size(), "The original should not see rows added to the clone.");
+		assertEquals(2, cloned.size(), "The clone should hold its own rows.");
+	}
+
+	@Test
+	void testForkCopiesColumnsOnWrite() {
+		ColumnarQueryResult result = new ColumnarQueryResult();
+		result.add(new SensorData("n1", "Heat", 10.0));
+
+		ColumnarQueryResult forked = (ColumnarQueryResult) result.fork();
+		forked.add(new SensorData("n2", "Heat", 11.0));
+		result.add(new SensorData("n3", "Heat", 12.0));
+
+		assertEquals("n2: Heat(11.0)", forked.gatheredSensorsValues().get(1).toString(),
+				"The fork should keep its own rows.");
+		assertEquals("n3: Heat(12.0)", result.gatheredSensorsValues().get(1).toString(),
+				"The original should keep its own rows.");
+	}
+
+	@Test
+	void testViewsAreReadOnly() {
+		ColumnarQueryResult result = new ColumnarQueryResult();
+		result.add(new SensorData("n1", "Heat", 10.0));
+		result.addPositive("n1");
+		ArrayList<SensorDataI> values = result.gatheredSensorsValues();
+		ArrayList<String> positives = result.positiveSensorNodes();
+
+		assertThrows(UnsupportedOperationException.class, () -> values.add(new SensorData("n2", "Heat", 11.0)));
+		assertThrows(UnsupportedOperationException.class, () -> values.clear());
+		assertThrows(UnsupportedOperationException.class, () -> positives.addAll(Arrays.asList("n2")));
+		assertThrows(UnsupportedOperationException.class, () -> values.subList(0, 1).clear());
+		Iterator<String> it = positives.iterator();
+		it.next();
+		assertThrows(UnsupportedOperationException.class, it::remove);
+		assertEquals(1, result.gatheredSensorsValues().size(), "The columns should be unchanged.");
+	}
+
+	@Test
+	void testListCopyCanBeChanged() {
+		ColumnarQueryResult result = new ColumnarQueryResult();
+		result.setGather();
+		result.add(new SensorData("n1", "Heat", 10.0));
+
+		QueryResult copy = QueryResultFactory.listCopyOf(result);
+		copy.gatheredSensorsValues().add(new SensorData("n2", "Heat", 11.0));
+
+		assertTrue(copy.isGatherRequest(), "The type should be kept.");
+		assertEquals(2, copy.gatheredSensorsValues().size());
+		assertEquals(1, result.size(), "The columns should be unchanged.");
+	}
+
+	@Test
+	void testPositivesAreListedOnce() {
+		ColumnarQueryResult result = new ColumnarQueryResult();
+		result.addPositive("n1");
+		result.addPositive("n2");
+		result.addPositive("n1");
+
+		assertEquals(Arrays.asList("n1", "n2"), result.positiveSensorNodes());
+	}
+
+	@Test
+	void testNumbersAreReadBackAsDouble() {
+		ColumnarQueryResult result = new ColumnarQueryResult();
+		result.add(new SensorData("n1", "Count", 3));
+
+		assertEquals(Double.valueOf(3.0), result.gatheredSensorsValues().get(0).getValue(),
+				"Integer readings should be read back as Double.");
+	}
+}
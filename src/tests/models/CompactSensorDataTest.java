@@ -0,0 +1,48 @@
+package tests.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import app.models.CompactSensorData;
+import app.models.SensorData;
+import ast.gather.Projection;
+import fr.sorbonne_u.cps.sensor_network.interfaces.SensorDataI;
+
+class CompactSensorDataTest {
+
+	@Test
+	void testNodeValueProjection() {
+		SensorData data = new SensorData("Node1", "Heat", 25.5);
+
+		SensorDataI projected = Projection.NODE_VALUE.apply(data);
+
+		assertTrue(projected instanceof CompactSensorData, "Numeric values should be projected to a compact record.");
+		assertEquals("Node1", projected.getNodeIdentifier(), "Node identifier should be kept.");
+		assertEquals("Heat", projected.getSensorIdentifier(), "Sensor identifier should be kept.");
+		assertEquals(25.5, projected.getValue(), "Value should be kept.");
+		assertNull(projected.getTimestamp(), "Timestamp should be projected out.");
+		assertEquals("Node1: Heat(25.5)", projected.toString(), "String form should match SensorData.");
+	}
+
+	@Test
+	void testValueProjection() {
+		SensorDataI projected = Projection.VALUE.apply(new SensorData("Node1", "Smoke", true));
+
+		assertNull(projected.getNodeIdentifier(), "Node identifier should be projected out.");
+		assertEquals(Boolean.class, projected.getType(), "Boolean readings should keep their type.");
+		assertEquals(true, projected.getValue(), "Boolean value should be restored.");
+		assertEquals(new CompactSensorData(null, "Smoke", 1.0, true), projected,
+				"Equal compact records should be equal.");
+	}
+
+	@Test
+	void testAllAndUnsupportedValuesAreUnchanged() {
+		SensorData data = new SensorData("Node1", "Heat", 25.5);
+		SensorData text = new SensorData("Node1", "Label", "north");
+
+		assertSame(data, Projection.ALL.apply(data), "ALL should not change the data.");
+		assertSame(text, Projection.NODE_VALUE.apply(text), "Non numeric values should not be projected.");
+		assertNull(Projection.VALUE.apply(null), "Missing data should stay missing.");
+	}
+}
@@ -0,0 +1,176 @@
+package tests.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import app.models.CompletionTracker;
+import app.models.ExecutionState;
+import app.models.QueryResult;
+import app.models.RequestId;
+
+public class CompletionTrackerTest {
+
+	private static ExecutionState entry() {
+		ExecutionState es = new ExecutionState(null, new QueryResult(new ArrayList<>(), new ArrayList<>()));
+		es.setCredit(CompletionTracker.FULL_CREDIT);
+		return es;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T roundTrip(T o) throws IOException, ClassNotFoundException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(o);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			return (T) in.readObject();
+		}
+	}
+
+	/**
+	 * Forwards a continuation as a node does, over the wire.
+	 */
+	private static ExecutionState forward(ExecutionState from) throws Exception {
+		ExecutionState next = from.clone();
+		next.setCredit(from.shareCredit());
+		return roundTrip(next);
+	}
+
+	@Test
+	public void testCreditIsConservedWhenSplit() {
+		ExecutionState es = entry();
+		es.divideCredit(4);
+
+		long total = 0;
+		for (int i = 0; i < 3; i++) {
+			long share = es.shareCredit();
+			assertTrue(share > 0, "Every continuation should get a share");
+			total += share;
+		}
+		total += es.takeCredit();
+
+		assertEquals(CompletionTracker.FULL_CREDIT, total, "The shares should add up to the credit");
+		assertEquals(0L, es.takeCredit(), "The credit should only be taken once");
+	}
+
+	@Test
+	public void testRequestCompletesWhateverTheOrder() {
+		RequestId id = RequestId.of(UUID.randomUUID().toString());
+		CompletionTracker tracker = new CompletionTracker();
+		tracker.open(id, 1);
+
+		// the entry node floods two neighbours, one of which forwards once more
+		ExecutionState es = entry();
+		es.divideCredit(3);
+		long first = es.shareCredit();
+		long second = es.shareCredit();
+		long own = es.takeCredit();
+		ExecutionState next = entry();
+		next.setCredit(second);
+		next.divideCredit(2);
+		long third = next.shareCredit();
+		long secondOwn = next.takeCredit();
+
+		assertFalse(tracker.credit(id, third), "A leaf answering first should not complete the request");
+		assertFalse(tracker.credit(id, first));
+		assertFalse(tracker.credit(id, CompletionTracker.UNTRACKED), "Untracked results should not count");
+		assertFalse(tracker.credit(id, secondOwn));
+		assertTrue(tracker.credit(id, own), "The last branch should complete the request");
+		assertFalse(tracker.close(id), "A complete request should no longer be tracked");
+	}
+
+	@Test
+	public void testExhaustedCreditStopsTracking() {
+		RequestId id = RequestId.of(UUID.randomUUID().toString());
+		CompletionTracker tracker = new CompletionTracker();
+		tracker.open(id, 1);
+		ExecutionState es = entry();
+		es.setCredit(1L);
+		es.divideCredit(2);
+
+		assertEquals(CompletionTracker.UNTRACKED, es.shareCredit(), "A credit of 1 cannot be split");
+		assertEquals(CompletionTracker.UNTRACKED, es.takeCredit(), "The branch should no longer be tracked");
+		assertFalse(tracker.credit(id, CompletionTracker.FULL_CREDIT - 1));
+		assertTrue(tracker.close(id), "The request should wait for its deadline");
+	}
+
+	@Test
+	public void testFanOutWaitsForEveryEntryNode() {
+		RequestId id = RequestId.of(UUID.randomUUID().toString());
+		CompletionTracker tracker = new CompletionTracker();
+		tracker.open(id, 2);
+
+		assertFalse(tracker.credit(id, CompletionTracker.FULL_CREDIT));
+		assertTrue(tracker.credit(id, CompletionTracker.FULL_CREDIT));
+	}
+
+	@Test
+	public void testAsyncTreeCompletesBeforeDeadline() throws Exception {
+		RequestId id = RequestId.of(UUID.randomUUID().toString());
+		CompletionTracker tracker = new CompletionTracker();
+		tracker.open(id, 1);
+
+		// the entry node of an asynchronous request floods two neighbours and
+		// reports itself; the first neighbour forwards to a leaf, which the second
+		// one reaches as well and acknowledges as redundant
+		ExecutionState es = entry();
+		es.divideCredit(3);
+		ExecutionState first = forward(es);
+		ExecutionState second = forward(es);
+		long own = es.takeCredit();
+		first.divideCredit(2);
+		ExecutionState leaf = forward(first);
+		long firstOwn = first.takeCredit();
+		second.divideCredit(2);
+		ExecutionState redundant = forward(second);
+		long secondOwn = second.takeCredit();
+
+		for (long credit : new long[] { leaf.takeCredit(), secondOwn, redundant.takeCredit(), firstOwn }) {
+			assertTrue(credit > 0, "Every branch should return some credit");
+			assertFalse(tracker.credit(id, credit), "The request should wait for every branch");
+		}
+		assertTrue(tracker.credit(id, own), "The request should complete with its last branch");
+	}
+
+	@Test
+	public void testUnseededEntryNeverCompletes() throws Exception {
+		RequestId id = RequestId.of(UUID.randomUUID().toString());
+		CompletionTracker tracker = new CompletionTracker();
+		tracker.open(id, 1);
+		ExecutionState es = new ExecutionState(null, new QueryResult(new ArrayList<>(), new ArrayList<>()));
+		es.divideCredit(2);
+		ExecutionState next = forward(es);
+
+		assertFalse(tracker.credit(id, next.takeCredit()));
+		assertFalse(tracker.credit(id, es.takeCredit()));
+		assertTrue(tracker.close(id), "An entry node without credit leaves its request to the deadline");
+	}
+
+	@Test
+	public void testRouteWithoutCloserNeighbourReturnsItsCredit() throws Exception {
+		RequestId id = RequestId.of(UUID.randomUUID().toString());
+		CompletionTracker tracker = new CompletionTracker();
+		tracker.open(id, 1);
+
+		// the entry node lies outside the flooding area and routes the request to
+		// a neighbour with no neighbour closer to the base, which acknowledges it
+		ExecutionState es = entry();
+		es.divideCredit(2);
+		ExecutionState routed = forward(es);
+		routed.setRouting(true);
+		long own = es.takeCredit();
+		ExecutionState stuck = roundTrip(routed);
+
+		assertFalse(tracker.credit(id, own), "The routed branch should still be awaited");
+		assertTrue(tracker.credit(id, stuck.takeCredit()), "The end of the route should complete the request");
+	}
+}
@@ -3,7 +3,12 @@ package tests.models;
 import static org.junit.Assert.*;
 import org.junit.Test;
 
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import app.models.CapabilitySummary;
 import app.models.Descriptor;
+import app.models.Position;
 import fr.sorbonne_u.cps.sensor_network.interfaces.Direction;
 import fr.sorbonne_u.cps.sensor_network.interfaces.EndPointDescriptorI;
 import fr.sorbonne_u.cps.sensor_network.interfaces.PositionI;
@@ -146,4 +151,23 @@ public class DescriptorTest {
 		assertEquals("The P2P endpoint descriptor should match the expected value", expectedP2PEndPointInfo,
 				actualP2PEndPointInfo);
 	}
+
+	@Test
+	public void testWithNeighbourhoodKeepsOtherSummaries() {
+
+		Descriptor descriptor = new Descriptor("Node123", new TestEndPointDescriptor("uri:endpoint", "type:endpoint"),
+				new TestPosition(10.0, 20.0), 15.0, null, new CapabilitySummary(3L));
+		Map<String, PositionI> neighbourhood = new LinkedHashMap<>();
+		neighbourhood.put("n2", new Position(12.0, 22.0));
+
+		Descriptor updated = descriptor.withNeighbourhood(neighbourhood);
+		neighbourhood.put("n3", new Position(8.0, 18.0));
+
+		assertNull("A node should advertise no neighbourhood initially", descriptor.getNeighbourhood());
+		assertEquals("The neighbourhood should be a copy", 1, updated.getNeighbourhood().size());
+		assertEquals(new Position(12.0, 22.0), updated.getNeighbourhood().get("n2"));
+		assertEquals("The capabilities should be kept", descriptor.getCapabilities(), updated.getCapabilities());
+		assertEquals("The neighbourhood should survive another update", updated.getNeighbourhood(),
+				updated.withCapabilities(new CapabilitySummary(1L)).getNeighbourhood());
+	}
 }
@@ -4,12 +4,17 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.junit.jupiter.api.Test;
 
 import app.models.ExecutionState;
+import app.models.QueryResult;
+import app.models.SensorData;
+import ast.gather.Projection;
 import fr.sorbonne_u.cps.sensor_network.interfaces.Direction;
 import fr.sorbonne_u.cps.sensor_network.interfaces.NodeInfoI;
 import fr.sorbonne_u.cps.sensor_network.interfaces.PositionI;
@@ -126,6 +131,19 @@ public class ExecutionStateTest {
 		assertTrue(state.isFlooding(), "Should be flooding after setting it");
 	}
 
+	@Test
+	public void testIsRouting() throws Exception {
+
+		ExecutionState state = new ExecutionState(new TestProcessingNode("nodeURI"), new TestQueryResult());
+
+		assertFalse(state.isRouting(), "Should not be routing initially");
+
+		state.setRouting(true);
+
+		assertTrue(state.isRouting(), "Should be routing after setting it");
+		assertTrue(state.cloneWithEmptyResult().isRouting(), "Clones should keep routing");
+	}
+
 	@Test
 	public void testDirections() {
 
@@ -164,6 +182,104 @@ public class ExecutionStateTest {
 		assertTrue(isWithinDistance, "The target position should be within the maximal distance");
 	}
 
+	@Test
+	public void testCloneSharesStateAndForksResult() throws CloneNotSupportedException {
+
+		QueryResult result = new QueryResult(new ArrayList<>(), new ArrayList<>());
+		result.positiveSensorNodes().add("n1");
+		ExecutionState state = new ExecutionState(new TestProcessingNode("nodeURI"), result);
+		state.setDirections(new HashSet<>(Arrays.asList(Direction.NE)));
+
+		ExecutionState clone = state.clone();
+		clone.getCurrentResult().positiveSensorNodes().add("n2");
+		state.getCurrentResult().positiveSensorNodes().add("n3");
+
+		assertSame(state.getDirections(), clone.getDirections(), "Directions should be shared");
+		assertEquals(Arrays.asList("n1", "n2"), clone.getCurrentResult().positiveSensorNodes(),
+				"The clone should see the shared prefix and its own additions");
+		assertEquals(Arrays.asList("n1", "n3"), state.getCurrentResult().positiveSensorNodes(),
+				"The original should not see what the clone adds");
+		assertEquals(Arrays.asList("n1"), result.positiveSensorNodes(), "The shared prefix should stay frozen");
+	}
+
+	@Test
+	public void testConcurrentClonesKeepTheResult() throws Exception {
+
+		QueryResult result = new QueryResult(new ArrayList<>(), new ArrayList<>());
+		result.positiveSensorNodes().add("n0");
+		ExecutionState state = new ExecutionState(new TestProcessingNode("nodeURI"), result);
+		List<ExecutionState> clones = Collections.synchronizedList(new ArrayList<>());
+		Thread[] threads = new Thread[8];
+		for (int i = 0; i < threads.length; i++) {
+			String node = "n" + (i + 1);
+			threads[i] = new Thread(() -> {
+				try {
+					clones.add(state.clone());
+					state.addToCurrentResult(new QueryResult(new ArrayList<>(), new ArrayList<>(Arrays.asList(node))));
+				} catch (CloneNotSupportedException e) {
+					throw new IllegalStateException(e);
+				}
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertEquals(threads.length + 1, state.getCurrentResult().positiveSensorNodes().size(),
+				"No addition should be lost to a concurrent clone");
+		for (ExecutionState clone : clones) {
+			assertEquals("n0", clone.getCurrentResult().positiveSensorNodes().get(0),
+					"Every clone should see the shared prefix");
+		}
+	}
+
+	/**
+	 * Adds to a state the reading of a node, projected to its value only.
+	 */
+	private static void read(ExecutionState state, String node) {
+		ArrayList<SensorDataI> values = new ArrayList<>();
+		values.add(Projection.VALUE.apply(new SensorData(node, "Heat", 20.0)));
+		state.addToCurrentResult(new QueryResult(values, new ArrayList<>()));
+	}
+
+	@Test
+	public void testParallelAsyncBranchesReportTheirPrefixOnce() throws CloneNotSupportedException {
+
+		ExecutionState state = new ExecutionState(null, new QueryResult(new ArrayList<>(), new ArrayList<>()));
+		state.setDirectional();
+		read(state, "n0");
+
+		// a node sends an asynchronous directional query along two directions, as
+		// the last nodes of both branches report what they carry to the client
+		ExecutionState first = state.cloneForContinuation(true);
+		state.resetQuery();
+		ExecutionState second = state.cloneForContinuation(true);
+		read(first, "n1");
+		read(second, "n2");
+
+		List<SensorDataI> merged = new ArrayList<>(first.getCurrentResult().gatheredSensorsValues());
+		merged.addAll(second.getCurrentResult().gatheredSensorsValues());
+		assertEquals(3, merged.size(), "Each reading should reach the client once");
+		assertEquals(2, first.getCurrentResult().gatheredSensorsValues().size(),
+				"The first branch should carry the reading gathered before it");
+	}
+
+	@Test
+	public void testAsyncFloodContinuationsStartEmpty() throws CloneNotSupportedException {
+
+		ExecutionState state = new ExecutionState(null, new QueryResult(new ArrayList<>(), new ArrayList<>()));
+		state.setFlooding();
+		read(state, "n0");
+
+		ExecutionState next = state.cloneForContinuation(true);
+		read(next, "n1");
+
+		assertEquals(1, next.getCurrentResult().gatheredSensorsValues().size(),
+				"A flooding node reports its own reading, so its continuations should not carry it");
+		assertEquals(1, state.getCurrentResult().gatheredSensorsValues().size());
+	}
+
 	@SuppressWarnings("serial")
 	static class TestPosition implements PositionI {
 		private final double x;
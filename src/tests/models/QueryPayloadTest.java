@@ -0,0 +1,92 @@
+package tests.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.Test;
+
+import app.models.ExecutionState;
+import app.models.PlanCache;
+import app.models.QueryResult;
+import app.models.Request;
+import app.models.RequestContinuation;
+import ast.cont.ECont;
+import ast.gather.FGather;
+import ast.query.GQuery;
+import fr.sorbonne_u.cps.sensor_network.requests.interfaces.QueryI;
+
+public class QueryPayloadTest {
+
+	private static RequestContinuation roundTrip(RequestContinuation o) throws IOException, ClassNotFoundException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(o);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			return (RequestContinuation) in.readObject();
+		}
+	}
+
+	private static ExecutionState emptyState() {
+		return new ExecutionState(null, new QueryResult(new ArrayList<>(), new ArrayList<>()));
+	}
+
+	@Test
+	public void testEntryNodeKeepsQueryInstance() {
+
+		QueryI query = new GQuery(new FGather("Temperature"), new ECont());
+		RequestContinuation continuation = RequestContinuation.from(new Request(query, null), emptyState());
+
+		assertSame(query, continuation.getQueryCode(), "The issued query should be used as is");
+		assertSame(continuation.getPayload(),
+				RequestContinuation.from(continuation, emptyState()).getPayload(),
+				"Forwarded continuations should share the payload");
+	}
+
+	@Test
+	public void testPayloadIsForwardedWithoutReencoding() throws Exception {
+
+		RequestContinuation entry = RequestContinuation.from(
+				new Request(new GQuery(new FGather("Temperature"), new ECont()), null), emptyState());
+		byte[] encoded = entry.getPayload().bytes();
+
+		RequestContinuation received = roundTrip(entry);
+		assertFalse(received.getPayload().isDecoded(), "The payload should be decoded on demand");
+		assertTrue(received.getQueryCode() instanceof GQuery, "The payload should decode to the query");
+
+		RequestContinuation forwarded = RequestContinuation.from(received, emptyState());
+		byte[] kept = forwarded.getPayload().bytes();
+		RequestContinuation next = roundTrip(forwarded);
+
+		assertSame(kept, received.getPayload().bytes(), "The received bytes should be forwarded as they are");
+		assertArrayEquals(encoded, kept, "The bytes should be those encoded at the entry node");
+		assertArrayEquals(encoded, next.getPayload().bytes(), "The bytes should survive every hop");
+	}
+
+	@Test
+	public void testPlanCacheReusesDecodedQuery() throws Exception {
+
+		PlanCache cache = new PlanCache(2);
+		QueryI query = new GQuery(new FGather("Temperature"), new ECont());
+		RequestContinuation first = roundTrip(RequestContinuation.from(new Request(query, null), emptyState()));
+		RequestContinuation second = roundTrip(RequestContinuation.from(new Request(query, null), emptyState()));
+
+		QueryI plan = first.getQueryCode(cache);
+
+		assertSame(plan, second.getQueryCode(cache), "Identical payloads should share their plan");
+		assertEquals(1, cache.getMisses(), "The payload should be decoded once");
+		assertEquals(1, cache.getHits(), "The second lookup should hit the cache");
+
+		for (String sensor : new String[] { "a", "b", "c" }) {
+			roundTrip(RequestContinuation.from(new Request(new GQuery(new FGather(sensor), new ECont()), null),
+					emptyState())).getQueryCode(cache);
+		}
+		assertEquals(2, cache.size(), "The cache should stay bounded");
+	}
+}
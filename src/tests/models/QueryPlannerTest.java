@@ -0,0 +1,91 @@
+package tests.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import app.models.CircularZone;
+import app.models.LatencyEstimator;
+import app.models.Position;
+import app.models.QueryPlan;
+import app.models.QueryPlanner;
+
+public class QueryPlannerTest {
+
+	private final QueryPlanner planner = new QueryPlanner(8, 0.5);
+	private final QueryPlanner latencyOnly = new QueryPlanner(8, 0.0);
+
+	@Test
+	public void testSmallZoneIsFannedOut() {
+		QueryPlan plan = planner.plan(new CircularZone(new Position(0, 0), 10), 4, new Position(0, 0), 5.0);
+
+		assertEquals(QueryPlan.Strategy.DIRECT_FAN_OUT, plan.getStrategy(), "A few nodes should be reached directly");
+		assertEquals(4, plan.getTargets());
+		assertEquals(4, plan.getEstimatedMessages(), "One message per node of the zone");
+		assertTrue(plan.getFanOutLatency() < plan.getEntryLatency());
+	}
+
+	@Test
+	public void testLargeZoneIsFloodedFromInside() {
+		QueryPlan plan = latencyOnly.plan(new CircularZone(new Position(0, 0), 10), 1000, new Position(1, 1), 5.0);
+
+		assertEquals(QueryPlan.Strategy.FLOODING, plan.getStrategy(),
+				"Too many rounds of direct calls should favour flooding");
+		assertEquals(0, plan.getRoutingHops(), "The entry node lies in the zone");
+	}
+
+	@Test
+	public void testDistantEntryNeedsRouting() {
+		CircularZone zone = new CircularZone(new Position(0, 0), 10);
+		QueryPlan near = latencyOnly.plan(zone, 1000, new Position(12, 0), 5.0);
+		QueryPlan far = latencyOnly.plan(zone, 1000, new Position(40, 0), 5.0);
+
+		assertEquals(QueryPlan.Strategy.ROUTING, near.getStrategy());
+		assertTrue(far.getRoutingHops() > near.getRoutingHops(), "Farther entry nodes need more hops");
+		assertTrue(far.getEntryLatency() > near.getEntryLatency());
+		assertEquals(near.getFanOutLatency(), far.getFanOutLatency(), 1e-9,
+				"The entry node does not matter to a fan-out");
+	}
+
+	@Test
+	public void testMessageCostFavoursFanOut() {
+		QueryPlan plan = planner.plan(new CircularZone(new Position(0, 0), 10), 1000, new Position(1, 1), 5.0);
+
+		assertEquals(QueryPlan.Strategy.DIRECT_FAN_OUT, plan.getStrategy(),
+				"Flooding sends a message to every neighbour of every node");
+		assertTrue(plan.getEntryMessages() > plan.getFanOutMessages());
+	}
+
+	@Test
+	public void testUnknownEntryIsAssumedInside() {
+		QueryPlan plan = planner.plan(new CircularZone(new Position(0, 0), 10), 100, null, 5.0);
+
+		assertEquals(0, plan.getRoutingHops());
+	}
+
+	@Test
+	public void testLatencyEstimatorAverages() {
+		LatencyEstimator estimator = new LatencyEstimator(5.0, 0.5);
+		assertEquals(5.0, estimator.estimate(), 1e-9, "The default should hold until a measurement");
+
+		estimator.record(10.0);
+		assertEquals(10.0, estimator.estimate(), 1e-9, "The first measurement should replace the default");
+		estimator.record(20.0);
+		assertEquals(15.0, estimator.estimate(), 1e-9);
+		assertEquals(2, estimator.getSamples());
+	}
+
+	@Test
+	public void testLatencyEstimatorPercentiles() {
+		LatencyEstimator estimator = new LatencyEstimator(5.0, 0.5);
+		assertEquals(5.0, estimator.percentile(0.95), 1e-9, "The default should hold until a measurement");
+
+		for (int i = 1; i <= 100; i++) {
+			estimator.record(i);
+		}
+		assertEquals(100.0, estimator.percentile(1.0), 1e-9);
+		assertEquals(97.0, estimator.percentile(0.95), 1e-9, "Only the recent measurements should count");
+		assertEquals(100 - LatencyEstimator.WINDOW + 1, estimator.percentile(0.0), 1e-9,
+				"Older measurements should leave the window");
+	}
+}
@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.*;
 import java.io.Serializable;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import org.junit.jupiter.api.Test;
 
@@ -71,6 +72,40 @@ public class QueryResultTest {
 		assertNotEquals(queryResult1, queryResult2, "The two query results should not be equal after modifying one");
 	}
 
+	@Test
+	public void testMergeLinksChunksAndFlattensInOrder() {
+
+		ArrayList<String> childNodes = new ArrayList<>();
+		childNodes.add("n2");
+		QueryResult child = new QueryResult(new ArrayList<>(), childNodes);
+		ArrayList<String> parentNodes = new ArrayList<>();
+		parentNodes.add("n1");
+		QueryResult parent = new QueryResult(new ArrayList<>(), parentNodes);
+
+		parent.merge(child);
+		childNodes.add("n3"); // Linked, not copied, until the parent is read
+
+		assertEquals(Arrays.asList("n1", "n2", "n3"), parent.positiveSensorNodes(),
+				"Chunks should be flattened after the local values");
+	}
+
+	@Test
+	public void testFlattenDeepChain() {
+
+		QueryResult entry = new QueryResult(new ArrayList<>(), new ArrayList<>());
+		QueryResult current = entry;
+		for (int i = 0; i < 10000; i++) {
+			ArrayList<String> nodes = new ArrayList<>();
+			nodes.add("n" + i);
+			QueryResult next = new QueryResult(new ArrayList<>(), nodes);
+			current.merge(next);
+			current = next;
+		}
+
+		assertEquals(10000, entry.positiveSensorNodes().size(), "Every level of the chain should be flattened");
+		assertEquals("n9999", entry.positiveSensorNodes().get(9999), "Order should follow the chain");
+	}
+
 	@SuppressWarnings("serial")
 	static class TestSensorData implements SensorDataI {
 		private String sensorIdentifier;
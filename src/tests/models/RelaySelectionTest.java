@@ -0,0 +1,72 @@
+package tests.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import app.models.RelaySelection;
+
+public class RelaySelectionTest {
+
+	private static Set<String> nodes(String... ids) {
+		return new HashSet<>(Arrays.asList(ids));
+	}
+
+	@Test
+	public void testSmallestCoveringSubset() {
+		Map<String, Set<String>> coverage = new LinkedHashMap<>();
+		coverage.put("a", nodes("x"));
+		coverage.put("b", nodes("x", "y", "z"));
+		coverage.put("c", nodes("y"));
+		coverage.put("d", nodes());
+
+		assertEquals(nodes("b"), RelaySelection.select(coverage), "One neighbour covers every two-hop node");
+	}
+
+	@Test
+	public void testSoleCoverersAreRelays() {
+		Map<String, Set<String>> coverage = new LinkedHashMap<>();
+		coverage.put("a", nodes("x", "y"));
+		coverage.put("b", nodes("y", "z"));
+		coverage.put("c", nodes("w"));
+
+		Set<String> relays = RelaySelection.select(coverage);
+
+		assertEquals(nodes("a", "b", "c"), relays, "Each neighbour alone in covering a node must relay");
+	}
+
+	@Test
+	public void testUnknownNeighbourhoodsAreRelays() {
+		Map<String, Set<String>> coverage = new LinkedHashMap<>();
+		coverage.put("a", null);
+		coverage.put("b", nodes());
+
+		assertEquals(nodes("a"), RelaySelection.select(coverage));
+		assertTrue(RelaySelection.select(Collections.emptyMap()).isEmpty());
+	}
+
+	@Test
+	public void testEveryTwoHopNodeIsCovered() {
+		Map<String, Set<String>> coverage = new LinkedHashMap<>();
+		coverage.put("a", nodes("p", "q"));
+		coverage.put("b", nodes("q", "r"));
+		coverage.put("c", nodes("r", "s"));
+		coverage.put("d", nodes("s", "p"));
+
+		Set<String> relays = RelaySelection.select(coverage);
+		Set<String> covered = new HashSet<>();
+		for (String relay : relays) {
+			covered.addAll(coverage.get(relay));
+		}
+
+		assertEquals(nodes("p", "q", "r", "s"), covered);
+		assertEquals(2, relays.size(), "Two opposite neighbours suffice");
+	}
+}
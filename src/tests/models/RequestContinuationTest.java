@@ -2,12 +2,25 @@ package tests.models;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 import org.junit.jupiter.api.Test;
 
+import app.models.ExecutionState;
+import app.models.Priority;
+import app.models.QueryResult;
 import app.models.Request;
 import app.models.RequestContinuation;
+import ast.cont.ECont;
+import ast.gather.FGather;
+import ast.query.GQuery;
 import fr.sorbonne_u.cps.sensor_network.interfaces.ConnectionInfoI;
 import fr.sorbonne_u.cps.sensor_network.interfaces.Direction;
 import fr.sorbonne_u.cps.sensor_network.interfaces.EndPointDescriptorI;
@@ -196,4 +209,144 @@ public class RequestContinuationTest {
 
 		assertFalse(requestContinuation.isLeaf(), "The request should no longer be a leaf after setting leaf");
 	}
+
+	@Test
+	public void testBatchTravelsWithForwardedContinuation() throws Exception {
+
+		List<RequestContinuation> members = new ArrayList<>();
+		for (String sensor : new String[] { "Temperature", "Humidity" }) {
+			members.add(RequestContinuation.from(new Request(new GQuery(new FGather(sensor), new ECont()), null),
+					new ExecutionState(null, new QueryResult(new ArrayList<>(), new ArrayList<>()))));
+		}
+		RequestContinuation batch = RequestContinuation.batch(members,
+				new ExecutionState(null, new QueryResult(new ArrayList<>(), new ArrayList<>())));
+
+		assertTrue(batch.isBatch(), "The continuation should carry a batch");
+		assertNull(batch.getQueryCode(), "A batch has no query of its own");
+		assertTrue(batch.isAsynchronous(), "Batches are asynchronous");
+		assertFalse(members.get(0).isBatch());
+
+		RequestContinuation forwarded = batch.forward(
+				new ExecutionState(null, new QueryResult(new ArrayList<>(), new ArrayList<>())));
+		assertEquals(batch.requestURI(), forwarded.requestURI(), "The batch should keep its identity");
+		assertEquals(2, forwarded.getBatch().size());
+		for (int i = 0; i < members.size(); i++) {
+			RequestContinuation member = forwarded.getBatch().get(i);
+			assertEquals(members.get(i).requestURI(), member.requestURI(), "Each request should keep its URI");
+			assertNotSame(members.get(i).getExecutionState(), member.getExecutionState(),
+					"Each request should travel with its own copy of its state");
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(forwarded);
+		}
+		RequestContinuation received;
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			received = (RequestContinuation) in.readObject();
+		}
+		assertEquals(2, received.getBatch().size(), "The batch should survive the wire");
+		assertEquals(members.get(1).requestURI(), received.getBatch().get(1).requestURI());
+		assertTrue(received.getBatch().get(1).getQueryCode() instanceof GQuery);
+		assertFalse(received.getBatch().get(1).isBatch());
+	}
+
+	@Test
+	public void testAliasesShareTheContinuation() throws Exception {
+
+		QueryI query = new GQuery(new FGather("Temperature"), new ECont());
+		RequestContinuation leader = RequestContinuation.from(new Request(query, null),
+				new ExecutionState(null, new QueryResult(new ArrayList<>(), new ArrayList<>())));
+		Request follower = new Request(query, null);
+		follower.setAsynchronous(true);
+
+		assertTrue(leader.getAliases().isEmpty(), "A request has no alias initially");
+		leader.addAlias(follower);
+
+		RequestContinuation forwarded = leader.forward(
+				new ExecutionState(null, new QueryResult(new ArrayList<>(), new ArrayList<>())));
+		assertEquals(1, forwarded.getAliases().size(), "Aliases should travel with the continuation");
+		assertEquals(follower.requestURI(), forwarded.getAliases().get(0).requestURI(),
+				"An alias should keep the URI of its request");
+		assertNull(forwarded.getAliases().get(0).getQueryCode(), "An alias should not carry the query again");
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(forwarded);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			RequestContinuation received = (RequestContinuation) in.readObject();
+			assertEquals(follower.requestURI(), received.getAliases().get(0).requestURI(),
+					"Aliases should survive the wire");
+			assertFalse(received.isBatch());
+		}
+	}
+
+	@Test
+	public void testPriorityIsKeptByContinuations() throws Exception {
+
+		Request request = new Request(new GQuery(new FGather("Smoke"), new ECont()), null);
+		assertEquals(Priority.NORMAL, request.getPriority(), "Requests are normal by default");
+		request.setPriority(Priority.ALERT);
+
+		RequestContinuation entry = RequestContinuation.from(request,
+				new ExecutionState(null, new QueryResult(new ArrayList<>(), new ArrayList<>())));
+		RequestContinuation forwarded = entry.forward(
+				new ExecutionState(null, new QueryResult(new ArrayList<>(), new ArrayList<>())));
+		assertEquals(Priority.ALERT, forwarded.getPriority(), "Continuations should keep the priority");
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(forwarded);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			RequestContinuation received = (RequestContinuation) in.readObject();
+			assertEquals(Priority.ALERT, received.getPriority(), "The priority should survive the wire");
+		}
+
+		RequestContinuation bulk = RequestContinuation.from(new Request(new GQuery(new FGather("Heat"), new ECont()),
+				null), new ExecutionState(null, new QueryResult(new ArrayList<>(), new ArrayList<>())));
+		bulk.setPriority(Priority.BULK);
+		RequestContinuation batch = RequestContinuation.batch(List.of(bulk, entry),
+				new ExecutionState(null, new QueryResult(new ArrayList<>(), new ArrayList<>())));
+		assertEquals(Priority.ALERT, batch.getPriority(), "A batch should go as fast as its most urgent request");
+	}
+
+	@Test
+	public void testDeadlineAndCancellationTravelWithContinuations() throws Exception {
+
+		Instant deadline = Instant.parse("2024-01-01T00:01:00Z");
+		Request request = new Request(new GQuery(new FGather("Smoke"), new ECont()), null);
+		request.setDeadline(deadline);
+		assertFalse(request.isExpired(deadline), "A request is on time until its deadline");
+		assertTrue(request.isExpired(deadline.plusMillis(1)));
+
+		Request cancel = Request.cancelOf(request);
+		assertTrue(cancel.isCancel());
+		assertNull(cancel.getQueryCode(), "A cancellation carries no query");
+		assertEquals(request.requestURI(), cancel.requestURI(), "A cancellation should name its request");
+		assertTrue(cancel.isAsynchronous());
+
+		RequestContinuation forwarded = RequestContinuation.from(cancel,
+				new ExecutionState(null, new QueryResult(new ArrayList<>(), new ArrayList<>())));
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(forwarded);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			RequestContinuation received = (RequestContinuation) in.readObject();
+			assertTrue(received.isCancel(), "The cancellation should survive the wire");
+			assertEquals(deadline, received.getDeadline(), "The deadline should survive the wire");
+		}
+
+		RequestContinuation early = RequestContinuation.from(request,
+				new ExecutionState(null, new QueryResult(new ArrayList<>(), new ArrayList<>())));
+		Request later = new Request(new GQuery(new FGather("Heat"), new ECont()), null);
+		later.setDeadline(deadline.plusSeconds(60));
+		RequestContinuation late = RequestContinuation.from(later,
+				new ExecutionState(null, new QueryResult(new ArrayList<>(), new ArrayList<>())));
+		RequestContinuation batch = RequestContinuation.batch(List.of(early, late),
+				new ExecutionState(null, new QueryResult(new ArrayList<>(), new ArrayList<>())));
+		assertEquals(later.getDeadline(), batch.getDeadline(), "A batch should live as long as its latest request");
+	}
 }
@@ -0,0 +1,66 @@
+package tests.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import app.models.Request;
+import app.models.RequestContinuation;
+import app.models.RequestId;
+import app.models.RequestIdSet;
+
+public class RequestIdTest {
+
+	@Test
+	public void testGeneratedIdRoundTripsThroughUri() {
+
+		Request request = new Request(null, null);
+
+		String uri = request.requestURI();
+
+		assertEquals(request.getRequestId(), RequestId.of(uri), "Parsing the URI should give back the identifier");
+		assertEquals(4, UUID.fromString(uri).version(), "The URI should be a random UUID");
+		assertSame(uri, request.requestURI(), "The URI should be built only once");
+	}
+
+	@Test
+	public void testCustomUriIsKept() {
+
+		Request request = new Request(null, null, "CustomRequestURI");
+
+		assertEquals("CustomRequestURI", request.requestURI(), "A custom URI should be returned as given");
+		assertEquals(RequestId.of("CustomRequestURI"), request.getRequestId(),
+				"The identifier of a custom URI should be stable");
+	}
+
+	@Test
+	public void testContinuationSharesIdentity() {
+
+		Request request = new Request(null, null);
+
+		RequestContinuation continuation = RequestContinuation.from(request, null);
+
+		assertEquals(request.getRequestId(), continuation.getRequestId(), "The identifier should be carried over");
+		assertEquals(request.requestURI(), continuation.requestURI(), "The URI should be carried over");
+	}
+
+	@Test
+	public void testRequestIdSet() {
+
+		RequestIdSet set = new RequestIdSet();
+		RequestId first = RequestId.random();
+
+		assertTrue(set.add(first), "A new identifier should be added");
+		assertFalse(set.add(new RequestId(first.getHigh(), first.getLow())), "An equal identifier should be found");
+		for (int i = 0; i < 1000; i++) {
+			set.add(RequestId.random());
+		}
+
+		assertTrue(set.contains(first), "Identifiers should survive resizing");
+		assertFalse(set.contains(new RequestId(first.getHigh(), first.getLow() + 1)),
+				"A different identifier should not be found");
+		assertEquals(1001, set.size(), "Every distinct identifier should be counted");
+	}
+}
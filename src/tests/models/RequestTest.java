@@ -95,4 +95,20 @@ public class RequestTest {
 
 		assertEquals(newClientInfo, request.clientConnectionInfo(), "The client info should be updated");
 	}
+
+	@Test
+	public void testWithQuery() {
+
+		ConnectionInfoI clientInfo = new TestConnectionInfo("ClientURI1", "ClientInboundURI1");
+		Request request = new Request(new TestQueryI("QueryCode1"), clientInfo);
+		request.setAsynchronous(true);
+		QueryI other = new TestQueryI("QueryCode2");
+
+		Request copy = request.withQuery(other);
+
+		assertEquals(other, copy.getQueryCode(), "The copy should carry the new query");
+		assertEquals(request.getRequestId(), copy.getRequestId(), "The copy should keep the identity");
+		assertEquals(clientInfo, copy.clientConnectionInfo(), "The copy should keep the client");
+		assertTrue(copy.isAsynchronous(), "The copy should keep the mode");
+	}
 }
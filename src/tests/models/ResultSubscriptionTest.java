@@ -0,0 +1,45 @@
+package tests.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import app.models.QueryResult;
+import app.models.ResultSubscription;
+import fr.sorbonne_u.cps.sensor_network.interfaces.QueryResultI;
+
+public class ResultSubscriptionTest {
+
+	private static QueryResult result() {
+		return new QueryResult(new ArrayList<>(), new ArrayList<>());
+	}
+
+	@Test
+	public void testPartialResultsStopOnceComplete() throws Exception {
+		List<QueryResultI> partials = new ArrayList<>();
+		ResultSubscription subscription = new ResultSubscription(partials::add);
+		QueryResult first = result();
+		QueryResult merged = result();
+
+		assertTrue(subscription.accept(first));
+		assertFalse(subscription.getFuture().isDone(), "A partial result should not complete the request");
+		assertTrue(subscription.complete(merged));
+		assertFalse(subscription.accept(result()), "Results arriving late should not be passed on");
+		assertFalse(subscription.complete(result()), "The request should only complete once");
+
+		assertEquals(1, partials.size());
+		assertSame(first, partials.get(0));
+		assertSame(merged, subscription.getFuture().get());
+	}
+
+	@Test
+	public void testListenerIsOptional() {
+		ResultSubscription subscription = new ResultSubscription(null);
+
+		assertFalse(subscription.accept(result()));
+		assertTrue(subscription.complete(result()));
+	}
+}
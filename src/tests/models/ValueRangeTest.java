@@ -0,0 +1,29 @@
+package tests.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import app.models.ValueRange;
+
+public class ValueRangeTest {
+
+	@Test
+	public void testUnion() {
+
+		ValueRange range = ValueRange.of(3.0).union(ValueRange.of(-1.0));
+
+		assertEquals(-1.0, range.getMin());
+		assertEquals(3.0, range.getMax());
+		assertFalse(range.isPoint());
+		assertSame(range, range.union(ValueRange.of(0.5)), "A contained range should not widen the union");
+		assertEquals(ValueRange.UNBOUNDED, range.union(ValueRange.UNBOUNDED));
+	}
+
+	@Test
+	public void testPoint() {
+
+		assertTrue(ValueRange.of(2.0).isPoint());
+		assertEquals(ValueRange.of(2.0), new ValueRange(2.0, 2.0));
+	}
+}
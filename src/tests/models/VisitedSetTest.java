@@ -0,0 +1,62 @@
+package tests.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+import app.models.DeliveryStats;
+import app.models.ExecutionState;
+import app.models.QueryResult;
+import app.models.VisitedSet;
+
+public class VisitedSetTest {
+
+	@Test
+	public void testUnion() {
+		VisitedSet empty = VisitedSet.empty();
+		VisitedSet some = empty.with(Arrays.asList("n3", "n1", "n2", "n1"));
+
+		assertEquals(0, empty.size(), "The empty set should stay empty");
+		assertEquals(3, some.size(), "Duplicates should be counted once");
+		assertTrue(some.contains("n1") && some.contains("n2") && some.contains("n3"));
+		assertFalse(some.contains("n4"));
+
+		VisitedSet more = some.with(Arrays.asList("n2", "n4"));
+		assertEquals(4, more.size());
+		assertTrue(more.contains("n4"));
+		assertFalse(some.contains("n4"), "Sets should be immutable");
+		assertSame(more, more.with(Arrays.asList("n1", "n4")), "Adding known nodes should keep the set");
+	}
+
+	@Test
+	public void testClonesDoNotSeeLaterMarks() throws Exception {
+		ExecutionState es = new ExecutionState(null, new QueryResult(new ArrayList<>(), new ArrayList<>()));
+		es.markVisited(Collections.singletonList("n1"));
+		ExecutionState forwarded = es.clone();
+		es.markVisited(Collections.singletonList("n2"));
+
+		assertTrue(forwarded.getVisited().contains("n1"));
+		assertFalse(forwarded.getVisited().contains("n2"), "A clone should keep the nodes known when it was made");
+	}
+
+	@Test
+	public void testRedundantRatio() {
+		DeliveryStats stats = new DeliveryStats();
+		assertEquals(0.0, stats.redundantRatio(), 1e-9, "No delivery means no redundancy");
+
+		stats.recordDelivery(false);
+		stats.recordDelivery(true);
+		stats.recordDelivery(true);
+		stats.recordDelivery(false);
+		stats.recordSuppressed(3);
+
+		assertEquals(4, stats.getDeliveries());
+		assertEquals(2, stats.getRedundant());
+		assertEquals(3, stats.getSuppressed());
+		assertEquals(0.5, stats.redundantRatio(), 1e-9);
+	}
+}
@@ -0,0 +1,165 @@
+package tests.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+
+import org.junit.jupiter.api.Test;
+
+import app.models.ColumnarQueryResult;
+import app.models.CompactSensorData;
+import app.models.ExecutionState;
+import app.models.Position;
+import app.models.ProcessingNode;
+import app.models.QueryResult;
+import app.models.Request;
+import app.models.RequestContinuation;
+import app.models.SensorData;
+import ast.base.ABase;
+import ast.bexp.AndBExp;
+import ast.bexp.CExpBExp;
+import ast.cexp.GeqCExp;
+import ast.cont.DCont;
+import ast.cont.FCont;
+import ast.dirs.Fdirs;
+import ast.dirs.Rdirs;
+import ast.gather.FGather;
+import ast.gather.Projection;
+import ast.gather.RGather;
+import ast.query.BQuery;
+import ast.query.GQuery;
+import ast.rand.CRand;
+import ast.rand.SRand;
+import fr.sorbonne_u.cps.sensor_network.interfaces.Direction;
+import fr.sorbonne_u.cps.sensor_network.interfaces.SensorDataI;
+
+public class WireFormatTest {
+
+	@SuppressWarnings("unchecked")
+	private static <T> T roundTrip(T o) throws IOException, ClassNotFoundException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(o);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			return (T) in.readObject();
+		}
+	}
+
+	@Test
+	public void testContinuationRoundTrip() throws Exception {
+
+		QueryResult result = new QueryResult(new ArrayList<>(), new ArrayList<>());
+		result.setGather();
+		result.gatheredSensorsValues().add(new SensorData("n1", "Temperature", 21.5, Instant.ofEpochSecond(10, 5)));
+		result.gatheredSensorsValues().add(new CompactSensorData(null, "Smoke", 1.0, true));
+		ExecutionState es = new ExecutionState(null, result);
+		es.setDirectional();
+		es.setDirections(EnumSet.of(Direction.NE, Direction.SW));
+		es.setMaxSauts(3);
+		es.incrementHops();
+		es.setPosition(new Position(1, 2));
+		es.setRouting(true);
+		es.markVisited(Arrays.asList("n1", "n2"));
+		es.setCredit(12345L);
+		Request request = new Request(new GQuery(new RGather("Temperature", new FGather("Smoke")),
+				new DCont(new Rdirs(Direction.NE, new Fdirs(Direction.SW)), 3), Projection.NODE_VALUE), null);
+		RequestContinuation continuation = RequestContinuation.from(request, es);
+		continuation.setAsynchronous(true);
+		continuation.setLeaf();
+
+		RequestContinuation read = roundTrip(continuation);
+
+		assertEquals(request.getRequestId(), read.getRequestId(), "The identifier should be kept");
+		assertTrue(read.isAsynchronous(), "The asynchronous flag should be kept");
+		assertFalse(read.isLeaf(), "The leaf flag should be kept");
+		assertEquals(Projection.NODE_VALUE, ((GQuery) read.getQueryCode()).getProjection(),
+				"The projection should be kept");
+		ExecutionState readState = (ExecutionState) read.getExecutionState();
+		assertNull(readState.getProcessingNode(), "The processing node should not be written");
+		assertTrue(readState.isDirectional(), "The directional flag should be kept");
+		assertFalse(readState.isFlooding(), "The flooding flag should be kept");
+		assertTrue(readState.isRouting(), "The routing flag should be kept");
+		assertTrue(readState.getVisited().contains("n2"), "The visited nodes should be kept");
+		assertEquals(2, readState.getVisited().size());
+		assertEquals(12345L, readState.getCredit(), "The completion credit should be kept");
+		assertEquals(EnumSet.of(Direction.NE, Direction.SW), readState.getDirections(), "Directions should be kept");
+		assertEquals(1, readState.getHops(), "The hop count should be kept");
+		assertEquals(3, readState.getMaxHops(), "The hop limit should be kept");
+		assertNull(readState.getMaxDistance(), "An unset distance should stay unset");
+		assertEquals(new Position(1, 2), readState.getPosition(), "The position should be kept");
+		assertTrue(readState.getCurrentResult().isGatherRequest(), "The result type should be kept");
+		assertEquals(result.gatheredSensorsValues(), readState.getCurrentResult().gatheredSensorsValues(),
+				"Gathered values should be kept");
+		assertEquals(Instant.ofEpochSecond(10, 5),
+				readState.getCurrentResult().gatheredSensorsValues().get(0).getTimestamp(),
+				"Timestamps should be kept");
+	}
+
+	@Test
+	public void testBooleanQueryEvaluatesAfterRoundTrip() throws Exception {
+
+		BQuery query = new BQuery(
+				new AndBExp(new CExpBExp(new GeqCExp(new SRand("Heat"), new CRand(20.0))),
+						new CExpBExp(new GeqCExp(new CRand(5.0), new CRand(1.0)))),
+				new FCont(new ABase(new Position(3, 4)), 7.5));
+
+		BQuery read = roundTrip(query);
+		ExecutionState es = new ExecutionState(null, new QueryResult(new ArrayList<>(), new ArrayList<>()));
+		es.updateProcessingNode(new ProcessingNode("n1", new Position(0, 0), new HashSet<>(),
+				new HashSet<>(Collections.singleton(new SensorData("n1", "Heat", 25.0)))));
+		read.eval(es);
+
+		assertEquals(1, es.getCurrentResult().positiveSensorNodes().size(), "The condition should still hold");
+		assertEquals(7.5, es.getMaxDistance(), "The continuation distance should be kept");
+		assertEquals(new Position(3, 4), es.getPosition(), "The continuation base should be kept");
+	}
+
+	@Test
+	public void testColumnarResultRoundTrip() throws Exception {
+
+		ColumnarQueryResult result = new ColumnarQueryResult();
+		result.setBoolean();
+		result.add(new SensorData("n1", "Temperature", 21.5, Instant.ofEpochSecond(3)));
+		result.add(new SensorData("n2", "Smoke", true, Instant.ofEpochSecond(4)));
+		result.add(new SensorData("n2", "Label", "text", Instant.ofEpochSecond(5)));
+		result.addPositive("n2");
+
+		ColumnarQueryResult read = roundTrip(result);
+		read.add(new SensorData("n3", "Temperature", 1.0));
+
+		assertTrue(read.isBooleanRequest(), "The result type should be kept");
+		assertEquals(result.positiveSensorNodes(), read.positiveSensorNodes(), "Positive nodes should be kept");
+		ArrayList<SensorDataI> values = read.gatheredSensorsValues();
+		assertEquals(4, values.size(), "Rows should be kept and remain appendable");
+		assertTrue(values.containsAll(result.gatheredSensorsValues()), "Every row should be kept");
+	}
+
+	@Test
+	public void testUnknownVersionIsRejected() throws Exception {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(new Position(1, 2));
+		}
+		byte[] data = bytes.toByteArray();
+		data[data.length - 17 - 1] = 99; // version byte, followed by two doubles and the end of block marker
+
+		assertThrows(InvalidClassException.class, () -> {
+			try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(data))) {
+				in.readObject();
+			}
+		}, "A layout version from the future should be rejected");
+	}
+}
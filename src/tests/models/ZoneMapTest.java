@@ -0,0 +1,116 @@
+package tests.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import app.models.CapabilitySummary;
+import app.models.Descriptor;
+import app.models.Position;
+import app.models.SensorData;
+import app.models.ValueRange;
+import app.models.ZoneMap;
+import ast.bexp.CExpBExp;
+import ast.bexp.NotBExp;
+import ast.cexp.GeqCExp;
+import ast.cexp.LCExp;
+import ast.cont.ECont;
+import ast.query.BQuery;
+import ast.rand.CRand;
+import ast.rand.SRand;
+import fr.sorbonne_u.cps.sensor_network.interfaces.Direction;
+import fr.sorbonne_u.cps.sensor_network.interfaces.NodeInfoI;
+import fr.sorbonne_u.cps.sensor_network.interfaces.SensorDataI;
+
+public class ZoneMapTest {
+
+	private static final long TTL = 1000L;
+
+	private static Set<SensorDataI> sensors(String node, double heat) {
+		return new HashSet<>(Arrays.asList(new SensorData(node, "Heat", heat), new SensorData(node, "Smoke", false)));
+	}
+
+	private static Descriptor node(String id, ZoneMap zoneMap) {
+		return new Descriptor(id, null, new Position(0, 0), 10, null, null).withZoneMap(zoneMap);
+	}
+
+	@Test
+	public void testComputeMergesNeighbourRanges() {
+
+		int ne = 1 << Direction.NE.ordinal();
+		int sw = 1 << Direction.SW.ordinal();
+		ZoneMap far = ZoneMap.compute(sensors("n2", 40.0), Collections.emptyMap(), 0L, TTL);
+
+		Map<Direction, NodeInfoI> neighbours = new EnumMap<>(Direction.class);
+		neighbours.put(Direction.NE, node("n2", far));
+		ZoneMap map = ZoneMap.compute(sensors("n1", 10.0), neighbours, 0L, TTL);
+
+		assertEquals(ValueRange.of(10.0), map.subtree(0).get("Heat"), "Entry 0 should cover the node alone");
+		assertFalse(map.subtree(0).containsKey("Smoke"), "Non numeric sensors have no range");
+		assertEquals(new ValueRange(10.0, 40.0), map.subtree(ne).get("Heat"));
+		assertEquals(ValueRange.of(10.0), map.subtree(sw).get("Heat"));
+	}
+
+	@Test
+	public void testStaleOrMissingNeighbourIsUnknown() {
+
+		int se = CapabilitySummary.directionMask(EnumSet.of(Direction.SE));
+		ZoneMap old = ZoneMap.compute(sensors("n2", 40.0), Collections.emptyMap(), 0L, TTL);
+
+		Map<Direction, NodeInfoI> neighbours = new EnumMap<>(Direction.class);
+		neighbours.put(Direction.SE, node("n2", old));
+
+		assertNotNull(ZoneMap.compute(sensors("n1", 10.0), neighbours, TTL, TTL).subtree(se));
+		assertNull(ZoneMap.compute(sensors("n1", 10.0), neighbours, TTL + 1, TTL).subtree(se),
+				"An expired zone map should not be trusted");
+
+		neighbours.put(Direction.SE, new Descriptor("n3", null, new Position(0, 0), 10, null));
+		assertNull(ZoneMap.compute(sensors("n1", 10.0), neighbours, 0L, TTL).subtree(se));
+		assertSame(ZoneMap.unknown(), ZoneMap.of(neighbours.get(Direction.SE), 0L, TTL));
+	}
+
+	@Test
+	public void testThresholdQueriesUseRanges() {
+
+		Map<String, ValueRange> ranges = Collections.singletonMap("Heat", new ValueRange(10.0, 40.0));
+		BQuery above = new BQuery(new CExpBExp(new GeqCExp(new SRand("Heat"), new CRand(50.0))), new ECont());
+		BQuery below = new BQuery(new CExpBExp(new LCExp(new SRand("Heat"), new CRand(20.0))), new ECont());
+		BQuery notAbove = new BQuery(new NotBExp(new CExpBExp(new LCExp(new SRand("Heat"), new CRand(50.0)))),
+				new ECont());
+
+		assertFalse(above.mayMatch(ranges), "No value reaches the threshold");
+		assertTrue(below.mayMatch(ranges));
+		assertFalse(notAbove.mayMatch(ranges), "Every value is below the threshold");
+		assertTrue(above.mayMatch(Collections.emptyMap()), "Unknown sensors should never be excluded");
+	}
+
+	@Test
+	public void testZoneMapTravelsWithDescriptor() throws Exception {
+
+		Descriptor descriptor = node("n1", ZoneMap.compute(sensors("n1", 10.0), Collections.emptyMap(), 5L, TTL));
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(descriptor);
+		}
+		Descriptor copy;
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			copy = (Descriptor) in.readObject();
+		}
+
+		assertTrue(descriptor.getZoneMap().sameRanges(copy.getZoneMap()));
+		assertEquals(5L, copy.getZoneMap().getTimestamp());
+	}
+}
@@ -61,6 +61,7 @@ public class Sensor extends AbstractComponent {
 		SensorPlugin plugin = (SensorPlugin) this.getPlugin(Sensor_PLUGIN_URI);
 		ClocksServerOutboundPort outBoundPortClock = plugin.getRegisterReference();
 		AcceleratedClock ac = outBoundPortClock.getClock(TEST_CLOCK_URI);
+		plugin.setClock(ac);
 		ac.waitUntilStart();
 		Instant i0 = ac.getStartInstant();
 		Instant i1 = i0.plusSeconds(60);
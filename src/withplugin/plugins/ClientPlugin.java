@@ -4,6 +4,9 @@ import fr.sorbonne_u.components.AbstractPlugin;
 import fr.sorbonne_u.components.ComponentI;
 import fr.sorbonne_u.cps.sensor_network.interfaces.BCM4JavaEndPointDescriptorI;
 import fr.sorbonne_u.cps.sensor_network.interfaces.ConnectionInfoI;
+import fr.sorbonne_u.cps.sensor_network.interfaces.GeographicalZoneI;
+import fr.sorbonne_u.cps.sensor_network.interfaces.NodeInfoI;
+import fr.sorbonne_u.cps.sensor_network.interfaces.PositionI;
 import fr.sorbonne_u.cps.sensor_network.interfaces.QueryResultI;
 import fr.sorbonne_u.cps.sensor_network.interfaces.RequestI;
 import fr.sorbonne_u.cps.sensor_network.interfaces.RequestResultCI;
@@ -19,19 +22,42 @@ import withplugin.ports.URIClientInboundPortForNodeForPlugin;
 
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import app.connectors.ConnectorClientToSensor;
 import app.connectors.ConnectorRegistreClient;
 import app.models.Bcm4javaEndPointDescriptor;
+import app.config.Config;
+import app.models.CircularZone;
 import app.models.ClientConfig;
 import app.models.ConnectionInfo;
+import app.models.Priority;
 import app.models.Request;
+import app.models.ClientResultStore;
+import app.models.CompletionReport;
+import app.models.CompletionTracker;
+import app.models.LatencyEstimator;
+import app.models.QueryPlan;
+import app.models.QueryPlanner;
+import app.models.QueryResult;
+import app.models.RequestId;
+import app.models.ResultSubscription;
+import ast.query.BQuery;
+import ast.query.IQuery;
+import app.factory.QueryResultFactory;
 import app.models.TimingInfo;
 import app.ports.URIClientOutBoundPortToNode;
 import app.ports.URIClientOutBoundPortToRegister;
@@ -68,10 +94,28 @@ public class ClientPlugin extends AbstractPlugin {
 //	private PrintWriter logWriter;
 	private ClocksServerOutboundPort outBoundPortClock;
 	private String requestNodeName;
-	private ConcurrentHashMap<String, List<QueryResultI>> resultsMap = new ConcurrentHashMap<>();
+	private final ClientResultStore results = new ClientResultStore(Config.CLIENT_RESULT_BUDGET,
+			Config.CLIENT_RESULT_RETENTION, Config.CLIENT_SPILL_SIZE);
+	private final CompletionTracker completions = new CompletionTracker();
+	private final Map<RequestId, ResultSubscription> subscriptions = new ConcurrentHashMap<>();
+	private final Map<String, URIClientOutBoundPortToNode> fanOutPorts = new HashMap<>(); // direct ports by node
+	private int fanOutExecutorIndex;
+	private ConnectionInfoI entryNode; // node the requests are sent to
+	private final QueryPlanner planner = new QueryPlanner(Config.FAN_OUT_THREADS, Config.PLANNER_MESSAGE_COST);
+	private final LatencyEstimator linkLatency = new LatencyEstimator(Config.PLANNER_LINK_LATENCY,
+			Config.PLANNER_LATENCY_WEIGHT);
+	private final Map<RequestId, QueryPlan> plans = new LinkedHashMap<RequestId, QueryPlan>() { // guarded by itself
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<RequestId, QueryPlan> eldest) {
+			return size() > Config.PLAN_LOG_SIZE;
+		}
+	};
+	public static final String POOL_URI_FAN_OUT = "pool-uri-fan-out";
 	private ConnectionInfoI ClientInfo;
 	private ClientConfig configClient;
-	private ConcurrentHashMap<String, TimingInfo> timingMap = new ConcurrentHashMap<>();
+	private ConcurrentHashMap<RequestId, TimingInfo> timingMap = new ConcurrentHashMap<>();
 
 	// -------------------------------------------------------------------------
 	// Life cycle
@@ -134,6 +178,7 @@ public class ClientPlugin extends AbstractPlugin {
 		this.uriOutPortNode.publishPort();
 
 		this.inBoundPortRegister = configClient.getInboundPortRegister();
+		this.fanOutExecutorIndex = this.createNewExecutorService(POOL_URI_FAN_OUT, Config.FAN_OUT_THREADS, false);
 
 		this.inboundPortClient = new URIClientInboundPortForNodeForPlugin(this.getOwner(), this.getPluginURI());
 		this.inboundPortClient.publishPort();
@@ -196,6 +241,7 @@ public class ClientPlugin extends AbstractPlugin {
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
+		unpublishFanOutPorts();
 		
 		this.removeOfferedInterface(RequestResultCI.class);
 		this.removeRequiredInterface(RequestingCI.class);
@@ -207,6 +253,8 @@ public class ClientPlugin extends AbstractPlugin {
 	@Override
 	public synchronized void finalise() throws Exception {
 		this.logMessage("stopping client component.");
+		this.logMessage("results: " + this.results);
+		this.results.close();
 		this.getOwner().printExecutionLogOnFile("client");
 		if (this.uriOutPortRegister.connected()) {
 			this.getOwner().doPortDisconnection(this.uriOutPortRegister.getPortURI());
@@ -217,6 +265,13 @@ public class ClientPlugin extends AbstractPlugin {
 		if (this.outBoundPortClock.connected()) {
 			this.getOwner().doPortDisconnection(this.outBoundPortClock.getPortURI());
 		}
+		synchronized (this.fanOutPorts) {
+			for (URIClientOutBoundPortToNode port : this.fanOutPorts.values()) {
+				if (port.connected()) {
+					this.getOwner().doPortDisconnection(port.getPortURI());
+				}
+			}
+		}
 
 		super.finalise();
 	}
@@ -235,21 +290,93 @@ public class ClientPlugin extends AbstractPlugin {
 		return this.outBoundPortClock;
 	}
 
+	/**
+	 * Executes a synchronous request from a task of this component.
+	 *
+	 * @param request The request to execute.
+	 * @param timeout The time to wait for the result.
+	 * @param unit    The unit of the timeout.
+	 * @return the future of the result, completed exceptionally with a
+	 *         {@link java.util.concurrent.TimeoutException} once the timeout has
+	 *         passed.
+	 */
+	public CompletableFuture<QueryResultI> submit(RequestI request, long timeout, TimeUnit unit) {
+		CompletableFuture<QueryResultI> future = new CompletableFuture<>();
+		this.getOwner().runTask(o -> {
+			try {
+				future.complete(executeRequest(request));
+			} catch (Exception e) {
+				future.completeExceptionally(e);
+			}
+		});
+		return future.orTimeout(timeout, unit);
+	}
+
+	/**
+	 * Executes an asynchronous request from a task of this component. The results
+	 * sent back by the nodes are passed to the listener as they arrive; the
+	 * returned future completes with their merge as soon as every branch of the
+	 * request has answered, or with the merge of those received so far once the
+	 * timeout has passed. The deadline of the request, if any, is left as given.
+	 *
+	 * @param request  The request to execute.
+	 * @param listener The listener of the partial results, or null.
+	 * @param timeout  The time to wait for every branch.
+	 * @param unit     The unit of the timeout.
+	 * @return the future of the merged result.
+	 */
+	public CompletableFuture<QueryResultI> submitAsync(RequestI request, Consumer<QueryResultI> listener,
+			long timeout, TimeUnit unit) {
+		if (!(request instanceof Request)) {
+			throw new IllegalArgumentException("Expected clientRequest to be an instance of Request");
+		}
+		Request r = (Request) request;
+		r.setClient(ClientInfo);
+		ResultSubscription subscription = new ResultSubscription(listener);
+		this.subscriptions.put(r.getRequestId(), subscription);
+		this.getOwner().runTask(o -> {
+			try {
+				executeRequestAsync(r);
+				this.getOwner().scheduleTask(ob -> {
+					try {
+						expire(r);
+					} catch (Exception e) {
+						logError(e.getMessage(), e);
+					} finally {
+						timingMap.remove(r.getRequestId());
+					}
+				}, timeout, unit);
+			} catch (Exception e) {
+				this.completions.close(r.getRequestId());
+				this.results.take(r.getRequestId());
+				this.timingMap.remove(r.getRequestId());
+				this.subscriptions.remove(r.getRequestId());
+				subscription.getFuture().completeExceptionally(e);
+			}
+		});
+		return subscription.getFuture();
+	}
+
 	/**
 	 * Executes a single request to a sensor node, processing the response and
 	 * logging the result.
 	 *
 	 * @param clientRequest the request to execute.
+	 * @return the result of the request.
 	 * @throws Exception if there is an error in executing the request or processing
 	 *                   the response.
 	 */
-	private void executeRequest(RequestI clientRequest) throws Exception {
+	private QueryResultI executeRequest(RequestI clientRequest) throws Exception {
 
 		if (clientRequest instanceof Request) {
 			Request request = (Request) clientRequest;
 			request.setAsynchronous(false);
-			QueryResultI queryResult = uriOutPortNode.execute(request);
+			classify(request);
+			Set<ConnectionInfoI> targets = fanOutTargets(request);
+			QueryResultI queryResult = targets != null ? executeFanOut(request, targets)
+					: uriOutPortNode.execute(request);
 			printQueryResult(queryResult);
+			return queryResult;
 		} else {
 			throw new IllegalArgumentException("Expected clientRequest to be an instance of Request");
 		}
@@ -271,14 +398,218 @@ public class ClientPlugin extends AbstractPlugin {
 		if (clientRequest instanceof Request) {
 			Request request = (Request) clientRequest;
 			request.setAsynchronous(true);
+			classify(request);
 			// Record start time
-			 timingMap.put(request.requestURI(), new TimingInfo());
-			uriOutPortNode.executeAsync(request);
+			 timingMap.put(request.getRequestId(), new TimingInfo());
+			Set<ConnectionInfoI> targets = fanOutTargets(request);
+			// a zone without nodes counts as one entry node, which completes at once
+			this.completions.open(request.getRequestId(), targets == null ? 1 : Math.max(1, targets.size()));
+			this.results.open(request.getRequestId(), System.currentTimeMillis());
+			if (targets != null) {
+				executeFanOutAsync(request, targets);
+			} else {
+				try {
+					uriOutPortNode.executeAsync(request);
+				} catch (RejectedExecutionException e) {
+					this.logMessage("Request " + request.requestURI() + " rejected by an overloaded node");
+					complete(request.getRequestId(), CompletionTracker.FULL_CREDIT);
+				}
+			}
 		} else {
 			throw new IllegalArgumentException("Expected clientRequest to be an instance of Request");
 		}
 	}
 
+	/**
+	 * Sends boolean queries, which detect events, as alerts unless another
+	 * priority was given to the request.
+	 *
+	 * @param request The request to classify.
+	 */
+	private static void classify(Request request) {
+		if (Config.BOOLEAN_QUERIES_AS_ALERTS && request.getPriority() == Priority.NORMAL
+				&& request.getQueryCode() instanceof BQuery) {
+			request.setPriority(Priority.ALERT);
+		}
+	}
+
+	/**
+	 * Cancels an asynchronous request whose results are no longer awaited, so
+	 * that the nodes still working on it drop it. The cancellation is sent to the
+	 * entry node and follows the request from there; requests sent directly to
+	 * the nodes of their area are not forwarded, so it stops at once for them.
+	 *
+	 * @param request The request to cancel.
+	 * @throws Exception if the cancellation cannot be sent.
+	 */
+	private void cancel(Request request) throws Exception {
+		try {
+			uriOutPortNode.executeAsync(Request.cancelOf(request));
+		} catch (RejectedExecutionException e) {
+			this.logMessage("Cancellation of " + request.requestURI() + " rejected by an overloaded node");
+		}
+	}
+
+	/**
+	 * Returns the nodes a request is sent to directly, or null to send it through
+	 * the entry node. Only flooding queries whose base is absolute can be sent
+	 * directly; they are when direct fan-out is forced, or when the planner finds
+	 * it cheaper than going through the entry node.
+	 *
+	 * @param request The request to execute.
+	 * @return the nodes of the zone of the request, or null.
+	 * @throws Exception if the register cannot be queried.
+	 */
+	private Set<ConnectionInfoI> fanOutTargets(Request request) throws Exception {
+		if (!(Config.DIRECT_FAN_OUT || Config.COST_BASED_PLANNING) || !(request.getQueryCode() instanceof IQuery)) {
+			return null;
+		}
+		GeographicalZoneI zone = ((IQuery) request.getQueryCode()).getZone();
+		if (zone == null) {
+			return null;
+		}
+		long start = System.nanoTime();
+		Set<ConnectionInfoI> targets = this.uriOutPortRegister.findByZone(zone);
+		this.linkLatency.record((System.nanoTime() - start) / 1e6);
+		if (Config.DIRECT_FAN_OUT || !(zone instanceof CircularZone)) {
+			return Config.DIRECT_FAN_OUT ? targets : null;
+		}
+		QueryPlan plan = this.planner.plan((CircularZone) zone, targets.size(), entryPosition(),
+				this.linkLatency.estimate());
+		synchronized (this.plans) {
+			this.plans.put(request.getRequestId(), plan);
+		}
+		logMessage("plan of " + request.requestURI() + ": " + plan);
+		return plan.getStrategy() == QueryPlan.Strategy.DIRECT_FAN_OUT ? targets : null;
+	}
+
+	/**
+	 * Returns the position of the entry node, when the register provided it.
+	 *
+	 * @return the position of the entry node, or null if unknown.
+	 */
+	private PositionI entryPosition() {
+		ConnectionInfoI node = this.entryNode;
+		return node instanceof NodeInfoI ? ((NodeInfoI) node).nodePosition() : null;
+	}
+
+	/**
+	 * Returns the plan chosen for a request, among the most recent ones.
+	 *
+	 * @param requestId The identifier of the request.
+	 * @return the plan of the request, or null if it was not planned.
+	 */
+	public QueryPlan getPlan(RequestId requestId) {
+		synchronized (this.plans) {
+			return this.plans.get(requestId);
+		}
+	}
+
+	/**
+	 * Executes a request by sending its query, without continuation, to every
+	 * node of its zone in parallel over direct connections, instead of flooding
+	 * it from the entry node. The nodes are resolved by the register and the
+	 * results are merged as they come back.
+	 *
+	 * @param request The request to execute.
+	 * @param targets The nodes of the zone of the request.
+	 * @return the merged result of the nodes of the zone.
+	 * @throws Exception if the wait is interrupted.
+	 */
+	private QueryResultI executeFanOut(Request request, Set<ConnectionInfoI> targets) throws Exception {
+		Request local = request.withQuery(((IQuery) request.getQueryCode()).withoutContinuation());
+		BlockingQueue<Optional<QueryResultI>> received = new LinkedBlockingQueue<>();
+		for (ConnectionInfoI target : targets) {
+			this.getOwner().runTask(this.fanOutExecutorIndex, o -> {
+				QueryResultI result = null;
+				try {
+					URIClientOutBoundPortToNode port = fanOutPort(target);
+					long start = System.nanoTime();
+					result = port.execute(local);
+					this.linkLatency.record((System.nanoTime() - start) / 1e6);
+				} catch (Exception e) {
+					logError("Fan-out to " + target.nodeIdentifier() + " failed", e);
+				}
+				received.add(Optional.ofNullable(result));
+			});
+		}
+		List<QueryResultI> results = new ArrayList<>();
+		for (int i = 0; i < targets.size(); i++) {
+			received.take().ifPresent(results::add);
+		}
+		return results.isEmpty() ? QueryResultFactory.createEmpty() : mergeResults(results);
+	}
+
+	/**
+	 * Executes an asynchronous request by sending its query, without
+	 * continuation, to every node of its zone in parallel over direct
+	 * connections. Each node sends its result back to this client. The credit of
+	 * a node the query could not be sent to is returned at once, and a request
+	 * whose zone holds no node is complete as soon as it is sent.
+	 *
+	 * @param request The request to execute.
+	 * @param targets The nodes of the zone of the request.
+	 * @throws Exception if a task cannot be submitted.
+	 */
+	private void executeFanOutAsync(Request request, Set<ConnectionInfoI> targets) throws Exception {
+		if (targets.isEmpty()) {
+			this.logMessage("No node in the zone of " + request.requestURI());
+			complete(request.getRequestId(), CompletionTracker.FULL_CREDIT);
+			return;
+		}
+		Request local = request.withQuery(((IQuery) request.getQueryCode()).withoutContinuation());
+		for (ConnectionInfoI target : targets) {
+			this.getOwner().runTask(this.fanOutExecutorIndex, o -> {
+				try {
+					fanOutPort(target).executeAsync(local);
+				} catch (RejectedExecutionException e) {
+					this.logMessage("Fan-out to " + target.nodeIdentifier() + " rejected, node overloaded");
+					complete(request.getRequestId(), CompletionTracker.FULL_CREDIT);
+				} catch (Exception e) {
+					logError("Fan-out to " + target.nodeIdentifier() + " failed", e);
+					complete(request.getRequestId(), CompletionTracker.FULL_CREDIT);
+				}
+			});
+		}
+	}
+
+	/**
+	 * Returns the direct port to a node, creating and connecting it on first use.
+	 *
+	 * @param target The connection information of the node.
+	 * @return the outbound port connected to the node.
+	 * @throws Exception if the port cannot be created or connected.
+	 */
+	private URIClientOutBoundPortToNode fanOutPort(ConnectionInfoI target) throws Exception {
+		synchronized (this.fanOutPorts) {
+			URIClientOutBoundPortToNode port = this.fanOutPorts.get(target.nodeIdentifier());
+			if (port == null) {
+				port = new URIClientOutBoundPortToNode(this.getOwner());
+				port.publishPort();
+				this.getOwner().doPortConnection(port.getPortURI(),
+						((BCM4JavaEndPointDescriptorI) target.endPointInfo()).getInboundPortURI(),
+						ConnectorClientToSensor.class.getCanonicalName());
+				this.fanOutPorts.put(target.nodeIdentifier(), port);
+			}
+			return port;
+		}
+	}
+
+	/**
+	 * Unpublishes the direct ports opened by fan-out requests.
+	 */
+	private void unpublishFanOutPorts() {
+		synchronized (this.fanOutPorts) {
+			for (URIClientOutBoundPortToNode port : this.fanOutPorts.values()) {
+				try {
+					port.unpublishPort();
+				} catch (Exception e) {
+					e.printStackTrace();
+				}
+			}
+		}
+	}
+
 	/**
 	 * Logs the result of a query to the console. This method checks the type of
 	 * query result and formats the output accordingly, displaying either the
@@ -343,6 +674,7 @@ public class ClientPlugin extends AbstractPlugin {
 			BCM4JavaEndPointDescriptorI endPointDescriptor = (BCM4JavaEndPointDescriptorI) node.endPointInfo();
 			String inboundPortSensor = endPointDescriptor.getInboundPortURI();
 			logMessage("Found node: " + node.nodeIdentifier());
+			this.entryNode = node;
 
 			this.getOwner().doPortConnection(this.uriOutPortNode.getPortURI(),inboundPortSensor,
 					ConnectorClientToSensor.class.getCanonicalName());
@@ -392,21 +724,24 @@ public class ClientPlugin extends AbstractPlugin {
 					Request request = (Request) requests.get(taskIndex);
 					if (isAsynchronous) {
 						request.setClient(ClientInfo);
-						
-						executeRequestAsync(request);
 						Instant i2 = start.plusSeconds(120);
+						if (Config.REQUEST_DEADLINES) {
+							request.setDeadline(i2);
+						}
+						executeRequestAsync(request);
 						long delay2 = ac.nanoDelayUntilInstant(i2);
 						this.getOwner().scheduleTask(ob -> {
 							try {
-								this.mergeAndPrint(request.requestURI());
+								this.expire(request);
 								
 //								For the performance test
 								
-//								TimingInfo timingInfo = timingMap.get(request.requestURI());
+//								TimingInfo timingInfo = timingMap.get(request.getRequestId());
 //					            long duration = timingInfo.getEndTime() - timingInfo.getStartTime();
 //					            logWriter.println(duration);
 //						        logMessage("Request " + request.requestURI() + " latest time updated to " + (timingInfo.getEndTime() - timingInfo.getStartTime()) + "ms" );
 								
+								timingMap.remove(request.getRequestId());
 							} catch (Exception e) {
 								e.printStackTrace();
 							}
@@ -422,63 +757,135 @@ public class ClientPlugin extends AbstractPlugin {
 	}
 
 	/**
-	 * Accepts and stores a query result associated with a specific request URI. The
-	 * method is thread-safe and updates the result map atomically, ensuring that
-	 * multiple threads can safely operate on it. If no list exists for the given
-	 * URI, a new list is created.
+	 * Accepts and stores a query result associated with a specific request URI in
+	 * the result store, keyed by the compact identifier parsed from the URI. The
+	 * results of requests which are no longer awaited are ignored. The completion
+	 * credit of a {@link CompletionReport} is recorded, and the results are merged
+	 * once every branch has answered.
 	 *
 	 * @param requestURI The URI of the request to which the result belongs.
 	 * @param result     The query result to store.
 	 */
 	public void acceptRequestResult(String requestURI, QueryResultI result) {
-		// The compute methods are thread-safe and atomic
-		resultsMap.compute(requestURI, (k, v) -> {
-			if (v == null) {
-				v = new ArrayList<>();
+		RequestId requestId = RequestId.of(requestURI);
+		QueryResultI received = result instanceof CompletionReport ? ((CompletionReport) result).getResult() : result;
+		if (received != null && this.results.add(requestId, received)) {
+			ResultSubscription subscription = this.subscriptions.get(requestId);
+			if (subscription != null) {
+				try {
+					// a copy, since the results received are merged in place
+					subscription.accept(QueryResultFactory.copyOf(received));
+				} catch (RuntimeException e) {
+					logError("Listener of " + requestURI + " failed", e);
+				}
 			}
-			v.add(result);
-			return v;
-		});
+		}
+		if (result instanceof CompletionReport) {
+			complete(requestId, ((CompletionReport) result).getCredit());
+		}
 		
 		// Update end time each time this method is called
-	    TimingInfo timingInfo = timingMap.get(requestURI);
+	    TimingInfo timingInfo = timingMap.get(requestId);
 	    if (timingInfo != null) {
 	        timingInfo.setEndTime();  // Always update to the latest call time
 	    }
 	}
 
+	/**
+	 * Merges the results of an asynchronous request whose time is up and cancels
+	 * it, unless every branch of the request answered in time and its results
+	 * were merged already.
+	 *
+	 * @param request The request.
+	 * @throws Exception if the results cannot be merged or the cancellation sent.
+	 */
+	private void expire(Request request) throws Exception {
+		if (this.completions.close(request.getRequestId())) {
+			this.mergeAndPrint(request.getRequestId());
+			if (Config.CANCEL_ON_MERGE) {
+				this.cancel(request);
+			}
+		}
+	}
+
+	/**
+	 * Records the completion credit returned for an asynchronous request, and
+	 * merges its results as soon as every branch has answered.
+	 *
+	 * @param requestId The identifier of the request.
+	 * @param credit    The credit returned.
+	 */
+	private void complete(RequestId requestId, long credit) {
+		if (this.completions.credit(requestId, credit)) {
+			this.getOwner().runTask(o -> {
+				try {
+					this.logMessage("Every branch of " + requestId + " answered");
+					this.mergeAndPrint(requestId);
+				} catch (Exception e) {
+					logError(e.getMessage(), e);
+				}
+			});
+		}
+	}
+
 	/**
 	 * Merges all query results associated with a given request URI and prints the
 	 * merged result. This method first retrieves the list of results for the URI
 	 * and then combines them based on the type of query (gather or boolean). If the
 	 * list is empty, it logs that no results were found. Otherwise, it merges the
-	 * results and prints the final aggregated result.
+	 * results and prints the final aggregated result. A request submitted through
+	 * {@link #submitAsync} gets its future completed with the merged result, which
+	 * is marked incomplete when results were dropped to stay within the memory
+	 * budget of the client.
 	 *
-	 * @param requestURI The URI of the request whose results are to be merged and
-	 *                   printed.
+	 * @param requestId The identifier of the request whose results are to be merged
+	 *                  and printed.
 	 * @throws Exception if an error occurs during result processing or printing.
 	 */
-	public void mergeAndPrint(String requestURI) throws Exception {
-		// The compute methods are thread-safe and atomic
-		List<QueryResultI> resultsList = resultsMap.computeIfAbsent(requestURI, k -> {
+	public void mergeAndPrint(RequestId requestId) throws Exception {
+		ClientResultStore.Taken taken = this.results.take(requestId);
+		List<QueryResultI> resultsList;
+		if (taken == null) {
 			this.logMessage("No results to process found");
-			return new ArrayList<>();
-		});
+			resultsList = new ArrayList<>();
+		} else {
+			resultsList = taken.getResults();
+		}
 
+		QueryResult merged = resultsList.isEmpty() ? QueryResultFactory.createEmpty() : mergeResults(resultsList);
+		if (taken != null && taken.getDropped() > 0) {
+			merged.setIncomplete();
+			this.logMessage("Result of " + requestId + " is incomplete: " + taken.getDropped()
+					+ " results were dropped");
+		}
 		if (!resultsList.isEmpty()) {
-			QueryResultI mergedResults = resultsList.get(0);
-			;
-			for (int i = 1; i < resultsList.size(); i++) {
-				QueryResultI result = resultsList.get(i);
-				if (result.isGatherRequest()) {
-					updateGatheredSensors(mergedResults, result);
-				} else if (result.isBooleanRequest()) {
-					updatePositiveSensorNodes(mergedResults, result);
-				}
-			}
+			this.printQueryResult(merged);
+		}
+		ResultSubscription subscription = this.subscriptions.remove(requestId);
+		if (subscription != null) {
+			subscription.complete(merged);
+		}
+	}
 
-			this.printQueryResult(mergedResults);
+	/**
+	 * Merges the results received for a request into a list-based copy of the
+	 * first one, based on the type of query (gather or boolean). The copy is
+	 * changed in place, which the read-only lists of columnar results refuse.
+	 *
+	 * @param resultsList The results to merge, not empty.
+	 * @return the merged result.
+	 */
+	private QueryResult mergeResults(List<QueryResultI> resultsList) {
+		QueryResult mergedResults = QueryResultFactory.listCopyOf(resultsList.get(0));
+		for (int i = 1; i < resultsList.size(); i++) {
+			QueryResultI result = resultsList.get(i);
+			if (result.isGatherRequest()) {
+				updateGatheredSensors(mergedResults, result);
+			} else if (result.isBooleanRequest()) {
+				updatePositiveSensorNodes(mergedResults, result);
+			}
 		}
+		return mergedResults;
 	}
 
 	/**
@@ -495,7 +902,10 @@ public class ClientPlugin extends AbstractPlugin {
 	    List<SensorDataI> sensors = new ArrayList<>(newResult.gatheredSensorsValues());
 	    synchronized (existingResult) {
 	        for (SensorDataI sensorData : sensors) {
-	            if (!existingResult.gatheredSensorsValues().contains(sensorData)) {
+	            // records without node may be equal readings of different nodes; each
+	            // reading is reported once, since one branch only carries it
+	            if (sensorData.getNodeIdentifier() == null
+	                    || !existingResult.gatheredSensorsValues().contains(sensorData)) {
 	                existingResult.gatheredSensorsValues().add(sensorData);
 	            }
 	        }
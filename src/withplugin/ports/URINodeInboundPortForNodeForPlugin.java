@@ -1,5 +1,11 @@
 package withplugin.ports;
 
+import java.util.concurrent.RejectedExecutionException;
+
+import app.config.Config;
+import app.models.AdmissionControl;
+import app.models.OverloadPolicy;
+import app.models.Priority;
 import fr.sorbonne_u.components.AbstractComponent;
 import fr.sorbonne_u.components.ComponentI;
 import fr.sorbonne_u.components.ports.AbstractInboundPort;
@@ -11,6 +17,8 @@ import withplugin.plugins.SensorPlugin;
 
 public class URINodeInboundPortForNodeForPlugin extends AbstractInboundPort implements SensorNodeP2PCI {
 	private static final long serialVersionUID = 1L;
+	private final AdmissionControl<RequestContinuationI> pending = new AdmissionControl<>(Config.PRIORITY_AGING_STEP,
+			Config.PENDING_CAPACITY, Config.OVERLOAD_POLICY);
 
 	public URINodeInboundPortForNodeForPlugin(String uri, ComponentI owner, String pluginURI, String executorServiceURI)
 			throws Exception {
@@ -59,17 +67,58 @@ public class URINodeInboundPortForNodeForPlugin extends AbstractInboundPort impl
 
 	@Override
 	public void executeAsync(RequestContinuationI requestContinuation) throws Exception {
-		this.owner.runTask(this.getExecutorServiceIndex(), new AbstractComponent.AbstractTask(this.getPluginURI()) {
-			@Override
-			public void run() {
-				try {
-					((SensorPlugin) this.getTaskProviderReference()).executeAsync(requestContinuation);
-				} catch (Exception e) {
-					e.printStackTrace();
-					;
-				}
+		RequestContinuationI shed = this.pending.admit(
+				Config.PRIORITY_SCHEDULING ? Priority.of(requestContinuation) : Priority.NORMAL,
+				AdmissionControl.clientOf(requestContinuation), requestContinuation);
+		if (shed == requestContinuation) {
+			if (this.pending.getPolicy() != OverloadPolicy.LOCAL_ONLY) {
+				throw new RejectedExecutionException(
+						"Node overloaded, request " + requestContinuation.requestURI() + " rejected");
 			}
-		});
+			this.owner.runTask(this.getExecutorServiceIndex(), new AbstractComponent.AbstractTask(this.getPluginURI()) {
+				@Override
+				public void run() {
+					try {
+						((SensorPlugin) this.getTaskProviderReference()).executeLocally(requestContinuation);
+					} catch (Exception e) {
+						e.printStackTrace();
+					}
+				}
+			});
+		} else if (shed != null) {
+			// the task submitted with the dropped request serves this one
+			this.owner.runTask(this.getExecutorServiceIndex(), new AbstractComponent.AbstractTask(this.getPluginURI()) {
+				@Override
+				public void run() {
+					try {
+						((SensorPlugin) this.getTaskProviderReference()).shed(shed);
+					} catch (Exception e) {
+						e.printStackTrace();
+					}
+				}
+			});
+		} else {
+			this.owner.runTask(this.getExecutorServiceIndex(), new AbstractComponent.AbstractTask(this.getPluginURI()) {
+				@Override
+				public void run() {
+					try {
+						((SensorPlugin) this.getTaskProviderReference()).executeAsync(pending.poll());
+					} catch (Exception e) {
+						e.printStackTrace();
+					}
+				}
+			});
+		}
 	}
 
+	/**
+	 * Returns the bounded queue of the asynchronous requests received on this
+	 * port and not started yet. Each task of the pool serves its most urgent
+	 * request rather than the one submitted with it.
+	 *
+	 * @return the queue of pending requests.
+	 */
+	public AdmissionControl<RequestContinuationI> getPending() {
+		return this.pending;
+	}
 }